@@ -0,0 +1,92 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.api.profiler;
+
+import org.spongepowered.api.service.ServiceManager;
+
+/**
+ * Represents the rolling tick statistics of the server, the
+ * statistics cover the last {@link #getWindowSize()} ticks.
+ * <p>
+ * The statistics can be retrieved through the {@link ServiceManager}.
+ */
+public interface TickStatistics {
+
+    /**
+     * Gets the maximum amount of ticks that are covered
+     * by the statistics.
+     *
+     * @return The window size
+     */
+    int getWindowSize();
+
+    /**
+     * Gets the amount of ticks that are currently covered by
+     * the statistics, at most {@link #getWindowSize()}.
+     *
+     * @return The sample count
+     */
+    int getSampleCount();
+
+    /**
+     * Gets the average ticks per second.
+     *
+     * @return The ticks per second
+     */
+    double getTicksPerSecond();
+
+    /**
+     * Gets the average time a tick took, in milliseconds. (MSPT)
+     *
+     * @return The average tick time
+     */
+    double getAverageTickTime();
+
+    /**
+     * Gets the maximum time a tick took, in milliseconds.
+     *
+     * @return The maximum tick time
+     */
+    double getMaxTickTime();
+
+    /**
+     * Gets the upper bounds (exclusive) of the histogram
+     * buckets, in milliseconds.
+     *
+     * @return The histogram bounds
+     */
+    double[] getTickTimeHistogramBounds();
+
+    /**
+     * Gets the histogram of the tick times. The bucket at index {@code i} contains
+     * the amount of ticks that took less than the bound at index {@code i} of
+     * {@link #getTickTimeHistogramBounds()}, the last bucket contains all the ticks
+     * that took longer than the last bound.
+     *
+     * @return The histogram
+     */
+    long[] getTickTimeHistogram();
+}
@@ -34,6 +34,7 @@
 import org.lanternpowered.launch.dependencies.Repository;
 import org.lanternpowered.launch.transformer.ClassTransformer;
 import org.lanternpowered.launch.transformer.Exclusion;
+import org.lanternpowered.launch.transformer.TransformedClassCache;
 import org.lanternpowered.server.LanternServer;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -42,6 +43,8 @@
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -61,6 +64,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -71,7 +75,9 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.zip.GZIPInputStream;
@@ -91,6 +97,9 @@
 public final class LanternClassLoader extends URLClassLoader {
 
     private static final String ENVIRONMENT = "lantern.environment";
+    private static final String TRANSFORMED_CLASS_CACHE = "lantern.transformer.cache";
+
+    private static final Path TRANSFORMED_CLASS_CACHE_FILE = Paths.get(".cached-dependencies", "transformed-classes.bin");
 
     private static final LanternClassLoader classLoader;
 
@@ -402,6 +411,23 @@ public static LanternClassLoader get() {
     private final List<ClassTransformer> transformers = new CopyOnWriteArrayList<>();
     private final Set<Exclusion> transformerExclusions = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    // The cache of transformed classes, opened once the first class is transformed and
+    // released once it's saved at the end of the startup, see saveTransformedClassCache
+    private final URL transformedClassCacheLocation;
+    private volatile TransformedClassCache transformedClassCache;
+    private volatile boolean transformedClassCacheReleased;
+
+    // The hash of the plugin jars, the classes of plugins are cached with this hash
+    // because the transformers may inspect their hierarchy, which can be located in
+    // any of the plugin jars
+    private final Map<URL, byte[]> jarHashes = new ConcurrentHashMap<>();
+    private volatile PluginJarsHash pluginJarsHash;
+
+    private final LongAdder transformedClassCount = new LongAdder();
+    private final LongAdder transformTime = new LongAdder();
+    private final LongAdder cachedClassCount = new LongAdder();
+    private final LongAdder cacheTime = new LongAdder();
+
     private static final class LibraryClassLoader extends URLClassLoader {
         private LibraryClassLoader(URL[] urls) {
             super(urls);
@@ -417,6 +443,17 @@ private LanternClassLoader(URL[] urls, URL[] libraryUrls, ClassLoader parent) {
         this.urls.addAll(Arrays.asList(urls));
         this.libraryUrls.addAll(Arrays.asList(libraryUrls));
         this.libraryClassLoader = new LibraryClassLoader(libraryUrls);
+        // The transformed classes are only cached in production by default, the
+        // classes and transformers change all the time in a development environment
+        final String cache = System.getProperty(TRANSFORMED_CLASS_CACHE);
+        final CodeSource source = LanternClassLoader.class.getProtectionDomain().getCodeSource();
+        final URL location = source == null ? null : source.getLocation();
+        if ((cache != null ? Boolean.parseBoolean(cache) : Environment.get() == Environment.PRODUCTION) &&
+                location != null && location.getProtocol().equals("file") && new File(location.getFile()).isFile()) {
+            this.transformedClassCacheLocation = location;
+        } else {
+            this.transformedClassCacheLocation = null;
+        }
     }
 
     /**
@@ -467,6 +504,8 @@ public void addTransformer(ClassTransformer classTransformer) {
         this.transformers.add(classTransformer);
         // All the transformer classes should be excluded
         this.transformerExclusions.add(Exclusion.forClass(classTransformer.getClass().getName(), true));
+        // The transformer set changed, the cache needs to be reopened
+        this.transformedClassCache = null;
     }
 
     /**
@@ -556,6 +595,14 @@ public byte[] readByteCode(String className) throws ClassNotFoundException {
         if (url == null) {
             throw new ClassNotFoundException(className);
         }
+        try {
+            return readBytes(url);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+        }
+    }
+
+    private byte[] readBytes(URL url) throws IOException {
         try (InputStream is = url.openStream()) {
             // Get the buffer
             byte[] buffer = this.loadBuffer.get();
@@ -576,8 +623,6 @@ public byte[] readByteCode(String className) throws ClassNotFoundException {
             final byte[] result = new byte[length];
             System.arraycopy(buffer, 0, result, 0, length);
             return result;
-        } catch (IOException e) {
-            throw new ClassNotFoundException(className, e);
         }
     }
 
@@ -644,13 +689,16 @@ protected Class<?> findClass(String name) throws ClassNotFoundException {
             return defineClass(name, url, false);
         }
         // Check if the class should be ignored by any kind of transformer
+        return defineClass(name, url, !isTransformerExcluded(name));
+    }
+
+    private boolean isTransformerExcluded(String name) {
         for (Exclusion exclusion : this.transformerExclusions) {
             if (exclusion.isApplicable(name)) {
-                // Just load the class in this case
-                return defineClass(name, url, false);
+                return true;
             }
         }
-        return defineClass(name, url, true);
+        return false;
     }
 
     private Class<?> defineClass(String name, URL url, boolean transform) throws ClassNotFoundException {
@@ -675,19 +723,10 @@ private Class<?> defineClass(String name, URL url, boolean transform) throws Cla
                 // Write the bytes to a byte array with the proper length,
                 // we don't want any trailing bytes when pushing the byte
                 // array through the transformers
-                byte[] result = new byte[length];
-                System.arraycopy(buffer, 0, result, 0, length);
-
-                // Let's start transforming the class
-                for (ClassTransformer transformer : this.transformers) {
-                    try {
-                        result = transformer.transform(this, name, result);
-                    } catch (Exception e) {
-                        System.err.print("An error occurred while transforming " + name + ": ");
-                        e.printStackTrace();
-                    }
-                }
+                final byte[] byteCode = new byte[length];
+                System.arraycopy(buffer, 0, byteCode, 0, length);
 
+                final byte[] result = transform(name, url, byteCode);
                 buffer = result;
                 length = result.length;
             }
@@ -699,6 +738,228 @@ private Class<?> defineClass(String name, URL url, boolean transform) throws Cla
         }
     }
 
+    private byte[] transform(String name, URL url, byte[] byteCode) {
+        final long start = System.nanoTime();
+        final TransformedClassCache cache = getTransformedClassCache();
+        final byte[] hash = cache == null ? null : getCacheHash(name, url, byteCode);
+        if (hash != null) {
+            final byte[] cached = cache.get(name, hash);
+            if (cached != null) {
+                this.cachedClassCount.increment();
+                this.cacheTime.add(System.nanoTime() - start);
+                return cached;
+            }
+        }
+
+        // Let's start transforming the class
+        byte[] result = byteCode;
+        boolean failed = false;
+        for (ClassTransformer transformer : this.transformers) {
+            try {
+                result = transformer.transform(this, name, result);
+            } catch (Exception e) {
+                System.err.print("An error occurred while transforming " + name + ": ");
+                e.printStackTrace();
+                failed = true;
+            }
+        }
+        // Don't cache failed transformations, give them a chance next time
+        if (hash != null && !failed) {
+            cache.put(name, hash, result);
+        }
+        this.transformedClassCount.increment();
+        this.transformTime.add(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Gets the hash that the transformed bytecode of the given class is cached with.
+     * <p>
+     * Classes of the server jar are cached with the hash of their bytecode, the
+     * classes they depend on change together with the transformer set. Classes
+     * of plugins are cached with the hash of their bytecode and the hash of all
+     * the plugin jars, the transformers may inspect classes of other plugins.
+     *
+     * @param name The class name
+     * @param url The url of the class file
+     * @param byteCode The original bytecode
+     * @return The hash, or {@code null} if the class can't be cached
+     */
+    private byte[] getCacheHash(String name, URL url, byte[] byteCode) {
+        final CodeSource source = getCodeSource(name, url);
+        if (source == null) {
+            return null;
+        }
+        if (this.transformedClassCacheLocation.equals(source.getLocation())) {
+            return TransformedClassCache.hash(byteCode);
+        }
+        final byte[] pluginJarsHash = getPluginJarsHash();
+        if (pluginJarsHash == null) {
+            return null;
+        }
+        return TransformedClassCache.hash(pluginJarsHash, TransformedClassCache.hash(byteCode));
+    }
+
+    private static final class PluginJarsHash {
+
+        private final URL[] urls;
+        private final byte[] hash;
+
+        private PluginJarsHash(URL[] urls, byte[] hash) {
+            this.urls = urls;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Gets the hash of all the jars that were added to this class loader,
+     * except the server jar. The hash is computed again if a jar is added.
+     *
+     * @return The hash, or {@code null} if one of the urls isn't a jar file
+     */
+    private byte[] getPluginJarsHash() {
+        final URL[] urls = getURLs();
+        PluginJarsHash pluginJarsHash = this.pluginJarsHash;
+        if (pluginJarsHash != null && Arrays.equals(pluginJarsHash.urls, urls)) {
+            return pluginJarsHash.hash;
+        }
+        final List<URL> jars = new ArrayList<>();
+        for (URL url : urls) {
+            if (!this.transformedClassCacheLocation.equals(url)) {
+                jars.add(url);
+            }
+        }
+        // The order in which plugins are added may differ
+        jars.sort(Comparator.comparing(URL::toString));
+        byte[] hash;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream dos = new DataOutputStream(bytes)) {
+                for (URL jar : jars) {
+                    dos.writeUTF(jar.toString());
+                    dos.write(getJarHash(jar));
+                }
+            }
+            hash = TransformedClassCache.hash(bytes.toByteArray());
+        } catch (IOException e) {
+            // Directories or missing files, don't cache plugin classes
+            hash = null;
+        }
+        this.pluginJarsHash = new PluginJarsHash(urls, hash);
+        return hash;
+    }
+
+    private byte[] getJarHash(URL url) throws IOException {
+        byte[] hash = this.jarHashes.get(url);
+        if (hash == null) {
+            final File file = new File(url.getFile());
+            if (!url.getProtocol().equals("file") || !file.isFile()) {
+                throw new IOException("Not a jar file: " + url);
+            }
+            hash = TransformedClassCache.hash(file.toPath());
+            this.jarHashes.put(url, hash);
+        }
+        return hash;
+    }
+
+    private TransformedClassCache getTransformedClassCache() {
+        if (this.transformedClassCacheLocation == null || this.transformedClassCacheReleased) {
+            return null;
+        }
+        TransformedClassCache cache = this.transformedClassCache;
+        if (cache == null) {
+            synchronized (this.transformers) {
+                cache = this.transformedClassCache;
+                if (cache == null && !this.transformedClassCacheReleased) {
+                    cache = TransformedClassCache.open(TRANSFORMED_CLASS_CACHE_FILE,
+                            TransformedClassCache.version(this.transformers));
+                    this.transformedClassCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Transforms all the classes within the server jar concurrently and stores
+     * them in the transformed class cache, so that they don't need to be
+     * transformed when they are loaded. Classes that are already cached are skipped.
+     */
+    public void preTransformClasses() {
+        if (this.transformers.isEmpty() || getTransformedClassCache() == null) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final Set<String> classNames = new HashSet<>();
+        final URL location = this.transformedClassCacheLocation;
+        try (JarFile jarFile = new JarFile(Paths.get(location.toURI()).toFile())) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(".class")) {
+                    classNames.add(entryName);
+                }
+            }
+        } catch (Exception e) {
+            System.err.print("An error occurred while scanning " + location + ": ");
+            e.printStackTrace();
+        }
+        classNames.parallelStream().forEach(fileName -> {
+            final String name = fileName.substring(0, fileName.length() - ".class".length()).replace('/', '.');
+            if (name.startsWith("org.lanternpowered.launch.") || isTransformerExcluded(name)) {
+                return;
+            }
+            final URL url = findResource(fileName);
+            if (url == null) {
+                return;
+            }
+            try {
+                transform(name, url, readBytes(url));
+            } catch (IOException e) {
+                System.err.print("An error occurred while reading " + name + ": ");
+                e.printStackTrace();
+            }
+        });
+        System.out.printf("Pre-transformed %s classes in %s ms\n", classNames.size(),
+                (System.nanoTime() - start) / 1000000L);
+        saveTransformedClassCache(false);
+    }
+
+    /**
+     * Saves the transformed class cache, if enabled, and reports the
+     * time spent on transforming classes and loading them from the cache.
+     * <p>
+     * The cache is released afterwards, it keeps the archive and all the new
+     * bytecode in memory. Classes that are loaded later on will be transformed
+     * without the cache, so this should only be called once the startup is done.
+     */
+    public void saveTransformedClassCache() {
+        saveTransformedClassCache(true);
+    }
+
+    private void saveTransformedClassCache(boolean release) {
+        final TransformedClassCache cache;
+        synchronized (this.transformers) {
+            cache = this.transformedClassCache;
+            if (release) {
+                this.transformedClassCacheReleased = true;
+                this.transformedClassCache = null;
+            }
+        }
+        if (cache == null) {
+            return;
+        }
+        System.out.printf("Transformed %s classes in %s ms, loaded %s transformed classes from the cache in %s ms\n",
+                this.transformedClassCount.sum(), this.transformTime.sum() / 1000000L,
+                this.cachedClassCount.sum(), this.cacheTime.sum() / 1000000L);
+        try {
+            cache.save();
+        } catch (IOException e) {
+            System.err.print("An error occurred while saving the transformed class cache: ");
+            e.printStackTrace();
+        }
+    }
+
     private CodeSource getCodeSource(String name, URL url) {
         // Classes without a jar protocol, nope
         if (!url.getProtocol().equalsIgnoreCase("jar")) {
@@ -0,0 +1,353 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.launch.transformer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A on-disk cache of the bytecode produced by the {@link ClassTransformer}s. Every
+ * entry is keyed by the hash of the original bytecode of the class, and the whole
+ * archive is bound to the version of the transformer set that produced it.
+ * <p>
+ * The archive is read into memory when the cache is opened, but only the index
+ * is parsed at that point. Cached bytecode is copied out of the archive when
+ * requested, new entries are kept in memory until the cache is saved. The file
+ * isn't memory mapped, a mapped file can't be replaced on every platform.
+ * <p>
+ * Transformers may inspect other classes than the one that is being transformed,
+ * the cache assumes that those classes only change together with the transformer
+ * set. This is the case for the classes of the server jar, whose hierarchy is within
+ * the same jar or within the libraries that are pinned by it. Classes from other jars,
+ * e.g. plugins, must be keyed by a hash that also covers the jars that may contain
+ * their hierarchy, see {@link #hash(byte[], byte[])}.
+ * <p>
+ * The cache keeps the archive and all the new bytecode in memory, it should be
+ * released once it's saved and no longer needed.
+ */
+public final class TransformedClassCache {
+
+    private static final int MAGIC = 0x4c544343;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The length of the hashes, in bytes.
+     */
+    private static final int HASH_LENGTH = 20;
+
+    private static final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(TransformedClassCache::createDigest);
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Computes the hash of the given bytecode.
+     *
+     * @param byteCode The bytecode
+     * @return The hash
+     */
+    public static byte[] hash(byte[] byteCode) {
+        return digest.get().digest(byteCode);
+    }
+
+    /**
+     * Computes the hash of the given hashes combined, e.g. the hash of the bytecode
+     * of a class and the hash of the jars that the class depends on.
+     *
+     * @param first The first hash
+     * @param second The second hash
+     * @return The hash
+     */
+    public static byte[] hash(byte[] first, byte[] second) {
+        final MessageDigest digest = TransformedClassCache.digest.get();
+        digest.update(first);
+        digest.update(second);
+        return digest.digest();
+    }
+
+    /**
+     * Computes the hash of the contents of the given file.
+     *
+     * @param file The file
+     * @return The hash
+     * @throws IOException If the file couldn't be read
+     */
+    public static byte[] hash(Path file) throws IOException {
+        final MessageDigest digest = TransformedClassCache.digest.get();
+        final byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Computes the version of the given {@link ClassTransformer}s. The version
+     * changes if the transformers or their order change, or if the jar or directory
+     * that contains one of the transformer classes is modified.
+     *
+     * @param transformers The transformers
+     * @return The version
+     */
+    public static byte[] version(List<ClassTransformer> transformers) {
+        requireNonNull(transformers, "transformers");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            for (ClassTransformer transformer : transformers) {
+                dos.writeUTF(transformer.getClass().getName());
+                final CodeSource source = transformer.getClass().getProtectionDomain().getCodeSource();
+                final URL location = source == null ? null : source.getLocation();
+                if (location != null) {
+                    dos.writeUTF(location.toString());
+                    if (location.getProtocol().equals("file")) {
+                        final File file = new File(location.getFile());
+                        dos.writeLong(file.length());
+                        dos.writeLong(file.lastModified());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return hash(bytes.toByteArray());
+    }
+
+    /**
+     * Opens the {@link TransformedClassCache} that is stored in the given file. The
+     * cache will start empty if the file doesn't exist, is corrupted or was created
+     * by a different version of the transformer set.
+     *
+     * @param file The file of the archive
+     * @param version The version of the transformer set
+     * @return The transformed class cache
+     */
+    public static TransformedClassCache open(Path file, byte[] version) {
+        requireNonNull(file, "file");
+        requireNonNull(version, "version");
+        final TransformedClassCache cache = new TransformedClassCache(file, version);
+        if (Files.exists(file)) {
+            try {
+                cache.read(ByteBuffer.wrap(Files.readAllBytes(file)));
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+                // Corrupted, just start over
+                cache.entries.clear();
+                cache.dirty = true;
+            }
+        }
+        return cache;
+    }
+
+    private static final class Entry {
+
+        private final byte[] hash;
+
+        // The offset and length of the bytecode within the archive
+        private final int offset;
+        private final int length;
+
+        // The bytecode, if it isn't saved yet
+        private final byte[] byteCode;
+
+        private Entry(byte[] hash, int offset, int length) {
+            this.hash = hash;
+            this.offset = offset;
+            this.length = length;
+            this.byteCode = null;
+        }
+
+        private Entry(byte[] hash, byte[] byteCode) {
+            this.hash = hash;
+            this.offset = -1;
+            this.length = byteCode.length;
+            this.byteCode = byteCode;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Path file;
+    private final byte[] version;
+
+    private ByteBuffer archive;
+    private volatile boolean dirty;
+
+    private TransformedClassCache(Path file, byte[] version) {
+        this.file = file;
+        this.version = version;
+    }
+
+    private void read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            this.dirty = true;
+            return;
+        }
+        final byte[] version = new byte[HASH_LENGTH];
+        buffer.get(version);
+        if (!Arrays.equals(version, this.version)) {
+            this.dirty = true;
+            return;
+        }
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            final byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            final byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            final int length = buffer.getInt();
+            final int offset = buffer.position();
+            // Skip the bytecode, it will be read when requested
+            buffer.position(offset + length);
+            this.entries.put(new String(name, StandardCharsets.UTF_8), new Entry(hash, offset, length));
+        }
+        this.archive = buffer;
+    }
+
+    /**
+     * Gets the size of this cache.
+     *
+     * @return The size
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the transformed bytecode of the given class, if the hash of the
+     * original bytecode matches the one that was cached.
+     *
+     * @param className The class name
+     * @param hash The hash of the original bytecode
+     * @return The transformed bytecode, or {@code null} if not cached
+     */
+    public byte[] get(String className, byte[] hash) {
+        final Entry entry = this.entries.get(className);
+        if (entry == null || !Arrays.equals(entry.hash, hash)) {
+            return null;
+        }
+        if (entry.byteCode != null) {
+            return entry.byteCode;
+        }
+        return copy(entry);
+    }
+
+    private byte[] copy(Entry entry) {
+        // Duplicate the buffer, the position isn't thread safe
+        final ByteBuffer buffer = this.archive.duplicate();
+        buffer.position(entry.offset);
+        final byte[] byteCode = new byte[entry.length];
+        buffer.get(byteCode);
+        return byteCode;
+    }
+
+    /**
+     * Puts the transformed bytecode of the given class.
+     *
+     * @param className The class name
+     * @param hash The hash of the original bytecode
+     * @param byteCode The transformed bytecode
+     */
+    public void put(String className, byte[] hash, byte[] byteCode) {
+        requireNonNull(className, "className");
+        requireNonNull(hash, "hash");
+        requireNonNull(byteCode, "byteCode");
+        this.entries.put(className, new Entry(hash, byteCode));
+        this.dirty = true;
+    }
+
+    /**
+     * Saves this cache, if anything changed since it was opened. The archive
+     * is written to a temporary file that replaces the old one afterwards.
+     *
+     * @throws IOException If the archive couldn't be written
+     */
+    public synchronized void save() throws IOException {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        final Path parent = this.file.toAbsolutePath().getParent();
+        if (!Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                final Map<String, Entry> entries = new HashMap<>(this.entries);
+                dos.writeInt(MAGIC);
+                dos.writeInt(FORMAT_VERSION);
+                dos.write(this.version);
+                dos.writeInt(entries.size());
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    final Entry entry = mapEntry.getValue();
+                    final byte[] name = mapEntry.getKey().getBytes(StandardCharsets.UTF_8);
+                    dos.writeShort(name.length);
+                    dos.write(name);
+                    dos.write(entry.hash);
+                    dos.writeInt(entry.length);
+                    dos.write(entry.byteCode != null ? entry.byteCode : copy(entry));
+                }
+            }
+            try {
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            this.dirty = true;
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
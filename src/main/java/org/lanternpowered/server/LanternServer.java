@@ -35,6 +35,7 @@
 import com.google.inject.name.Named;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import org.lanternpowered.api.profiler.TickStatistics;
 import org.lanternpowered.server.cause.LanternCauseStack;
 import org.lanternpowered.server.cause.LanternCauseStackManager;
 import org.lanternpowered.server.config.GlobalConfig;
@@ -50,6 +51,10 @@
 import org.lanternpowered.server.network.rcon.RconServer;
 import org.lanternpowered.server.network.status.LanternFavicon;
 import org.lanternpowered.server.plugin.InternalPluginsInfo;
+import org.lanternpowered.server.profiler.LanternTickStatistics;
+import org.lanternpowered.server.profiler.TickProfiler;
+import org.lanternpowered.server.profiler.TickRecorder;
+import org.lanternpowered.server.profiler.TickSection;
 import org.lanternpowered.server.service.CloseableService;
 import org.lanternpowered.server.service.LanternServiceManager;
 import org.lanternpowered.server.text.LanternTexts;
@@ -152,6 +157,12 @@ public final class LanternServer implements Server {
     // The amount of ticks the server is running
     private final AtomicInteger runningTimeTicks = new AtomicInteger(0);
 
+    // The rolling tick statistics
+    private final LanternTickStatistics tickStatistics = new LanternTickStatistics();
+
+    // The tick recorder of the server thread
+    private final TickRecorder tickRecorder = TickProfiler.createRecorder("server");
+
     // All the players by their name
     private final Map<String, LanternPlayer> playersByName = new ConcurrentHashMap<>();
 
@@ -211,6 +222,7 @@ void start() throws IOException {
             this.rconServer = new RconServer(globalConfig.getRconPassword());
             this.game.getServiceManager().setProvider(this.pluginContainer, RconService.class, this.rconServer);
         }
+        this.game.getServiceManager().setProvider(this.pluginContainer, TickStatistics.class, this.tickStatistics);
         if (globalConfig.getProxyType() == ProxyType.NONE && !globalConfig.isOnlineMode()) {
             this.logger.warn("It is not recommend to run the server in offline mode, this allows people to");
             this.logger.warn("choose any username they want. The server will use the account that is attached");
@@ -366,13 +378,35 @@ private void bindRcon() {
      * Pulses (ticks) the game.
      */
     private void pulse() {
+        final long start = System.nanoTime();
+        this.tickRecorder.beginTick();
         this.runningTimeTicks.incrementAndGet();
         // Pulse the network sessions
+        long sectionStart = TickProfiler.start();
         this.networkManager.pulseSessions();
+        this.tickRecorder.end(TickSection.NETWORK_SESSIONS, sectionStart);
         // Pulse the sync scheduler tasks
+        sectionStart = TickProfiler.start();
         this.game.getScheduler().pulseSyncScheduler();
-        // Pulse the world threads
+        this.tickRecorder.end(TickSection.SYNC_SCHEDULER, sectionStart);
+        // Pulse the world threads, this waits for
+        // the world threads to finish the previous tick
+        sectionStart = TickProfiler.start();
         this.worldManager.pulse();
+        this.tickRecorder.end(TickSection.WORLDS, sectionStart);
+        // Flush all the messages that were written during the tick
+        this.networkManager.flushSessions();
+        this.tickRecorder.endTick();
+        this.tickStatistics.record(start, System.nanoTime());
+    }
+
+    /**
+     * Gets the rolling {@link TickStatistics} of the server.
+     *
+     * @return The tick statistics
+     */
+    public LanternTickStatistics getTickStatistics() {
+        return this.tickStatistics;
     }
 
     /**
@@ -693,7 +727,7 @@ public ChunkTicketManager getChunkTicketManager() {
 
     @Override
     public double getTicksPerSecond() {
-        return LanternGame.TICKS_PER_SECOND; // TODO
+        return this.tickStatistics.getTicksPerSecond();
     }
 
     @Override
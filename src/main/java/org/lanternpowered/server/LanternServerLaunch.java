@@ -51,6 +51,12 @@
 
 public final class LanternServerLaunch {
 
+    /**
+     * Whether all the server classes should be transformed and cached before the
+     * server starts, for example to prepare the cache when building the server.
+     */
+    private static final boolean PRE_TRANSFORM = Boolean.getBoolean("lantern.transformer.preTransform");
+
     public void main(String[] args) {
         final LanternClassLoader classLoader = LanternClassLoader.get();
         classLoader.addTransformerExclusion(Exclusion.forPackage("org.objectweb.asm")); // Exclude the ASM library
@@ -59,6 +65,9 @@ public void main(String[] args) {
         classLoader.addTransformerExclusion(Exclusion.forClass("org.lanternpowered.server.util.UncheckedExceptions"));
         classLoader.addTransformer(new FinalFieldClassTransformer());
         classLoader.addTransformer(new FastValueContainerClassTransformer());
+        if (PRE_TRANSFORM) {
+            classLoader.preTransformClasses();
+        }
 
         final SyncLanternThread thread = new SyncLanternThread(() -> start(args), "init");
         thread.start();
@@ -120,6 +129,9 @@ private void start(String[] args) {
             }
 
             lanternServer.start();
+
+            // Store all the classes that were transformed during the startup
+            LanternClassLoader.get().saveTransformedClassCache();
         } catch (Throwable t) {
             logger.error("Error during server startup.", t);
             System.exit(1);
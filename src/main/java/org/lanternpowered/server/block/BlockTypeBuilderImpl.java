@@ -105,10 +105,8 @@ public Collection<AABB> get(BlockState blockState,
         }
     }
 
-    private static final ObjectProvider<AABB> defaultCollisionBoxProvider =
-            new ConstantObjectProvider<>(BoundingBoxes.DEFAULT);
     private static final ObjectProvider<Collection<AABB>> defaultCollisionBoxesProvider =
-            new SingleCollisionBoxProvider(defaultCollisionBoxProvider);
+            new ConstantObjectProvider<>(Collections.singletonList(BoundingBoxes.DEFAULT));
 
     @Nullable private ExtendedBlockStateProvider extendedBlockStateProvider;
     @Nullable private Function<BlockState, BlockState> defaultStateProvider;
@@ -150,9 +148,21 @@ public BlockTypeBuilder collisionBox(@Nullable Function<BlockState, AABB> collis
 
     @Override
     public BlockTypeBuilder collisionBox(@Nullable ObjectProvider<AABB> collisionBoxProvider) {
+        // Keep the state based providers recognizable, this allows
+        // the collision shapes to be computed ahead of time
+        if (collisionBoxProvider instanceof ConstantObjectProvider) {
+            return collisionBoxes(toCollisionBoxes(collisionBoxProvider.get(null, null, null)));
+        } else if (collisionBoxProvider instanceof SimpleObjectProvider) {
+            final Function<BlockState, AABB> function = ((SimpleObjectProvider<AABB>) collisionBoxProvider).getFunction();
+            return collisionBoxes(blockState -> toCollisionBoxes(function.apply(blockState)));
+        }
         return collisionBoxes(collisionBoxProvider == null ? null : new SingleCollisionBoxProvider(collisionBoxProvider));
     }
 
+    private static Collection<AABB> toCollisionBoxes(@Nullable AABB collisionBox) {
+        return collisionBox == null ? Collections.emptyList() : Collections.singletonList(collisionBox);
+    }
+
     @Override
     public BlockTypeBuilder collisionBoxes(@Nullable Collection<AABB> collisionBoxes) {
         return collisionBoxes(collisionBoxes == null ? null : new ConstantObjectProvider<>(collisionBoxes));
@@ -0,0 +1,98 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block.state;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Lays out the block states of a block type as a mixed radix number over
+ * the value indexes of all its traits. The first trait is the most
+ * significant one, which matches the order of the cartesian product
+ * that is used to create all the states.
+ * <p>
+ * Changing the value of a single trait is a single arithmetic step
+ * on the state index.
+ */
+final class BlockStateIndexer {
+
+    // The amount of values of every trait
+    private final int[] sizes;
+
+    // The distance between two consecutive values of every trait
+    private final int[] strides;
+
+    private final int stateCount;
+
+    /**
+     * Constructs a new {@link BlockStateIndexer}.
+     *
+     * @param sizes The amount of values of every trait
+     */
+    BlockStateIndexer(int[] sizes) {
+        this.sizes = sizes.clone();
+        this.strides = new int[sizes.length];
+        int stride = 1;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            checkArgument(sizes[i] > 0, "Every trait must have at least one value");
+            this.strides[i] = stride;
+            stride *= sizes[i];
+        }
+        this.stateCount = stride;
+    }
+
+    /**
+     * Gets the amount of states.
+     *
+     * @return The state count
+     */
+    int getStateCount() {
+        return this.stateCount;
+    }
+
+    /**
+     * Gets the value index of the trait for the given state index.
+     *
+     * @param stateIndex The state index
+     * @param traitIndex The trait index
+     * @return The value index
+     */
+    int getValueIndex(int stateIndex, int traitIndex) {
+        return (stateIndex / this.strides[traitIndex]) % this.sizes[traitIndex];
+    }
+
+    /**
+     * Gets the state index that is reached by changing the value
+     * of the trait for the given state index.
+     *
+     * @param stateIndex The state index
+     * @param traitIndex The trait index
+     * @param valueIndex The new value index
+     * @return The new state index
+     */
+    int withValueIndex(int stateIndex, int traitIndex, int valueIndex) {
+        return stateIndex + (valueIndex - getValueIndex(stateIndex, traitIndex)) * this.strides[traitIndex];
+    }
+}
@@ -29,10 +29,8 @@
 
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.base.Joiner;
-import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import org.lanternpowered.server.block.LanternBlockSnapshot;
 import org.lanternpowered.server.block.LanternBlockType;
 import org.lanternpowered.server.block.tile.LanternTileEntity;
@@ -62,30 +60,24 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
 
 @SuppressWarnings({"rawtypes", "unchecked", "SuspiciousMethodCalls"})
 public final class LanternBlockState extends AbstractCatalogType implements CatalogType, BlockState,
         AbstractDirectionRelativePropertyHolder, IImmutableDataHolderBase<BlockState> {
 
-    // A lookup table to get a specific state when you would change a value
-    ImmutableTable<BlockTrait<?>, Comparable<?>, BlockState> propertyValueTable;
-
     // The values for every attached trait
     final ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues;
 
     // A list with all the values of this state
     private final ImmutableSet<ImmutableValue<?>> values;
 
-    // The lookup to convert between key <--> trait
-    private final ImmutableMap<Key<Value<?>>, BlockTrait<?>> keyToBlockTrait;
-
     // The base block state
     private final LanternBlockStateMap baseState;
 
@@ -101,21 +93,21 @@ public final class LanternBlockState extends AbstractCatalogType implements Cata
     // Whether this state is extended
     boolean extended;
 
+    // The optional of this state, reused to avoid allocations on transitions
+    private final Optional<BlockState> optional = Optional.of(this);
+
     @SuppressWarnings("RedundantCast")
     LanternBlockState(LanternBlockStateMap baseState, ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues) {
         this.traitValues = traitValues;
         this.baseState = baseState;
 
-        final ImmutableBiMap.Builder<Key<Value<?>>, BlockTrait<?>> keyToBlockTraitBuilder = ImmutableBiMap.builder();
         final ImmutableSet.Builder<ImmutableValue<?>> valuesBuilder = ImmutableSet.builder();
         for (Map.Entry<BlockTrait<?>, Comparable<?>> entry : traitValues.entrySet()) {
             final LanternBlockTrait trait = (LanternBlockTrait) entry.getKey();
             final LanternKey key = (LanternKey) trait.getValueKey();
-            keyToBlockTraitBuilder.put(key, trait);
             final BaseValue value = (BaseValue) LanternValueFactory.get().createValueForKey(key, entry.getValue());
             valuesBuilder.add(value instanceof ImmutableValue ? (ImmutableValue) value : ((Value) value).asImmutable());
         }
-        this.keyToBlockTrait = keyToBlockTraitBuilder.build();
         this.values = valuesBuilder.build();
 
         final StringBuilder idBuilder = new StringBuilder();
@@ -183,26 +175,24 @@ public <E> Optional<BlockState> transform(Key<? extends BaseValue<E>> key, Funct
 
     @Override
     public <E> Optional<BlockState> with(Key<? extends BaseValue<E>> key, E value) {
-        BlockTrait trait;
-        if (!supports(key) || !(trait = this.keyToBlockTrait.get(key)).getPredicate().test(value)) {
-            return Optional.empty();
-        }
-        if (this.traitValues.get(trait) == value) {
-            return Optional.of(this);
-        }
-        return Optional.of(this.propertyValueTable.row(trait).get(value));
+        return with(this.baseState.getTraitIndex(checkNotNull(key, "key")), value);
     }
 
     @Override
     public Optional<BlockState> with(BaseValue<?> value) {
-        if (!supports(value)) {
+        checkNotNull(value, "value");
+        return with(this.baseState.getTraitIndex(value.getKey()), value.get());
+    }
+
+    private Optional<BlockState> with(int traitIndex, @Nullable Object value) {
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        final BlockTrait trait = this.keyToBlockTrait.get(value.getKey());
-        if (this.traitValues.get(trait) == value.get()) {
-            return Optional.of(this);
+        final int valueIndex = this.baseState.getValueIndexOf(traitIndex, value);
+        if (valueIndex == -1) {
+            return Optional.empty();
         }
-        return Optional.of(this.propertyValueTable.row(trait).get(value.get()));
+        return this.baseState.getState(this.internalId, traitIndex, valueIndex).optional;
     }
 
     @Override
@@ -274,24 +264,29 @@ public BlockState merge(BlockState that, MergeFunction function) {
 
     @Override
     public <E> Optional<E> get(Key<? extends BaseValue<E>> key) {
-        if (!supports(key)) {
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(key, "key"));
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        return Optional.ofNullable((E) this.traitValues.get(this.keyToBlockTrait.get(key)));
+        return Optional.of((E) getValue(traitIndex));
     }
 
     @Override
     public <E, V extends BaseValue<E>> Optional<V> getRawValueFor(Key<V> key) {
-        if (!supports(key)) {
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(key, "key"));
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        final BlockTrait<?> blockTrait = this.keyToBlockTrait.get(key);
-        return Optional.of((V) new LanternValue(key, this.traitValues.get(blockTrait)));
+        return Optional.of((V) new LanternValue(key, getValue(traitIndex)));
+    }
+
+    private Comparable<?> getValue(int traitIndex) {
+        return this.baseState.values[traitIndex][this.baseState.getCurrentValueIndex(this.internalId, traitIndex)];
     }
 
     @Override
     public boolean supports(Key<?> key) {
-        return this.keyToBlockTrait.containsKey(checkNotNull(key, "key"));
+        return this.baseState.getTraitIndex(checkNotNull(key, "key")) != -1;
     }
 
     @Override
@@ -306,7 +301,8 @@ public ImmutableSet<ImmutableValue<?>> getValues() {
 
     @Override
     public BlockState cycleValue(Key<? extends BaseValue<? extends Cycleable<?>>> key) {
-        return supports(key) ? cycleTraitValue(this.keyToBlockTrait.get(key)).get() : this;
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(key, "key"));
+        return traitIndex == -1 ? this : cycleTraitValue(traitIndex);
     }
 
     @Override
@@ -329,65 +325,31 @@ public BlockSnapshot snapshotFor(Location<World> location) {
      * @return the block state if successful
      */
     public <T extends Comparable<T>> Optional<BlockState> cycleTraitValue(BlockTrait<T> blockTrait) {
-        checkNotNull(blockTrait, "blockTrait");
-
-        if (!supportsTrait(blockTrait)) {
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(blockTrait, "blockTrait"));
+        if (traitIndex == -1) {
             return Optional.empty();
         }
+        return Optional.of(cycleTraitValue(traitIndex));
+    }
 
-        T value = (T) this.traitValues.get(blockTrait);
-        if (value instanceof Cycleable) {
-            T last = value;
-            T next;
-            while ((next = (T) ((Cycleable) last).cycleNext()) != value) {
-                if (blockTrait.getPredicate().test(next)) {
-                    value = next;
-                    break;
-                }
-                last = next;
-            }
-        } else {
-            final Iterator<T> it = blockTrait.getPossibleValues().iterator();
-            while (it.hasNext()) {
-                if (it.next() == value) {
-                    if (it.hasNext()) {
-                        value = it.next();
-                    } else {
-                        value = blockTrait.getPossibleValues().iterator().next();
-                    }
-                }
-            }
-        }
-
-        return withTrait(blockTrait, value);
+    private LanternBlockState cycleTraitValue(int traitIndex) {
+        return this.baseState.getState(this.internalId, traitIndex, this.baseState.getNextValueIndex(this.internalId, traitIndex));
     }
 
     @Override
     public Optional<BlockState> withTrait(BlockTrait<?> trait, Object value) {
         checkNotNull(trait, "trait");
         checkNotNull(value, "value");
-        if (value instanceof String) {
-            if (!supportsTrait(trait)) {
-                return Optional.empty();
-            }
-            for (Object object : trait.getPossibleValues()) {
-                if (object.toString().equals(value) || (object instanceof CatalogType && ((CatalogType) object).getKey().toString()
-                        .equalsIgnoreCase((String) value))) {
-                    value = object;
-                    break;
-                }
-            }
-            if (value instanceof String) {
-                return Optional.empty();
-            }
-        }
-        if (!supportsTraitValue(trait, value)) {
+        final int traitIndex = this.baseState.getTraitIndex(trait);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        if (this.traitValues.get(trait) == value) {
-            return Optional.of(this);
+        final int valueIndex = value instanceof String ? this.baseState.getValueIndexOfName(traitIndex, (String) value) :
+                this.baseState.getValueIndexOf(traitIndex, value);
+        if (valueIndex == -1) {
+            return Optional.empty();
         }
-        return Optional.of(this.propertyValueTable.row(trait).get(value));
+        return this.baseState.getState(this.internalId, traitIndex, valueIndex).optional;
     }
 
     /**
@@ -397,7 +359,7 @@ public Optional<BlockState> withTrait(BlockTrait<?> trait, Object value) {
      * @return whether the block trait is supported
      */
     public boolean supportsTrait(BlockTrait<?> blockTrait) {
-        return this.traitValues.containsKey(checkNotNull(blockTrait, "blockTrait"));
+        return this.baseState.getTraitIndex(checkNotNull(blockTrait, "blockTrait")) != -1;
     }
 
     /**
@@ -408,8 +370,8 @@ public boolean supportsTrait(BlockTrait<?> blockTrait) {
      * @return whether the block trait and value are supported
      */
     public boolean supportsTraitValue(BlockTrait<?> blockTrait, Object value) {
-        return supportsTrait(checkNotNull(blockTrait, "blockTrait")) &&
-                ((Predicate) blockTrait.getPredicate()).test(checkNotNull(value, "value"));
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(blockTrait, "blockTrait"));
+        return traitIndex != -1 && this.baseState.getValueIndexOf(traitIndex, checkNotNull(value, "value")) != -1;
     }
 
     public boolean isExtended() {
@@ -418,7 +380,8 @@ public boolean isExtended() {
 
     @Override
     public <T extends Comparable<T>> Optional<T> getTraitValue(BlockTrait<T> blockTrait) {
-        return Optional.ofNullable((T) this.traitValues.get(checkNotNull(blockTrait, "blockTrait")));
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(blockTrait, "blockTrait"));
+        return traitIndex == -1 ? Optional.empty() : Optional.of((T) getValue(traitIndex));
     }
 
     @Override
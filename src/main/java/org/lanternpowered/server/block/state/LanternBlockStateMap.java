@@ -30,26 +30,25 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.lanternpowered.server.block.LanternBlockType;
 import org.lanternpowered.server.block.trait.LanternBlockTrait;
+import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.trait.BlockTrait;
 import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.util.Cycleable;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
 
 public final class LanternBlockStateMap {
 
@@ -58,20 +57,31 @@ public final class LanternBlockStateMap {
     final ImmutableSet<Key<?>> keys;
     private final LanternBlockType blockType;
 
-    @SuppressWarnings("rawtypes")
+    // The states, indexed by their internal id, the internal id
+    // is the mixed radix index of the trait value indexes
+    private final LanternBlockState[] states;
+    private final BlockStateIndexer indexer;
+
+    // The traits, in the order of the index layout
+    final BlockTrait<?>[] traits;
+
+    // The possible values of every trait, indexed by value index
+    final Comparable<?>[][] values;
+
+    // The value index that should be cycled to for every value index
+    private final int[][] nextValueIndexes;
+
+    // The lookups of the trait and value indexes
+    private final Object2IntMap<BlockTrait<?>> traitIndexes = new Object2IntOpenHashMap<>();
+    private final Object2IntMap<Key<?>> keyTraitIndexes = new Object2IntOpenHashMap<>();
+    private final Object2IntMap<Object>[] valueIndexes;
+    private final Object2IntMap<String>[] valueIndexesByName;
+    private final Object2IntMap<String>[] valueIndexesByKey;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
     public LanternBlockStateMap(LanternBlockType blockType, Iterable<BlockTrait<?>> blockTraits) {
         this.blockType = blockType;
 
-        // There are no block traits
-        if (!blockTraits.iterator().hasNext()) {
-            final LanternBlockState blockState = new LanternBlockState(this, ImmutableMap.of());
-            blockState.propertyValueTable = ImmutableTable.of();
-            this.blockStates = ImmutableList.of(blockState);
-            this.blockTraits = ImmutableMap.of();
-            this.keys = ImmutableSet.of();
-            return;
-        }
-
         // Convert to a list so it can be sorted
         final List<BlockTrait<?>> list = Lists.newArrayList(blockTraits);
 
@@ -82,60 +92,102 @@ public LanternBlockStateMap(LanternBlockType blockType, Iterable<BlockTrait<?>>
         final ImmutableMap.Builder<String, BlockTrait<?>> builder = ImmutableMap.builder();
         final ImmutableSet.Builder<Key<?>> keys = ImmutableSet.builder();
 
-        // All the sets with all the allowed values
-        final List<Set<Comparable<?>>> allowedValues = new ArrayList<>();
+        this.traitIndexes.defaultReturnValue(-1);
+        this.keyTraitIndexes.defaultReturnValue(-1);
+
+        final int traitCount = list.size();
+        this.traits = list.toArray(new BlockTrait<?>[traitCount]);
+        this.values = new Comparable<?>[traitCount][];
+        this.nextValueIndexes = new int[traitCount][];
+        this.valueIndexes = new Object2IntMap[traitCount];
+        this.valueIndexesByName = new Object2IntMap[traitCount];
+        this.valueIndexesByKey = new Object2IntMap[traitCount];
 
-        for (BlockTrait<?> trait : list) {
-            allowedValues.add(new HashSet<>(trait.getPossibleValues()));
-            keys.add(((LanternBlockTrait) trait).getValueKey());
+        final int[] sizes = new int[traitCount];
+        for (int i = 0; i < traitCount; i++) {
+            final BlockTrait<?> trait = this.traits[i];
+            final Key<?> key = ((LanternBlockTrait) trait).getValueKey();
+            keys.add(key);
             builder.put(trait.getName(), trait);
+            this.traitIndexes.put(trait, i);
+            this.keyTraitIndexes.put(key, i);
+
+            final Comparable<?>[] values = trait.getPossibleValues().toArray(new Comparable<?>[0]);
+            final Object2IntMap<Object> valueIndexes = new Object2IntOpenHashMap<>();
+            valueIndexes.defaultReturnValue(-1);
+            final Object2IntMap<String> valueIndexesByName = new Object2IntOpenHashMap<>();
+            valueIndexesByName.defaultReturnValue(-1);
+            final Object2IntMap<String> valueIndexesByKey = new Object2IntOpenHashMap<>();
+            valueIndexesByKey.defaultReturnValue(-1);
+            // Insert in reverse order, so that the first value wins
+            // when multiple values have the same name
+            for (int j = values.length - 1; j >= 0; j--) {
+                final Comparable<?> value = values[j];
+                valueIndexes.put(value, j);
+                valueIndexesByName.put(value.toString(), j);
+                if (value instanceof CatalogType) {
+                    valueIndexesByKey.put(((CatalogType) value).getKey().toString().toLowerCase(Locale.ENGLISH), j);
+                }
+            }
+            this.values[i] = values;
+            this.valueIndexes[i] = valueIndexes;
+            this.valueIndexesByName[i] = valueIndexesByName;
+            this.valueIndexesByKey[i] = valueIndexesByKey;
+            this.nextValueIndexes[i] = computeNextValueIndexes(trait, values, valueIndexes);
+            sizes[i] = values.length;
         }
 
         // Build the lookups
         this.blockTraits = builder.build();
         this.keys = keys.build();
 
-        // A map with as the key the trait values map and as value the state
-        final LinkedHashMap<Map<?, ?>, BlockState> stateByValuesMap = new LinkedHashMap<>();
-
-        // The block states
+        // Create all the possible combinations, by index
+        this.indexer = new BlockStateIndexer(sizes);
+        this.states = new LanternBlockState[this.indexer.getStateCount()];
         final ImmutableList.Builder<BlockState> blockStates = ImmutableList.builder();
-
-        // Do the cartesian product to get all the possible combinations
-        for (List<Comparable<?>> comparables : Sets.cartesianProduct(allowedValues)) {
-            final Iterator<Comparable<?>> objectsIt = comparables.iterator();
-
+        for (int index = 0; index < this.states.length; index++) {
             final ImmutableMap.Builder<BlockTrait<?>, Comparable<?>> traitValuesBuilder = ImmutableMap.builder();
-            for (BlockTrait<?> trait : list) {
-                traitValuesBuilder.put(trait, objectsIt.next());
+            for (int i = 0; i < traitCount; i++) {
+                traitValuesBuilder.put(this.traits[i], this.values[i][this.indexer.getValueIndex(index, i)]);
             }
-
-            final ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues = traitValuesBuilder.build();
-            final LanternBlockState blockState = new LanternBlockState(this, traitValues);
-            stateByValuesMap.put(traitValues, blockState);
+            final LanternBlockState blockState = new LanternBlockState(this, traitValuesBuilder.build());
+            blockState.internalId = index;
+            this.states[index] = blockState;
             blockStates.add(blockState);
         }
-
         this.blockStates = blockStates.build();
-        this.blockStates.stream().map(state -> (LanternBlockState) state).forEach(state -> {
-            final ImmutableTable.Builder<BlockTrait<?>, Comparable<?>, BlockState> tableBuilder = ImmutableTable.builder();
-            list.forEach(trait -> trait.getPossibleValues().stream().filter(value -> value != state.getTraitValue(trait).get()).forEach(value -> {
-                final Map<BlockTrait<?>, Comparable<?>> valueByTrait = new HashMap<>();
-                valueByTrait.putAll(state.traitValues);
-                valueByTrait.put(trait, value);
-                tableBuilder.put(trait, value, stateByValuesMap.get(valueByTrait));
-            }));
-            state.propertyValueTable = tableBuilder.build();
-        });
-
-        int internalId = 0;
-        for (BlockState blockState : this.blockStates) {
-            final LanternBlockState blockState1 = (LanternBlockState) blockState;
-            blockState1.extended = blockType.getExtendedBlockStateProvider().remove(blockState) != blockState;
-            blockState1.internalId = internalId++;
+
+        // The extended state provider may transition between
+        // states, so all the states need to be available
+        for (LanternBlockState blockState : this.states) {
+            blockState.extended = blockType.getExtendedBlockStateProvider().remove(blockState) != blockState;
         }
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int[] computeNextValueIndexes(BlockTrait<?> trait, Comparable<?>[] values, Object2IntMap<Object> valueIndexes) {
+        final int[] nextValueIndexes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final Comparable<?> value = values[i];
+            int next = (i + 1) % values.length;
+            if (value instanceof Cycleable) {
+                // Cycle until a value is found that is supported by the trait
+                next = i;
+                Object last = value;
+                Object current;
+                while ((current = ((Cycleable) last).cycleNext()) != value) {
+                    if (((Predicate) trait.getPredicate()).test(current)) {
+                        next = valueIndexes.getInt(current);
+                        break;
+                    }
+                    last = current;
+                }
+            }
+            nextValueIndexes[i] = next;
+        }
+        return nextValueIndexes;
+    }
+
     public LanternBlockType getBlockType() {
         return this.blockType;
     }
@@ -154,4 +206,85 @@ public Optional<BlockTrait<?>> getTrait(String name) {
         }
         return Optional.empty();
     }
+
+    /**
+     * Gets the index of the {@link BlockTrait}.
+     *
+     * @param trait The block trait
+     * @return The trait index, or {@code -1} if not supported
+     */
+    int getTraitIndex(BlockTrait<?> trait) {
+        return this.traitIndexes.getInt(trait);
+    }
+
+    /**
+     * Gets the index of the {@link BlockTrait} that is
+     * represented by the given {@link Key}.
+     *
+     * @param key The key
+     * @return The trait index, or {@code -1} if not supported
+     */
+    int getTraitIndex(Key<?> key) {
+        return this.keyTraitIndexes.getInt(key);
+    }
+
+    /**
+     * Gets the index of the value for the trait at the given index.
+     *
+     * @param traitIndex The trait index
+     * @param value The value
+     * @return The value index, or {@code -1} if not supported
+     */
+    int getValueIndexOf(int traitIndex, @Nullable Object value) {
+        return this.valueIndexes[traitIndex].getInt(value);
+    }
+
+    /**
+     * Gets the index of the value with the given name for the trait at the given
+     * index. The name can be the string representation of the value or the
+     * catalog key (ignoring the case), if the value is a catalog type.
+     *
+     * @param traitIndex The trait index
+     * @param name The name of the value
+     * @return The value index, or {@code -1} if not supported
+     */
+    int getValueIndexOfName(int traitIndex, String name) {
+        final int index = this.valueIndexesByName[traitIndex].getInt(name);
+        return index != -1 ? index : this.valueIndexesByKey[traitIndex].getInt(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Gets the current value index of the trait for the state.
+     *
+     * @param stateIndex The internal id of the state
+     * @param traitIndex The trait index
+     * @return The value index
+     */
+    int getCurrentValueIndex(int stateIndex, int traitIndex) {
+        return this.indexer.getValueIndex(stateIndex, traitIndex);
+    }
+
+    /**
+     * Gets the value index that should be cycled to from the current value
+     * index of the trait for the state.
+     *
+     * @param stateIndex The internal id of the state
+     * @param traitIndex The trait index
+     * @return The next value index
+     */
+    int getNextValueIndex(int stateIndex, int traitIndex) {
+        return this.nextValueIndexes[traitIndex][this.indexer.getValueIndex(stateIndex, traitIndex)];
+    }
+
+    /**
+     * Gets the state that is reached by changing the value of the trait.
+     *
+     * @param stateIndex The internal id of the current state
+     * @param traitIndex The trait index
+     * @param valueIndex The new value index
+     * @return The block state
+     */
+    LanternBlockState getState(int stateIndex, int traitIndex, int valueIndex) {
+        return this.states[this.indexer.withValueIndex(stateIndex, traitIndex, valueIndex)];
+    }
 }
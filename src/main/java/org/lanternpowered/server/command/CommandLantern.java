@@ -0,0 +1,138 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.command;
+
+import static org.lanternpowered.server.text.translation.TranslationHelper.t;
+
+import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.profiler.LanternTickStatistics;
+import org.lanternpowered.server.profiler.TickProfiler;
+import org.lanternpowered.server.profiler.TickRecorder;
+import org.lanternpowered.server.profiler.TickSection;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class CommandLantern extends CommandProvider {
+
+    public CommandLantern() {
+        super(4, "lantern");
+    }
+
+    @Override
+    public void completeSpec(PluginContainer pluginContainer, CommandSpec.Builder specBuilder) {
+        specBuilder
+                .description(t("commands.lantern.description"))
+                .child(CommandSpec.builder()
+                        .description(t("commands.lantern.profile.description"))
+                        .permission(getChildPermissionFor(pluginContainer, "profile"))
+                        .child(CommandSpec.builder()
+                                .executor((src, args) -> {
+                                    TickProfiler.enable();
+                                    src.sendMessage(t("commands.lantern.profile.start"));
+                                    return CommandResult.success();
+                                })
+                                .build(), "start")
+                        .child(CommandSpec.builder()
+                                .executor((src, args) -> {
+                                    TickProfiler.disable();
+                                    src.sendMessage(t("commands.lantern.profile.stop"));
+                                    return CommandResult.success();
+                                })
+                                .build(), "stop")
+                        .executor((src, args) -> {
+                            sendReport(src);
+                            return CommandResult.success();
+                        })
+                        .build(), "profile");
+    }
+
+    private static void sendReport(CommandSource src) {
+        final LanternTickStatistics statistics = Lantern.getServer().getTickStatistics();
+        src.sendMessage(Text.of(TextColors.DARK_GREEN, format("TPS: %.2f, MSPT: %.2f (max %.2f) over %s ticks",
+                statistics.getTicksPerSecond(), statistics.getAverageTickTime(), statistics.getMaxTickTime(),
+                statistics.getSampleCount())));
+        final double[] bounds = statistics.getTickTimeHistogramBounds();
+        final long[] histogram = statistics.getTickTimeHistogram();
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            if (i < bounds.length) {
+                builder.append(format("<%.0fms: %s", bounds[i], histogram[i]));
+            } else {
+                builder.append(format(">=%.0fms: %s", bounds[bounds.length - 1], histogram[i]));
+            }
+        }
+        src.sendMessage(Text.of(TextColors.GRAY, builder.toString()));
+
+        if (TickProfiler.getProfilingTime() == 0L) {
+            src.sendMessage(t("commands.lantern.profile.no_data"));
+            return;
+        }
+        if (!TickProfiler.isEnabled()) {
+            src.sendMessage(t("commands.lantern.profile.stopped"));
+        }
+        for (TickRecorder recorder : TickProfiler.getRecorders()) {
+            if (recorder.getSampleCount() == 0) {
+                continue;
+            }
+            src.sendMessage(Text.of(TextColors.GREEN, format("%s: %.2f ms per tick", recorder.getName(),
+                    recorder.getAverageTickTime())));
+            for (TickSection section : TickSection.values()) {
+                final double time = recorder.getAverageTime(section);
+                if (time > 0.0) {
+                    src.sendMessage(Text.of(TextColors.GRAY, format("  %s: %.3f ms", section.getDisplayName(), time)));
+                }
+            }
+        }
+        final double ticks = Math.max(1.0, TickProfiler.getProfilingTime() / (double) LanternGame.TICK_DURATION_NS);
+        final List<Map.Entry<String, TickProfiler.PluginTimings>> entries = new ArrayList<>(TickProfiler.getPluginTimings().entrySet());
+        entries.sort((o1, o2) -> Long.compare(
+                o2.getValue().getEventListenerTime() + o2.getValue().getTaskTime(),
+                o1.getValue().getEventListenerTime() + o1.getValue().getTaskTime()));
+        for (Map.Entry<String, TickProfiler.PluginTimings> entry : entries) {
+            final TickProfiler.PluginTimings timings = entry.getValue();
+            src.sendMessage(Text.of(TextColors.GRAY, format("%s: listeners %.3f ms per tick (%s calls), tasks %.3f ms per tick (%s runs)",
+                    entry.getKey(), timings.getEventListenerTime() / 1000000.0 / ticks, timings.getEventListenerCalls(),
+                    timings.getTaskTime() / 1000000.0 / ticks, timings.getTaskRuns())));
+        }
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.ENGLISH, format, args);
+    }
+}
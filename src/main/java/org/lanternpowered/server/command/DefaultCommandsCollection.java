@@ -67,6 +67,7 @@ public void load() {
         commandProviders.put(this.minecraft, new CommandGameRule());
         commandProviders.put(this.minecraft, new CommandHelp());
         commandProviders.put(this.minecraft, new CommandKick());
+        commandProviders.put(this.implementation, new CommandLantern());
         commandProviders.put(this.minecraft, new CommandListBans());
         commandProviders.put(this.minecraft, new CommandListPlayers());
         commandProviders.put(this.minecraft, new CommandMe());
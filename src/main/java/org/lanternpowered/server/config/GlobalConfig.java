@@ -173,6 +173,21 @@ private static final class Server {
         @Setting(value = "network-compression-threshold")
         private int networkCompressionThreshold = 256;
 
+        @Setting(value = "network-compression-level", comment =
+                "The compression level of network messages, between 0 (no compression) and 9\n " +
+                "(best compression). -1 will use the default level of zlib.")
+        private int networkCompressionLevel = -1;
+
+        @Setting(value = "network-coalesce-writes", comment =
+                "Whether the messages that are send to a player during a tick should be\n " +
+                "flushed together at the end of the tick, instead of one by one.")
+        private boolean networkCoalesceWrites = true;
+
+        @Setting(value = "network-flush-byte-budget", comment =
+                "The maximum amount of bytes that will be written to a player before they\n " +
+                "are flushed, when the messages are flushed at the end of the tick.")
+        private int networkFlushByteBudget = 65536;
+
         @Setting(value = "chat-spam-threshold", comment =
                 "The minimum time between messages (in milliseconds) when they will be considered spam.")
         private int chatSpamThreshold = 200;
@@ -278,6 +293,11 @@ private static final class World {
                         + "\nThe value must be greater than or equal to " + MIN_VIEW_DISTANCE + " and less than or equal to " + MAX_VIEW_DISTANCE
         )
         private int viewDistance = 10;
+
+        @Setting(value = "max-chunk-sends-per-tick", comment =
+                "The maximum amount of chunks that will be send to a player per tick,\n" +
+                "less chunks will be send if the connection of the player can't keep up.")
+        private int maxChunkSendsPerTick = 16;
     }
 
     @ConfigSerializable
@@ -322,6 +342,10 @@ public void setViewDistance(int viewDistance) {
         this.worlds.viewDistance = GenericMath.clamp(viewDistance, MIN_VIEW_DISTANCE, MAX_VIEW_DISTANCE);
     }
 
+    public int getMaxChunkSendsPerTick() {
+        return Math.max(1, this.worlds.maxChunkSendsPerTick);
+    }
+
     public Chat getChat() {
         return this.chat;
     }
@@ -383,6 +407,19 @@ public int getNetworkCompressionThreshold() {
         return this.server.networkCompressionThreshold;
     }
 
+    public int getNetworkCompressionLevel() {
+        final int level = this.server.networkCompressionLevel;
+        return level < -1 || level > 9 ? -1 : level;
+    }
+
+    public boolean shouldCoalesceNetworkWrites() {
+        return this.server.networkCoalesceWrites;
+    }
+
+    public int getNetworkFlushByteBudget() {
+        return Math.max(1024, this.server.networkFlushByteBudget);
+    }
+
     public int getRconPort() {
         return this.rcon.port;
     }
@@ -97,6 +97,28 @@ private static class Chunks {
     @Setting(value = "game-mode", comment = "The game mode settings of this world.")
     private WorldGameMode gameMode = new WorldGameMode();
 
+    @Setting(value = "parallel-ticking", comment = "The parallel ticking settings of this world.")
+    private ParallelTicking parallelTicking = new ParallelTicking();
+
+    @ConfigSerializable
+    private static class ParallelTicking {
+
+        @Setting(value = "enabled", comment =
+                "Enable to tick independent regions of loaded chunks in parallel.\n " +
+                "Regions are groups of chunks that are separated by chunks that aren't loaded.")
+        private boolean enabled = false;
+
+        @Setting(value = "border-distance", comment =
+                "The minimum amount of chunks that aren't loaded between two\n " +
+                "regions. The value must be greater than or equal to 1.")
+        private int borderDistance = 2;
+
+        @Setting(value = "threads", comment =
+                "The amount of threads that are used to tick the regions.\n " +
+                "The amount of available processors will be used when the value is 0.")
+        private int threads = 0;
+    }
+
     public static final int USE_SERVER_VIEW_DISTANCE = -1;
     public static final int MAX_VIEW_DISTANCE = 32;
     public static final int MIN_VIEW_DISTANCE = 3;
@@ -150,6 +172,19 @@ public void setViewDistance(int viewDistance) {
                 GenericMath.clamp(viewDistance, MIN_VIEW_DISTANCE, MAX_VIEW_DISTANCE);
     }
 
+    public boolean isParallelTickingEnabled() {
+        return this.parallelTicking.enabled;
+    }
+
+    public int getParallelTickingBorderDistance() {
+        return Math.max(1, this.parallelTicking.borderDistance);
+    }
+
+    public int getParallelTickingThreads() {
+        final int threads = this.parallelTicking.threads;
+        return threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
     public int getChunkClumpingThreshold() {
         return this.chunks.clumpingThreshold;
     }
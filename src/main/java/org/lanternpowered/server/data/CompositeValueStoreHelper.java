@@ -66,7 +66,8 @@ protected static boolean supportsEvents(ICompositeValueStore store) {
     }
 
     protected static boolean hasListeners(ICompositeValueStore store, Key<?> key) {
-        return hasListeners(store, Collections.singleton(key));
+        // Avoid the iterable for the most common case
+        return !((LanternKey) key).getListeners().isEmpty() && hasListeners(store, Collections.singleton(key));
     }
 
     protected static boolean hasListeners(ICompositeValueStore store, Iterable<Key<?>> keys) {
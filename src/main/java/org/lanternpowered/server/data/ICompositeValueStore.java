@@ -28,6 +28,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import org.lanternpowered.server.data.element.ElementKeyRegistration;
 import org.lanternpowered.server.data.key.LanternKey;
 import org.lanternpowered.server.data.manipulator.DataManipulatorRegistration;
 import org.lanternpowered.server.data.manipulator.DataManipulatorRegistry;
@@ -82,6 +83,60 @@ default <E> boolean offerFast(Key<? extends BaseValue<E>> key, E element) {
         return CompositeValueStoreHelper.offerFast(this, key, element);
     }
 
+    /**
+     * A fast equivalent of {@link #offer(Key, Object)} for boolean values. Elements
+     * that are registered locally are set directly if there are no listeners for
+     * the key, without any lookups through {@link Optional}s.
+     *
+     * @param key The key
+     * @param value The value
+     * @return Whether the offer was successful
+     */
+    default boolean offerBoolean(Key<? extends BaseValue<Boolean>> key, boolean value) {
+        final ElementKeyRegistration<?, Boolean> registration = getValueCollection().getDirectElement(key);
+        if (registration != null && !CompositeValueStoreHelper.hasListeners(this, key)) {
+            registration.set(value);
+            return true;
+        }
+        return offerFast(key, value);
+    }
+
+    /**
+     * A fast equivalent of {@link #offer(Key, Object)} for int values. Elements
+     * that are registered locally are set directly if there are no listeners for
+     * the key, without any lookups through {@link Optional}s.
+     *
+     * @param key The key
+     * @param value The value
+     * @return Whether the offer was successful
+     */
+    default boolean offerInt(Key<? extends BaseValue<Integer>> key, int value) {
+        final ElementKeyRegistration<?, Integer> registration = getValueCollection().getDirectElement(key);
+        if (registration != null && !CompositeValueStoreHelper.hasListeners(this, key)) {
+            registration.set(value);
+            return true;
+        }
+        return offerFast(key, value);
+    }
+
+    /**
+     * A fast equivalent of {@link #offer(Key, Object)} for double values. Elements
+     * that are registered locally are set directly if there are no listeners for
+     * the key, without any lookups through {@link Optional}s.
+     *
+     * @param key The key
+     * @param value The value
+     * @return Whether the offer was successful
+     */
+    default boolean offerDouble(Key<? extends BaseValue<Double>> key, double value) {
+        final ElementKeyRegistration<?, Double> registration = getValueCollection().getDirectElement(key);
+        if (registration != null && !CompositeValueStoreHelper.hasListeners(this, key)) {
+            registration.set(value);
+            return true;
+        }
+        return offerFast(key, value);
+    }
+
     default <E> boolean offerFastNoEvents(Key<? extends BaseValue<E>> key, E element) {
         // Optional unwrapped key handling
         final LanternKey optionalWrappedKey = ((LanternKey) key).getOptionalWrappedKey();
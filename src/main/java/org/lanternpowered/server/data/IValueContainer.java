@@ -29,6 +29,7 @@
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
+import org.lanternpowered.server.data.element.ElementKeyRegistration;
 import org.lanternpowered.server.data.key.LanternKey;
 import org.lanternpowered.server.data.processor.Processor;
 import org.lanternpowered.server.data.processor.ValueProcessorKeyRegistration;
@@ -214,6 +215,66 @@ default <E> Optional<E> get(Key<? extends BaseValue<E>> key) {
         return Optional.empty();
     }
 
+    /**
+     * Gets the boolean value for the given {@link Key}. Elements that are
+     * registered locally are accessed directly, without creating a
+     * {@link Optional} on every call.
+     *
+     * @param key The key
+     * @return The value
+     * @throws java.util.NoSuchElementException If the key isn't supported
+     */
+    default boolean getBoolean(Key<? extends BaseValue<Boolean>> key) {
+        final ElementKeyRegistration<?, Boolean> registration = getValueCollection().getDirectElement(key);
+        if (registration != null) {
+            final Boolean value = registration.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        return get(key).get();
+    }
+
+    /**
+     * Gets the int value for the given {@link Key}. Elements that are
+     * registered locally are accessed directly, without creating a
+     * {@link Optional} on every call.
+     *
+     * @param key The key
+     * @return The value
+     * @throws java.util.NoSuchElementException If the key isn't supported
+     */
+    default int getInt(Key<? extends BaseValue<Integer>> key) {
+        final ElementKeyRegistration<?, Integer> registration = getValueCollection().getDirectElement(key);
+        if (registration != null) {
+            final Integer value = registration.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        return get(key).get();
+    }
+
+    /**
+     * Gets the double value for the given {@link Key}. Elements that are
+     * registered locally are accessed directly, without creating a
+     * {@link Optional} on every call.
+     *
+     * @param key The key
+     * @return The value
+     * @throws java.util.NoSuchElementException If the key isn't supported
+     */
+    default double getDouble(Key<? extends BaseValue<Double>> key) {
+        final ElementKeyRegistration<?, Double> registration = getValueCollection().getDirectElement(key);
+        if (registration != null) {
+            final Double value = registration.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        return get(key).get();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     default <E, V extends BaseValue<E>> Optional<V> getRawValueFor(Key<V> key) {
@@ -28,8 +28,11 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.lanternpowered.server.data.element.Element;
 import org.lanternpowered.server.data.element.ElementKeyRegistration;
+import org.lanternpowered.server.data.key.LanternKey;
 import org.lanternpowered.server.data.processor.ElementProcessorBuilder;
 import org.lanternpowered.server.data.processor.Processor;
 import org.lanternpowered.server.data.processor.ValueProcessorKeyRegistration;
@@ -83,7 +86,7 @@ public static ValueCollection create() {
      */
     public static ValueCollection create(Mode mode) {
         checkNotNull(mode, "mode");
-        return new ValueCollection(new HashMap<>(), mode);
+        return new ValueCollection(new HashMap<>(), new Int2ObjectOpenHashMap<>(), mode);
     }
 
     private final Map<Key<?>, KeyRegistration> values;
@@ -91,9 +94,16 @@ public static ValueCollection create(Mode mode) {
     private final Collection<KeyRegistration<?,?>> unmodifiableRegistrations;
     private final Mode mode;
 
-    private ValueCollection(Map<Key<?>, KeyRegistration> values, Mode mode) {
+    // All the registrations of lantern keys by the index of the key, see
+    // LanternKey#getIndex(), this avoids hashing the key objects on every
+    // lookup. The open addressed map only grows with the registered keys,
+    // not with the amount of keys that exist.
+    private final Int2ObjectMap<KeyRegistration> registrations;
+
+    private ValueCollection(Map<Key<?>, KeyRegistration> values, Int2ObjectMap<KeyRegistration> registrations, Mode mode) {
         this.unmodifiableKeys = Collections.unmodifiableSet(values.keySet());
         this.unmodifiableRegistrations = (Collection) Collections.unmodifiableCollection(values.values());
+        this.registrations = registrations;
         this.values = values;
         this.mode = mode;
     }
@@ -103,14 +113,34 @@ private void checkKey(Key<?> key) {
         checkArgument(!this.values.containsKey(key), "The specified key (%s) is already registered.", key);
     }
 
+    private void put(Key<?> key, KeyRegistration registration) {
+        this.values.put(key, registration);
+        if (key instanceof LanternKey) {
+            this.registrations.put(((LanternKey) key).getIndex(), registration);
+        }
+    }
+
+    @Nullable
+    private KeyRegistration getRegistration(Key<?> key) {
+        if (key instanceof LanternKey) {
+            final KeyRegistration registration = this.registrations.get(((LanternKey) key).getIndex());
+            if (registration != null) {
+                return registration;
+            }
+        }
+        // Fall back to the map, a equal key instance could be used
+        return this.values.get(key);
+    }
+
     @Override
     public ValueCollection copy() {
-        final Map<Key<?>, KeyRegistration> values = new HashMap<>();
+        final ValueCollection copy = new ValueCollection(new HashMap<>(this.values.size()),
+                new Int2ObjectOpenHashMap<>(this.registrations.size()), this.mode);
         for (Map.Entry<Key<?>, KeyRegistration> entry : this.values.entrySet()) {
             final KeyRegistration registration = entry.getValue();
-            values.put(entry.getKey(), Copyable.copy(registration).orElse(registration));
+            copy.put(entry.getKey(), Copyable.copy(registration).orElse(registration));
         }
-        return new ValueCollection(values, this.mode);
+        return copy;
     }
 
     /**
@@ -141,7 +171,7 @@ public Collection<KeyRegistration<?,?>> getAll() {
      * @return Is registered
      */
     public boolean has(Key<?> key) {
-        return this.values.containsKey(key);
+        return getRegistration(key) != null;
     }
 
     /**
@@ -153,7 +183,7 @@ public boolean has(Key<?> key) {
      * @return The key registration, if present
      */
     public <V extends BaseValue<E>, E> Optional<KeyRegistration<V, E>> get(Key<? extends BaseValue<E>> key) {
-        return Optional.ofNullable(this.values.get(key));
+        return Optional.ofNullable(getRegistration(key));
     }
 
     /**
@@ -165,10 +195,26 @@ public <V extends BaseValue<E>, E> Optional<KeyRegistration<V, E>> get(Key<? ext
      */
     public <E> Optional<Element<E>> getElement(Key<? extends BaseValue<E>> key) {
         checkNotNull(key, "key");
-        final Object object = this.values.get(key);
+        final Object object = getRegistration(key);
         return object instanceof Element ? Optional.of((Element<E>) object) : Optional.empty();
     }
 
+    /**
+     * Gets the {@link ElementKeyRegistration} for the given {@link Key} if
+     * it's present and the element can be accessed directly, see
+     * {@link ElementKeyRegistration#isDirect()}.
+     *
+     * @param key The key
+     * @param <E> The element type
+     * @return The element key registration, or {@code null} if not present or direct
+     */
+    @Nullable
+    public <E> ElementKeyRegistration<?, E> getDirectElement(Key<? extends BaseValue<E>> key) {
+        final KeyRegistration registration = getRegistration(key);
+        return registration instanceof ElementKeyRegistration && ((ElementKeyRegistration) registration).isDirect() ?
+                (ElementKeyRegistration<?, E>) registration : null;
+    }
+
     /**
      * Registers the given {@link Key} with a default value.
      *
@@ -184,7 +230,7 @@ public <V extends BaseValue<E>, E> ElementKeyRegistration<V, E> registerNonRemov
         checkKey(key);
         final ElementKeyRegistration<V, E> processor = (ElementKeyRegistration<V, E>) ElementProcessorBuilder.createNonRemovable(key);
         processor.set(defaultValue);
-        this.values.put(key, processor);
+        put(key, processor);
         return processor;
     }
 
@@ -205,7 +251,7 @@ public <V extends BaseValue<E>, E> ElementKeyRegistration<V, E> register(
         checkKey(key);
         final ElementKeyRegistration<V, E> processor = (ElementKeyRegistration<V, E>) ElementProcessorBuilder.createDefault(key);
         processor.set(defaultValue);
-        this.values.put(key, processor);
+        put(key, processor);
         return processor;
     }
 
@@ -232,7 +278,7 @@ public <V extends BaseValue<E>, E> ElementKeyRegistration<V, E> register(
         builderConsumer.accept(builder);
         final ElementKeyRegistration<V, E> element = (ElementKeyRegistration<V, E>) builder.build();
         element.set(defaultValue);
-        this.values.put(key, element);
+        put(key, element);
         return element;
     }
 
@@ -247,7 +293,7 @@ public <V extends BaseValue<E>, E> ElementKeyRegistration<V, E> register(
     public <V extends BaseValue<E>, E> ValueProcessorKeyRegistration<V, E> registerProcessor(Key<? extends V> key) {
         checkKey(key);
         final ValueProcessorKeyRegistration<V, E> processor = ValueProcessorKeyRegistration.create(key);
-        this.values.put(key, processor);
+        put(key, processor);
         return processor;
     }
 
@@ -350,7 +396,7 @@ private <V extends BoundedValue<E>, E extends Comparable<E>> ElementKeyRegistrat
         });
         final ElementKeyRegistration<V, E> element = (ElementKeyRegistration<V, E>) builder.build();
         element.set(defaultValue);
-        this.values.put(key, element);
+        put(key, element);
         return element;
     }
 
@@ -30,4 +30,12 @@
 
 public interface ElementKeyRegistration<V extends BaseValue<E>, E> extends KeyRegistration<V, E>, Element<E> {
 
+    /**
+     * Gets whether the element of this registration can be accessed directly
+     * through {@link #get()} and {@link #set(Object)}. This is the case if no
+     * custom applicable tester, retrieve or offer handlers are applied.
+     *
+     * @return Is direct
+     */
+    boolean isDirect();
 }
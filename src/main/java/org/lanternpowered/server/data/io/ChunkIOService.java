@@ -72,6 +72,14 @@ public interface ChunkIOService extends WorldStorage {
      */
     void write(LanternChunk chunk) throws IOException;
 
+    /**
+     * Waits until all the chunks that were written
+     * before are stored.
+     *
+     * @throws IOException If an i/o error occurs
+     */
+    void flush() throws IOException;
+
     /**
      * Unload the service, performing any cleanup necessary.
      * 
@@ -0,0 +1,333 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.BIOMES;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.BIOMES_EXTRA;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.BLOCKS;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.BLOCKS_EXTRA;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.BLOCK_LIGHT;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.DATA;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.ENTITIES;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.HEIGHT_MAP;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.INHABITED_TIME;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.LEVEL;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.LIGHT_POPULATED;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.SECTIONS;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.SKY_LIGHT;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.SPONGE_DATA;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TERRAIN_POPULATED;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TILE_ENTITIES;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TRACKER_BLOCK_POS;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TRACKER_DATA_TABLE;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TRACKER_ENTRY_CREATOR;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.TRACKER_ENTRY_NOTIFIER;
+import static org.lanternpowered.server.data.io.anvil.AnvilChunkIOService.Y;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import org.lanternpowered.server.block.tile.LanternTileEntity;
+import org.lanternpowered.server.data.persistence.nbt.NbtDataContainerInputStream;
+import org.lanternpowered.server.data.persistence.nbt.NbtVisitor;
+import org.lanternpowered.server.util.collect.array.NibbleArray;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.data.persistence.InvalidDataFormatException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Decodes the data of a anvil chunk while it's being read by a
+ * {@link NbtDataContainerInputStream}. The arrays of the sections are put
+ * directly into {@link ChunkSection}s, only the entities and tile entities
+ * are read as {@link DataView}s.
+ */
+final class AnvilChunkDecoder implements NbtVisitor {
+
+    /**
+     * Reads the chunk data from the {@link NbtDataContainerInputStream}.
+     *
+     * @param inputStream The input stream
+     * @return The chunk decoder
+     * @throws IOException If a i/o error occurred
+     */
+    static AnvilChunkDecoder decode(NbtDataContainerInputStream inputStream) throws IOException {
+        final AnvilChunkDecoder decoder = new AnvilChunkDecoder();
+        inputStream.accept(new NbtVisitor() {
+            @Nullable
+            @Override
+            public NbtVisitor visitCompound(String name) {
+                if (name.equals(LEVEL)) {
+                    decoder.level = true;
+                    return decoder;
+                }
+                return null;
+            }
+        });
+        if (!decoder.level) {
+            throw new InvalidDataFormatException("The chunk data is missing the level compound.");
+        }
+        return decoder;
+    }
+
+    private boolean level;
+
+    final ChunkSection[] sections = new ChunkSection[CHUNK_SECTIONS];
+    final short[][] blockTypes = new short[CHUNK_SECTIONS][];
+    @SuppressWarnings("unchecked")
+    final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = new Short2ObjectOpenHashMap[CHUNK_SECTIONS];
+
+    final List<DataView> tileEntityViews = new ArrayList<>();
+    final List<DataView> entityViews = new ArrayList<>();
+
+    // The tracker entries, stored as pos, creator, notifier
+    final IntArrayList trackerEntries = new IntArrayList();
+
+    boolean populated;
+    boolean lightPopulated;
+    // The inhabited time, or -1 if not present
+    long inhabitedTime = -1;
+
+    @Nullable byte[] biomes;
+    @Nullable byte[] biomesExtra;
+    @Nullable int[] heightMap;
+
+    private AnvilChunkDecoder() {
+    }
+
+    @Override
+    public void visitValue(String name, Object value) {
+        if (!(value instanceof Number)) {
+            return;
+        }
+        switch (name) {
+            case TERRAIN_POPULATED:
+                this.populated = ((Number) value).intValue() > 0;
+                break;
+            case LIGHT_POPULATED:
+                this.lightPopulated = ((Number) value).intValue() > 0;
+                break;
+            case INHABITED_TIME:
+                this.inhabitedTime = ((Number) value).longValue();
+                break;
+        }
+    }
+
+    @Override
+    public void visitByteArray(String name, byte[] value) {
+        if (name.equals(BIOMES)) {
+            this.biomes = value;
+        } else if (name.equals(BIOMES_EXTRA)) {
+            this.biomesExtra = value;
+        }
+    }
+
+    @Override
+    public void visitIntArray(String name, int[] value) {
+        if (name.equals(HEIGHT_MAP)) {
+            this.heightMap = value;
+        }
+    }
+
+    @Nullable
+    @Override
+    public NbtVisitor visitCompound(String name) {
+        if (name.equals(SPONGE_DATA)) {
+            return new NbtVisitor() {
+                @Nullable
+                @Override
+                public NbtVisitor visitList(String name, int elementType, int size) {
+                    return name.equals(TRACKER_DATA_TABLE) ? new ListVisitor(TrackerEntryVisitor::new) : null;
+                }
+            };
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public NbtVisitor visitList(String name, int elementType, int size) {
+        switch (name) {
+            case SECTIONS:
+                return new ListVisitor(SectionVisitor::new);
+            case TILE_ENTITIES:
+                return new ViewListVisitor(this.tileEntityViews);
+            case ENTITIES:
+                return new ViewListVisitor(this.entityViews);
+        }
+        return null;
+    }
+
+    /**
+     * A list visitor that visits every compound element with a new visitor.
+     */
+    private static final class ListVisitor implements NbtVisitor {
+
+        private final Supplier<NbtVisitor> elementVisitorSupplier;
+
+        private ListVisitor(Supplier<NbtVisitor> elementVisitorSupplier) {
+            this.elementVisitorSupplier = elementVisitorSupplier;
+        }
+
+        @Override
+        public NbtVisitor visitCompound(String name) {
+            return this.elementVisitorSupplier.get();
+        }
+    }
+
+    /**
+     * A list visitor that collects all the compound elements as {@link DataView}s.
+     */
+    private static final class ViewListVisitor implements NbtVisitor {
+
+        private final List<DataView> dataViews;
+
+        private ViewListVisitor(List<DataView> dataViews) {
+            this.dataViews = dataViews;
+        }
+
+        @Override
+        public void visitValue(String name, Object value) {
+            if (value instanceof DataView) {
+                this.dataViews.add((DataView) value);
+            }
+        }
+    }
+
+    private final class SectionVisitor implements NbtVisitor {
+
+        private int y = -1;
+        @Nullable private byte[] blocks;
+        @Nullable private byte[] blocksExtra;
+        @Nullable private byte[] data;
+        @Nullable private byte[] blockLight;
+        @Nullable private byte[] skyLight;
+
+        @Override
+        public void visitValue(String name, Object value) {
+            if (name.equals(Y) && value instanceof Number) {
+                this.y = ((Number) value).intValue();
+            }
+        }
+
+        @Override
+        public void visitByteArray(String name, byte[] value) {
+            switch (name) {
+                case BLOCKS:
+                    this.blocks = value;
+                    break;
+                case BLOCKS_EXTRA:
+                    this.blocksExtra = value;
+                    break;
+                case DATA:
+                    this.data = value;
+                    break;
+                case BLOCK_LIGHT:
+                    this.blockLight = value;
+                    break;
+                case SKY_LIGHT:
+                    this.skyLight = value;
+                    break;
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            if (this.y < 0 || this.y >= CHUNK_SECTIONS || this.blocks == null || this.blocks.length != CHUNK_SECTION_VOLUME) {
+                return;
+            }
+            final int halfVolume = CHUNK_SECTION_VOLUME / 2;
+            final byte[] blocks = this.blocks;
+            final byte[] data = this.data != null && this.data.length == halfVolume ? this.data : null;
+            final byte[] blocksExtra = this.blocksExtra != null && this.blocksExtra.length == halfVolume ? this.blocksExtra : null;
+
+            // Combine the block ids and data values directly, the
+            // nibble arrays are unpacked two values at the same time
+            final short[] types = new short[CHUNK_SECTION_VOLUME];
+            for (int i = 0; i < halfVolume; i++) {
+                final int j = i << 1;
+                final int dataValue = data == null ? 0 : data[i];
+                final int extra = blocksExtra == null ? 0 : blocksExtra[i];
+                types[j] = (short) ((extra & 0xf) << 12 | (blocks[j] & 0xff) << 4 | dataValue & 0xf);
+                types[j + 1] = (short) ((extra >> 4 & 0xf) << 12 | (blocks[j + 1] & 0xff) << 4 | dataValue >> 4 & 0xf);
+            }
+
+            final Short2ObjectOpenHashMap<LanternTileEntity> tileEntities = new Short2ObjectOpenHashMap<>();
+            blockTypes[this.y] = types;
+            tileEntitySections[this.y] = tileEntities;
+            sections[this.y] = new ChunkSection(types, toNibbleArray(this.skyLight), toNibbleArray(this.blockLight), tileEntities);
+        }
+
+        private NibbleArray toNibbleArray(@Nullable byte[] content) {
+            if (content == null) {
+                return new NibbleArray(CHUNK_SECTION_VOLUME);
+            } else if (content.length == CHUNK_SECTION_VOLUME / 2) {
+                // The array isn't used anywhere else, no need to copy it
+                return NibbleArray.wrap(CHUNK_SECTION_VOLUME, content);
+            }
+            return new NibbleArray(CHUNK_SECTION_VOLUME, content, true);
+        }
+    }
+
+    private final class TrackerEntryVisitor implements NbtVisitor {
+
+        private int pos = -1;
+        private int creator = -1;
+        private int notifier = -1;
+
+        @Override
+        public void visitShort(String name, short value) {
+            if (name.equals(TRACKER_BLOCK_POS)) {
+                this.pos = value & 0xffff;
+            }
+        }
+
+        @Override
+        public void visitInt(String name, int value) {
+            if (name.equals(TRACKER_ENTRY_CREATOR)) {
+                this.creator = value;
+            } else if (name.equals(TRACKER_ENTRY_NOTIFIER)) {
+                this.notifier = value;
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            if (this.pos != -1) {
+                trackerEntries.add(this.pos);
+                trackerEntries.add(this.creator);
+                trackerEntries.add(this.notifier);
+            }
+        }
+    }
+}
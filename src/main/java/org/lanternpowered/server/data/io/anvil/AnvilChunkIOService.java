@@ -51,16 +51,17 @@
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_MASK;
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_SIZE;
 import static org.lanternpowered.server.util.UncheckedThrowables.throwUnchecked;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
 import static org.lanternpowered.server.world.chunk.LanternChunk.fixEntityYSection;
 
 import com.flowpowered.math.vector.Vector3i;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 import org.lanternpowered.server.block.tile.LanternTileEntity;
-import org.lanternpowered.server.data.DataQueries;
 import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.data.io.store.ObjectSerializer;
 import org.lanternpowered.server.data.io.store.ObjectSerializerRegistry;
@@ -71,7 +72,6 @@
 import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
 import org.lanternpowered.server.scheduler.LanternScheduler;
 import org.lanternpowered.server.util.UncheckedThrowables;
-import org.lanternpowered.server.util.collect.array.NibbleArray;
 import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSectionSnapshot;
@@ -102,39 +102,41 @@
 @Singleton
 public class AnvilChunkIOService implements ChunkIOService {
 
-    private static final DataQuery VERSION = DataQuery.of("V"); // byte
-    private static final DataQuery LEVEL = DataQuery.of("Level"); // compound
-    private static final DataQuery SECTIONS = DataQuery.of("Sections"); // array
-    private static final DataQuery X = DataQuery.of("xPos"); // int
-    private static final DataQuery Z = DataQuery.of("zPos"); // int
-    private static final DataQuery Y = DataQuery.of("Y"); // byte
-    private static final DataQuery BLOCKS = DataQuery.of("Blocks"); // byte array
-    private static final DataQuery BLOCKS_EXTRA = DataQuery.of("Add"); // (nibble) byte array
-    private static final DataQuery DATA = DataQuery.of("Data"); // (nibble) byte array
-    private static final DataQuery BLOCK_LIGHT = DataQuery.of("BlockLight"); // (nibble) byte array
-    private static final DataQuery SKY_LIGHT = DataQuery.of("SkyLight"); // (nibble) byte array
-    private static final DataQuery TERRAIN_POPULATED = DataQuery.of("TerrainPopulated"); // (boolean) byte
-    private static final DataQuery LIGHT_POPULATED = DataQuery.of("LightPopulated"); // (boolean) byte
-    private static final DataQuery BIOMES = DataQuery.of("Biomes"); // byte array
+    static final String VERSION = "V"; // byte
+    static final String LEVEL = "Level"; // compound
+    static final String SECTIONS = "Sections"; // array
+    static final String X = "xPos"; // int
+    static final String Z = "zPos"; // int
+    static final String Y = "Y"; // byte
+    static final String BLOCKS = "Blocks"; // byte array
+    static final String BLOCKS_EXTRA = "Add"; // (nibble) byte array
+    static final String DATA = "Data"; // (nibble) byte array
+    static final String BLOCK_LIGHT = "BlockLight"; // (nibble) byte array
+    static final String SKY_LIGHT = "SkyLight"; // (nibble) byte array
+    static final String TERRAIN_POPULATED = "TerrainPopulated"; // (boolean) byte
+    static final String LIGHT_POPULATED = "LightPopulated"; // (boolean) byte
+    static final String BIOMES = "Biomes"; // byte array
     // A extra tag for the biomes to support the custom biomes
-    private static final DataQuery BIOMES_EXTRA = DataQuery.of("BiomesE"); // byte array
-    private static final DataQuery HEIGHT_MAP = DataQuery.of("HeightMap");  // int array
-    private static final DataQuery LAST_UPDATE = DataQuery.of("LastUpdate"); // long
-    private static final DataQuery TRACKER_DATA_TABLE = DataQuery.of("BlockPosTable");
-    private static final DataQuery TRACKER_BLOCK_POS = DataQuery.of("pos");
-    private static final DataQuery TRACKER_ENTRY_CREATOR = DataQuery.of("owner");
-    private static final DataQuery TRACKER_ENTRY_NOTIFIER = DataQuery.of("notifier");
+    static final String BIOMES_EXTRA = "BiomesE"; // byte array
+    static final String HEIGHT_MAP = "HeightMap";  // int array
+    static final String LAST_UPDATE = "LastUpdate"; // long
+    static final String SPONGE_DATA = "SpongeData"; // compound
+    static final String TRACKER_DATA_TABLE = "BlockPosTable";
+    static final String TRACKER_BLOCK_POS = "pos";
+    static final String TRACKER_ENTRY_CREATOR = "owner";
+    static final String TRACKER_ENTRY_NOTIFIER = "notifier";
+    static final String TILE_ENTITIES = "TileEntities";
+    static final String INHABITED_TIME = "InhabitedTime";
+    static final String ENTITIES = "Entities";
     private static final DataQuery TILE_ENTITY_X = DataQuery.of("x");
     private static final DataQuery TILE_ENTITY_Y = DataQuery.of("y");
     private static final DataQuery TILE_ENTITY_Z = DataQuery.of("z");
-    private static final DataQuery TILE_ENTITIES = DataQuery.of("TileEntities");
-    private static final DataQuery INHABITED_TIME = DataQuery.of("InhabitedTime");
-    private static final DataQuery ENTITIES = DataQuery.of("Entities");
 
     private final World world;
     private final Logger logger;
     private final LanternScheduler scheduler;
     private final RegionFileCache cache;
+    private final ChunkSaveQueue saveQueue;
     private final Path baseDir;
 
     // TODO: Consider the session.lock file
@@ -142,6 +144,7 @@ public class AnvilChunkIOService implements ChunkIOService {
     @Inject
     public AnvilChunkIOService(@Named(DirectoryKeys.WORLD) Path baseDir, World world, Logger logger, LanternScheduler scheduler) {
         this.cache = new RegionFileCache(baseDir);
+        this.saveQueue = new ChunkSaveQueue(this.cache, logger, baseDir.getFileName().toString());
         this.scheduler = scheduler;
         this.baseDir = baseDir;
         this.logger = logger;
@@ -150,6 +153,9 @@ public AnvilChunkIOService(@Named(DirectoryKeys.WORLD) Path baseDir, World world
 
     @Override
     public boolean exists(int x, int z) throws IOException {
+        if (this.saveQueue.hasPending(x, z)) {
+            return true;
+        }
         final RegionFile region = this.cache.getRegionFileByChunk(x, z);
 
         final int regionX = x & REGION_MASK;
@@ -163,55 +169,25 @@ public boolean read(LanternChunk chunk) throws IOException {
         final int x = chunk.getX();
         final int z = chunk.getZ();
 
-        final RegionFile region = this.cache.getRegionFileByChunk(x, z);
-        final int regionX = x & REGION_MASK;
-        final int regionZ = z & REGION_MASK;
-
-        final DataInputStream is = region.getChunkDataInputStream(regionX, regionZ);
+        final DataInputStream is = getChunkDataInputStream(x, z);
         if (is == null) {
             return false;
         }
 
-        final DataView levelDataView;
+        final AnvilChunkDecoder decoder;
         try (NbtDataContainerInputStream nbt = new NbtDataContainerInputStream(is)) {
-            levelDataView = nbt.read().getView(LEVEL).get();
+            decoder = AnvilChunkDecoder.decode(nbt);
         }
 
-        // read the vertical sections
-        final List<DataView> sectionList = levelDataView.getViewList(SECTIONS).get();
-        final ChunkSection[] sections = new ChunkSection[16];
-        final short[][] blockTypes = new short[16][];
-        //noinspection unchecked
-        final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = new Short2ObjectOpenHashMap[sections.length];
-
-        for (DataView sectionTag : sectionList) {
-            final int y = sectionTag.getInt(Y).get();
-            final byte[] rawTypes = (byte[]) sectionTag.get(BLOCKS).get();
-
-            final byte[] extTypes = sectionTag.contains(BLOCKS_EXTRA) ? (byte[]) sectionTag.get(BLOCKS_EXTRA).get() : null;
-            final byte[] data = (byte[]) sectionTag.get(DATA).get();
-            final byte[] blockLight = (byte[]) sectionTag.get(BLOCK_LIGHT).get();
-            final byte[] skyLight = (byte[]) sectionTag.get(SKY_LIGHT).get();
-
-            final NibbleArray dataArray = new NibbleArray(rawTypes.length, data, true);
-            final NibbleArray extTypesArray = extTypes == null ? null : new NibbleArray(rawTypes.length, extTypes, true);
+        final short[][] blockTypes = decoder.blockTypes;
+        final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = decoder.tileEntitySections;
 
-            blockTypes[y] = new short[rawTypes.length];
-            for (int i = 0; i < rawTypes.length; i++) {
-                blockTypes[y][i] = (short) ((extTypesArray == null ? 0 : extTypesArray.get(i)) << 12 | ((rawTypes[i] & 0xff) << 4) | dataArray.get(i));
-            }
-
-            tileEntitySections[y] = new Short2ObjectOpenHashMap<>();
-            sections[y] = new ChunkSection(blockTypes[y], new NibbleArray(rawTypes.length, skyLight, true),
-                    new NibbleArray(rawTypes.length, blockLight, true), tileEntitySections[y]);
-        }
-
-        levelDataView.getViewList(TILE_ENTITIES).ifPresent(tileEntityViews -> {
+        if (!decoder.tileEntityViews.isEmpty()) {
             final ObjectSerializer<LanternTileEntity> tileEntitySerializer = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
-            for (DataView tileEntityView : tileEntityViews) {
+            for (DataView tileEntityView : decoder.tileEntityViews) {
                 final int tileY = tileEntityView.getInt(TILE_ENTITY_Y).get();
                 final int section = tileY >> 4;
-                if (tileEntitySections[section] == null) {
+                if (section < 0 || section >= tileEntitySections.length || tileEntitySections[section] == null) {
                     continue;
                 }
                 final int tileZ = tileEntityView.getInt(TILE_ENTITY_Z).get();
@@ -228,39 +204,31 @@ public boolean read(LanternChunk chunk) throws IOException {
                             tileX & 0xf, tileY & 0xf, tileZ & 0xf, x, z, getWorldProperties().getWorldName(), e);
                 }
             }
-        });
-
-        final DataView spongeDataView = levelDataView.getView(DataQueries.SPONGE_DATA).orElse(null);
-        final List<DataView> trackerDataViews = spongeDataView == null ? null : levelDataView.getViewList(TRACKER_DATA_TABLE).orElse(null);
+        }
 
         //noinspection unchecked
         final Short2ObjectMap<LanternChunk.TrackerData>[] trackerData = chunk.getTrackerData().getRawObjects();
 
-        if (trackerDataViews != null) {
-            for (DataView dataView : trackerDataViews) {
-                final Optional<Short> optIndex = dataView.getShort(TRACKER_BLOCK_POS);
-                if (!optIndex.isPresent()) {
-                    continue;
-                }
-                final int creatorId = dataView.getInt(TRACKER_ENTRY_CREATOR).orElse(-1);
-                final int notifierId = dataView.getInt(TRACKER_ENTRY_NOTIFIER).orElse(-1);
-                // index = z << 12 | y << 4 | x
-                int index = optIndex.get() & 0xffff;
-                final int section = (index >> 8) & 0xf;
-                // Convert the index to the section based system
-                // index = y << 8 | z << 4 | x
-                index = ChunkSection.index(index & 0xf, (index >> 4) & 0xf, index >> 12);
-                trackerData[section].put((short) index, new LanternChunk.TrackerData(creatorId, notifierId));
-            }
+        final IntArrayList trackerEntries = decoder.trackerEntries;
+        for (int i = 0; i < trackerEntries.size(); i += 3) {
+            // index = z << 12 | y << 4 | x
+            int index = trackerEntries.getInt(i);
+            final int creatorId = trackerEntries.getInt(i + 1);
+            final int notifierId = trackerEntries.getInt(i + 2);
+            final int section = (index >> 8) & 0xf;
+            // Convert the index to the section based system
+            // index = y << 8 | z << 4 | x
+            index = ChunkSection.index(index & 0xf, (index >> 4) & 0xf, index >> 12);
+            trackerData[section].put((short) index, new LanternChunk.TrackerData(creatorId, notifierId));
         }
 
         // initialize the chunk
-        chunk.initializeSections(sections);
-        chunk.setPopulated(levelDataView.getInt(TERRAIN_POPULATED).orElse(0) > 0);
+        chunk.initializeSections(decoder.sections);
+        chunk.setPopulated(decoder.populated);
 
-        if (levelDataView.contains(BIOMES)) {
-            final byte[] biomes = (byte[]) levelDataView.get(BIOMES).get();
-            final byte[] biomesExtra = (byte[]) (levelDataView.contains(BIOMES_EXTRA) ? levelDataView.get(BIOMES_EXTRA).get() : null);
+        final byte[] biomes = decoder.biomes;
+        if (biomes != null) {
+            final byte[] biomesExtra = decoder.biomesExtra;
             final short[] newBiomes = new short[biomes.length];
             for (int i = 0; i < biomes.length; i++) {
                 newBiomes[i] = (short) ((biomesExtra == null ? 0 : biomesExtra[i]) << 8 | biomes[i]);
@@ -268,20 +236,17 @@ public boolean read(LanternChunk chunk) throws IOException {
             chunk.initializeBiomes(newBiomes);
         }
 
-        final Object heightMap;
-        if (levelDataView.contains(HEIGHT_MAP) && (heightMap = levelDataView.get(HEIGHT_MAP).get()) instanceof int[]) {
-            chunk.initializeHeightMap((int[]) heightMap);
-        } else {
-            chunk.initializeHeightMap(null);
-        }
+        chunk.initializeHeightMap(decoder.heightMap);
 
-        levelDataView.getLong(INHABITED_TIME).ifPresent(time -> chunk.setInhabitedTime(time.intValue()));
-        chunk.setLightPopulated(levelDataView.getInt(LIGHT_POPULATED).orElse(0) > 0);
+        if (decoder.inhabitedTime != -1) {
+            chunk.setInhabitedTime((int) decoder.inhabitedTime);
+        }
+        chunk.setLightPopulated(decoder.lightPopulated);
         chunk.initializeLight();
 
-        levelDataView.getViewList(ENTITIES).ifPresent(entityViews -> {
+        if (!decoder.entityViews.isEmpty()) {
             final ObjectSerializer<LanternEntity> entitySerializer = ObjectSerializerRegistry.get().get(LanternEntity.class).get();
-            for (DataView entityView : entityViews) {
+            for (DataView entityView : decoder.entityViews) {
                 try {
                     final LanternEntity entity = entitySerializer.deserialize(entityView);
                     final int ySection = fixEntityYSection(entity.getPosition().getFloorY() >> 4);
@@ -291,36 +256,50 @@ public boolean read(LanternChunk chunk) throws IOException {
                             x, z, getWorldProperties().getWorldName(), e);
                 }
             }
-        });
+        }
 
         return true;
     }
 
+    /**
+     * Gets a (uncompressed) stream representing the chunk data at the given
+     * coordinates. Chunk data that is still pending to be saved will be
+     * preferred over the data on disk.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The input stream, or {@code null} if the chunk doesn't exist
+     * @throws IOException If an i/o error occurs
+     */
+    @Nullable
+    private DataInputStream getChunkDataInputStream(int x, int z) throws IOException {
+        final DataInputStream is = this.saveQueue.getPending(x, z);
+        if (is != null) {
+            return is;
+        }
+        final RegionFile region = this.cache.getRegionFileByChunk(x, z);
+        return region.getChunkDataInputStream(x & REGION_MASK, z & REGION_MASK);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only a snapshot of the chunk is created by this method, serializing and writing
+     * the snapshot happens asynchronously. Use {@link #flush()} to wait for the data
+     * to be written.
+     */
     @Override
     public void write(LanternChunk chunk) throws IOException {
         final int x = chunk.getX();
         final int z = chunk.getZ();
 
-        final RegionFile region = this.cache.getRegionFileByChunk(x, z);
-
-        final int regionX = x & REGION_MASK;
-        final int regionZ = z & REGION_MASK;
-
-        final DataContainer rootView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-        final DataView levelDataView = rootView.createView(LEVEL);
-
-        // Core properties
-        levelDataView.set(VERSION, (byte) 1);
-        levelDataView.set(X, chunk.getX());
-        levelDataView.set(Z, chunk.getZ());
-        levelDataView.set(TERRAIN_POPULATED, (byte) (chunk.isPopulated() ? 1 : 0));
-        levelDataView.set(LIGHT_POPULATED, (byte) (chunk.isLightPopulated() ? 1 : 0));
-        levelDataView.set(LAST_UPDATE, 0L);
-        levelDataView.set(INHABITED_TIME, chunk.getLongInhabitedTime());
+        final boolean populated = chunk.isPopulated();
+        final boolean lightPopulated = chunk.isLightPopulated();
+        final long inhabitedTime = chunk.getLongInhabitedTime();
 
-        // Chunk sections
+        // Chunk sections, the snapshots are copies so they can
+        // be encoded off the world thread
         final ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(true);
-        final List<DataView> sectionDataViews = new ArrayList<>();
         final List<DataView> tileEntityDataViews = new ArrayList<>();
 
         for (byte i = 0; i < sections.length; ++i) {
@@ -329,40 +308,6 @@ public void write(LanternChunk chunk) throws IOException {
                 continue;
             }
 
-            final DataContainer sectionDataView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-            sectionDataView.set(Y, i);
-
-            final byte[] rawTypes = new byte[section.types.length];
-            final short[] types = section.types;
-
-            NibbleArray extTypes = null;
-            final NibbleArray data = new NibbleArray(rawTypes.length);
-
-            for (int j = 0; j < rawTypes.length; j++) {
-                rawTypes[j] = (byte) ((types[j] >> 4) & 0xff);
-                byte extType = (byte) (types[j] >> 12);
-                if (extType != 0) {
-                    if (extTypes == null) {
-                        extTypes = new NibbleArray(rawTypes.length);
-                    }
-                    extTypes.set(j, extType);
-                }
-                data.set(j, (byte) (types[j] & 0xf));
-            }
-            sectionDataView.set(BLOCKS, rawTypes);
-            if (extTypes != null) {
-                sectionDataView.set(BLOCKS_EXTRA, extTypes.getPackedArray());
-            }
-            sectionDataView.set(DATA, data.getPackedArray());
-            sectionDataView.set(BLOCK_LIGHT, section.lightFromBlock);
-
-            final byte[] lightFromSky = section.lightFromSky;
-            if (lightFromSky != null) {
-                sectionDataView.set(SKY_LIGHT, lightFromSky);
-            }
-
-            sectionDataViews.add(sectionDataView);
-
             //noinspection unchecked
             final ObjectSerializer<LanternTileEntity> tileEntitySerializer = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
             // Serialize the tile entities
@@ -379,13 +324,13 @@ public void write(LanternChunk chunk) throws IOException {
             }
         }
 
-        levelDataView.set(TILE_ENTITIES, tileEntityDataViews);
-        levelDataView.set(SECTIONS, sectionDataViews);
-        levelDataView.set(HEIGHT_MAP, chunk.getHeightMap());
+        final int[] heightMap = chunk.getHeightMap();
+        final short[] biomes = chunk.getBiomes();
 
         //noinspection unchecked
         final Short2ObjectMap<LanternChunk.TrackerData>[] trackerData = chunk.getTrackerData().getRawObjects();
-        final List<DataView> trackerDataViews = new ArrayList<>();
+        // The tracker entries, stored as pos, creator, notifier
+        final IntArrayList trackerEntries = new IntArrayList();
 
         for (int i = 0; i < trackerData.length; i++) {
             final Short2ObjectMap<LanternChunk.TrackerData> trackerDataSection = trackerData[i];
@@ -395,38 +340,12 @@ public void write(LanternChunk chunk) throws IOException {
                 // Convert the index to the column based system
                 // index = z << 12 | y << 4 | x
                 index = ((index >> 4) & 0xf) << 12 | i << 8 | (index >> 4) & 0xf0 | index & 0xf;
-                final DataView trackerDataView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-                trackerDataView.set(TRACKER_BLOCK_POS, (short) index);
-                trackerDataView.set(TRACKER_ENTRY_NOTIFIER, entry.getValue().getNotifierId());
-                trackerDataView.set(TRACKER_ENTRY_CREATOR, entry.getValue().getCreatorId());
-                trackerDataViews.add(trackerDataView);
-            }
-        }
-
-        if (!trackerDataViews.isEmpty()) {
-            levelDataView.createView(DataQueries.SPONGE_DATA).set(TRACKER_DATA_TABLE, trackerDataViews);
-        }
-
-        final short[] biomes = chunk.getBiomes();
-        final byte[] biomes0 = new byte[biomes.length];
-        byte[] biomes1 = null;
-
-        for (int i = 0; i < biomes.length; i++) {
-            biomes0[i] = (byte) (biomes[i] & 0xff);
-            byte value = (byte) ((biomes[i] >> 4) & 0xff);
-            if (value != 0) {
-                if (biomes1 == null) {
-                    biomes1 = new byte[biomes0.length];
-                }
-                biomes1[i] = value;
+                trackerEntries.add(index);
+                trackerEntries.add(entry.getValue().getCreatorId());
+                trackerEntries.add(entry.getValue().getNotifierId());
             }
         }
 
-        levelDataView.set(BIOMES, biomes0);
-        if (biomes1 != null) {
-            levelDataView.set(BIOMES_EXTRA, biomes1);
-        }
-
         //noinspection unchecked
         final List<LanternEntity> entities = new ArrayList(chunk.getEntities(entity -> !(entity instanceof Player)));
         final ObjectSerializer<LanternEntity> entitySerializer = ObjectSerializerRegistry.get().get(LanternEntity.class).get();
@@ -440,16 +359,133 @@ public void write(LanternChunk chunk) throws IOException {
             entityViews.add(entityView);
         }
 
-        levelDataView.set(ENTITIES, entityViews);
+        // Nothing references the chunk anymore, so the data can be
+        // encoded and compressed off the world thread, the sections
+        // are written directly without building data views
+        this.saveQueue.submit(x, z, dos -> {
+            final NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(dos);
+            nbt.writeStartCompound("");
+            nbt.writeStartCompound(LEVEL);
+
+            // Core properties
+            nbt.writeByte(VERSION, (byte) 1);
+            nbt.writeInt(X, x);
+            nbt.writeInt(Z, z);
+            nbt.writeByte(TERRAIN_POPULATED, (byte) (populated ? 1 : 0));
+            nbt.writeByte(LIGHT_POPULATED, (byte) (lightPopulated ? 1 : 0));
+            nbt.writeLong(LAST_UPDATE, 0L);
+            nbt.writeLong(INHABITED_TIME, inhabitedTime);
+
+            nbt.writeValue(TILE_ENTITIES, tileEntityDataViews);
+            writeSections(nbt, sections);
+            nbt.writeIntArray(HEIGHT_MAP, heightMap);
+
+            if (!trackerEntries.isEmpty()) {
+                nbt.writeStartCompound(SPONGE_DATA);
+                nbt.writeStartCompoundList(TRACKER_DATA_TABLE, trackerEntries.size() / 3);
+                for (int i = 0; i < trackerEntries.size(); i += 3) {
+                    nbt.writeShort(TRACKER_BLOCK_POS, (short) trackerEntries.getInt(i));
+                    nbt.writeInt(TRACKER_ENTRY_NOTIFIER, trackerEntries.getInt(i + 2));
+                    nbt.writeInt(TRACKER_ENTRY_CREATOR, trackerEntries.getInt(i + 1));
+                    nbt.writeEndCompound();
+                }
+                nbt.writeEndCompound();
+            }
+
+            final byte[] biomes0 = new byte[biomes.length];
+            byte[] biomes1 = null;
+
+            for (int i = 0; i < biomes.length; i++) {
+                biomes0[i] = (byte) (biomes[i] & 0xff);
+                byte value = (byte) ((biomes[i] >> 4) & 0xff);
+                if (value != 0) {
+                    if (biomes1 == null) {
+                        biomes1 = new byte[biomes0.length];
+                    }
+                    biomes1[i] = value;
+                }
+            }
+
+            nbt.writeByteArray(BIOMES, biomes0);
+            if (biomes1 != null) {
+                nbt.writeByteArray(BIOMES_EXTRA, biomes1);
+            }
+
+            nbt.writeValue(ENTITIES, entityViews);
 
-        try (NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(region.getChunkDataOutputStream(regionX, regionZ))) {
-            nbt.write(rootView);
+            nbt.writeEndCompound();
+            nbt.writeEndCompound();
             nbt.flush();
+        });
+    }
+
+    /**
+     * Writes the {@link ChunkSectionSnapshot}s directly to the output stream, the
+     * arrays that are needed to encode the sections are shared between the sections.
+     *
+     * @param nbt The output stream
+     * @param sections The section snapshots
+     * @throws IOException If a i/o error occurred
+     */
+    private static void writeSections(NbtDataContainerOutputStream nbt, ChunkSectionSnapshot[] sections) throws IOException {
+        int count = 0;
+        for (ChunkSectionSnapshot section : sections) {
+            if (section != null) {
+                count++;
+            }
+        }
+        nbt.writeStartCompoundList(SECTIONS, count);
+
+        final byte[] rawTypes = new byte[CHUNK_SECTION_VOLUME];
+        final byte[] data = new byte[CHUNK_SECTION_VOLUME / 2];
+        final byte[] extTypes = new byte[CHUNK_SECTION_VOLUME / 2];
+
+        for (byte i = 0; i < sections.length; ++i) {
+            final ChunkSectionSnapshot section = sections[i];
+            if (section == null) {
+                continue;
+            }
+            nbt.writeByte(Y, i);
+
+            final short[] types = section.types.toArray();
+            boolean hasExtTypes = false;
+
+            // Pack two block types at the same time
+            for (int j = 0; j < data.length; j++) {
+                final int k = j << 1;
+                final short type0 = types[k];
+                final short type1 = types[k + 1];
+                rawTypes[k] = (byte) ((type0 >> 4) & 0xff);
+                rawTypes[k + 1] = (byte) ((type1 >> 4) & 0xff);
+                data[j] = (byte) ((type0 & 0xf) | (type1 & 0xf) << 4);
+                final byte extType = (byte) (((type0 >> 12) & 0xf) | ((type1 >> 12) & 0xf) << 4);
+                extTypes[j] = extType;
+                hasExtTypes |= extType != 0;
+            }
+
+            nbt.writeByteArray(BLOCKS, rawTypes);
+            if (hasExtTypes) {
+                nbt.writeByteArray(BLOCKS_EXTRA, extTypes);
+            }
+            nbt.writeByteArray(DATA, data);
+            nbt.writeByteArray(BLOCK_LIGHT, section.lightFromBlock);
+
+            final byte[] lightFromSky = section.lightFromSky;
+            if (lightFromSky != null) {
+                nbt.writeByteArray(SKY_LIGHT, lightFromSky);
+            }
+            nbt.writeEndCompound();
         }
     }
 
+    @Override
+    public void flush() {
+        this.saveQueue.flush();
+    }
+
     @Override
     public void unload() throws IOException {
+        this.saveQueue.shutdown();
         this.cache.clear();
     }
 
@@ -576,20 +612,16 @@ public void reset() {
 
     @Override
     public CompletableFuture<Boolean> doesChunkExist(Vector3i chunkCoords) {
-        return this.scheduler.submitAsyncTask(() -> exists(chunkCoords.getX(), chunkCoords.getZ()));
+        return this.scheduler.submitBlockingAsyncTask(() -> exists(chunkCoords.getX(), chunkCoords.getZ()));
     }
 
     @Override
     public CompletableFuture<Optional<DataContainer>> getChunkData(Vector3i chunkCoords) {
-        return this.scheduler.submitAsyncTask(() -> {
+        return this.scheduler.submitBlockingAsyncTask(() -> {
             final int x = chunkCoords.getX();
             final int z = chunkCoords.getZ();
 
-            final RegionFile region = cache.getRegionFileByChunk(x, z);
-            final int regionX = x & REGION_MASK;
-            final int regionZ = z & REGION_MASK;
-
-            final DataInputStream is = region.getChunkDataInputStream(regionX, regionZ);
+            final DataInputStream is = getChunkDataInputStream(x, z);
             if (is == null) {
                 return Optional.empty();
             }
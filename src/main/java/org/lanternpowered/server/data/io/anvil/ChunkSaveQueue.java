@@ -0,0 +1,361 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_COORDINATE_BITS;
+import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_MASK;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.lanternpowered.server.util.ThreadHelper;
+import org.slf4j.Logger;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * A write-behind queue for chunk data. Saving a chunk is split in three stages:
+ * <ol>
+ *     <li>The caller snapshots the chunk data, this is the only stage
+ *     that runs on the thread that requested the save.</li>
+ *     <li>The snapshot is serialized and compressed by a worker pool.</li>
+ *     <li>The compressed data is written by a dedicated i/o thread, all the
+ *     writes that are queued at the same time are grouped per {@link RegionFile}.</li>
+ * </ol>
+ * Chunk data that is still pending can be retrieved through {@link #getPending(int, int)},
+ * so that a chunk can be loaded before it's written to disk. Only the latest save of a
+ * chunk will be written if multiple saves are pending at the same time.
+ * <p>
+ * The amount of pending saves is limited, submitting a save will block
+ * until there is room in the queue.
+ */
+final class ChunkSaveQueue {
+
+    /**
+     * A writer that serializes a chunk snapshot.
+     */
+    @FunctionalInterface
+    interface ChunkDataWriter {
+
+        /**
+         * Writes the (uncompressed) chunk data to the output stream.
+         *
+         * @param dos The output stream
+         * @throws IOException If an i/o error occurs
+         */
+        void write(DataOutputStream dos) throws IOException;
+    }
+
+    /**
+     * The maximum amount of chunk saves that may be pending at the same time.
+     */
+    static final int MAX_PENDING_SAVES = Integer.getInteger("lantern.chunk.maxPendingSaves", 512);
+
+    private static final int WORKER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final class PendingSave {
+
+        private final int x;
+        private final int z;
+        private final long key;
+        private final CompletableFuture<ByteBuf> future = new CompletableFuture<>();
+
+        private PendingSave(int x, int z, long key) {
+            this.x = x;
+            this.z = z;
+            this.key = key;
+        }
+
+        private long getRegionKey() {
+            return key(this.x >> REGION_COORDINATE_BITS, this.z >> REGION_COORDINATE_BITS);
+        }
+
+        private int getRegionIndex() {
+            return (this.z & REGION_MASK) << REGION_COORDINATE_BITS | this.x & REGION_MASK;
+        }
+    }
+
+    private static long key(int x, int z) {
+        return (long) z << 32 | x & 0xffffffffL;
+    }
+
+    private final RegionFileCache cache;
+    private final Logger logger;
+    private final String name;
+
+    // All the saves that aren't written yet, mapped by the chunk key
+    private final Map<Long, PendingSave> pending = new ConcurrentHashMap<>();
+    // The saves that are compressed and can be written
+    private final BlockingQueue<PendingSave> writeQueue = new LinkedBlockingQueue<>();
+    private final Semaphore permits = new Semaphore(MAX_PENDING_SAVES);
+
+    private final ExecutorService workers;
+    private final Thread ioThread;
+
+    private volatile boolean running = true;
+
+    // Metrics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    ChunkSaveQueue(RegionFileCache cache, Logger logger, String name) {
+        this.cache = checkNotNull(cache, "cache");
+        this.logger = checkNotNull(logger, "logger");
+        this.name = checkNotNull(name, "name");
+        final AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(WORKER_THREADS,
+                ThreadHelper.newThreadFactory(() -> "chunk-save-" + name + "-" + counter.getAndIncrement()));
+        this.ioThread = ThreadHelper.newThread(this::run, "chunk-io-" + name);
+        this.ioThread.setDaemon(true);
+        this.ioThread.start();
+    }
+
+    /**
+     * Submits the snapshot of a chunk to be saved. This method will block if
+     * there are already {@link #MAX_PENDING_SAVES} saves pending.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @param writer The writer that serializes the snapshot
+     */
+    void submit(int x, int z, ChunkDataWriter writer) {
+        checkNotNull(writer, "writer");
+        if (!this.running) {
+            throw new IllegalStateException("The chunk save queue is shut down.");
+        }
+        if (!this.permits.tryAcquire()) {
+            this.stalls.increment();
+            this.permits.acquireUninterruptibly();
+        }
+        this.submitted.increment();
+        final PendingSave save = new PendingSave(x, z, key(x, z));
+        if (this.pending.put(save.key, save) != null) {
+            // The previous save will be skipped by the i/o thread
+            this.superseded.increment();
+        }
+        this.workers.execute(() -> {
+            try {
+                save.future.complete(compress(writer));
+            } catch (Throwable t) {
+                save.future.completeExceptionally(t);
+            }
+            this.writeQueue.add(save);
+        });
+    }
+
+    private static ByteBuf compress(ChunkDataWriter writer) throws IOException {
+        // The buffer isn't pooled, it can be shared with loading chunks
+        // without having to track the references
+        final ByteBuf buf = Unpooled.buffer(8192);
+        try (DataOutputStream dos = RegionFile.newChunkDataOutputStream(buf)) {
+            writer.write(dos);
+        }
+        return RegionFile.finishChunkData(buf) ? buf : null;
+    }
+
+    /**
+     * Gets a (uncompressed) stream representing the chunk data that is still
+     * pending for the given chunk. If the data is still being compressed, this
+     * method will wait for it to complete.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The input stream, or {@code null} if there is no pending data
+     * @throws IOException If an i/o error occurs
+     */
+    @Nullable
+    DataInputStream getPending(int x, int z) throws IOException {
+        final PendingSave save = this.pending.get(key(x, z));
+        if (save == null) {
+            return null;
+        }
+        final ByteBuf buf;
+        try {
+            buf = save.future.join();
+        } catch (Exception e) {
+            // The save failed, fall back to the data on disk
+            return null;
+        }
+        return buf == null ? null : RegionFile.newChunkDataInputStream(buf);
+    }
+
+    /**
+     * Gets whether there is chunk data pending for the given chunk.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return Whether there is data pending
+     */
+    boolean hasPending(int x, int z) {
+        final PendingSave save = this.pending.get(key(x, z));
+        return save != null && !save.future.isCompletedExceptionally();
+    }
+
+    /**
+     * Gets the amount of chunk saves that are currently pending.
+     *
+     * @return The amount of pending saves
+     */
+    int getPendingCount() {
+        return MAX_PENDING_SAVES - this.permits.availablePermits();
+    }
+
+    private void run() {
+        final List<PendingSave> saves = new ArrayList<>();
+        final Long2ObjectMap<List<PendingSave>> savesByRegion = new Long2ObjectOpenHashMap<>();
+        while (this.running || !this.writeQueue.isEmpty()) {
+            try {
+                final PendingSave save = this.writeQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (save == null) {
+                    continue;
+                }
+                saves.add(save);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            this.writeQueue.drainTo(saves);
+            // Coalesce the writes per region file and write them in the order
+            // of the offset table, this results in less random access
+            for (PendingSave save : saves) {
+                final long regionKey = save.getRegionKey();
+                List<PendingSave> regionSaves = savesByRegion.get(regionKey);
+                if (regionSaves == null) {
+                    regionSaves = new ArrayList<>();
+                    savesByRegion.put(regionKey, regionSaves);
+                }
+                regionSaves.add(save);
+            }
+            for (List<PendingSave> regionSaves : savesByRegion.values()) {
+                regionSaves.sort(Comparator.comparingInt(PendingSave::getRegionIndex));
+                for (PendingSave save : regionSaves) {
+                    write(save);
+                }
+            }
+            savesByRegion.clear();
+            saves.clear();
+        }
+    }
+
+    private void write(PendingSave save) {
+        try {
+            // Only write the latest save of the chunk
+            if (this.pending.get(save.key) != save) {
+                return;
+            }
+            final ByteBuf buf;
+            try {
+                buf = save.future.join();
+            } catch (Exception e) {
+                this.failed.increment();
+                this.logger.error("Failed to serialize the chunk ({};{}) of {}", save.x, save.z, this.name, e.getCause());
+                return;
+            }
+            if (buf == null) {
+                this.failed.increment();
+                this.logger.warn("The chunk ({};{}) of {} exceeds the maximum size of 1MB, it won't be saved",
+                        save.x, save.z, this.name);
+                return;
+            }
+            final long time = System.nanoTime();
+            try {
+                // Get the region file at the moment of writing, it may have
+                // been closed by the cache while the save was pending
+                final RegionFile region = this.cache.getRegionFileByChunk(save.x, save.z);
+                region.writeChunkData(save.x & REGION_MASK, save.z & REGION_MASK, buf);
+                this.written.increment();
+                this.bytesWritten.add(buf.writerIndex());
+            } catch (IOException e) {
+                this.failed.increment();
+                this.logger.error("Failed to write the chunk ({};{}) of {}", save.x, save.z, this.name, e);
+            }
+            this.writeNanos.add(System.nanoTime() - time);
+        } finally {
+            // The data is on disk now (or failed), so it's no longer pending
+            this.pending.remove(save.key, save);
+            this.permits.release();
+        }
+    }
+
+    /**
+     * Waits until all the chunk saves that are currently
+     * pending are written to their region files.
+     */
+    void flush() {
+        final int pendingCount = getPendingCount();
+        final long time = System.currentTimeMillis();
+        // All the permits are available once all the saves are processed
+        this.permits.acquireUninterruptibly(MAX_PENDING_SAVES);
+        this.permits.release(MAX_PENDING_SAVES);
+        if (pendingCount > 0) {
+            this.logger.debug("Flushed {} pending chunk saves of {} in {} ms", pendingCount, this.name,
+                    System.currentTimeMillis() - time);
+        }
+    }
+
+    /**
+     * Flushes all the pending saves and stops the worker and i/o threads.
+     */
+    void shutdown() {
+        flush();
+        this.running = false;
+        this.workers.shutdown();
+        try {
+            this.ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final long written = this.written.sum();
+        this.logger.debug("Chunk saves of {}: submitted {}, written {}, superseded {}, failed {}, stalls {}, " +
+                        "{} KB written in {} ms", this.name, this.submitted.sum(), written, this.superseded.sum(),
+                this.failed.sum(), this.stalls.sum(), this.bytesWritten.sum() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(this.writeNanos.sum()));
+    }
+}
@@ -67,6 +67,10 @@
  */
 package org.lanternpowered.server.data.io.anvil;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import org.lanternpowered.server.game.Lantern;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
@@ -74,14 +78,25 @@
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
@@ -89,6 +104,14 @@
 
 import javax.annotation.Nullable;
 
+/**
+ * A region file that is backed by a {@link FileChannel}.
+ * <p>
+ * Chunk data is read with positional reads, so multiple chunks can be
+ * read at the same time. Every chunk is guarded by a striped lock, this
+ * prevents a chunk from being read while it's being overwritten. Only the
+ * allocation of sectors requires a lock that is shared by the whole file.
+ */
 public final class RegionFile {
 
     private static final Marker REGION_FILE_MARKER = MarkerFactory.getMarker("REGION_FILE");
@@ -100,32 +123,80 @@ public final class RegionFile {
     private static final int SECTOR_INTS = SECTOR_BYTES / 4;
 
     private static final int CHUNK_HEADER_SIZE = 5;
-    private static final byte[] EMPTY_SECTOR = new byte[SECTOR_BYTES];
 
-    private final RandomAccessFile file;
-    private final int[] offsets;
+    /**
+     * The amount of locks that are used to guard the chunks.
+     */
+    private static final int LOCK_STRIPES = 32;
+
+    /**
+     * The {@link Deflater}s that can be reused to compress chunk data.
+     */
+    private static final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    private final FileChannel channel;
+    private final AtomicIntegerArray offsets;
+    private final StampedLock[] locks;
     private final BitSet usedSectors;
     private final int regionX;
     private final int regionZ;
 
+    /**
+     * The function that unmaps a {@link MappedByteBuffer}, if supported by the jvm.
+     */
+    @Nullable private static final MethodHandle unmapper = createUnmapper();
+
+    @Nullable
+    private static MethodHandle createUnmapper() {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            // Java 9 and later
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return lookup.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+        try {
+            // Java 8
+            final Class<?> directBufferClass = Class.forName("sun.nio.ch.DirectBuffer");
+            final Class<?> cleanerClass = Class.forName("sun.misc.Cleaner");
+            final MethodHandle cleaner = lookup.findVirtual(directBufferClass, "cleaner", MethodType.methodType(cleanerClass));
+            final MethodHandle clean = lookup.findVirtual(cleanerClass, "clean", MethodType.methodType(void.class));
+            return MethodHandles.filterReturnValue(cleaner, clean)
+                    .asType(MethodType.methodType(void.class, ByteBuffer.class));
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * The memory mapped offset and timestamp tables, if enabled. Guarded by all
+     * the chunk locks, the buffer is unmapped once the file is closed.
+     */
+    @Nullable private MappedByteBuffer header;
+
+    // Guarded by the used sectors
     private int sectorCount;
 
-    RegionFile(Path path, int regionX, int regionZ) throws IOException {
+    RegionFile(Path path, int regionX, int regionZ, boolean mapHeader) throws IOException {
         this.regionX = regionX;
         this.regionZ = regionZ;
-        this.offsets = new int[SECTOR_INTS];
+        this.offsets = new AtomicIntegerArray(SECTOR_INTS);
+        this.locks = new StampedLock[LOCK_STRIPES];
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new StampedLock();
+        }
 
         long lastModified = 0;
         if (Files.isRegularFile(path)) {
             lastModified = Files.getLastModifiedTime(path).toMillis();
         }
 
-        this.file = new RandomAccessFile(path.toFile(), "rw");
-
-        long length = this.file.length();
-        // seek to the end to prepare size checking
-        this.file.seek(length);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
 
+        long length = this.channel.size();
         // if the file size is under 8KB, grow it (4K chunk offset table, 4K timestamp table)
         if (length < 2 * SECTOR_BYTES) {
             if (lastModified != 0) {
@@ -133,31 +204,19 @@ public final class RegionFile {
                 Lantern.getLogger().warn(REGION_FILE_MARKER, "Region \"{}\" under 8K: {} increasing by {}",
                         path, length, 2 * SECTOR_BYTES - length);
             }
-
-            if (length == 0) {
-                this.file.write(EMPTY_SECTOR);
-                this.file.write(EMPTY_SECTOR);
-            } else {
-                for (; length < 2 * SECTOR_BYTES; length++) {
-                    this.file.write(0);
-                }
-            }
+            writeFully(ByteBuffer.allocate((int) (2 * SECTOR_BYTES - length)), length);
         }
 
-        length = this.file.length();
+        length = this.channel.size();
         // if the file size is not a multiple of 4KB, grow it
         if ((length & 0xfff) != 0) {
             Lantern.getLogger().warn(REGION_FILE_MARKER, "Region \"{}\" not aligned: {} increasing by {}",
                     path, length, SECTOR_BYTES - (length & 0xfff));
-
-            length = length & 0xfff;
-            for (; length < SECTOR_BYTES; length++) {
-                this.file.write(0);
-            }
+            writeFully(ByteBuffer.allocate((int) (SECTOR_BYTES - (length & 0xfff))), length);
         }
 
         // set up the available sector map
-        final int nSectors = (int) (this.file.length() / SECTOR_BYTES);
+        final int nSectors = (int) (this.channel.size() / SECTOR_BYTES);
         this.sectorCount = nSectors;
         this.usedSectors = new BitSet(nSectors);
         this.usedSectors.set(0, 2);
@@ -166,11 +225,21 @@ public final class RegionFile {
         // 0 - chunk offset table
         // 1 - for the last modified
 
+        final ByteBuffer offsetTable;
+        if (mapHeader) {
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * SECTOR_BYTES);
+            offsetTable = this.header.duplicate();
+        } else {
+            this.header = null;
+            offsetTable = ByteBuffer.allocate(SECTOR_BYTES);
+            readFully(offsetTable, 0);
+            offsetTable.flip();
+        }
+
         // read offsets from offset table
-        this.file.seek(0);
         for (int i = 0; i < SECTOR_INTS; ++i) {
-            final int offset = this.file.readInt();
-            this.offsets[i] = offset;
+            final int offset = offsetTable.getInt();
+            this.offsets.set(i, offset);
 
             final int startSector = (offset >> 8);
             final int numSectors = (offset & 0xff);
@@ -183,9 +252,6 @@ public final class RegionFile {
             }
         }
         // read timestamps from timestamp table -- the timestamps aren't used, so there is no need to read them
-        // for (int i = 0; i < SECTOR_INTS; ++i) {
-        //     this.file.readInt();
-        // }
     }
 
     /**
@@ -196,9 +262,11 @@ public final class RegionFile {
      * @param z the z coordinate
      * @return whether the chunk data exists
      */
-    public synchronized boolean hasChunk(int x, int z) {
+    public boolean hasChunk(int x, int z) {
         checkBounds(x, z);
 
+        final StampedLock lock = getLock(x, z);
+        final long stamp = lock.readLock();
         try {
             final int offset = getOffset(x, z);
             if (offset == 0) {
@@ -206,25 +274,16 @@ public synchronized boolean hasChunk(int x, int z) {
                 return false;
             }
 
-            final int sectorNumber = offset >> 8;
-            final int numSectors = offset & 0xff;
-            if (sectorNumber + numSectors > this.sectorCount) {
-                logWarning();
-                return false;
-            }
-
-            this.file.seek(sectorNumber * SECTOR_BYTES);
-            final int length = this.file.readInt();
-            if (length > SECTOR_BYTES * numSectors) {
-                logWarning();
-                return false;
-            }
-
-            final byte version = this.file.readByte();
-            if (version == VERSION_GZIP || version == VERSION_DEFLATE) {
-                return true;
+            final ByteBuffer buf = readChunkHeader(offset);
+            if (buf != null) {
+                final byte version = buf.get(4);
+                if (version == VERSION_GZIP || version == VERSION_DEFLATE) {
+                    return true;
+                }
             }
         } catch (IOException ignored) {
+        } finally {
+            lock.unlockRead(stamp);
         }
 
         logWarning();
@@ -236,9 +295,14 @@ public synchronized boolean hasChunk(int x, int z) {
      * the chunk is not found or an error occurs
      */
     @Nullable
-    public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
+    public DataInputStream getChunkDataInputStream(int x, int z) {
         checkBounds(x, z);
 
+        final byte[] data;
+        final byte version;
+
+        final StampedLock lock = getLock(x, z);
+        final long stamp = lock.readLock();
         try {
             final int offset = getOffset(x, z);
             if (offset == 0) {
@@ -246,28 +310,29 @@ public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
                 return null;
             }
 
-            final int sectorNumber = offset >> 8;
-            final int numSectors = offset & 0xff;
-            if (sectorNumber + numSectors > this.sectorCount) {
-                logWarning();
-                return null;
-            }
-
-            this.file.seek(sectorNumber * SECTOR_BYTES);
-            final int length = this.file.readInt();
-            if (length > SECTOR_BYTES * numSectors) {
+            final ByteBuffer header = readChunkHeader(offset);
+            if (header == null) {
                 logWarning();
                 return null;
             }
+            final int length = header.getInt(0);
+            version = header.get(4);
+
+            // Read the data with a single positional read,
+            // no need to hold a lock on the whole file
+            data = new byte[length - 1];
+            readFully(ByteBuffer.wrap(data), (long) (offset >> 8) * SECTOR_BYTES + CHUNK_HEADER_SIZE);
+        } catch (IOException e) {
+            logWarning();
+            return null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
 
-            final byte version = this.file.readByte();
+        try {
             if (version == VERSION_GZIP) {
-                final byte[] data = new byte[length - 1];
-                this.file.read(data);
                 return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))));
             } else if (version == VERSION_DEFLATE) {
-                final byte[] data = new byte[length - 1];
-                this.file.read(data);
                 return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(data))));
             }
         } catch (IOException ignored) {
@@ -276,6 +341,31 @@ public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
         return null;
     }
 
+    /**
+     * Reads the header of the chunk data at the given offset.
+     *
+     * @param offset The offset
+     * @return The header, or {@code null} if the data is corrupt
+     * @throws IOException If an error occurred while reading
+     */
+    @Nullable
+    private ByteBuffer readChunkHeader(int offset) throws IOException {
+        final int sectorNumber = offset >> 8;
+        final int numSectors = offset & 0xff;
+        synchronized (this.usedSectors) {
+            if (sectorNumber + numSectors > this.sectorCount) {
+                return null;
+            }
+        }
+        final ByteBuffer buf = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        readFully(buf, (long) sectorNumber * SECTOR_BYTES);
+        final int length = buf.getInt(0);
+        if (length <= 0 || length > SECTOR_BYTES * numSectors) {
+            return null;
+        }
+        return buf;
+    }
+
     private void logWarning() {
         // Use the debug level, there is no need to spam the console with
         // corrupt file errors that cannot be fixed
@@ -286,105 +376,227 @@ private void logWarning() {
 
     public DataOutputStream getChunkDataOutputStream(int x, int z) {
         checkBounds(x, z);
-        return new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(
-                new ChunkBuffer(x, z), new Deflater(Deflater.BEST_SPEED))));
+        return new DataOutputStream(new BufferedOutputStream(new ChunkDeflaterOutputStream(
+                new ChunkBuffer(x, z), pollDeflater())));
+    }
+
+    /**
+     * Creates a stream that compresses chunk data into the given buffer, without
+     * the need of a region file. Once the stream is closed, the buffer should be
+     * finished with {@link #finishChunkData(ByteBuf)} before it can be written
+     * with {@link #writeChunkData(int, int, ByteBuf)}.
+     *
+     * @param buf The buffer to write the compressed data to
+     * @return The output stream
+     */
+    static DataOutputStream newChunkDataOutputStream(ByteBuf buf) {
+        // Reserve space for the chunk header
+        buf.clear().writerIndex(CHUNK_HEADER_SIZE);
+        return new DataOutputStream(new BufferedOutputStream(new ChunkDeflaterOutputStream(
+                new ByteBufOutputStream(buf), pollDeflater())));
+    }
+
+    /**
+     * Creates a (uncompressed) stream representing the chunk data
+     * of a buffer that was finished by {@link #finishChunkData(ByteBuf)}.
+     * The buffer itself won't be modified.
+     *
+     * @param buf The finished buffer
+     * @return The input stream, or {@code null} if the version is unknown
+     * @throws IOException If an error occurred while reading
+     */
+    @Nullable
+    static DataInputStream newChunkDataInputStream(ByteBuf buf) throws IOException {
+        final int length = buf.getInt(0);
+        final byte version = buf.getByte(4);
+        final ByteBufInputStream is = new ByteBufInputStream(buf.slice(CHUNK_HEADER_SIZE, length - 1));
+        if (version == VERSION_GZIP) {
+            return new DataInputStream(new BufferedInputStream(new GZIPInputStream(is)));
+        } else if (version == VERSION_DEFLATE) {
+            return new DataInputStream(new BufferedInputStream(new InflaterInputStream(is)));
+        }
+        return null;
+    }
+
+    private static Deflater pollDeflater() {
+        final Deflater deflater = deflaters.poll();
+        return deflater == null ? new Deflater(Deflater.BEST_SPEED) : deflater;
+    }
+
+    /**
+     * A {@link DeflaterOutputStream} that returns the {@link Deflater}
+     * to the pool once it's closed.
+     */
+    private static final class ChunkDeflaterOutputStream extends DeflaterOutputStream {
+
+        private boolean closed;
+
+        ChunkDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                super.close();
+            } finally {
+                this.def.reset();
+                deflaters.add(this.def);
+            }
+        }
     }
 
     /*
      * lets chunk writing be multithreaded by not locking the whole file as a
      * chunk is serializing -- only writes when serialization is over
      */
-    private class ChunkBuffer extends ByteArrayOutputStream {
+    private final class ChunkBuffer extends ByteBufOutputStream {
 
         private final int x;
         private final int z;
 
+        private boolean closed;
+
         ChunkBuffer(int x, int z) {
-            super(8096); // initialize to 8KB
+            super(PooledByteBufAllocator.DEFAULT.heapBuffer(8192)); // initialize to 8KB
+            // Reserve space for the chunk header
+            buffer().writerIndex(CHUNK_HEADER_SIZE);
             this.x = x;
             this.z = z;
         }
 
         @Override
         public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            final ByteBuf buf = buffer();
             try {
-                RegionFile.this.write(this.x, this.z, this.buf, this.count);
+                if (finishChunkData(buf)) {
+                    writeChunkData(this.x, this.z, buf);
+                }
             } finally {
-                super.close();
+                buf.release();
             }
         }
     }
 
-    // write a chunk at (x,z) with length bytes of data to disk
-    protected synchronized void write(int x, int z, byte[] data, int length) throws IOException {
-        final int offset = getOffset(x, z);
-        int sectorNumber = offset >> 8;
-        final int sectorsAllocated = offset & 0xff;
+    /**
+     * Finishes the compressed chunk data in the buffer. The first {@link #CHUNK_HEADER_SIZE}
+     * bytes of the buffer are reserved for the chunk header, the data follows after.
+     * The header will be filled in and the data will be padded to fill whole sectors.
+     *
+     * @param buf The buffer
+     * @return Whether the data can be written, chunks that exceed 1MB cannot be stored
+     */
+    static boolean finishChunkData(ByteBuf buf) {
+        final int length = buf.writerIndex() - CHUNK_HEADER_SIZE;
         final int sectorsNeeded = (length + CHUNK_HEADER_SIZE) / SECTOR_BYTES + 1;
 
         // maximum chunk size is 1MB
         if (sectorsNeeded >= 256) {
-            return;
+            return false;
         }
 
-        if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
-            // we can simply overwrite the old sectors
-            write(sectorNumber, data, length);
-        } else {
-            // we need to allocate new sectors
-
-            // mark the sectors previously used for this chunk as free
-            this.usedSectors.clear(sectorNumber, sectorNumber + sectorsAllocated);
-
-            // scan for a free space large enough to store this chunk
-            int runStart = this.usedSectors.nextClearBit(2);
-            int runLength = 0;
-            if (runStart != -1 && runStart < this.sectorCount) {
-                for (int i = runStart; i < this.sectorCount; ++i) {
-                    if (runLength != 0) {
-                        if (!this.usedSectors.get(i)) {
-                            runLength++;
-                        } else {
-                            runLength = 0;
-                        }
-                    } else if (!this.usedSectors.get(i)) {
-                        runStart = i;
-                        runLength = 1;
-                    }
-                    if (runLength >= sectorsNeeded) {
-                        break;
-                    }
-                }
+        buf.setInt(0, length + 1); // chunk length
+        buf.setByte(4, VERSION_DEFLATE); // chunk version number
+        // Pad the data to fill the sectors, this keeps the file aligned
+        buf.writeZero(sectorsNeeded * SECTOR_BYTES - buf.writerIndex());
+        return true;
+    }
+
+    /**
+     * Writes the chunk data at the given coordinates (relative to the region
+     * coordinates). The buffer must be finished with {@link #finishChunkData(ByteBuf)}
+     * and won't be modified, so it can be read by other threads at the same time.
+     *
+     * @param x The x coordinate
+     * @param z The z coordinate
+     * @param buf The finished buffer
+     * @throws IOException If an error occurred while writing
+     */
+    void writeChunkData(int x, int z, ByteBuf buf) throws IOException {
+        checkBounds(x, z);
+        final int sectorsNeeded = buf.writerIndex() / SECTOR_BYTES;
+
+        final StampedLock lock = getLock(x, z);
+        final long stamp = lock.writeLock();
+        try {
+            final int offset = getOffset(x, z);
+            int sectorNumber = offset >> 8;
+            final int sectorsAllocated = offset & 0xff;
+
+            if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
+                // we can simply overwrite the old sectors
+                writeFully(buf.nioBuffer(0, buf.writerIndex()), (long) sectorNumber * SECTOR_BYTES);
             } else {
-                runStart = this.sectorCount;
+                // we need to allocate new sectors
+                synchronized (this.usedSectors) {
+                    // mark the sectors previously used for this chunk as free
+                    this.usedSectors.clear(sectorNumber, sectorNumber + sectorsAllocated);
+                    sectorNumber = allocateSectors(sectorsNeeded);
+                }
+
+                // Write chunk data and offset
+                writeFully(buf.nioBuffer(0, buf.writerIndex()), (long) sectorNumber * SECTOR_BYTES);
+                setOffset(x, z, (sectorNumber << 8) | sectorsNeeded);
             }
+            setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
 
-            sectorNumber = runStart;
-            if (runLength < sectorsNeeded) {
-                final int added = sectorsNeeded - runLength;
-                this.sectorCount += added;
-                this.file.seek(this.file.length());
-                for (int i = 0; i < added; i++) {
-                    this.file.write(EMPTY_SECTOR);
+    /**
+     * Searches for a free space large enough to store the amount of sectors
+     * and marks them as used, the file will be grown if needed.
+     *
+     * @param sectorsNeeded The amount of sectors
+     * @return The first sector
+     */
+    private int allocateSectors(int sectorsNeeded) {
+        // scan for a free space large enough to store this chunk
+        int runStart = this.usedSectors.nextClearBit(2);
+        int runLength = 0;
+        if (runStart < this.sectorCount) {
+            for (int i = runStart; i < this.sectorCount; ++i) {
+                if (runLength != 0) {
+                    if (!this.usedSectors.get(i)) {
+                        runLength++;
+                    } else {
+                        runLength = 0;
+                    }
+                } else if (!this.usedSectors.get(i)) {
+                    runStart = i;
+                    runLength = 1;
+                }
+                if (runLength >= sectorsNeeded) {
+                    break;
                 }
             }
+        } else {
+            runStart = this.sectorCount;
+        }
 
-            // Clear the sectors to set them in use
-            this.usedSectors.set(sectorNumber, sectorNumber + sectorsNeeded);
-
-            // Write chunk data and offset
-            write(sectorNumber, data, length);
-            setOffset(x, z, (sectorNumber << 8) | sectorsNeeded);
+        if (runLength < sectorsNeeded) {
+            // The last run didn't reach the end of the file, so
+            // start a new run at the end
+            if (runLength == 0) {
+                runStart = this.sectorCount;
+            }
+            // The run is at the end of the file, the file will grow
+            // when the chunk data is written
+            this.sectorCount += sectorsNeeded - runLength;
         }
-        setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
-    }
 
-    // write a chunk data to the region file at specified sector number
-    private void write(int sectorNumber, byte[] data, int length) throws IOException {
-        this.file.seek(sectorNumber * SECTOR_BYTES);
-        this.file.writeInt(length + 1); // chunk length
-        this.file.writeByte(VERSION_DEFLATE); // chunk version number
-        this.file.write(data, 0, length); // chunk data
+        // Set the sectors in use
+        this.usedSectors.set(runStart, runStart + sectorsNeeded);
+        return runStart;
     }
 
     // is this an invalid chunk coordinate?
@@ -394,23 +606,88 @@ private void checkBounds(int x, int z) {
         }
     }
 
+    private StampedLock getLock(int x, int z) {
+        return this.locks[(x + z * 32) & (LOCK_STRIPES - 1)];
+    }
+
     private int getOffset(int x, int z) {
-        return this.offsets[x + z * 32];
+        return this.offsets.get(x + z * 32);
     }
 
     private void setOffset(int x, int z, int offset) throws IOException {
-        this.offsets[x + z * 32] = offset;
-        this.file.seek((x + z * 32) * 4);
-        this.file.writeInt(offset);
+        final int index = x + z * 32;
+        this.offsets.set(index, offset);
+        writeHeaderInt(index * 4, offset);
     }
 
     private void setTimestamp(int x, int z, int value) throws IOException {
-        this.file.seek(SECTOR_BYTES + (x + z * 32) * 4);
-        this.file.writeInt(value);
+        writeHeaderInt(SECTOR_BYTES + (x + z * 32) * 4, value);
+    }
+
+    private void writeHeaderInt(int position, int value) throws IOException {
+        if (this.header != null) {
+            this.header.putInt(position, value);
+        } else {
+            final ByteBuffer buf = ByteBuffer.allocate(4);
+            buf.putInt(0, value);
+            writeFully(buf, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            final int read = this.channel.read(buf, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += this.channel.write(buf, position);
+        }
     }
 
     public void close() throws IOException {
-        this.file.getChannel().force(true);
-        this.file.close();
+        final MappedByteBuffer header;
+        // Wait for all the writes to the header, accessing
+        // a unmapped buffer would crash the jvm
+        final long[] stamps = new long[this.locks.length];
+        for (int i = 0; i < this.locks.length; i++) {
+            stamps[i] = this.locks[i].writeLock();
+        }
+        try {
+            header = this.header;
+            this.header = null;
+        } finally {
+            for (int i = 0; i < this.locks.length; i++) {
+                this.locks[i].unlockWrite(stamps[i]);
+            }
+        }
+        if (header != null) {
+            header.force();
+            unmap(header);
+        }
+        this.channel.force(true);
+        this.channel.close();
+    }
+
+    /**
+     * Unmaps the given buffer. The mapping is otherwise only released once the buffer
+     * is garbage collected, and a mapped file can't be deleted or replaced on windows.
+     *
+     * @param buffer The buffer
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (unmapper == null) {
+            return;
+        }
+        try {
+            unmapper.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable t) {
+            Lantern.getLogger().warn(REGION_FILE_MARKER, "Failed to unmap the region file header", t);
+        }
     }
 }
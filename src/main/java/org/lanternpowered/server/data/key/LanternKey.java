@@ -53,6 +53,7 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -64,6 +65,9 @@
     private static final TypeToken<ChangeDataHolderEvent.ValueChange> valueChangeEventTypeToken =
             TypeToken.of(ChangeDataHolderEvent.ValueChange.class);
 
+    // The counter that is used to assign the indexes
+    private static final AtomicInteger indexCounter = new AtomicInteger();
+
     private final TypeToken<V> valueToken;
     private final CatalogKey key;
     private final Translation name;
@@ -83,8 +87,10 @@
     @Nullable private LanternKey optionalWrappedKey;
 
     private final int hashCode;
+    private final int index;
 
     LanternKey(CatalogKey key, Translation name, DataQuery query, TypeToken<V> valueToken) {
+        this.index = indexCounter.getAndIncrement();
         this.valueToken = valueToken;
         this.name = name;
         this.query = query;
@@ -121,6 +127,17 @@ private static <E> TypeToken<ImmutableValue<E>> createImmutableValueToken(TypeTo
         return new TypeToken<ImmutableValue<E>>() {}.where(new TypeParameter<E>() {}, elementToken);
     }
 
+    /**
+     * Gets the index of this key. Every key gets a unique index
+     * when it's constructed, starting from {@code 0}, so it can
+     * be used to lookup data in arrays instead of maps.
+     *
+     * @return The index
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
     @Nullable
     public LanternKey getOptionalUnwrappedKey() {
         return this.optionalUnwrappedKey;
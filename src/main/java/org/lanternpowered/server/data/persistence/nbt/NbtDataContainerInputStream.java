@@ -118,6 +118,127 @@ public DataContainer read() throws IOException, InvalidDataFormatException {
         return (DataContainer) readObject(null, entry, 0);
     }
 
+    /**
+     * Reads the next compound and passes its tags to the {@link NbtVisitor}, only
+     * the compounds and lists that aren't visited will be read as a whole.
+     *
+     * @param visitor The visitor
+     * @throws IOException When a i/o error occurred
+     * @throws InvalidDataFormatException When the data is invalid
+     */
+    public void accept(NbtVisitor visitor) throws IOException, InvalidDataFormatException {
+        checkNotNull(visitor, "visitor");
+        final Entry entry = readEntry();
+        if (entry == null) {
+            throw new IOException("There is no more data to read.");
+        } else if (entry.type != NbtType.COMPOUND) {
+            throw new IOException("Attempted to visit a compound, but found: " + entry.type);
+        }
+        visitCompound(visitor, 0);
+    }
+
+    private void checkDepth(int depth) throws IOException {
+        if (depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+    }
+
+    private void visitCompound(NbtVisitor visitor, int depth) throws IOException, InvalidDataFormatException {
+        checkDepth(depth);
+        final int depth1 = depth + 1;
+        Entry entry;
+        while ((entry = readEntry()) != null) {
+            visitPayload(visitor, entry.name, entry.type, entry.listType, depth1);
+        }
+        visitor.visitEnd();
+    }
+
+    private void visitPayload(NbtVisitor visitor, String name, NbtType nbtType, @Nullable NbtType listNbtType,
+            int depth) throws IOException, InvalidDataFormatException {
+        switch (nbtType) {
+            case BYTE:
+                visitor.visitByte(name, this.dis.readByte());
+                break;
+            case SHORT:
+                visitor.visitShort(name, this.dis.readShort());
+                break;
+            case INT:
+                visitor.visitInt(name, this.dis.readInt());
+                break;
+            case LONG:
+                visitor.visitLong(name, this.dis.readLong());
+                break;
+            case FLOAT:
+                visitor.visitFloat(name, this.dis.readFloat());
+                break;
+            case DOUBLE:
+                visitor.visitDouble(name, this.dis.readDouble());
+                break;
+            case STRING:
+                visitor.visitString(name, this.dis.readUTF());
+                break;
+            case BYTE_ARRAY:
+                visitor.visitByteArray(name, (byte[]) readPayload(null, nbtType, null, depth));
+                break;
+            case INT_ARRAY:
+                visitor.visitIntArray(name, (int[]) readPayload(null, nbtType, null, depth));
+                break;
+            case LONG_ARRAY:
+                visitor.visitLongArray(name, (long[]) readPayload(null, nbtType, null, depth));
+                break;
+            case COMPOUND:
+                final NbtVisitor compoundVisitor = visitor.visitCompound(name);
+                if (compoundVisitor != null) {
+                    visitCompound(compoundVisitor, depth);
+                } else {
+                    visitor.visitValue(name, readPayload(null, nbtType, null, depth));
+                }
+                break;
+            case LIST:
+                // Lists with a lantern specific element type are always read as a whole
+                if (listNbtType != null) {
+                    visitor.visitValue(name, readPayload(null, nbtType, listNbtType, depth));
+                    break;
+                }
+                checkDepth(depth);
+                final byte listType = this.dis.readByte();
+                final NbtType elementType = NbtType.byIndex.get(listType);
+                if (elementType == null) {
+                    throw new IOException("Unknown NBT Type with id: " + listType);
+                }
+                final int size = this.dis.readInt();
+                final NbtVisitor listVisitor = visitor.visitList(name, listType, size);
+                if (listVisitor != null) {
+                    if (elementType != NbtType.END) {
+                        final int depth1 = depth + 1;
+                        for (int i = 0; i < size; i++) {
+                            visitPayload(listVisitor, "", elementType, null, depth1);
+                        }
+                    }
+                    listVisitor.visitEnd();
+                } else {
+                    visitor.visitValue(name, readList(elementType, size, depth));
+                }
+                break;
+            default:
+                visitor.visitValue(name, readPayload(null, nbtType, listNbtType, depth));
+                break;
+        }
+    }
+
+    private List<Object> readList(NbtType listNbtType, int size, int depth) throws IOException, InvalidDataFormatException {
+        final List<Object> list = Lists.newArrayListWithExpectedSize(size);
+        if (size == 0 || listNbtType == NbtType.END) {
+            return list;
+        }
+        final int depth1 = depth + 1;
+        for (int i = 0; i < size; i++) {
+            list.add(readPayload(null, listNbtType, null, depth1));
+        }
+        return list;
+    }
+
     private Object readObject(@Nullable DataView container, Entry entry, int depth)
             throws IOException, InvalidDataFormatException {
         return readPayload(container, entry.type, entry.listType, depth);
@@ -162,10 +283,7 @@ private Entry readEntry() throws IOException {
     @SuppressWarnings({"rawtypes", "unchecked"})
     private Object readPayload(@Nullable DataView container, NbtType nbtType, @Nullable NbtType listNbtType,
             int depth) throws IOException, InvalidDataFormatException {
-        if (depth > this.maximumDepth) {
-            throw new IOException("Attempted to read a data container with too high complexity,"
-                    + " exceeded the maximum depth of " + this.maximumDepth);
-        }
+        checkDepth(depth);
         int length;
         switch (nbtType) {
             case BYTE:
@@ -176,7 +294,7 @@ private Object readPayload(@Nullable DataView container, NbtType nbtType, @Nulla
                     return emptyByteArray;
                 }
                 final byte[] byteArray = new byte[length];
-                this.dis.read(byteArray);
+                this.dis.readFully(byteArray);
                 return byteArray;
             case SHORT:
                 return this.dis.readShort();
@@ -304,21 +422,12 @@ private Object readPayload(@Nullable DataView container, NbtType nbtType, @Nulla
                         throw new IOException("Unknown NBT Type with id: " + listType);
                     }
                 }
-                final int size = this.dis.readInt();
-                final List<Object> list = Lists.newArrayListWithExpectedSize(size);
-                if (size == 0 || listNbtType == NbtType.END) {
-                    return list;
-                }
-                int depth1 = depth + 1;
-                for (int i = 0; i < size; i++) {
-                    list.add(readPayload(null, listNbtType, null, depth1));
-                }
-                return list;
+                return readList(listNbtType, this.dis.readInt(), depth);
             case COMPOUND:
                 if (container == null) {
                     container = new MemoryDataContainer(DataView.SafetyMode.NO_DATA_CLONED);
                 }
-                depth1 = depth + 1;
+                int depth1 = depth + 1;
                 Entry entry;
                 while ((entry = readEntry()) != null) {
                     if (entry.type == NbtType.COMPOUND) {
@@ -83,6 +83,148 @@ public void write(DataView dataView) throws IOException {
         writeEntry("", checkNotNull(dataView, "dataView"));
     }
 
+    /**
+     * Starts writing a compound tag, all the tags that are written until
+     * {@link #writeEndCompound()} is called will be part of the compound.
+     *
+     * @param name The name of the compound
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeStartCompound(String name) throws IOException {
+        this.dos.writeByte(NbtType.COMPOUND.type);
+        this.dos.writeUTF(name);
+    }
+
+    /**
+     * Ends the current compound, or the current compound element
+     * of a list started by {@link #writeStartCompoundList(String, int)}.
+     *
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeEndCompound() throws IOException {
+        this.dos.writeByte(NbtType.END.type);
+    }
+
+    /**
+     * Starts writing a list of compounds. The tags of every element should be written
+     * directly, followed by {@link #writeEndCompound()}. Exactly the given amount of
+     * elements must be written.
+     *
+     * @param name The name of the list
+     * @param size The amount of compounds in the list
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeStartCompoundList(String name, int size) throws IOException {
+        this.dos.writeByte(NbtType.LIST.type);
+        this.dos.writeUTF(name);
+        this.dos.writeByte(size == 0 ? NbtType.END.type : NbtType.COMPOUND.type);
+        this.dos.writeInt(size);
+    }
+
+    /**
+     * Writes a byte tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeByte(String name, byte value) throws IOException {
+        this.dos.writeByte(NbtType.BYTE.type);
+        this.dos.writeUTF(name);
+        this.dos.writeByte(value);
+    }
+
+    /**
+     * Writes a short tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeShort(String name, short value) throws IOException {
+        this.dos.writeByte(NbtType.SHORT.type);
+        this.dos.writeUTF(name);
+        this.dos.writeShort(value);
+    }
+
+    /**
+     * Writes a int tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeInt(String name, int value) throws IOException {
+        this.dos.writeByte(NbtType.INT.type);
+        this.dos.writeUTF(name);
+        this.dos.writeInt(value);
+    }
+
+    /**
+     * Writes a long tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeLong(String name, long value) throws IOException {
+        this.dos.writeByte(NbtType.LONG.type);
+        this.dos.writeUTF(name);
+        this.dos.writeLong(value);
+    }
+
+    /**
+     * Writes a byte array tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeByteArray(String name, byte[] value) throws IOException {
+        writeByteArray(name, value, 0, value.length);
+    }
+
+    /**
+     * Writes a byte array tag with the content of a part of the array.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @param offset The offset in the array
+     * @param length The amount of bytes
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeByteArray(String name, byte[] value, int offset, int length) throws IOException {
+        this.dos.writeByte(NbtType.BYTE_ARRAY.type);
+        this.dos.writeUTF(name);
+        this.dos.writeInt(length);
+        this.dos.write(value, offset, length);
+    }
+
+    /**
+     * Writes a int array tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeIntArray(String name, int[] value) throws IOException {
+        this.dos.writeByte(NbtType.INT_ARRAY.type);
+        this.dos.writeUTF(name);
+        writePayload(NbtType.INT_ARRAY, value);
+    }
+
+    /**
+     * Writes a tag for the given object, the type will be
+     * determined in the same way as for {@link DataView}s.
+     *
+     * @param name The name of the tag
+     * @param object The object
+     * @throws IOException When a i/o error occurred
+     */
+    public void writeValue(String name, Object object) throws IOException {
+        writeEntry(checkNotNull(name, "name"), checkNotNull(object, "object"));
+    }
+
     @SuppressWarnings("unchecked")
     private void writePayload(NbtType nbtType, Object object) throws IOException {
         switch (nbtType) {
@@ -0,0 +1,192 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.persistence.nbt;
+
+import org.spongepowered.api.data.DataView;
+
+import javax.annotation.Nullable;
+
+/**
+ * A visitor that receives the tags of a compound while it is being read
+ * by {@link NbtDataContainerInputStream#accept(NbtVisitor)}, without building
+ * a {@link DataView} tree first.
+ * <p>
+ * All the methods for the primitive and array tags delegate by default to
+ * {@link #visitValue(String, Object)}. Compounds and lists for which no
+ * nested visitor is provided will be read completely and passed to
+ * {@link #visitValue(String, Object)} as a {@link DataView} or list.
+ * <p>
+ * The elements of a list are passed to the list visitor with a empty name.
+ */
+public interface NbtVisitor {
+
+    /**
+     * Visits a byte tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitByte(String name, byte value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a short tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitShort(String name, short value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a int tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitInt(String name, int value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a long tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitLong(String name, long value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a float tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitFloat(String name, float value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a double tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitDouble(String name, double value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a string tag.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitString(String name, String value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a byte array tag, the array isn't
+     * shared and can be used directly.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitByteArray(String name, byte[] value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a int array tag, the array isn't
+     * shared and can be used directly.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitIntArray(String name, int[] value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a long array tag, the array isn't
+     * shared and can be used directly.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitLongArray(String name, long[] value) {
+        visitValue(name, value);
+    }
+
+    /**
+     * Visits a value that isn't handled by any of the other methods, this
+     * includes the lantern specific types and compounds or lists for which
+     * no nested visitor was provided.
+     *
+     * @param name The name of the tag
+     * @param value The value
+     */
+    default void visitValue(String name, Object value) {
+    }
+
+    /**
+     * Visits a compound tag.
+     *
+     * @param name The name of the tag
+     * @return The visitor for the tags of the compound, or {@code null} to
+     *         read the compound as a {@link DataView}
+     */
+    @Nullable
+    default NbtVisitor visitCompound(String name) {
+        return null;
+    }
+
+    /**
+     * Visits a list tag.
+     *
+     * @param name The name of the tag
+     * @param elementType The nbt type id of the elements
+     * @param size The size of the list
+     * @return The visitor for the elements of the list, or {@code null}
+     *         to read the list as a whole
+     */
+    @Nullable
+    default NbtVisitor visitList(String name, int elementType, int size) {
+        return null;
+    }
+
+    /**
+     * Is called when all the tags of the compound or
+     * elements of the list are visited.
+     */
+    default void visitEnd() {
+    }
+}
@@ -56,6 +56,8 @@
     ElementProcessorBuilder.ApplicablePredicate<E> applicableTester;
     ElementProcessorBuilder.ValueBuilderFunction<V, E> valueBuilder;
 
+    boolean direct;
+
     @Nullable E element;
     @Nullable List<ElementListener<E>> listeners;
 
@@ -96,6 +98,7 @@ public SimpleElementProcessor<V, E> copy() {
                 this.valueRetrieveHandler,
                 this.retrieveHandler,
                 this.valueBuilder);
+        copy.direct = this.direct;
         copy.element = this.element;
         if (this.listeners != null) {
             copy.listeners = new ArrayList<>(this.listeners);
@@ -118,6 +121,11 @@ public E get() {
         return this.element;
     }
 
+    @Override
+    public boolean isDirect() {
+        return this.direct;
+    }
+
     @Override
     public void addListener(ElementListener<E> listener) {
         checkNotNull(listener, "listener");
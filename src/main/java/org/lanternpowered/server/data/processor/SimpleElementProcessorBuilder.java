@@ -66,7 +66,7 @@ static <V extends BaseValue<E>, E> ElementProcessor<V, E> createNonRemovableDefa
 
     private static <V extends BaseValue<E>, E> ElementProcessor<V, E> createCopy(Key<? extends V> key,
             SimpleElementProcessor processor) {
-        return new SimpleElementProcessor(key,
+        final SimpleElementProcessor<V, E> copy = new SimpleElementProcessor(key,
                 processor.applicableTester,
                 processor.removeHandler,
                 processor.fastRemoveHandler,
@@ -77,6 +77,8 @@ private static <V extends BaseValue<E>, E> ElementProcessor<V, E> createCopy(Key
                 processor.valueRetrieveHandler,
                 processor.retrieveHandler,
                 processor.valueBuilder);
+        copy.direct = processor.direct;
+        return copy;
     }
 
     private static final SimpleElementProcessor DEFAULT;
@@ -265,6 +267,12 @@ public ElementProcessor<V, E> build() {
         if (this.applicableTester == null) {
             valueProcessor.applicableTester = (container, element) -> true;
         }
+        // The element can only be accessed directly if
+        // all the default handlers are being used
+        valueProcessor.direct = this.applicableTester == null &&
+                this.retrieveHandler == null && this.valueRetrieveHandler == null &&
+                this.offerHandler == null && this.fastOfferHandler == null &&
+                this.valueOfferHandler == null && this.fastValueOfferHandler == null;
         ///////////////////////
         // Retrieve Handlers //
         ///////////////////////
@@ -76,6 +76,7 @@ public synchronized SimpleElementProcessor<V, E> copy() {
                 this.valueRetrieveHandler,
                 this.retrieveHandler,
                 this.valueBuilder);
+        copy.direct = this.direct;
         copy.element = this.element;
         if (this.listeners != null) {
             copy.listeners = new ArrayList<>(this.listeners);
@@ -40,6 +40,7 @@
 import org.lanternpowered.server.inventory.PeekedOfferTransactionResult;
 import org.lanternpowered.server.inventory.transformation.InventoryTransforms;
 import org.lanternpowered.server.network.entity.EntityProtocolTypes;
+import org.lanternpowered.server.world.physics.CollisionEngine;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.Transaction;
 import org.spongepowered.api.data.key.Keys;
@@ -56,7 +57,6 @@
 import org.spongepowered.api.item.inventory.ItemStackSnapshot;
 import org.spongepowered.api.item.inventory.entity.PlayerInventory;
 import org.spongepowered.api.util.AABB;
-import org.spongepowered.api.util.Direction;
 
 import java.util.Optional;
 import java.util.Set;
@@ -152,20 +152,18 @@ public void pulse(int deltaTicks) {
     private void pulsePhysics() {
         // Get the current velocity
         Vector3d velocity = getVelocity();
-        // Update the position based on the velocity
-        setPosition(getPosition().add(velocity));
+        final CollisionEngine collisionEngine = getWorld().getCollisionEngine();
+        final AABB box = getBoundingBox().get();
+        // Move as far as possible without moving into blocks
+        final Vector3d motion = collisionEngine.collide(box, velocity);
+        // Update the position based on the clipped motion
+        setPosition(getPosition().add(motion));
 
         // We will check if there is a collision box under the entity
-        boolean ground = false;
-
-        final AABB thisBox = getBoundingBox().get().offset(0, -0.1, 0);
-        final Set<AABB> boxes = getWorld().getIntersectingBlockCollisionBoxes(thisBox);
-        for (AABB box : boxes) {
-            final Vector3d factor = box.getCenter().sub(thisBox.getCenter());
-            if (Direction.getClosest(factor).isUpright()) {
-                ground = true;
-            }
-        }
+        final double minY = box.getMin().getY() + motion.getY();
+        final boolean ground = collisionEngine.intersects(
+                box.getMin().getX() + motion.getX(), minY - 0.1, box.getMin().getZ() + motion.getZ(),
+                box.getMax().getX() + motion.getX(), minY, box.getMax().getZ() + motion.getZ());
         if (!ground) {
             final Optional<Double> gravityFactor = get(LanternKeys.GRAVITY_FACTOR);
             if (gravityFactor.isPresent()) {
@@ -173,7 +171,9 @@ private void pulsePhysics() {
                 velocity = velocity.add(0, -gravityFactor.get(), 0);
             }
         }
-        velocity = velocity.mul(0.98, 0.98, 0.98);
+        // Stop moving along the horizontal axes that were blocked
+        velocity = velocity.mul(motion.getX() != velocity.getX() ? 0.0 : 0.98, 0.98,
+                motion.getZ() != velocity.getZ() ? 0.0 : 0.98);
         if (ground) {
             velocity = velocity.mul(1, -0.5, 1);
         }
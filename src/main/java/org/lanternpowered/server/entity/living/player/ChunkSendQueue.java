@@ -0,0 +1,361 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.entity.living.player;
+
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.key;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyX;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyZ;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.lanternpowered.server.world.ChunkRegionPartitioner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the chunks that are in the view of a player and decides which of
+ * them should be send next.
+ * <p>
+ * Chunks that enter the view are queued instead of being send at once, every
+ * pulse only a limited amount of chunks (the budget) will be send, which is
+ * based on the network backlog of the player. The queued chunks are prioritized
+ * by their distance to the player, chunks in the look direction and in the
+ * movement direction of the player are preferred, see
+ * {@link #getPriority(double, double, double, double, double, double)}. Queued
+ * chunks that leave the view before they are send are dropped.
+ * <p>
+ * All the chunks are represented by keys, see {@link ChunkRegionPartitioner#key(int, int)}.
+ */
+public final class ChunkSendQueue {
+
+    /**
+     * A action that is applied to a chunk.
+     */
+    @FunctionalInterface
+    interface ChunkAction {
+
+        /**
+         * Applies the action to the chunk.
+         *
+         * @param x The chunk x coordinate
+         * @param z The chunk z coordinate
+         */
+        void apply(int x, int z);
+    }
+
+    /**
+     * The weight of the look direction, the distance of a chunk straight in
+     * front of the player is reduced by this fraction, and increased for a
+     * chunk behind the player.
+     */
+    private static final double LOOK_WEIGHT = 0.25;
+
+    /**
+     * The weight of the movement direction, at a speed
+     * of one chunk per tick or faster.
+     */
+    private static final double MOVEMENT_WEIGHT = 0.5;
+
+    /**
+     * The amount of ticks that are used to calculate the bytes per second.
+     */
+    private static final int BYTES_WINDOW = 20;
+
+    // The chunks that are in view but not yet send
+    private final LongSet queued = new LongOpenHashSet();
+    // The chunks that are in view and handed over to be send, some
+    // of them may still be waiting for the chunk to be loaded
+    private final LongSet sent = new LongOpenHashSet();
+    // The chunks that are handed over but of which the data isn't send yet
+    private final LongSet awaiting = new LongOpenHashSet();
+
+    // Reusable buffers to select the chunks with the highest priority, the
+    // priorities change every pulse so the heap is rebuild every pulse
+    private long[] selectKeys = new long[0];
+    private double[] selectPriorities = new double[0];
+
+    // The movement of the player, in chunks per tick
+    private double lastX = Double.NaN;
+    private double lastZ;
+    private double movementX;
+    private double movementZ;
+
+    // The bytes that were send in the last ticks
+    private final long[] bytes = new long[BYTES_WINDOW];
+    private int bytesIndex;
+
+    private long fullViewStart = -1L;
+    private long timeToFullView = -1L;
+
+    /**
+     * Updates the view of the player. All the chunks in the square around the
+     * center that aren't known will be queued, the chunks that are no longer in
+     * the view will be dropped from the queue or passed to the remove action if
+     * they were already send.
+     *
+     * @param centerX The center chunk x coordinate
+     * @param centerZ The center chunk z coordinate
+     * @param radius The radius of the view
+     * @param remove The action for the send chunks that left the view
+     */
+    synchronized void updateView(int centerX, int centerZ, int radius, ChunkAction remove) {
+        // Drop the queued chunks that are no longer in view
+        LongIterator it = this.queued.iterator();
+        while (it.hasNext()) {
+            final long key = it.nextLong();
+            if (!isInView(key, centerX, centerZ, radius)) {
+                it.remove();
+            }
+        }
+        it = this.sent.iterator();
+        while (it.hasNext()) {
+            final long key = it.nextLong();
+            if (!isInView(key, centerX, centerZ, radius)) {
+                it.remove();
+                this.awaiting.remove(key);
+                remove.apply(keyX(key), keyZ(key));
+            }
+        }
+        final boolean full = this.queued.isEmpty() && this.awaiting.isEmpty();
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                final long key = key(x, z);
+                if (!this.sent.contains(key)) {
+                    this.queued.add(key);
+                }
+            }
+        }
+        if (full && !this.queued.isEmpty()) {
+            this.fullViewStart = System.nanoTime();
+        }
+    }
+
+    private static boolean isInView(long key, int centerX, int centerZ, int radius) {
+        return Math.abs(keyX(key) - centerX) <= radius && Math.abs(keyZ(key) - centerZ) <= radius;
+    }
+
+    /**
+     * Removes all the chunks from the view.
+     *
+     * @param remove The action for the send chunks
+     */
+    synchronized void clear(ChunkAction remove) {
+        final LongIterator it = this.sent.iterator();
+        while (it.hasNext()) {
+            final long key = it.nextLong();
+            remove.apply(keyX(key), keyZ(key));
+        }
+        this.queued.clear();
+        this.sent.clear();
+        this.awaiting.clear();
+        this.lastX = Double.NaN;
+        this.fullViewStart = -1L;
+    }
+
+    /**
+     * Pulses the queue, the chunks with the highest priority will be passed
+     * to the send action, up to the budget.
+     *
+     * @param budget The maximum amount of chunks to send
+     * @param x The x coordinate of the player, in chunks
+     * @param z The z coordinate of the player, in chunks
+     * @param lookX The x component of the horizontal look direction
+     * @param lookZ The z component of the horizontal look direction
+     * @param send The send action
+     */
+    synchronized void pulse(int budget, double x, double z, double lookX, double lookZ, ChunkAction send) {
+        // Smooth the movement a bit, to ignore small turns
+        if (!Double.isNaN(this.lastX)) {
+            this.movementX = this.movementX * 0.5 + (x - this.lastX) * 0.5;
+            this.movementZ = this.movementZ * 0.5 + (z - this.lastZ) * 0.5;
+        }
+        this.lastX = x;
+        this.lastZ = z;
+        this.bytesIndex = (this.bytesIndex + 1) % BYTES_WINDOW;
+        this.bytes[this.bytesIndex] = 0;
+
+        final int size = this.queued.size();
+        if (size != 0 && budget > 0) {
+            if (this.selectKeys.length < size) {
+                this.selectKeys = new long[size];
+                this.selectPriorities = new double[size];
+            }
+            final long[] keys = this.selectKeys;
+            final double[] priorities = this.selectPriorities;
+            final LongIterator it = this.queued.iterator();
+            for (int i = 0; i < size; i++) {
+                final long key = it.nextLong();
+                keys[i] = key;
+                priorities[i] = getPriority(keyX(key) + 0.5 - x, keyZ(key) + 0.5 - z,
+                        lookX, lookZ, this.movementX, this.movementZ);
+            }
+            // Select the chunks with the lowest values through a min heap, building
+            // the heap is linear and every selected chunk costs log(size), the budget
+            // will in most cases be a lot smaller than the queue
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(keys, priorities, i, size);
+            }
+            final int count = Math.min(budget, size);
+            int heapSize = size;
+            for (int i = 0; i < count; i++) {
+                final long key = keys[0];
+                heapSize--;
+                keys[0] = keys[heapSize];
+                priorities[0] = priorities[heapSize];
+                siftDown(keys, priorities, 0, heapSize);
+                this.queued.remove(key);
+                this.sent.add(key);
+                this.awaiting.add(key);
+                send.apply(keyX(key), keyZ(key));
+            }
+        }
+        checkFullView();
+    }
+
+    /**
+     * Moves the entry at the given index down the min heap
+     * until both of its children have a higher value.
+     *
+     * @param keys The keys of the heap
+     * @param priorities The priorities of the heap
+     * @param index The index of the entry
+     * @param size The size of the heap
+     */
+    private static void siftDown(long[] keys, double[] priorities, int index, int size) {
+        final long key = keys[index];
+        final double priority = priorities[index];
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            keys[index] = keys[child];
+            priorities[index] = priorities[child];
+            index = child;
+        }
+        keys[index] = key;
+        priorities[index] = priority;
+    }
+
+    private void checkFullView() {
+        if (this.fullViewStart != -1L && this.queued.isEmpty() && this.awaiting.isEmpty()) {
+            this.timeToFullView = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.fullViewStart);
+            this.fullViewStart = -1L;
+        }
+    }
+
+    /**
+     * Gets the priority of a chunk, a lower value means that
+     * the chunk should be send sooner.
+     * <p>
+     * The priority is the distance to the chunk, scaled by a factor between
+     * {@code 0.25} (straight in the look and movement direction) and {@code 1.75}
+     * (straight behind the player while moving away from it). The distance is
+     * therefore not the only deciding factor, a chunk behind the player is send
+     * after chunks in front of the player that are up to seven times further
+     * away. Only the chunk the player is standing in is always send first.
+     *
+     * @param dx The x distance from the player to the center of the chunk, in chunks
+     * @param dz The z distance from the player to the center of the chunk, in chunks
+     * @param lookX The x component of the horizontal look direction
+     * @param lookZ The z component of the horizontal look direction
+     * @param movementX The x movement, in chunks per tick
+     * @param movementZ The z movement, in chunks per tick
+     * @return The priority
+     */
+    static double getPriority(double dx, double dz, double lookX, double lookZ, double movementX, double movementZ) {
+        final double distance = Math.sqrt(dx * dx + dz * dz);
+        if (distance == 0.0) {
+            return 0.0;
+        }
+        // The dot products with the normalized offset, in the range [-1, 1]
+        final double look = (dx * lookX + dz * lookZ) / distance;
+        double movement = (dx * movementX + dz * movementZ) / distance;
+        movement = Math.max(-1.0, Math.min(1.0, movement));
+        return distance * (1.0 - look * LOOK_WEIGHT - movement * MOVEMENT_WEIGHT);
+    }
+
+    /**
+     * Is called when the chunk data is send to the client.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param bytes The amount of bytes
+     */
+    synchronized void onChunkSent(int x, int z, int bytes) {
+        this.awaiting.remove(key(x, z));
+        this.bytes[this.bytesIndex] += bytes;
+        checkFullView();
+    }
+
+    /**
+     * Gets the amount of chunks that are queued to be send.
+     *
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return this.queued.size();
+    }
+
+    /**
+     * Gets the amount of chunks that are handed over to be send, but are
+     * still waiting for the chunk to be loaded.
+     *
+     * @return The awaiting chunks
+     */
+    public synchronized int getAwaitingChunks() {
+        return this.awaiting.size();
+    }
+
+    /**
+     * Gets the amount of chunk data bytes that were
+     * send per second, based on the last second.
+     *
+     * @return The bytes per second
+     */
+    public synchronized long getBytesPerSecond() {
+        long total = 0;
+        for (long value : this.bytes) {
+            total += value;
+        }
+        return total * 20 / BYTES_WINDOW;
+    }
+
+    /**
+     * Gets the time it took to send all the chunks in the view after the view
+     * was last changed while it was complete, in milliseconds. {@code -1} if
+     * the view was never completed.
+     *
+     * @return The time to full view
+     */
+    public synchronized long getTimeToFullView() {
+        return this.timeToFullView;
+    }
+}
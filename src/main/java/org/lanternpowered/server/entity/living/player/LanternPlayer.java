@@ -32,6 +32,7 @@
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.Sets;
+import io.netty.channel.Channel;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.lanternpowered.api.cause.CauseStack;
 import org.lanternpowered.server.advancement.LanternPlayerAdvancements;
@@ -220,8 +221,8 @@ public class LanternPlayer extends AbstractUser implements Player, AbstractViewe
     // Whether you should ignore this player when checking for sleeping players to reset the time
     private boolean sleepingIgnored;
 
-    // The chunks the client knows about
-    private final Set<Vector2i> knownChunks = new HashSet<>();
+    // The chunks the client knows about or that are queued to be send
+    private final ChunkSendQueue chunkSendQueue = new ChunkSendQueue();
 
     // The interaction handler
     private final PlayerInteractionHandler interactionHandler;
@@ -439,9 +440,7 @@ private void setWorld(@Nullable LanternWorld oldWorld, @Nullable LanternWorld wo
             // Remove the player from all the observed chunks, there is no need
             // to send unload messages because we will respawn in a different world
             final ObservedChunkManager observedChunkManager = oldWorld.getObservedChunkManager();
-            final Set<Vector2i> knownChunks = new HashSet<>(this.knownChunks);
-            knownChunks.forEach(coords -> observedChunkManager.removeObserver(coords, this, false));
-            this.knownChunks.clear();
+            this.chunkSendQueue.clear((x, z) -> observedChunkManager.removeObserver(new Vector2i(x, z), this, false));
             // Clear the last chunk pos
             this.lastChunkPos = null;
             // Remove the player from the world
@@ -784,12 +783,12 @@ public void pulse(int deltaTicks) {
 
         this.resourcePackSendQueue.pulse();
 
-        if (get(Keys.IS_ELYTRA_FLYING).get()) {
-            if (get(Keys.IS_SNEAKING).get()) {
-                offer(Keys.IS_ELYTRA_FLYING, false);
-                offer(LanternKeys.ELYTRA_SPEED_BOOST, false);
+        if (getBoolean(Keys.IS_ELYTRA_FLYING)) {
+            if (getBoolean(Keys.IS_SNEAKING)) {
+                offerBoolean(Keys.IS_ELYTRA_FLYING, false);
+                offerBoolean(LanternKeys.ELYTRA_SPEED_BOOST, false);
             } else {
-                offer(LanternKeys.ELYTRA_SPEED_BOOST, get(Keys.IS_SPRINTING).get());
+                offerBoolean(LanternKeys.ELYTRA_SPEED_BOOST, getBoolean(Keys.IS_SPRINTING));
             }
         }
 
@@ -814,81 +813,77 @@ public ChunkLoadingTicket getChunkLoadingTicket() {
         return (ChunkLoadingTicket) this.loadingTicket;
     }
 
+    /**
+     * Gets the {@link ChunkSendQueue} of this player.
+     *
+     * @return The chunk send queue
+     */
+    public ChunkSendQueue getChunkSendQueue() {
+        return this.chunkSendQueue;
+    }
+
     public void pulseChunkChanges() {
         final LanternWorld world = getWorld();
         if (world == null) {
             return;
         }
 
-        ChunkLoadingTicket loadingTicket = this.getChunkLoadingTicket();
-        Vector3d position = this.getPosition();
-
-        double xPos = position.getX();
-        double zPos = position.getZ();
-
-        int centralX = ((int) xPos) >> 4;
-        int centralZ = ((int) zPos) >> 4;
+        final ChunkLoadingTicket loadingTicket = this.getChunkLoadingTicket();
+        final ObservedChunkManager observedChunkManager = world.getObservedChunkManager();
+        final Vector3d position = this.getPosition();
 
-        // Fail fast if the player hasn't moved a chunk
-        if (this.lastChunkPos != null && this.lastChunkPos.getX() == centralX &&
-                this.lastChunkPos.getY() == centralZ) {
-            return;
-        }
+        final double xPos = position.getX();
+        final double zPos = position.getZ();
 
-        this.lastChunkPos = new Vector2i(centralX, centralZ);
+        final int centralX = ((int) xPos) >> 4;
+        final int centralZ = ((int) zPos) >> 4;
 
-        // Get the radius of visible chunks
-        int radius = world.getProperties().getConfig().getViewDistance();
-        if (radius == WorldConfig.USE_SERVER_VIEW_DISTANCE) {
-            radius = Lantern.getGame().getGlobalConfig().getViewDistance();
-        }
-        if (this.viewDistance != -1) {
-            radius = Math.min(radius, this.viewDistance + 1);
-        }
+        // Only update the view if the player moved to a different chunk
+        if (this.lastChunkPos == null || this.lastChunkPos.getX() != centralX ||
+                this.lastChunkPos.getY() != centralZ) {
+            this.lastChunkPos = new Vector2i(centralX, centralZ);
 
-        final Set<Vector2i> previousChunks = new HashSet<>(this.knownChunks);
-        final List<Vector2i> newChunks = new ArrayList<>();
-
-        for (int x = (centralX - radius); x <= (centralX + radius); x++) {
-            for (int z = (centralZ - radius); z <= (centralZ + radius); z++) {
-                final Vector2i coords = new Vector2i(x, z);
-                if (!previousChunks.remove(coords)) {
-                    newChunks.add(coords);
-                }
+            // Get the radius of visible chunks
+            int radius = world.getProperties().getConfig().getViewDistance();
+            if (radius == WorldConfig.USE_SERVER_VIEW_DISTANCE) {
+                radius = Lantern.getGame().getGlobalConfig().getViewDistance();
+            }
+            if (this.viewDistance != -1) {
+                radius = Math.min(radius, this.viewDistance + 1);
             }
-        }
 
-        // Early end if there's no changes
-        if (newChunks.size() == 0 && previousChunks.size() == 0) {
-            return;
+            // Unforce old chunks so they can unload and untrack the chunk,
+            // the new chunks will be queued
+            this.chunkSendQueue.updateView(centralX, centralZ, radius, (x, z) -> {
+                final Vector2i coords = new Vector2i(x, z);
+                observedChunkManager.removeObserver(coords, this, true);
+                loadingTicket.unforceChunk(coords);
+            });
         }
 
-        // Sort chunks by distance from player - closer chunks sent/forced first
-        newChunks.sort((a, b) -> {
-            double dx = 16 * a.getX() + 8 - xPos;
-            double dz = 16 * a.getY() + 8 - zPos;
-            double da = dx * dx + dz * dz;
-            dx = 16 * b.getX() + 8 - xPos;
-            dz = 16 * b.getY() + 8 - zPos;
-            double db = dx * dx + dz * dz;
-            return Double.compare(da, db);
-        });
-
-        ObservedChunkManager observedChunkManager = world.getObservedChunkManager();
-
-        // Force all the new chunks to be loaded and track the changes
-        newChunks.forEach(coords -> {
+        // Force the queued chunks with the highest priority to be loaded and track the changes
+        final Vector3d direction = getHorizontalDirectionVector();
+        this.chunkSendQueue.pulse(getChunkSendBudget(), xPos / 16.0, zPos / 16.0, direction.getX(), direction.getZ(), (x, z) -> {
+            final Vector2i coords = new Vector2i(x, z);
             observedChunkManager.addObserver(coords, this);
             loadingTicket.forceChunk(coords);
         });
-        // Unforce old chunks so they can unload and untrack the chunk
-        previousChunks.forEach(coords -> {
-            observedChunkManager.removeObserver(coords, this, true);
-            loadingTicket.unforceChunk(coords);
-        });
+    }
 
-        this.knownChunks.removeAll(previousChunks);
-        this.knownChunks.addAll(newChunks);
+    /**
+     * Gets the maximum amount of chunks that may be send to the client this
+     * tick, the budget shrinks when data is piling up in the outbound buffer.
+     *
+     * @return The chunk send budget
+     */
+    private int getChunkSendBudget() {
+        final Channel channel = this.session.getChannel();
+        if (!channel.isWritable()) {
+            return 0;
+        }
+        final int max = Lantern.getGame().getGlobalConfig().getMaxChunkSendsPerTick();
+        final double free = (double) channel.bytesBeforeUnwritable() / channel.config().getWriteBufferHighWaterMark();
+        return Math.max(1, (int) (max * Math.min(1.0, free)));
     }
 
     @Override
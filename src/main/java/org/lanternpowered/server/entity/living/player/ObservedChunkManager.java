@@ -26,6 +26,7 @@
 package org.lanternpowered.server.entity.living.player;
 
 import static org.lanternpowered.server.world.chunk.LanternChunk.ALL_SECTIONS_BIT_MASK;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_SIZE;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
 
@@ -34,16 +35,21 @@
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
 import org.lanternpowered.server.block.action.BlockAction;
 import org.lanternpowered.server.block.tile.LanternTileEntity;
 import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.network.MessageBroadcaster;
+import org.lanternpowered.server.network.buffer.ByteBuffer;
+import org.lanternpowered.server.network.buffer.ByteBufferAllocator;
+import org.lanternpowered.server.network.message.EncodedMessage;
 import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.codec.SharedMessageEncoder;
+import org.lanternpowered.server.network.protocol.ProtocolState;
 import org.lanternpowered.server.network.tile.AbstractTileEntityProtocol;
 import org.lanternpowered.server.network.tile.TileEntityChunkProtocolData;
 import org.lanternpowered.server.network.tile.TileEntityProtocolHelper;
 import org.lanternpowered.server.network.tile.TileEntityProtocolUpdateContext;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutChunkData;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockAction;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockChange;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
@@ -54,6 +60,7 @@
 import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.WorldEventListener;
 import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.PaletteBlockArray;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.DataView;
@@ -69,9 +76,12 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 public final class ObservedChunkManager implements WorldEventListener {
 
     /**
@@ -112,15 +122,31 @@ public void onUnloadChunk(LanternChunk chunk) {
     public void onPopulateChunk(LanternChunk chunk) {
         final ObservedChunk observedChunk = this.observedChunks.get(chunk.getKey());
         if (observedChunk != null) {
+            observedChunk.invalidateSections(ALL_SECTIONS_BIT_MASK);
             observedChunk.dirtyChunk = true;
         }
     }
 
+    /**
+     * Marks the light of the given sections as dirty, the sections will
+     * be resend to the observers the next time that changes are streamed.
+     *
+     * @param chunkKey The key of the chunk
+     * @param sectionBitMask The bit mask of the dirty sections
+     */
+    public void markLightDirty(long chunkKey, int sectionBitMask) {
+        final ObservedChunk observedChunk = this.observedChunks.get(chunkKey);
+        if (observedChunk != null) {
+            observedChunk.addLightChange(sectionBitMask);
+        }
+    }
+
     @Override
     public void onBlockChange(int x, int y, int z, BlockState oldBlockState, BlockState newBlockState) {
         final long key = LanternChunk.key(x >> 4, z >> 4);
         final ObservedChunk observedChunk = this.observedChunks.get(key);
         if (observedChunk != null) {
+            observedChunk.invalidateSections(1 << (y >> 4));
             observedChunk.addBlockChange(() -> new Vector3i(x, y, z));
             if (oldBlockState.getType() != newBlockState.getType()) {
                 observedChunk.removeBlockAction(new Vector3i(x, y, z));
@@ -150,6 +176,7 @@ void removeObserver(Vector2i coords, LanternPlayer observer, boolean updateClien
             observedChunk.removeObserver(observer, updateClient);
             if (observedChunk.observers.isEmpty()) {
                 this.observedChunks.remove(key);
+                observedChunk.releaseCache();
             }
         }
     }
@@ -168,6 +195,66 @@ void removeObserver(Vector2i coords, LanternPlayer observer, boolean updateClien
     private static final MessagePlayOutChunkData.Section EMPTY_SECTION = new MessagePlayOutChunkData.Section(
             EMPTY_SECTION_TYPES, new int[1], EMPTY_SECTION_LIGHT, null, new Short2ObjectOpenHashMap<>());
 
+    /**
+     * Creates a copy of the {@link Message}s that can be send to a single
+     * observer, every {@link EncodedMessage} will be duplicated.
+     *
+     * @param messages The messages
+     * @return The copy of the messages
+     */
+    private static List<Message> retainedDuplicates(List<Message> messages) {
+        final List<Message> duplicates = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            duplicates.add(message instanceof EncodedMessage ? ((EncodedMessage) message).retainedDuplicate() : message);
+        }
+        return duplicates;
+    }
+
+    private static void releaseEncoded(List<Message> messages) {
+        for (Message message : messages) {
+            if (message instanceof EncodedMessage) {
+                ((EncodedMessage) message).release();
+            }
+        }
+    }
+
+    private static ByteBuffer encodeSectionData(LanternChunk.ChunkSectionSnapshot section) {
+        final PaletteBlockArray types = section.types;
+        final int bitsPerValue = types.getBitsPerValue();
+        // The palette that will be send to the client
+        final int[] palette;
+        final VariableValueArray array;
+        if (bitsPerValue == 0) {
+            // All the blocks are the same, the vanilla client
+            // will not go lower then 4 bits
+            palette = new int[] { types.get(0) };
+            array = EMPTY_SECTION_TYPES;
+        } else if (bitsPerValue <= PaletteBlockArray.MAX_PALETTE_BITS) {
+            // The local palette can be send directly, the indexes
+            // are already stored in the format of the client
+            final short[] localPalette = types.getPalette();
+            //noinspection ConstantConditions
+            palette = new int[localPalette.length];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = localPalette[i] & 0xffff;
+            }
+            array = types.getStorage();
+        } else {
+            // The value should be the amount of bits per value of
+            // the CLIENT palette, it will otherwise not work.
+            // This is sadly enough hardcoded in the client
+            palette = null;
+            array = new VariableValueArray(13, types.getCapacity());
+            for (int j = 0; j < array.getCapacity(); j++) {
+                array.set(j, types.get(j));
+            }
+        }
+        // The data is cached for a longer period, so don't use a pooled buffer
+        final ByteBuffer buf = ByteBufferAllocator.unpooled().buffer();
+        CodecPlayOutChunkData.writeSectionData(buf, array, palette, section.lightFromBlock, section.lightFromSky);
+        return buf;
+    }
+
     private static Map<Vector3i, LanternTileEntity> getMappedTileEntities(LanternChunk chunk) {
         return chunk.getTileEntities().stream().collect(Collectors.toMap(
                 tileEntity -> tileEntity.getLocation().getBlockPosition(),
@@ -207,6 +294,11 @@ private QueuedBlockAction(BlockAction blockAction, MessagePlayOutBlockAction blo
          */
         private final Queue<Vector3i> dirtyBlocks = new ConcurrentLinkedQueue<>();
 
+        /**
+         * The bit mask of the sections of which the light changed.
+         */
+        private final AtomicInteger dirtyLightSections = new AtomicInteger();
+
         /**
          * All the block events that should be send to the observers.
          */
@@ -221,10 +313,67 @@ private QueuedBlockAction(BlockAction blockAction, MessagePlayOutBlockAction blo
          */
         private volatile boolean dirtyChunk;
 
+        /**
+         * The encoded block and light data of the chunk sections, a {@code null}
+         * value for a cached section represents a empty section.
+         */
+        private final ByteBuffer[] sectionData = new ByteBuffer[CHUNK_SECTIONS];
+
+        /**
+         * The bit mask of the sections of which the data is cached.
+         */
+        private int cachedSections;
+
+        /**
+         * The bit mask of the sections that were modified since they were cached.
+         */
+        private final AtomicInteger invalidSections = new AtomicInteger();
+
+        /**
+         * The chunk load messages that are shared between all the
+         * observers that start observing the chunk before the next pulse.
+         */
+        @Nullable private List<Message> chunkLoadMessages;
+
         ObservedChunk(Vector2i coords) {
             this.coords = coords;
         }
 
+        void invalidateSections(int sectionBitMask) {
+            this.invalidSections.accumulateAndGet(sectionBitMask, (a, b) -> a | b);
+        }
+
+        /**
+         * Releases all the cached data of this chunk.
+         */
+        synchronized void releaseCache() {
+            releaseChunkLoadMessages();
+            for (int i = 0; i < this.sectionData.length; i++) {
+                if (this.sectionData[i] != null) {
+                    this.sectionData[i].release();
+                    this.sectionData[i] = null;
+                }
+            }
+            this.cachedSections = 0;
+        }
+
+        private synchronized void releaseChunkLoadMessages() {
+            if (this.chunkLoadMessages != null) {
+                releaseEncoded(this.chunkLoadMessages);
+                this.chunkLoadMessages = null;
+            }
+        }
+
+        /**
+         * Sends the {@link Message}s to all the client observers
+         * and releases the {@link EncodedMessage}s afterwards.
+         *
+         * @param messages The messages
+         */
+        private void sendToClientObservers(List<Message> messages) {
+            MessageBroadcaster.broadcast(this.clientObservers, messages);
+        }
+
         void removeBlockAction(Vector3i coords) {
             this.addedBlockActions.remove(coords);
             this.activeBlockActions.remove(coords);
@@ -252,15 +401,29 @@ void addBlockChange(Supplier<Vector3i> coords) {
             }
         }
 
+        void addLightChange(int sectionBitMask) {
+            invalidateSections(sectionBitMask);
+            // There is not need to track the changes if no one wants to see them
+            if (!this.dirtyChunk && !this.clientObservers.isEmpty()) {
+                this.dirtyLightSections.accumulateAndGet(sectionBitMask, (a, b) -> a | b);
+            }
+        }
+
         void streamChanges() {
+            // All the changes since the load messages were created will be streamed
+            // below, so new observers shouldn't receive the old messages anymore
+            releaseChunkLoadMessages();
+
             final LanternChunk chunk = world.getChunkManager().getChunkIfLoaded(this.coords);
             if (chunk == null || this.clientObservers.isEmpty()) {
                 return;
             }
 
+            // The sections of which the light changed
+            final int dirtyLightSections = this.dirtyLightSections.getAndSet(0);
+
             if (this.dirtyChunk) {
-                final List<Message> messages = createLoadChunkMessages(chunk, ALL_SECTIONS_BIT_MASK, true);
-                this.clientObservers.forEach(player -> player.getConnection().send(messages));
+                sendToClientObservers(createLoadChunkMessages(chunk, ALL_SECTIONS_BIT_MASK, true));
                 this.dirtyChunk = false;
                 this.dirtyBlocks.clear();
                 return;
@@ -286,7 +449,6 @@ void streamChanges() {
                 final int clumpingThreshold = world.getProperties().getConfig().getChunkClumpingThreshold();
                 if (changes.size() >= clumpingThreshold) {
                     messages = createLoadChunkMessages(chunk, dirtySections, false);
-                    this.clientObservers.forEach(player -> player.getConnection().send(messages));
                     mappedTileEntities = Collections.emptyMap();
                 } else {
                     messages = new ArrayList<>();
@@ -313,6 +475,11 @@ void streamChanges() {
                         }
                     }
                 }
+            } else if (dirtyLightSections != 0) {
+                // Only resend the light if there are no block changes, the
+                // client will already update the light around block changes
+                messages = createLoadChunkMessages(chunk, dirtyLightSections, false);
+                mappedTileEntities = Collections.emptyMap();
             } else {
                 messages = new ArrayList<>();
                 mappedTileEntities = getMappedTileEntities(chunk);
@@ -339,15 +506,43 @@ void streamChanges() {
                 this.addedBlockActions.clear();
             }
 
-            this.clientObservers.forEach(player -> player.getConnection().send(messages));
+            sendToClientObservers(messages);
         }
 
-        private List<Message> createChunkLoadMessages(LanternChunk chunk) {
-            final List<Message> messages = createLoadChunkMessages(chunk, ALL_SECTIONS_BIT_MASK, true);
-            if (!this.activeBlockActions.isEmpty()) {
-                this.activeBlockActions.values().forEach(queuedBlockAction -> messages.add(queuedBlockAction.blockActionData));
+        /**
+         * Gets the {@link Message}s to load the chunk for a single observer.
+         *
+         * @param chunk The chunk
+         * @return The messages
+         */
+        private synchronized List<Message> createChunkLoadMessages(LanternChunk chunk) {
+            if (this.chunkLoadMessages == null) {
+                final List<Message> messages = createLoadChunkMessages(chunk, ALL_SECTIONS_BIT_MASK, true);
+                if (!this.activeBlockActions.isEmpty()) {
+                    this.activeBlockActions.values().forEach(queuedBlockAction -> messages.add(queuedBlockAction.blockActionData));
+                }
+                this.chunkLoadMessages = messages;
             }
-            return messages;
+            return retainedDuplicates(this.chunkLoadMessages);
+        }
+
+        /**
+         * Sends the {@link Message}s to load the chunk to the observer and
+         * notifies the {@link ChunkSendQueue} of the observer.
+         *
+         * @param observer The observer
+         * @param chunk The chunk
+         */
+        private void sendChunkLoad(LanternPlayer observer, LanternChunk chunk) {
+            final List<Message> messages = createChunkLoadMessages(chunk);
+            int bytes = 0;
+            for (Message message : messages) {
+                if (message instanceof EncodedMessage) {
+                    bytes += ((EncodedMessage) message).getContent().readableBytes();
+                }
+            }
+            observer.getConnection().send(messages);
+            observer.getChunkSendQueue().onChunkSent(this.coords.getX(), this.coords.getY(), bytes);
         }
 
         /**
@@ -357,19 +552,18 @@ private List<Message> createChunkLoadMessages(LanternChunk chunk) {
          * @param chunk The chunk
          */
         void streamChunkLoad(LanternChunk chunk) {
-            List<Message> messages = null;
+            // The previously cached data may belong to a different chunk instance
+            releaseCache();
             for (LanternPlayer observer : this.observers) {
                 if (this.clientObservers.add(observer)) {
-                    if (messages == null) {
-                        messages = createChunkLoadMessages(chunk);
-                    }
-                    observer.getConnection().send(messages);
+                    sendChunkLoad(observer, chunk);
                 }
             }
             // TODO: Also send tile entities
         }
 
         void streamChunkUnload(LanternChunk chunk) {
+            releaseCache();
             Message message = null;
             for (LanternPlayer observer : this.observers) {
                 if (this.clientObservers.remove(observer)) {
@@ -381,82 +575,63 @@ void streamChunkUnload(LanternChunk chunk) {
             }
         }
 
-        private List<Message> createLoadChunkMessages(LanternChunk chunk, int sectionsBitMask, boolean biomes) {
+        private synchronized List<Message> createLoadChunkMessages(LanternChunk chunk, int sectionsBitMask, boolean biomes) {
             // Whether we should send sky light
             final boolean skyLight = world.getDimension().hasSky();
 
-            final LanternChunk.ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(skyLight, sectionsBitMask);
+            // Release the cached data of all the sections that were modified
+            final int invalidSections = this.invalidSections.getAndSet(0) & this.cachedSections;
+            if (invalidSections != 0) {
+                for (int i = 0; i < this.sectionData.length; i++) {
+                    if ((invalidSections & (1 << i)) != 0 && this.sectionData[i] != null) {
+                        this.sectionData[i].release();
+                        this.sectionData[i] = null;
+                    }
+                }
+                this.cachedSections &= ~invalidSections;
+            }
+
+            // Only the sections that aren't cached need to be snapshotted
+            final LanternChunk.ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(
+                    skyLight, sectionsBitMask & ~this.cachedSections);
             final MessagePlayOutChunkData.Section[] msgSections = new MessagePlayOutChunkData.Section[sections.length];
 
             final List<Message> messages = new ArrayList<>();
 
             for (int i = 0; i < sections.length; i++) {
-                if (sections[i] != null) {
-                    final LanternChunk.ChunkSectionSnapshot section = sections[i];
-                    // The size of the palette
-                    int paletteSize = section.typesCountMap.size();
-                    // The amount of bits for every block state
-                    int bitsPerValue = Integer.highestOneBit(paletteSize);
-                    // The palette that will be send to the client
-                    int[] palette;
-                    // The lookup for global to local palette id
-                    Short2ShortMap globalToLocalPalette;
-                    // There seems to be a weird issue, some blocks are not rendered
-                    // on the client (bedrock with the flat generator) and it cannot
-                    // be placed in creative
-                    if (bitsPerValue <= 8) {
-                        // The vanilla client/server will not go lower then 4 bits
-                        if (bitsPerValue < 4) {
-                            bitsPerValue = 4;
-                        }
-                        globalToLocalPalette = new Short2ShortOpenHashMap(paletteSize);
-                        palette = new int[paletteSize];
-                        short currentId = 0;
-                        for (short type : section.typesCountMap.keySet().toShortArray()) {
-                            globalToLocalPalette.put(type, currentId);
-                            palette[currentId] = type;
-                            currentId++;
-                        }
-                    } else {
-                        // int statesCount = Registries.getBlockRegistry().getBlockStatesCount();
-                        // bitsPerValue = Integer.highestOneBit(statesCount);
-                        // The value should be the amount of bits per value of
-                        // the CLIENT palette, it will otherwise not work.
-                        // This is sadly enough hardcoded in the client
-                        bitsPerValue = 13;
-                        globalToLocalPalette = null;
-                        palette = null;
-                    }
-                    final short[] types = section.types;
-                    final VariableValueArray array = new VariableValueArray(bitsPerValue, types.length);
-                    if (globalToLocalPalette != null) {
-                        for (int j = 0; j < types.length; j++) {
-                            array.set(j, globalToLocalPalette.get(types[j]));
-                        }
-                    } else {
-                        for (int j = 0; j < types.length; j++) {
-                            array.set(j, types[j]);
-                        }
-                    }
+                if (((1 << i) & sectionsBitMask) == 0) {
+                    continue;
+                }
+                final Short2ObjectMap<LanternTileEntity> tileEntities;
+                if (((1 << i) & this.cachedSections) != 0) {
+                    tileEntities = this.sectionData[i] == null ? null : chunk.getSectionTileEntities(i);
+                } else {
+                    this.sectionData[i] = sections[i] == null ? null : encodeSectionData(sections[i]);
+                    this.cachedSections |= 1 << i;
+                    tileEntities = sections[i] == null ? null : sections[i].tileEntities;
+                }
+                final ByteBuffer data = this.sectionData[i];
+                if (data != null) {
                     final Short2ObjectMap<DataView> tileEntityInitData = new Short2ObjectOpenHashMap<>();
-                    final TileEntityChunkInitContext initContext = new TileEntityChunkInitContext(
-                            messages, tileEntityInitData, chunk.getX(), chunk.getZ(), i);
-                    for (Short2ObjectMap.Entry<LanternTileEntity> tileEntityEntry : section.tileEntities.short2ObjectEntrySet()) {
-                        if (!tileEntityEntry.getValue().isValid()) { // Ignore invalid tile entities
-                            continue;
-                        }
-                        initContext.currentIndex = tileEntityEntry.getShortKey();
-                        final AbstractTileEntityProtocol protocol = tileEntityEntry.getValue().getProtocol();
-                        if (protocol != null) {
-                            TileEntityProtocolHelper.init(protocol, initContext);
+                    if (tileEntities != null) {
+                        final TileEntityChunkInitContext initContext = new TileEntityChunkInitContext(
+                                messages, tileEntityInitData, chunk.getX(), chunk.getZ(), i);
+                        for (Short2ObjectMap.Entry<LanternTileEntity> tileEntityEntry : tileEntities.short2ObjectEntrySet()) {
+                            if (!tileEntityEntry.getValue().isValid()) { // Ignore invalid tile entities
+                                continue;
+                            }
+                            initContext.currentIndex = tileEntityEntry.getShortKey();
+                            final AbstractTileEntityProtocol protocol = tileEntityEntry.getValue().getProtocol();
+                            if (protocol != null) {
+                                TileEntityProtocolHelper.init(protocol, initContext);
+                            }
                         }
                     }
-                    msgSections[i] = new MessagePlayOutChunkData.Section(array, palette,
-                            section.lightFromBlock, section.lightFromSky, tileEntityInitData);
+                    msgSections[i] = new MessagePlayOutChunkData.Section(data, skyLight, tileEntityInitData);
                 // The insert entry setting is used to send a "null" chunk
                 // after the chunk is already send to the client
                 // TODO: Better way to do this?
-                } else if (!biomes && ((1 << i) & sectionsBitMask) != 0) {
+                } else if (!biomes) {
                     msgSections[i] = skyLight ? EMPTY_SECTION_SKYLIGHT : EMPTY_SECTION;
                 }
             }
@@ -471,7 +646,9 @@ private List<Message> createLoadChunkMessages(LanternChunk chunk, int sectionsBi
                 }
             }
 
-            messages.add(0, new MessagePlayOutChunkData(this.coords.getX(), this.coords.getY(), skyLight, msgSections, biomesArray));
+            // Encode the chunk data once, it will be shared between all the observers
+            messages.add(0, SharedMessageEncoder.encode(ProtocolState.PLAY, new MessagePlayOutChunkData(
+                    this.coords.getX(), this.coords.getY(), skyLight, msgSections, biomesArray)));
             return messages;
         }
 
@@ -492,6 +669,7 @@ public void removeObserver(LanternPlayer observer, boolean updateClient) {
             // Clear the dirty states, since no one will still want to see them
             if (this.clientObservers.isEmpty()) {
                 this.dirtyBlocks.clear();
+                this.dirtyLightSections.set(0);
                 this.dirtyChunk = false;
             }
         }
@@ -509,7 +687,7 @@ public void addObserver(LanternPlayer observer) {
                 // to the player
                 if (chunk != null) {
                     this.clientObservers.add(observer);
-                    observer.getConnection().send(createChunkLoadMessages(chunk));
+                    sendChunkLoad(observer, chunk);
                 }
                 // Otherwise we will wait for the LoadChunkEvent to be called and
                 // send the messages at that point
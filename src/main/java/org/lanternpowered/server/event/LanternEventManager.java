@@ -30,22 +30,21 @@
 import static org.lanternpowered.server.util.UncheckedThrowables.doUnchecked;
 import static org.lanternpowered.server.util.UncheckedThrowables.throwUnchecked;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.reflect.TypeToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.lanternpowered.api.cause.CauseStack;
+import org.lanternpowered.api.event.SynchronizedListener;
 import org.lanternpowered.lmbda.LambdaFactory;
 import org.lanternpowered.lmbda.MethodHandlesX;
 import org.lanternpowered.server.cause.LanternCauseStackManager;
 import org.lanternpowered.server.data.key.KeyEventListener;
 import org.lanternpowered.server.event.filter.FilterFactory;
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.profiler.TickProfiler;
 import org.lanternpowered.server.util.DefineableClassLoader;
-import org.lanternpowered.server.util.SyncLanternThread;
 import org.lanternpowered.server.util.SystemProperties;
 import org.lanternpowered.server.util.TypeTokenHelper;
 import org.lanternpowered.server.util.function.ThrowableConsumer;
@@ -75,7 +74,6 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -101,21 +99,39 @@ public class LanternEventManager implements EventManager {
     private final DefineableClassLoader classLoader = new DefineableClassLoader();
     private final AnnotatedEventListener.Factory listenerFactory = new ClassEventListenerFactory("org.lanternpowered.server.event.listener",
                     new FilterFactory("org.lanternpowered.server.event.filters", this.classLoader), this.classLoader);
-    private final Multimap<Class<?>, RegisteredListener<?>> listenersByEvent = HashMultimap.create();
     private final Set<Object> registeredListeners = new HashSet<>();
 
     /**
-     * A cache of all the handlers for an event type for quick event posting.
+     * The current snapshot of all the registered listeners. Modifications
+     * are guarded by the {@link #lock}, events can be posted without locking.
      */
-    private final LoadingCache<EventType<?>, List<RegisteredListener<?>>> listenersCache =
-            Caffeine.newBuilder().initialCapacity(150).build(this::bakeHandlers);
+    private volatile ListenerSnapshot snapshot = new ListenerSnapshot(ImmutableSetMultimap.of());
+
+    /**
+     * The locks of the plugins that requested their listeners to be
+     * synchronized, see {@link SynchronizedListener}.
+     */
+    private final Map<PluginContainer, Object> pluginLocks = new ConcurrentHashMap<>();
 
     private final Map<Class<?>, ShouldFireField> shouldFireFields = new HashMap<>();
 
     /**
-     * A lock to synchronize events called from a {@link SyncLanternThread}.
+     * A immutable snapshot of all the registered listeners. A new snapshot is
+     * created and swapped atomically when listeners are registered or unregistered.
      */
-    private final Object syncPostLock = new Object();
+    private static final class ListenerSnapshot {
+
+        private final ImmutableSetMultimap<Class<?>, RegisteredListener<?>> listenersByEvent;
+
+        /**
+         * A cache of all the handlers for an event type for quick event posting.
+         */
+        private final Map<EventType<?>, List<RegisteredListener<?>>> listenersCache = new ConcurrentHashMap<>(150);
+
+        private ListenerSnapshot(ImmutableSetMultimap<Class<?>, RegisteredListener<?>> listenersByEvent) {
+            this.listenersByEvent = listenersByEvent;
+        }
+    }
 
     private static final class ShouldFireField {
 
@@ -160,29 +176,6 @@ public void setState(boolean state) {
     public LanternEventManager(Logger logger) {
         this.logger = logger;
 
-        // Caffeine offers no control over the concurrency level of the
-        // ConcurrentHashMap which backs the cache. By default this concurrency
-        // level is 16. We replace the backing map before any use can occur
-        // a new ConcurrentHashMap with a concurrency level of 1
-        try {
-            // Cache impl class is UnboundedLocalLoadingCache which extends
-            // UnboundedLocalManualCache
-
-            // UnboundedLocalManualCache has a field 'cache' with an
-            // UnboundedLocalCache which contains the actual backing map
-            final Field innerCache = this.listenersCache.getClass().getSuperclass().getDeclaredField("cache");
-            innerCache.setAccessible(true);
-            final Object innerCacheValue = innerCache.get(this.listenersCache);
-            final Class<?> innerCacheClass = innerCacheValue.getClass(); // UnboundedLocalCache
-            final Field cacheData = innerCacheClass.getDeclaredField("data");
-            cacheData.setAccessible(true);
-            final ConcurrentHashMap<Class<? extends Event>, List<RegisteredListener<?>>> newBackingData = new ConcurrentHashMap<>(150, 0.75f, 1);
-            cacheData.set(innerCacheValue, newBackingData);
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-            this.logger.warn("Failed to set event cache backing array, type was " + this.listenersCache.getClass().getName());
-            this.logger.warn("  Caused by: " + e.getClass().getName() + ": " + e.getMessage());
-        }
-
         // Collect the should fire fields
         for (Field field : ShouldFire.class.getFields()) {
             final ShouldFireTarget target = field.getAnnotation(ShouldFireTarget.class);
@@ -199,10 +192,7 @@ public LanternEventManager(Logger logger) {
      * Updates all the {@link ShouldFire} fields.
      */
     private void updateShouldFireFields() {
-        final Set<Class<?>> registeredTypes;
-        synchronized (this.lock) {
-            registeredTypes = new HashSet<>(this.listenersByEvent.keySet());
-        }
+        final Set<Class<?>> registeredTypes = this.snapshot.listenersByEvent.keySet();
         for (Map.Entry<Class<?>, ShouldFireField> entry : this.shouldFireFields.entrySet()) {
             final Class<?> eventClass = entry.getKey();
             boolean shouldFire = false;
@@ -222,33 +212,42 @@ private void updateShouldFireFields() {
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private <T extends Event> List<RegisteredListener<?>> bakeHandlers(EventType<T> eventType) {
+    private static <T extends Event> List<RegisteredListener<?>> bakeHandlers(ListenerSnapshot snapshot, EventType<T> eventType) {
         final List<RegisteredListener<?>> handlers = new ArrayList<>();
         final Set<Class<? super T>> types = TypeToken.of(eventType.getType()).getTypes().rawTypes();
 
-        synchronized (this.lock) {
-            for (Class<? super T> type : types) {
-                if (Event.class.isAssignableFrom(type)) {
-                    final Collection<RegisteredListener<?>> listeners = this.listenersByEvent.get(type);
-                    if (GenericEvent.class.isAssignableFrom(type)) {
-                        final TypeToken<?> genericType = eventType.getGenericType();
-                        checkNotNull(genericType);
-                        for (RegisteredListener<?> listener : listeners) {
-                            final TypeToken<?> genericType1 = listener.getEventType().getGenericType();
-                            checkNotNull(genericType1);
-                            if (TypeTokenHelper.isAssignable(genericType, genericType1)) {
-                                handlers.add(listener);
-                            }
+        for (Class<? super T> type : types) {
+            if (Event.class.isAssignableFrom(type)) {
+                final Collection<RegisteredListener<?>> listeners = snapshot.listenersByEvent.get(type);
+                if (GenericEvent.class.isAssignableFrom(type)) {
+                    final TypeToken<?> genericType = eventType.getGenericType();
+                    checkNotNull(genericType);
+                    for (RegisteredListener<?> listener : listeners) {
+                        final TypeToken<?> genericType1 = listener.getEventType().getGenericType();
+                        checkNotNull(genericType1);
+                        if (TypeTokenHelper.isAssignable(genericType, genericType1)) {
+                            handlers.add(listener);
                         }
-                    } else {
-                        handlers.addAll(listeners);
                     }
+                } else {
+                    handlers.addAll(listeners);
                 }
             }
         }
 
         Collections.sort(handlers);
-        return handlers;
+        return ImmutableList.copyOf(handlers);
+    }
+
+    /**
+     * Gets the sorted {@link RegisteredListener}s for the given {@link EventType}.
+     *
+     * @param eventType The event type
+     * @return The listeners
+     */
+    private List<RegisteredListener<?>> getListeners(EventType<?> eventType) {
+        final ListenerSnapshot snapshot = this.snapshot;
+        return snapshot.listenersCache.computeIfAbsent(eventType, eventType1 -> bakeHandlers(snapshot, eventType1));
     }
 
     @Nullable
@@ -284,8 +283,9 @@ private static String getHandlerErrorOrNull(Method method) {
             .filter(Event.class::isAssignableFrom).collect(Collectors.toSet());
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private void register(List<RegisteredListener<?>> listeners) {
+    void register(List<RegisteredListener<?>> listeners) {
         synchronized (this.lock) {
+            final ImmutableSetMultimap<Class<?>, RegisteredListener<?>> listenersByEvent = this.snapshot.listenersByEvent;
             listeners = listeners.stream()
                     .filter(listener -> {
                         if (!(listener.getHandler() instanceof KeyEventListener) &&
@@ -300,13 +300,17 @@ private void register(List<RegisteredListener<?>> listeners) {
                                     listener.getPlugin().getId(), listener.getHandle().getClass().getName());
                             return false; // Gotcha
                         }
-                        return this.listenersByEvent.put(listener.getEventType().getType(), listener);
+                        return !listenersByEvent.containsEntry(listener.getEventType().getType(), listener);
                     })
                     .collect(Collectors.toList());
+            if (!listeners.isEmpty()) {
+                final ImmutableSetMultimap.Builder<Class<?>, RegisteredListener<?>> builder = ImmutableSetMultimap.builder();
+                builder.putAll(listenersByEvent);
+                listeners.forEach(listener -> builder.put(listener.getEventType().getType(), listener));
+                this.snapshot = new ListenerSnapshot(builder.build());
+            }
         }
         if (!listeners.isEmpty()) {
-            this.listenersCache.invalidateAll();
-
             // Update ShouldFire fields
             updateShouldFireFields();
         }
@@ -351,7 +355,8 @@ public void registerListeners(Object plugin, Object listener) {
                         continue;
                     }
 
-                    handlers.add(createRegistration(pluginContainer, eventType, subscribe.order(), handler));
+                    handlers.add(createRegistration(pluginContainer, eventType, subscribe.order(), handler,
+                            getListenerLock(pluginContainer, listener, method)));
                 } else {
                     methodErrors.put(method, error);
                 }
@@ -419,38 +424,60 @@ public <T extends Event> RegisteredListener<T> register(Object plugin, TypeToken
         checkNotNull(order, "order");
         checkNotNull(listener, "listener");
         registerListenerInstance(pluginContainer, listener);
-        final RegisteredListener<T> registeredListener = createRegistration(pluginContainer, eventType, order, listener);
+        final RegisteredListener<T> registeredListener = createRegistration(pluginContainer, eventType, order, listener,
+                getListenerLock(pluginContainer, listener, null));
         register(Collections.singletonList(registeredListener));
         return registeredListener;
     }
 
     private static <T extends Event> RegisteredListener<T> createRegistration(PluginContainer plugin, TypeToken<T> eventType,
-            Order order, EventListener<? super T> handler) {
+            Order order, EventListener<? super T> handler, @Nullable Object lock) {
         TypeToken<?> genericType = null;
         if (GenericEvent.class.isAssignableFrom(eventType.getRawType())) {
             genericType = eventType.resolveType(GENERIC_EVENT_TYPE);
         }
-        return new RegisteredListener(plugin, new EventType(eventType.getRawType(), genericType), order, handler);
+        return new RegisteredListener(plugin, new EventType(eventType.getRawType(), genericType), order, handler, lock);
+    }
+
+    /**
+     * Gets the lock that should be held while calling the listener, if the
+     * listener method, listener or plugin is annotated with {@link SynchronizedListener}.
+     *
+     * @param plugin The plugin
+     * @param listener The listener instance
+     * @param method The listener method, if present
+     * @return The lock, or {@code null} if not needed
+     */
+    @Nullable
+    private Object getListenerLock(PluginContainer plugin, Object listener, @Nullable Method method) {
+        if ((method != null && method.isAnnotationPresent(SynchronizedListener.class)) ||
+                listener.getClass().isAnnotationPresent(SynchronizedListener.class) ||
+                plugin.getInstance().map(instance -> instance.getClass().isAnnotationPresent(SynchronizedListener.class)).orElse(false)) {
+            return this.pluginLocks.computeIfAbsent(plugin, plugin1 -> new Object());
+        }
+        return null;
     }
 
     private void unregister(Predicate<RegisteredListener<?>> unregister) {
-        final Set<Class<?>> changes = new HashSet<>();
+        boolean changed = false;
         synchronized (this.lock) {
-            final Iterator<RegisteredListener<?>> it = this.listenersByEvent.values().iterator();
-            while (it.hasNext()) {
-                final RegisteredListener<?> listener = it.next();
+            final ImmutableSetMultimap.Builder<Class<?>, RegisteredListener<?>> builder = ImmutableSetMultimap.builder();
+            for (Map.Entry<Class<?>, RegisteredListener<?>> entry : this.snapshot.listenersByEvent.entries()) {
+                final RegisteredListener<?> listener = entry.getValue();
                 if (unregister.test(listener)) {
                     synchronized (this.registeredListeners) {
                         this.registeredListeners.remove(listener.getHandle());
                     }
-                    changes.add(listener.getEventType().getType());
-                    it.remove();
+                    changed = true;
+                } else {
+                    builder.put(entry);
                 }
             }
-            changes.removeAll(this.listenersByEvent.keySet());
+            if (changed) {
+                this.snapshot = new ListenerSnapshot(builder.build());
+            }
         }
-        if (!changes.isEmpty()) {
-            this.listenersCache.invalidateAll();
+        if (changed) {
             // Update ShouldFire fields
             updateShouldFireFields();
         }
@@ -486,7 +513,7 @@ public boolean post(Event event) {
         } else {
             eventType = new EventType(eventClass, null);
         }
-        final List<RegisteredListener<?>> listeners = this.listenersCache.get(eventType);
+        final List<RegisteredListener<?>> listeners = getListeners(eventType);
         // Special case
         if (event instanceof AbstractValueChangeEvent) {
             final AbstractValueChangeEvent event1 = (AbstractValueChangeEvent) event;
@@ -531,13 +558,7 @@ private boolean post(Event event, Collection<RegisteredListener<?>> listeners) {
 
     private boolean post(Event event, Collection<RegisteredListener<?>> listeners,
             ThrowableConsumer<RegisteredListener, Exception> handler) {
-        final Thread thread = Thread.currentThread();
-        final CauseStack causeStack = LanternCauseStackManager.INSTANCE.getCauseStackOrEmpty(thread);
-        if (thread instanceof SyncLanternThread) {
-            synchronized (this.syncPostLock) {
-                return post(causeStack, event, listeners, handler);
-            }
-        }
+        final CauseStack causeStack = LanternCauseStackManager.INSTANCE.getCauseStackOrEmpty(Thread.currentThread());
         return post(causeStack, event, listeners, handler);
     }
 
@@ -546,15 +567,24 @@ private boolean post(CauseStack causeStack, Event event, Collection<RegisteredLi
         for (RegisteredListener listener : listeners) {
             // Add the calling plugin to the cause stack
             causeStack.pushCause(listener.getPlugin());
+            final long start = TickProfiler.start();
             try (CauseStack.Frame ignored = causeStack.pushCauseFrame()) {
                 if (event instanceof AbstractEvent) {
                     ((AbstractEvent) event).currentOrder = listener.getOrder();
                 }
-                handler.accept(listener);
+                final Object lock = listener.getLock();
+                if (lock != null) {
+                    synchronized (lock) {
+                        handler.accept(listener);
+                    }
+                } else {
+                    handler.accept(listener);
+                }
             } catch (Throwable e) {
                 this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(),
                         listener.getPlugin(), e);
             }
+            TickProfiler.recordEventListener(listener.getPlugin(), start);
             causeStack.popCause();
         }
         if (event instanceof AbstractEvent) {
@@ -31,6 +31,8 @@
 import org.spongepowered.api.event.Order;
 import org.spongepowered.api.plugin.PluginContainer;
 
+import javax.annotation.Nullable;
+
 public final class RegisteredListener<T extends Event> implements LanternEventListener<T>, Comparable<RegisteredListener<?>> {
 
     private final PluginContainer plugin;
@@ -39,11 +41,16 @@
     private final EventType<T> eventType;
     private final Order order;
 
-    RegisteredListener(PluginContainer plugin, EventType<T> eventType, Order order, EventListener<? super T> handler) {
+    // The lock that should be held while handling events, if any
+    @Nullable private final Object lock;
+
+    RegisteredListener(PluginContainer plugin, EventType<T> eventType, Order order, EventListener<? super T> handler,
+            @Nullable Object lock) {
         this.plugin = plugin;
         this.eventType = eventType;
         this.order = order;
         this.handler = handler;
+        this.lock = lock;
     }
 
     public PluginContainer getPlugin() {
@@ -62,6 +69,17 @@ public EventListener<? super T> getHandler() {
         return this.handler;
     }
 
+    /**
+     * Gets the lock that should be held while this
+     * listener handles a event, if any.
+     *
+     * @return The lock
+     */
+    @Nullable
+    public Object getLock() {
+        return this.lock;
+    }
+
     @Override
     public Object getHandle() {
         if (this.handler instanceof LanternEventListener) {
@@ -107,6 +107,7 @@
 import org.lanternpowered.server.game.registry.CatalogMappingDataHolder;
 import org.lanternpowered.server.game.registry.EarlyRegistration;
 import org.lanternpowered.server.game.registry.EnumValueRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.game.registry.factory.ResourcePackFactoryModule;
 import org.lanternpowered.server.game.registry.factory.TimingsFactoryRegistryModule;
 import org.lanternpowered.server.game.registry.type.advancement.AdvancementCriterionModule;
@@ -296,6 +297,7 @@
 import org.lanternpowered.server.text.selector.LanternSelectorFactory;
 import org.lanternpowered.server.text.translation.TranslationManager;
 import org.lanternpowered.server.util.LocaleCache;
+import org.lanternpowered.server.util.graph.ConcurrentOrderedLoad;
 import org.lanternpowered.server.util.graph.CyclicGraphException;
 import org.lanternpowered.server.util.graph.DirectedGraph;
 import org.lanternpowered.server.util.graph.TopologicalOrder;
@@ -525,6 +527,8 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -532,6 +536,12 @@
 @Singleton
 public class LanternGameRegistry implements XGameRegistry {
 
+    /**
+     * Whether all the registry modules should be registered one at a time on the
+     * thread that drives the registration phases, instead of concurrently.
+     */
+    private static final boolean SERIAL_REGISTRATION = Boolean.getBoolean("lantern.registry.serial");
+
     private final LanternGame game;
     private final LanternResourcePackFactory resourcePackFactory = new LanternResourcePackFactory();
     private final LanternAttributeCalculator attributeCalculator = new LanternAttributeCalculator();
@@ -544,6 +554,9 @@ public class LanternGameRegistry implements XGameRegistry {
     private final Map<Class<? extends RegistryModule>, RegistryModule> classMap = new IdentityHashMap<>();
     private final Map<Class<?>, Supplier<?>> builderSupplierMap = new IdentityHashMap<>();
     private final List<Class<? extends RegistryModule>> orderedModules = new ArrayList<>();
+    @Nullable private ConcurrentOrderedLoad<Class<? extends RegistryModule>> concurrentLoad;
+    // The pool that registers the modules concurrently, only available during the registration phases
+    @Nullable private ForkJoinPool registrationPool;
     private final Set<RegistryModule> registryModules = new HashSet<>();
 
     // The phase of the registrations, this starts at null to define the early state.
@@ -964,6 +977,10 @@ public void postInit() {
         this.phase = RegistrationPhase.POST_INIT;
         registerModulePhase();
         this.phase = RegistrationPhase.LOADED;
+        if (this.registrationPool != null) {
+            this.registrationPool.shutdown();
+            this.registrationPool = null;
+        }
     }
 
     private void syncModules() {
@@ -987,6 +1004,7 @@ private void syncModules() {
         this.orderedModules.clear();
         try {
             this.orderedModules.addAll(TopologicalOrder.createOrderedLoad(graph));
+            this.concurrentLoad = createConcurrentLoad();
         } catch (CyclicGraphException e) {
             final StringBuilder msg = new StringBuilder();
             msg.append("Registry module dependencies are cyclical!\n");
@@ -1004,20 +1022,63 @@ private void syncModules() {
         this.modulesSynced = true;
     }
 
-    private void tryModulePhaseRegistration(RegistryModule module) {
+    /**
+     * Creates the {@link ConcurrentOrderedLoad} for the ordered modules. Modules that aren't
+     * annotated with {@link ParallelRegistration} may have dependencies that aren't declared,
+     * so they are chained in the topological order to keep the order in which they were
+     * registered before, relative to each other.
+     *
+     * @return The concurrent load
+     */
+    private ConcurrentOrderedLoad<Class<? extends RegistryModule>> createConcurrentLoad() {
+        final DirectedGraph<Class<? extends RegistryModule>> graph = new DirectedGraph<>();
+        Class<? extends RegistryModule> lastSerialModule = null;
+        for (Class<? extends RegistryModule> moduleClass : this.orderedModules) {
+            final RegistryModule module = this.classMap.get(moduleClass);
+            if (module != null) {
+                addToGraph(module, graph);
+            } else {
+                // A dependency that isn't registered, this fails once the module should be registered
+                graph.add(moduleClass);
+            }
+            if (moduleClass.getAnnotation(ParallelRegistration.class) == null) {
+                if (lastSerialModule != null) {
+                    graph.addEdge(moduleClass, lastSerialModule);
+                }
+                lastSerialModule = moduleClass;
+            }
+        }
+        return new ConcurrentOrderedLoad<>(graph);
+    }
+
+    /**
+     * Tries to register the {@link RegistryModule} for the current phase.
+     *
+     * @param module The module
+     * @return Whether anything was registered
+     */
+    private boolean tryModulePhaseRegistration(RegistryModule module) {
         try {
             final Set<Method> methods = getCustomRegistrations(module);
-            methods.stream().filter(this::isProperPhase).forEach(method -> invokeCustomRegistration(module, method));
+            boolean registered = false;
+            for (Method method : methods) {
+                if (isProperPhase(method)) {
+                    invokeCustomRegistration(module, method);
+                    registered = true;
+                }
+            }
             if (isProperPhase(module)) {
+                registered = true;
                 module.registerDefaults();
                 for (CatalogMappingData data : getCatalogMappingData(module)) {
                     final Map<String, ?> mappings = data.getMappings();
                     if (mappings.isEmpty()) {
-                        return;
+                        return true;
                     }
                     RegistryHelper.mapFields(data.getTarget(), mappings, data.getIgnoredFields());
                 }
             }
+            return registered;
         } catch (Exception e) {
             throw new RuntimeException("Error trying to initialize module: " + module.getClass().getCanonicalName(), e);
         }
@@ -1100,37 +1161,79 @@ private boolean isProperPhase(Method method) {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private void registerModulePhase() {
         syncModules();
-        for (Class<? extends RegistryModule> moduleClass : this.orderedModules) {
-            if (!this.classMap.containsKey(moduleClass)) {
-                throw new IllegalStateException("Something funky happened! The module "
-                        + moduleClass + " is required but seems to be missing.");
-            }
-            tryModulePhaseRegistration(this.classMap.get(moduleClass));
-            if (this.phase == RegistrationPhase.INIT) {
-                Map.Entry<Class<? extends CatalogType>, CatalogRegistryModule<?>> selectedEntry = null;
-                for (Map.Entry<Class<? extends CatalogType>, CatalogRegistryModule<?>> entry : this.catalogRegistryMap.entrySet()) {
-                    if (entry.getValue().getClass() == moduleClass) {
-                        selectedEntry = entry;
-                        break;
-                    }
-                }
-                if (selectedEntry == null) {
-                    continue;
-                }
-                final CatalogRegistryModule module = selectedEntry.getValue();
-                if (module instanceof AdditionalCatalogRegistryModule &&
-                        module.getClass().getAnnotation(CustomRegistrationPhase.class) == null) {
-                    this.game.getEventManager().post(new LanternGameRegistryRegisterEvent(CauseStack.current().getCurrentCause(),
-                            selectedEntry.getKey(), (AdditionalCatalogRegistryModule) module));
-                }
+        final long start = System.nanoTime();
+        if (SERIAL_REGISTRATION) {
+            this.orderedModules.forEach(this::registerModule);
+        } else {
+            if (this.registrationPool == null) {
+                this.registrationPool = createRegistrationPool();
             }
+            checkNotNull(this.concurrentLoad).execute(this.registrationPool, this::isSerialModule, this::registerModule);
         }
+        this.game.getLogger().debug("Registration phase {} took {} ms",
+                this.phase == null ? "EARLY" : this.phase, (System.nanoTime() - start) / 1000000L);
         registerAdditionalPhase();
     }
 
+    private static ForkJoinPool createRegistrationPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("registry-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Gets whether the {@link RegistryModule} of the given type must be registered
+     * on the thread that drives the registration phases. This is the case for all the
+     * modules that aren't annotated with {@link ParallelRegistration}, which includes
+     * the modules of plugins, and modules that post a register event in the
+     * {@link RegistrationPhase#INIT} phase, events require the cause stack.
+     *
+     * @param moduleClass The module class
+     * @return Whether the module is serial
+     */
+    private boolean isSerialModule(Class<? extends RegistryModule> moduleClass) {
+        return moduleClass.getAnnotation(ParallelRegistration.class) == null ||
+                (this.phase == RegistrationPhase.INIT && getRegisterEventEntry(moduleClass) != null);
+    }
+
+    @Nullable
+    private Map.Entry<Class<? extends CatalogType>, CatalogRegistryModule<?>> getRegisterEventEntry(
+            Class<? extends RegistryModule> moduleClass) {
+        for (Map.Entry<Class<? extends CatalogType>, CatalogRegistryModule<?>> entry : this.catalogRegistryMap.entrySet()) {
+            final CatalogRegistryModule<?> module = entry.getValue();
+            if (module.getClass() == moduleClass) {
+                return module instanceof AdditionalCatalogRegistryModule &&
+                        module.getClass().getAnnotation(CustomRegistrationPhase.class) == null ? entry : null;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void registerModule(Class<? extends RegistryModule> moduleClass) {
+        final RegistryModule registryModule = this.classMap.get(moduleClass);
+        if (registryModule == null) {
+            throw new IllegalStateException("Something funky happened! The module "
+                    + moduleClass + " is required but seems to be missing.");
+        }
+        final long start = System.nanoTime();
+        if (tryModulePhaseRegistration(registryModule)) {
+            this.game.getLogger().debug("Registered module {} on thread {} in {} ms", moduleClass.getSimpleName(),
+                    Thread.currentThread().getName(), String.format(Locale.ENGLISH, "%.2f", (System.nanoTime() - start) / 1000000.0));
+        }
+        if (this.phase == RegistrationPhase.INIT) {
+            final Map.Entry<Class<? extends CatalogType>, CatalogRegistryModule<?>> entry = getRegisterEventEntry(moduleClass);
+            if (entry != null) {
+                this.game.getEventManager().post(new LanternGameRegistryRegisterEvent(CauseStack.current().getCurrentCause(),
+                        entry.getKey(), (AdditionalCatalogRegistryModule) entry.getValue()));
+            }
+        }
+    }
+
     private void registerAdditionalPhase() {
         for (Class<? extends RegistryModule> moduleClass : this.orderedModules) {
             final RegistryModule module = this.classMap.get(moduleClass);
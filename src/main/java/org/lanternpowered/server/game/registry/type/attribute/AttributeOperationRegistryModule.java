@@ -28,8 +28,10 @@
 import org.lanternpowered.server.attribute.LanternOperation;
 import org.lanternpowered.server.attribute.LanternOperations;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 
+@ParallelRegistration
 public final class AttributeOperationRegistryModule extends DefaultCatalogRegistryModule<LanternOperation> {
 
     public AttributeOperationRegistryModule() {
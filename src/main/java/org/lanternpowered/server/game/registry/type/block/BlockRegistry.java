@@ -32,6 +32,8 @@
 import java.util.Optional;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
 public interface BlockRegistry extends CatalogRegistryModule<BlockType> {
 
     /**
@@ -115,6 +117,17 @@ public interface BlockRegistry extends CatalogRegistryModule<BlockType> {
      */
     Optional<BlockState> getStateByInternalIdAndData(int internalIdAndData);
 
+    /**
+     * Gets the block state by using it's internal id and data value, without
+     * wrapping it into a {@link Optional}. This is a direct array lookup, and
+     * should be preferred in performance sensitive code.
+     *
+     * @param internalIdAndData the packed version of the internal id and data
+     * @return the block state, or {@code null} if not found
+     */
+    @Nullable
+    BlockState getRawStateByInternalIdAndData(int internalIdAndData);
+
     /**
      * Gets the data value of the specified block state.
      *
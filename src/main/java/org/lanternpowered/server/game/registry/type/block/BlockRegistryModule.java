@@ -116,6 +116,8 @@
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 @RegistrationDependency({
         KeyRegistryModule.class,
         EquipmentTypeRegistryModule.class,
@@ -136,6 +138,10 @@ public static BlockRegistryModule get() {
     private final Short2ObjectMap<BlockState> blockStateByPackedType = new Short2ObjectOpenHashMap<>();
     private final Object2ShortMap<BlockState> packedTypeByBlockState = new Object2ShortOpenHashMap<>();
 
+    // A dense lookup table for the block states, indexed by the packed
+    // internal id and data, this avoids hashing in chunk block lookups
+    private final BlockState[] blockStateByPackedTypeTable = new BlockState[0x10000];
+
     // The counter for custom block ids. (Non vanilla ones.)
     private int blockIdCounter = 1024;
 
@@ -171,6 +177,7 @@ private void register0(int internalId, LanternBlockType blockType, BlockState2Da
             usedValues.put(value, blockState);
             final short internalStateId =  (short) (internalStateIdBase | value & 0xf);
             this.blockStateByPackedType.put(internalStateId, blockState);
+            this.blockStateByPackedTypeTable[internalStateId & 0xffff] = blockState;
             this.packedTypeByBlockState.put(blockState, internalStateId);
         }
         final BlockState defaultBlockState = blockType.getDefaultState();
@@ -178,6 +185,7 @@ private void register0(int internalId, LanternBlockType blockType, BlockState2Da
             if (!usedValues.containsKey(b)) {
                 final short internalStateId = (short) (internalStateIdBase | b & 0xf);
                 this.blockStateByPackedType.put(internalStateId, defaultBlockState);
+                this.blockStateByPackedTypeTable[internalStateId & 0xffff] = defaultBlockState;
             }
         }
         for (BlockState blockState : blockType.getBlockStateBase().getBlockStates()) {
@@ -229,12 +237,12 @@ private int nextInternalId() {
 
     @Override
     public Optional<BlockState> getStateByInternalId(int internalId) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) ((internalId & 0xfff) << 4)));
+        return Optional.ofNullable(this.blockStateByPackedTypeTable[(internalId & 0xfff) << 4]);
     }
 
     @Override
     public Optional<BlockState> getStateByInternalIdAndData(int internalId, byte data) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) (((internalId & 0xfff) << 4) | (data & 0xf))));
+        return Optional.ofNullable(this.blockStateByPackedTypeTable[((internalId & 0xfff) << 4) | (data & 0xf)]);
     }
 
     @Override
@@ -245,7 +253,13 @@ public Optional<BlockState> getStateByTypeAndData(BlockType blockType, byte data
 
     @Override
     public Optional<BlockState> getStateByInternalIdAndData(int internalIdAndData) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) (internalIdAndData & 0xffff)));
+        return Optional.ofNullable(this.blockStateByPackedTypeTable[internalIdAndData & 0xffff]);
+    }
+
+    @Nullable
+    @Override
+    public BlockState getRawStateByInternalIdAndData(int internalIdAndData) {
+        return this.blockStateByPackedTypeTable[internalIdAndData & 0xffff];
     }
 
     @Override
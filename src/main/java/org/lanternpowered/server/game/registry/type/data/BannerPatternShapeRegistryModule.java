@@ -29,6 +29,7 @@
 
 import org.lanternpowered.server.data.type.LanternBannerPatternShape;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.BannerPatternShape;
 import org.spongepowered.api.data.type.BannerPatternShapes;
@@ -37,6 +38,7 @@
 import java.util.Map;
 import java.util.Optional;
 
+@ParallelRegistration
 public final class BannerPatternShapeRegistryModule extends DefaultCatalogRegistryModule<BannerPatternShape> {
 
     private static final BannerPatternShapeRegistryModule INSTANCE = new BannerPatternShapeRegistryModule();
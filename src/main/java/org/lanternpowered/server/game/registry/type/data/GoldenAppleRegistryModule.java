@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternGoldenApple;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.GoldenApple;
 import org.spongepowered.api.data.type.GoldenApples;
 
+@ParallelRegistration
 public class GoldenAppleRegistryModule extends InternalPluginCatalogRegistryModule<GoldenApple> {
 
     private static final GoldenAppleRegistryModule INSTANCE = new GoldenAppleRegistryModule();
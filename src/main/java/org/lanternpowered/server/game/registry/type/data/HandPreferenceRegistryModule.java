@@ -28,9 +28,11 @@
 import org.lanternpowered.api.catalog.CatalogKeys;
 import org.lanternpowered.server.data.type.LanternHandPreference;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.data.type.HandPreference;
 import org.spongepowered.api.data.type.HandPreferences;
 
+@ParallelRegistration
 public final class HandPreferenceRegistryModule extends DefaultCatalogRegistryModule<HandPreference> {
 
     public HandPreferenceRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternHandType;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.HandType;
 import org.spongepowered.api.data.type.HandTypes;
 
+@ParallelRegistration
 public final class HandTypeRegistryModule extends DefaultCatalogRegistryModule<HandType> {
 
     public HandTypeRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternHorseColor;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.HorseColor;
 import org.spongepowered.api.data.type.HorseColors;
 
+@ParallelRegistration
 public class HorseColorRegistryModule extends DefaultCatalogRegistryModule<HorseColor> {
 
     public HorseColorRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternHorseStyle;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.HorseStyle;
 import org.spongepowered.api.data.type.HorseStyles;
 
+@ParallelRegistration
 public class HorseStyleRegistryModule extends DefaultCatalogRegistryModule<HorseStyle> {
 
     public HorseStyleRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternLlamaVariant;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.LlamaVariant;
 import org.spongepowered.api.data.type.LlamaVariants;
 
+@ParallelRegistration
 public class LlamaVariantRegistryModule extends DefaultCatalogRegistryModule<LlamaVariant> {
 
     public LlamaVariantRegistryModule() {
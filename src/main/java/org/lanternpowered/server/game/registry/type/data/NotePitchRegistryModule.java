@@ -27,6 +27,7 @@
 
 import org.lanternpowered.server.data.type.LanternNotePitch;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.NotePitch;
 import org.spongepowered.api.data.type.NotePitches;
@@ -34,6 +35,7 @@
 import java.util.ArrayList;
 import java.util.List;
 
+@ParallelRegistration
 public final class NotePitchRegistryModule extends InternalPluginCatalogRegistryModule<NotePitch> {
 
     private static final NotePitchRegistryModule INSTANCE = new NotePitchRegistryModule();
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternOcelotType;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.OcelotType;
 import org.spongepowered.api.data.type.OcelotTypes;
 
+@ParallelRegistration
 public class OcelotTypeRegistryModule extends InternalPluginCatalogRegistryModule<OcelotType> {
 
     public OcelotTypeRegistryModule() {
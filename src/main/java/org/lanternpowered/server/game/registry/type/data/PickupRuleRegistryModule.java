@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternPickupRule;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.PickupRule;
 import org.spongepowered.api.data.type.PickupRules;
 
+@ParallelRegistration
 public class PickupRuleRegistryModule extends InternalPluginCatalogRegistryModule<PickupRule> {
 
     private static final PickupRuleRegistryModule INSTANCE = new PickupRuleRegistryModule();
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternProfession;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.Profession;
 import org.spongepowered.api.data.type.Professions;
 
+@ParallelRegistration
 public class ProfessionRegistryModule extends DefaultCatalogRegistryModule<Profession> {
 
     public ProfessionRegistryModule() {
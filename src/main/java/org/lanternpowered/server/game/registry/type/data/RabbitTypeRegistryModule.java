@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternRabbitType;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.RabbitType;
 import org.spongepowered.api.data.type.RabbitTypes;
 
+@ParallelRegistration
 public class RabbitTypeRegistryModule extends InternalPluginCatalogRegistryModule<RabbitType> {
 
     public RabbitTypeRegistryModule() {
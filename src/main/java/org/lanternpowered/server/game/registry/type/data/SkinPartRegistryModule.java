@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternSkinPart;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.SkinPart;
 import org.spongepowered.api.data.type.SkinParts;
 
+@ParallelRegistration
 public final class SkinPartRegistryModule extends DefaultCatalogRegistryModule<SkinPart> {
 
     public SkinPartRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternSkullType;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.SkullType;
 import org.spongepowered.api.data.type.SkullTypes;
 
+@ParallelRegistration
 public final class SkullTypeRegistryModule extends InternalPluginCatalogRegistryModule<SkullType> {
 
     private static final SkullTypeRegistryModule INSTANCE = new SkullTypeRegistryModule();
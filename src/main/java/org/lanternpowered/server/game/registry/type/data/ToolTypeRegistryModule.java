@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.data.type.LanternToolType;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.data.type.ToolType;
 import org.spongepowered.api.data.type.ToolTypes;
 
+@ParallelRegistration
 public final class ToolTypeRegistryModule extends DefaultCatalogRegistryModule<ToolType> {
 
     public ToolTypeRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.effect.sound.LanternSoundCategory;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.effect.sound.SoundCategories;
 import org.spongepowered.api.effect.sound.SoundCategory;
 
+@ParallelRegistration
 public final class SoundCategoryRegistryModule extends DefaultCatalogRegistryModule<SoundCategory> {
 
     public SoundCategoryRegistryModule() {
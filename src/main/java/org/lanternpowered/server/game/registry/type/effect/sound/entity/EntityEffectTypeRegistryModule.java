@@ -29,8 +29,10 @@
 import org.lanternpowered.server.effect.entity.EntityEffectTypes;
 import org.lanternpowered.server.effect.entity.LanternEntityEffectType;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 
+@ParallelRegistration
 public final class EntityEffectTypeRegistryModule extends DefaultCatalogRegistryModule<EntityEffectType> {
 
     public EntityEffectTypeRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.server.effect.firework.LanternFireworkShape;
 import org.lanternpowered.server.game.registry.InternalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.item.FireworkShape;
 import org.spongepowered.api.item.FireworkShapes;
 
+@ParallelRegistration
 public class FireworkShapeRegistryModule extends InternalPluginCatalogRegistryModule<FireworkShape> {
 
     private static final FireworkShapeRegistryModule INSTANCE = new FireworkShapeRegistryModule();
@@ -28,9 +28,12 @@
 import org.lanternpowered.api.catalog.CatalogKeys;
 import org.lanternpowered.server.data.property.PropertyHelper;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.inventory.AbstractSlot;
 import org.lanternpowered.server.inventory.equipment.LanternEquipmentType;
 import org.lanternpowered.server.inventory.query.LanternQueryOperationType;
+import org.lanternpowered.server.inventory.query.QueryCacheType;
+import org.lanternpowered.server.inventory.query.QueryIndexType;
 import org.lanternpowered.server.inventory.query.QueryOperations;
 import org.spongepowered.api.item.ItemType;
 import org.spongepowered.api.item.inventory.Inventory;
@@ -46,6 +49,7 @@
 import java.util.function.Predicate;
 
 @SuppressWarnings("unchecked")
+@ParallelRegistration
 public class QueryOperationRegistryModule extends DefaultCatalogRegistryModule<QueryOperationType> {
 
     public QueryOperationRegistryModule() {
@@ -59,7 +63,8 @@ public void registerDefaults() {
         register(new LanternQueryOperationType<ItemStack>(CatalogKeys.sponge("item_stack_ignore_quantity"),
                 (arg, inventory) -> inventory instanceof Slot && inventory.containsAny(arg)));
         register(new LanternQueryOperationType<ItemType>(CatalogKeys.sponge("item_type"),
-                (arg, inventory) -> inventory instanceof Slot && inventory.contains(arg)));
+                (arg, inventory) -> inventory instanceof Slot && inventory.contains(arg), QueryCacheType.CONTENT,
+                QueryIndexType.ITEM_TYPE));
         register(new LanternQueryOperationType<Predicate<ItemStack>>(CatalogKeys.sponge("item_stack_custom"),
                 (arg, inventory) -> inventory instanceof Slot && arg.test(inventory.peek())));
         register(new LanternQueryOperationType<Predicate<ItemStack>>(CatalogKeys.lantern("item_stack_predicate"),
@@ -67,11 +72,11 @@ public void registerDefaults() {
         register(new LanternQueryOperationType<Predicate<ItemStack>>(CatalogKeys.lantern("unsafe_item_stack_predicate"),
                 (arg, inventory) -> inventory instanceof Slot && arg.test(((AbstractSlot) inventory).getRawItemStack())));
         register(new LanternQueryOperationType<Class<? extends Inventory>>(CatalogKeys.sponge("inventory_type"),
-                (arg, inventory) -> arg.isInstance(inventory)));
+                (arg, inventory) -> arg.isInstance(inventory), QueryCacheType.STRUCTURE, QueryIndexType.INVENTORY_TYPE));
         register(new LanternQueryOperationType<Class<?>>(CatalogKeys.sponge("type"),
-                (arg, inventory) -> arg.isInstance(inventory)));
+                (arg, inventory) -> arg.isInstance(inventory), QueryCacheType.STRUCTURE, QueryIndexType.INVENTORY_TYPE));
         register(new LanternQueryOperationType<Translation>(CatalogKeys.sponge("inventory_translation"),
-                (arg, inventory) -> inventory.getName().equals(arg)));
+                (arg, inventory) -> inventory.getName().equals(arg), QueryCacheType.STRUCTURE));
         register(new LanternQueryOperationType<InventoryProperty<?,?>>(CatalogKeys.sponge("inventory_property"),
                 (arg, inventory) -> {
                     // Equipment slot types are a special case, because
@@ -93,6 +98,6 @@ public void registerDefaults() {
                         }
                     }
                     return false;
-                }));
+                }, QueryCacheType.STRUCTURE, QueryIndexType.INVENTORY_PROPERTY));
     }
 }
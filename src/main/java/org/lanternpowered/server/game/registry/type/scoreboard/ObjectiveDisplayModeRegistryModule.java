@@ -26,11 +26,13 @@
 package org.lanternpowered.server.game.registry.type.scoreboard;
 
 import org.lanternpowered.server.game.registry.AdditionalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.scoreboard.LanternObjectiveDisplayMode;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.scoreboard.objective.displaymode.ObjectiveDisplayMode;
 import org.spongepowered.api.scoreboard.objective.displaymode.ObjectiveDisplayModes;
 
+@ParallelRegistration
 public final class ObjectiveDisplayModeRegistryModule extends AdditionalPluginCatalogRegistryModule<ObjectiveDisplayMode> {
 
     public ObjectiveDisplayModeRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.api.catalog.CatalogKeys;
 import org.lanternpowered.server.game.registry.AdditionalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.scoreboard.LanternVisibility;
 import org.spongepowered.api.scoreboard.Visibilities;
 import org.spongepowered.api.scoreboard.Visibility;
 
+@ParallelRegistration
 public final class VisibilityRegistryModule extends AdditionalPluginCatalogRegistryModule<Visibility> {
 
     public VisibilityRegistryModule() {
@@ -40,6 +40,7 @@
 import org.lanternpowered.server.world.gen.flat.FlatNetherGeneratorType;
 import org.lanternpowered.server.world.gen.flat.FlatOverworldGeneratorType;
 import org.lanternpowered.server.world.gen.flat.FlatTheEndGeneratorType;
+import org.lanternpowered.server.world.gen.overworld.OverworldGeneratorType;
 import org.lanternpowered.server.world.gen.thevoid.TheVoidGeneratorType;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.Sponge;
@@ -75,12 +76,15 @@ public void registerDefaults() {
         final FlatOverworldGeneratorType flat = new FlatOverworldGeneratorType(CatalogKeys.minecraft("flat"));
         final FlatNetherGeneratorType flatNether = new FlatNetherGeneratorType(CatalogKeys.lantern("flat_nether"));
         final FlatTheEndGeneratorType flatTheEnd = new FlatTheEndGeneratorType(CatalogKeys.lantern("flat_the_end"));
+        final OverworldGeneratorType overworld = new OverworldGeneratorType(CatalogKeys.lantern("overworld"));
 
         // Default inbuilt generator types
         register(flat);
         register(flatNether);
         register(flatTheEnd);
         register(new DebugGeneratorType(CatalogKeys.minecraft("minecraft")));
+        // Opt-in, the overworld generator is still incomplete
+        register(overworld);
 
         // Plugin provided generator types, these will fall back
         // to flat if missing
@@ -26,12 +26,14 @@
 package org.lanternpowered.server.game.registry.type.world;
 
 import org.lanternpowered.server.game.registry.AdditionalPluginCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.world.portal.EmptyPortalAgent;
 import org.lanternpowered.server.world.portal.LanternPortalAgentType;
 import org.spongepowered.api.CatalogKey;
 import org.spongepowered.api.world.PortalAgentType;
 import org.spongepowered.api.world.PortalAgentTypes;
 
+@ParallelRegistration
 public class PortalAgentTypeRegistryModule extends AdditionalPluginCatalogRegistryModule<PortalAgentType> {
 
     public PortalAgentTypeRegistryModule() {
@@ -27,10 +27,12 @@
 
 import org.lanternpowered.api.catalog.CatalogKeys;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.world.LanternSerializationBehavior;
 import org.spongepowered.api.world.SerializationBehavior;
 import org.spongepowered.api.world.SerializationBehaviors;
 
+@ParallelRegistration
 public final class SerializationBehaviorRegistryModule extends DefaultCatalogRegistryModule<SerializationBehavior> {
 
     public SerializationBehaviorRegistryModule() {
@@ -121,6 +121,12 @@ static class Name {
      */
     @Nullable private Multimap<Class<? extends Event>, Consumer<? super Event>> eventListeners;
 
+    /**
+     * The lazily built query indexes of this inventory, by item type, inventory property
+     * and inventory class, see {@link #query(QueryOperation[])} and {@link #query(Class)}.
+     */
+    @Nullable private volatile InventoryQueryIndex queryIndex;
+
     protected AbstractInventory() {
         if (this instanceof ICarriedInventory) {
             this.carrierReference = CarrierReference.of(carrierTypeCache.get(getClass()));
@@ -355,26 +361,109 @@ public AbstractInventory root() {
     static final class ChildrenInventoryQuery extends AbstractChildrenInventory implements IQueryInventory {
     }
 
+    private static final class QueriedInventories implements QueryInventoryAdder {
+
+        private final QueryOperation<?>[] operations;
+        private final Set<AbstractInventory> inventories = new LinkedHashSet<>();
+
+        private QueriedInventories(QueryOperation<?>[] operations) {
+            this.operations = operations;
+        }
+
+        @Override
+        public void add(Inventory inventory) {
+            checkNotNull(inventory, "inventory");
+            for (QueryOperation operation : this.operations) {
+                if (((LanternQueryOperation) operation).test(inventory)) {
+                    this.inventories.add((AbstractInventory) inventory);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether queries on this inventory may be indexed. Query results
+     * and containers are temporary, so they don't index anything.
+     *
+     * @return Whether queries may be indexed
+     */
+    private boolean isQueryCacheable() {
+        return !(this instanceof IQueryInventory) && !(this instanceof AbstractContainer);
+    }
+
+    /**
+     * Clears all the cached query results of this inventory, this should be
+     * called if the structure of the inventory changed after a query was
+     * executed, e.g. if a query is used during the initialization.
+     */
+    protected void clearCachedQueries() {
+        this.queryIndex = null;
+    }
+
+    /**
+     * Gets the query index of this inventory, the index
+     * is created the first time that it's requested.
+     *
+     * @return The query index
+     */
+    private InventoryQueryIndex getQueryIndex() {
+        InventoryQueryIndex queryIndex = this.queryIndex;
+        if (queryIndex == null) {
+            this.queryIndex = queryIndex = new InventoryQueryIndex(this);
+        }
+        return queryIndex;
+    }
+
+    /**
+     * Gets the sum of the content versions of all the {@link AbstractSlot}s
+     * in this inventory, the sum changes every time that the contents of one
+     * of the slots change.
+     *
+     * @return The content version, or -1 if the version cannot be determined
+     */
+    long getSlotsContentVersion() {
+        long version = 0;
+        for (AbstractSlot slot : getSlots()) {
+            AbstractSlot viewedSlot = slot.viewedSlot();
+            while (viewedSlot instanceof AbstractForwardingSlot) {
+                viewedSlot = ((AbstractForwardingSlot) viewedSlot).getDelegateSlot();
+            }
+            if (!(viewedSlot instanceof AbstractInventorySlot)) {
+                return -1;
+            }
+            version += ((AbstractInventorySlot) viewedSlot).getContentVersion();
+        }
+        return version;
+    }
+
     @Override
     public IQueryInventory query(QueryOperation<?>... operations) {
-        final Set<AbstractInventory> inventories = new LinkedHashSet<>();
+        if (isQueryCacheable()) {
+            return createQueryResult(getQueryIndex().query(operations));
+        }
+        final QueriedInventories queried = new QueriedInventories(operations);
         try {
-            queryInventories(inventory -> {
-                checkNotNull(inventory, "inventory");
-                for (QueryOperation operation : operations) {
-                    if (((LanternQueryOperation) operation).test(inventory)) {
-                        inventories.add((AbstractInventory) inventory);
-                        return;
-                    }
-                }
-            });
+            queryInventories(queried);
         } catch (QueryInventoryAdder.Stop ignored) {
         }
+        return createQueryResult(ImmutableList.copyOf(queried.inventories));
+    }
+
+    /**
+     * Creates a new query result for the matched inventories. The result isn't
+     * cached itself, query inventories can be modified by the caller, e.g. by
+     * registering listeners or setting the parent.
+     *
+     * @param inventories The matched inventories
+     * @return The query result
+     */
+    private IQueryInventory createQueryResult(ImmutableList<AbstractInventory> inventories) {
         if (inventories.isEmpty()) {
             return genericEmpty();
         }
         final ChildrenInventoryQuery result = new ChildrenInventoryQuery();
-        result.initWithChildren((List) ImmutableList.copyOf(inventories), true);
+        result.initWithChildren((List) inventories, true);
         return result;
     }
 
@@ -401,6 +490,9 @@ public void add(Inventory inventory) {
 
     @Override
     public <T extends Inventory> Optional<T> query(Class<T> inventoryType) {
+        if (isQueryCacheable()) {
+            return Optional.ofNullable(getQueryIndex().getFirst(inventoryType));
+        }
         final FirstQueriedInventoryFunction<T> function = new FirstQueriedInventoryFunction<>(inventoryType::isInstance);
         try {
             queryInventories(function);
@@ -92,6 +92,12 @@ public static Builder<AbstractInventorySlot> builder() {
      */
     private final List<SlotChangeListener> changeListeners = new ArrayList<>();
 
+    /**
+     * The version of the contents of this slot, is increased every time that
+     * the slot is queued to be updated. Cached query results are based on this.
+     */
+    private int contentVersion;
+
     /**
      * The {@link ItemPredicate} that defines which {@link ItemStack}s can be put in this slot.
      */
@@ -141,14 +147,24 @@ protected ItemPredicate getFilter() {
      * Queues this slot to be updated and trigger the listeners.
      */
     protected void queueUpdate() {
+        this.contentVersion++;
         for (SlotChangeListener listener : this.changeListeners) {
             listener.accept(this);
         }
         for (SlotChangeTracker tracker : this.trackers) {
-            tracker.queueSlotChange(this);
+            tracker.queueSlotContentChange(this);
         }
     }
 
+    /**
+     * Gets the version of the contents of this slot.
+     *
+     * @return The content version
+     */
+    int getContentVersion() {
+        return this.contentVersion;
+    }
+
     @Override
     public void addChangeListener(SlotChangeListener listener) {
         checkNotNull(listener, "listener");
@@ -0,0 +1,353 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.inventory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.lanternpowered.server.inventory.query.LanternQueryOperation;
+import org.lanternpowered.server.inventory.query.QueryCacheType;
+import org.spongepowered.api.item.ItemType;
+import org.spongepowered.api.item.inventory.Inventory;
+import org.spongepowered.api.item.inventory.InventoryProperty;
+import org.spongepowered.api.item.inventory.property.EquipmentSlotType;
+import org.spongepowered.api.item.inventory.query.QueryOperation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * The lazily built indexes that are used to answer the queries of a {@link AbstractInventory}
+ * without walking the inventory tree and testing every operation against every inventory.
+ * <p>
+ * The inventory tree is flattened once, in the order of
+ * {@link AbstractInventory#queryInventories(QueryInventoryAdder)}, and the indexes contain
+ * the positions of the inventories within the flattened tree:
+ * <ul>
+ *     <li>by inventory class, for inventory type queries;</li>
+ *     <li>by property type, for property queries;</li>
+ *     <li>by item type, for item type queries.</li>
+ * </ul>
+ * The index is discarded once the structure of the inventory changes, see
+ * {@link AbstractInventory#clearCachedQueries()}. The item type index depends on the
+ * contents of the slots, it's rebuilt once the content version of one of the slots changed,
+ * which is increased through {@link AbstractInventorySlot#queueUpdate()}. The property and
+ * item type indexes are also rebuilt if the delegate of one of the forwarding slots changed.
+ * <p>
+ * The results of the last queries are cached as well, so repeated identical queries don't
+ * have to test the candidates again. Only a limited amount of property indexes and query
+ * results are kept, the least recently used ones are removed first.
+ */
+@SuppressWarnings("unchecked")
+final class InventoryQueryIndex {
+
+    /**
+     * The maximum amount of cached query results.
+     */
+    private static final int MAX_CACHED_QUERIES = 16;
+
+    /**
+     * The maximum amount of property indexes, one for every property type and key.
+     */
+    private static final int MAX_PROPERTY_INDEXES = 32;
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final AbstractInventory inventory;
+
+    // All the inventories within the inventory, in query order
+    private final ImmutableList<AbstractInventory> inventories;
+
+    // The forwarding slots within the inventory and their delegates, the
+    // property and item type indexes are invalid once one of them changed
+    private final AbstractForwardingSlot[] forwardingSlots;
+    private final AbstractSlot[] delegateSlots;
+
+    private final Map<Class<?>, int[]> typeIndex = new HashMap<>();
+    private final Map<Map.Entry<Class<?>, Object>, int[]> propertyIndex = new LruMap<>(MAX_PROPERTY_INDEXES);
+
+    @Nullable private Map<ItemType, int[]> itemTypeIndex;
+    private long itemTypeIndexVersion = -1;
+
+    private final Map<List<QueryOperation<?>>, CachedQuery> cachedQueries = new LruMap<>(MAX_CACHED_QUERIES);
+
+    InventoryQueryIndex(AbstractInventory inventory) {
+        this.inventory = inventory;
+        final Set<AbstractInventory> inventories = new LinkedHashSet<>();
+        final List<AbstractForwardingSlot> forwardingSlots = new ArrayList<>(1);
+        try {
+            inventory.queryInventories(child -> {
+                if (child instanceof AbstractForwardingSlot) {
+                    forwardingSlots.add((AbstractForwardingSlot) child);
+                }
+                inventories.add((AbstractInventory) child);
+            });
+        } catch (QueryInventoryAdder.Stop ignored) {
+        }
+        this.inventories = ImmutableList.copyOf(inventories);
+        this.forwardingSlots = forwardingSlots.toArray(new AbstractForwardingSlot[0]);
+        this.delegateSlots = new AbstractSlot[this.forwardingSlots.length];
+        updateDelegateSlots();
+    }
+
+    private void updateDelegateSlots() {
+        for (int i = 0; i < this.forwardingSlots.length; i++) {
+            this.delegateSlots[i] = this.forwardingSlots[i].getDelegateSlot();
+        }
+    }
+
+    /**
+     * Clears the indexes that depend on the delegates of the
+     * forwarding slots, if one of the delegates changed.
+     */
+    private void checkDelegateSlots() {
+        for (int i = 0; i < this.forwardingSlots.length; i++) {
+            if (this.forwardingSlots[i].getDelegateSlot() != this.delegateSlots[i]) {
+                this.propertyIndex.clear();
+                this.itemTypeIndex = null;
+                this.cachedQueries.clear();
+                updateDelegateSlots();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the first inventory that is a instance of the given type.
+     *
+     * @param inventoryType The inventory type
+     * @param <T> The inventory type
+     * @return The inventory, if found
+     */
+    @Nullable
+    synchronized <T extends Inventory> T getFirst(Class<T> inventoryType) {
+        final int[] positions = getTypeIndex(inventoryType);
+        return positions.length == 0 ? null : (T) this.inventories.get(positions[0]);
+    }
+
+    /**
+     * Queries the inventories that match at least one of the operations.
+     *
+     * @param operations The operations
+     * @return The matched inventories, in query order
+     */
+    synchronized ImmutableList<AbstractInventory> query(QueryOperation<?>[] operations) {
+        checkDelegateSlots();
+        QueryCacheType cacheType = QueryCacheType.STRUCTURE;
+        for (int i = 0; i < operations.length && cacheType != QueryCacheType.NONE; i++) {
+            final QueryCacheType operationCacheType = ((LanternQueryOperation) operations[i]).getCacheType();
+            if (operationCacheType != QueryCacheType.STRUCTURE) {
+                cacheType = operationCacheType;
+            }
+        }
+        long contentVersion = -1;
+        if (cacheType == QueryCacheType.CONTENT) {
+            contentVersion = this.inventory.getSlotsContentVersion();
+            if (contentVersion == -1) {
+                cacheType = QueryCacheType.NONE;
+            }
+        }
+        if (cacheType != QueryCacheType.NONE) {
+            final CachedQuery cachedQuery = this.cachedQueries.get(Arrays.asList(operations));
+            if (cachedQuery != null && cachedQuery.contentVersion == contentVersion) {
+                return cachedQuery.inventories;
+            }
+        }
+        final BitSet matched = new BitSet(this.inventories.size());
+        for (QueryOperation<?> operation : operations) {
+            final LanternQueryOperation<?> queryOperation = (LanternQueryOperation<?>) operation;
+            final int[] candidates = getCandidates(queryOperation);
+            if (candidates == null) {
+                for (int i = matched.nextClearBit(0); i < this.inventories.size(); i = matched.nextClearBit(i + 1)) {
+                    if (queryOperation.test(this.inventories.get(i))) {
+                        matched.set(i);
+                    }
+                }
+            } else {
+                for (int i : candidates) {
+                    if (!matched.get(i) && queryOperation.test(this.inventories.get(i))) {
+                        matched.set(i);
+                    }
+                }
+            }
+        }
+        final ImmutableList.Builder<AbstractInventory> builder = ImmutableList.builder();
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            builder.add(this.inventories.get(i));
+        }
+        final ImmutableList<AbstractInventory> inventories = builder.build();
+        if (cacheType != QueryCacheType.NONE) {
+            this.cachedQueries.put(ImmutableList.copyOf(operations), new CachedQuery(inventories, contentVersion));
+        }
+        return inventories;
+    }
+
+    /**
+     * Gets the positions of the inventories that may match the operation,
+     * or {@code null} if every inventory should be tested.
+     *
+     * @param operation The operation
+     * @return The positions of the candidates
+     */
+    @Nullable
+    private int[] getCandidates(LanternQueryOperation<?> operation) {
+        final Object arg = operation.getArg();
+        switch (operation.getIndexType()) {
+            case INVENTORY_TYPE:
+                return arg instanceof Class ? getTypeIndex((Class<?>) arg) : null;
+            case INVENTORY_PROPERTY:
+                return arg instanceof InventoryProperty ? getPropertyIndex((InventoryProperty<?, ?>) arg) : null;
+            case ITEM_TYPE:
+                if (!(arg instanceof ItemType)) {
+                    return null;
+                }
+                final Map<ItemType, int[]> itemTypeIndex = getItemTypeIndex();
+                if (itemTypeIndex == null) {
+                    return null;
+                }
+                final int[] positions = itemTypeIndex.get(arg);
+                return positions == null ? NO_POSITIONS : positions;
+            default:
+                return null;
+        }
+    }
+
+    private int[] getTypeIndex(Class<?> inventoryType) {
+        int[] positions = this.typeIndex.get(inventoryType);
+        if (positions == null) {
+            final IntArrayList list = new IntArrayList();
+            for (int i = 0; i < this.inventories.size(); i++) {
+                if (inventoryType.isInstance(this.inventories.get(i))) {
+                    list.add(i);
+                }
+            }
+            positions = list.toIntArray();
+            this.typeIndex.put(inventoryType, positions);
+        }
+        return positions;
+    }
+
+    private int[] getPropertyIndex(InventoryProperty<?, ?> property) {
+        // Equipment slot types are a special case, because they can be grouped,
+        // so all the equipment slot types are tested instead of the key
+        final Class<? extends InventoryProperty> propertyType = property instanceof EquipmentSlotType ?
+                EquipmentSlotType.class : property.getClass();
+        final Object key = property instanceof EquipmentSlotType ? null : property.getKey();
+        final Map.Entry<Class<?>, Object> indexKey = Maps.immutableEntry(propertyType, key);
+        int[] positions = this.propertyIndex.get(indexKey);
+        if (positions == null) {
+            final IntArrayList list = new IntArrayList();
+            for (int i = 0; i < this.inventories.size(); i++) {
+                final AbstractInventory inventory = this.inventories.get(i);
+                if (propertyType == EquipmentSlotType.class ? !inventory.getProperties(EquipmentSlotType.class).isEmpty() :
+                        inventory.getProperty(inventory, (Class) propertyType, key).isPresent()) {
+                    list.add(i);
+                }
+            }
+            positions = list.toIntArray();
+            this.propertyIndex.put(indexKey, positions);
+        }
+        return positions;
+    }
+
+    /**
+     * Gets the item type index, the index is rebuilt if the
+     * contents of one of the slots changed.
+     *
+     * @return The item type index, or {@code null} if the contents cannot be tracked
+     */
+    @Nullable
+    private Map<ItemType, int[]> getItemTypeIndex() {
+        final long contentVersion = this.inventory.getSlotsContentVersion();
+        if (contentVersion == -1) {
+            return null;
+        }
+        if (this.itemTypeIndex != null && this.itemTypeIndexVersion == contentVersion) {
+            return this.itemTypeIndex;
+        }
+        final Map<ItemType, IntArrayList> lists = new HashMap<>();
+        for (int i = 0; i < this.inventories.size(); i++) {
+            final AbstractInventory inventory = this.inventories.get(i);
+            if (inventory instanceof AbstractSlot) {
+                final LanternItemStack itemStack = ((AbstractSlot) inventory).getRawItemStack();
+                if (itemStack != null) {
+                    lists.computeIfAbsent(itemStack.getType(), type -> new IntArrayList()).add(i);
+                }
+            }
+        }
+        final Map<ItemType, int[]> itemTypeIndex = new HashMap<>();
+        for (Map.Entry<ItemType, IntArrayList> entry : lists.entrySet()) {
+            itemTypeIndex.put(entry.getKey(), entry.getValue().toIntArray());
+        }
+        this.itemTypeIndex = itemTypeIndex;
+        this.itemTypeIndexVersion = contentVersion;
+        return itemTypeIndex;
+    }
+
+    private static final class CachedQuery {
+
+        // The matched inventories, every query gets its own view of them
+        private final ImmutableList<AbstractInventory> inventories;
+
+        // The content version of the slots at the moment that the
+        // query was executed, or -1 if it doesn't depend on the contents
+        private final long contentVersion;
+
+        private CachedQuery(ImmutableList<AbstractInventory> inventories, long contentVersion) {
+            this.inventories = inventories;
+            this.contentVersion = contentVersion;
+        }
+    }
+
+    /**
+     * A map that removes the least recently used entry once the maximum size is exceeded.
+     */
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+}
@@ -40,6 +40,17 @@ public interface SlotChangeTracker {
      */
     void queueSlotChange(Slot slot);
 
+    /**
+     * Queues a slot change for the specified {@link Slot} because its contents
+     * changed. Unlike {@link #queueSlotChange(Slot)}, the update may be skipped
+     * if the client already has the current contents.
+     *
+     * @param slot The slot
+     */
+    default void queueSlotContentChange(Slot slot) {
+        queueSlotChange(slot);
+    }
+
     /**
      * Queues a slot change for the specified {@link ClientSlot}.
      *
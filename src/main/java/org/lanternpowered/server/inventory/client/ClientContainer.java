@@ -137,6 +137,27 @@ public abstract class ClientContainer implements ContainerBase {
      */
     private static int containerIdCounter = 1;
 
+    /**
+     * The estimated amount of bytes of a set slot message, without the item.
+     */
+    private static final int SET_SLOT_MESSAGE_SIZE = 6;
+
+    /**
+     * The estimated amount of bytes of a window items message, without the items.
+     */
+    private static final int WINDOW_ITEMS_MESSAGE_SIZE = 6;
+
+    /**
+     * The amount of bytes of a empty item.
+     */
+    private static final int EMPTY_ITEM_SIZE = 2;
+
+    /**
+     * The estimated amount of bytes of a item, most items
+     * only have a few properties stored in the tag.
+     */
+    private static final int ITEM_SIZE = 16;
+
     protected static int SHIFT_CLICK_WHEN_FULL_TOP = 0x1;
 
     protected static int SHIFT_CLICK_TOP_FILTER = 0x2;
@@ -163,6 +184,12 @@ protected static abstract class BaseClientSlot implements ClientSlot {
          */
         public final static int SILENT_UPDATE = 0x2;
 
+        /**
+         * Whether the slot is only dirty because the contents changed, the
+         * update can be skipped if the client already has the contents.
+         */
+        public final static int CONTENT_UPDATE = 0x4;
+
         protected final int index;
         protected int dirtyState = 0;
 
@@ -366,6 +393,18 @@ public int getSlotIndex(ClientSlot clientSlot) {
 
     // Drag mode data
     private final IntSet dragSlots = new IntArraySet();
+
+    /**
+     * The items that were last send to the client for each slot, a
+     * {@code null} value means that the contents are unknown.
+     */
+    @SuppressWarnings("NullableProblems") private ItemStack[] sentItems;
+
+    // The amount of messages and estimated bytes that were send to update the slots
+    private long slotMessages;
+    private long slotBytes;
+    // The amount of slot updates that were skipped because the client already had the contents
+    private long skippedSlotUpdates;
     private final List<PropertyEntry> propertySuppliers = new ArrayList<>();
     private int dragMode = -1;
 
@@ -497,6 +536,7 @@ private void populate() {
         for (int i = 0; i < this.slots.length; i++) {
             this.slots[i] = new EmptyClientSlot(i);
         }
+        this.sentItems = new ItemStack[flags.length];
     }
 
     /**
@@ -526,6 +566,36 @@ public int getContainerId() {
         return this.containerId;
     }
 
+    /**
+     * Gets the amount of messages that were send to
+     * update the slots and cursor of this container.
+     *
+     * @return The amount of slot messages
+     */
+    public long getSlotMessages() {
+        return this.slotMessages;
+    }
+
+    /**
+     * Gets the estimated amount of bytes that were send
+     * to update the slots and cursor of this container.
+     *
+     * @return The amount of slot bytes
+     */
+    public long getSlotBytes() {
+        return this.slotBytes;
+    }
+
+    /**
+     * Gets the amount of slot updates that were skipped
+     * because the client already had the contents.
+     *
+     * @return The amount of skipped slot updates
+     */
+    public long getSkippedSlotUpdates() {
+        return this.skippedSlotUpdates;
+    }
+
     /**
      * Generates a container id.
      *
@@ -657,6 +727,21 @@ public void queueSlotChange(Slot slot) {
         this.slotMap.get((AbstractSlot) checkNotNull(slot, "slot")).forEach(this::queueSlotChange);
     }
 
+    @Override
+    public void queueSlotContentChange(Slot slot) {
+        this.slotMap.get((AbstractSlot) checkNotNull(slot, "slot")).forEach(this::queueSlotContentChange);
+    }
+
+    protected void queueSlotContentChange(BaseClientSlot clientSlot) {
+        populate();
+        if (this.player == null) {
+            return;
+        }
+        if ((clientSlot.dirtyState & BaseClientSlot.IS_DIRTY) == 0) {
+            clientSlot.dirtyState = BaseClientSlot.IS_DIRTY | BaseClientSlot.CONTENT_UPDATE;
+        }
+    }
+
     @Override
     public void queueSlotChange(ClientSlot clientSlot) {
         queueSlotChange((BaseClientSlot) clientSlot);
@@ -682,6 +767,9 @@ protected void queueSlotChangeSafely(BaseClientSlot clientSlot) {
         }
         if ((clientSlot.dirtyState & BaseClientSlot.IS_DIRTY) == 0) {
             clientSlot.dirtyState = BaseClientSlot.IS_DIRTY;
+        } else {
+            // The update is forced now
+            clientSlot.dirtyState &= ~BaseClientSlot.CONTENT_UPDATE;
         }
     }
 
@@ -715,6 +803,9 @@ protected void queueSilentSlotChangeSafely(BaseClientSlot clientSlot) {
         }
         if ((clientSlot.dirtyState & BaseClientSlot.IS_DIRTY) == 0) {
             clientSlot.dirtyState = BaseClientSlot.IS_DIRTY | BaseClientSlot.SILENT_UPDATE;
+        } else {
+            // The update is forced now
+            clientSlot.dirtyState &= ~BaseClientSlot.CONTENT_UPDATE;
         }
     }
 
@@ -751,17 +842,11 @@ public void init() {
         if (message != null) {
             messages.add(message);
         }
-        final ItemStack[] items = new ItemStack[getSlotFlags().length];
-        for (int i = 0; i < items.length; i++) {
-            items[serverSlotIndexToClient(i)] = this.slots[i].getItem();
-            this.slots[i].dirtyState = 0;
-        }
         // Send the inventory content
-        messages.add(new MessagePlayOutWindowItems(this.containerId, items));
+        messages.add(createWindowItemsMessage());
         // Send the cursor item if present
         if (!this.cursor.getRaw().isEmpty()) {
-            messages.add(new MessagePlayOutSetWindowSlot(-1, -1, this.cursor.getItem()));
-            this.cursor.dirtyState = 0;
+            messages.add(createCursorMessage());
         }
         // Collect additional messages
         collectInitMessages(messages);
@@ -785,31 +870,151 @@ public void update() {
     }
 
     protected void collectChangeMessages(List<Message> messages) {
+        int dirtySlots = 0;
+        int cleanItemsSize = 0;
         for (int i = 0; i < this.slots.length; i++) {
-            collectSlotChangeMessages(messages, i, false);
+            if (isDirty(i)) {
+                if ((this.slots[i].dirtyState & BaseClientSlot.SILENT_UPDATE) != 0 && getSilentSlotIndex(i) != 0) {
+                    // Silent updates always get their own message, they are
+                    // applied to the player inventory of the client, even if the
+                    // client has a different container open
+                    collectSlotChangeMessages(messages, i, false);
+                    cleanItemsSize += getItemSize(this.slots[i].getRaw());
+                } else {
+                    dirtySlots++;
+                }
+            } else {
+                cleanItemsSize += getItemSize(this.slots[i].getRaw());
+            }
+        }
+        if (dirtySlots > 0) {
+            // Resend all the slots at once if that's smaller than updating all
+            // the dirty slots, this can be the case when a lot of slots are
+            // modified at once, e.g. shift clicking or crafting
+            if (shouldSendWindowItems(dirtySlots, cleanItemsSize)) {
+                messages.add(createWindowItemsMessage());
+            } else {
+                for (int i = 0; i < this.slots.length; i++) {
+                    collectSlotChangeMessages(messages, i, false);
+                }
+            }
         }
         // Update the cursor item if needed
         if ((this.cursor.dirtyState & BaseClientSlot.IS_DIRTY) != 0) {
-            messages.add(new MessagePlayOutSetWindowSlot(-1, -1, this.cursor.getItem()));
-            this.cursor.dirtyState = 0;
+            messages.add(createCursorMessage());
         }
         // Collect the property changes
         collectPropertyChanges(messages);
     }
 
-    protected void collectSlotChangeMessages(List<Message> messages, int index, boolean forceSilently) {
+    /**
+     * Gets whether the slot at the given index is dirty, slots that are only dirty
+     * because of content changes but of which the client already has the current
+     * contents will be cleaned.
+     *
+     * @param index The slot index
+     * @return Whether the slot is dirty
+     */
+    private boolean isDirty(int index) {
         final BaseClientSlot slot = this.slots[index];
-        if ((slot.dirtyState & BaseClientSlot.IS_DIRTY) != 0) {
+        if ((slot.dirtyState & BaseClientSlot.IS_DIRTY) == 0) {
+            return false;
+        }
+        if ((slot.dirtyState & BaseClientSlot.CONTENT_UPDATE) != 0 && isSentItem(this.sentItems[index], slot.getRaw())) {
+            slot.dirtyState = 0;
+            this.skippedSlotUpdates++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets whether the client already has the item, based
+     * on the item that was last send to the client.
+     *
+     * @param sentItem The item that was last send, or {@code null} if unknown
+     * @param item The current item
+     * @return Whether the client has the item
+     */
+    static boolean isSentItem(@Nullable ItemStack sentItem, ItemStack item) {
+        return sentItem != null && (item.isEmpty() ? sentItem.isEmpty() : !sentItem.isEmpty() && item.equalTo(sentItem));
+    }
+
+    /**
+     * Gets whether a single window items message is smaller than
+     * a set slot message for every dirty slot.
+     *
+     * @param dirtySlots The amount of dirty slots
+     * @param cleanItemsSize The estimated size of all the items in the clean slots
+     * @return Whether the window items message should be send
+     */
+    static boolean shouldSendWindowItems(int dirtySlots, int cleanItemsSize) {
+        // The dirty items are send in both cases
+        return dirtySlots * SET_SLOT_MESSAGE_SIZE > WINDOW_ITEMS_MESSAGE_SIZE + cleanItemsSize;
+    }
+
+    /**
+     * Forgets all the items that were send to the client. The client predicts
+     * the results of its interactions, if the server rejects or modifies them,
+     * the client may have contents that were never send. Content updates may
+     * not be skipped until the slots are send again.
+     */
+    private void invalidateSentItems() {
+        Arrays.fill(this.sentItems, null);
+    }
+
+    /**
+     * Gets the silent slot index of the slot at the given
+     * index, {@code 0} if it cannot be updated silently.
+     *
+     * @param index The slot index
+     * @return The silent slot index
+     */
+    private int getSilentSlotIndex(int index) {
+        final int flags = getSlotFlags()[index];
+        int silentIndex = (flags & FLAG_HOTBAR_MASK) >> FLAG_HOTBAR_SHIFT;
+        if (silentIndex == 0) {
+            silentIndex = (flags & FLAG_SILENT_SLOT_INDEX_MASK) >> FLAG_SILENT_SLOT_INDEX_SHIFT;
+        } else {
+            silentIndex--; // hotbar silent index is + 1
+        }
+        return silentIndex;
+    }
+
+    private static int getItemSize(ItemStack itemStack) {
+        return itemStack.isEmpty() ? EMPTY_ITEM_SIZE : ITEM_SIZE;
+    }
+
+    private Message createWindowItemsMessage() {
+        final ItemStack[] items = new ItemStack[this.slots.length];
+        int size = WINDOW_ITEMS_MESSAGE_SIZE;
+        for (int i = 0; i < items.length; i++) {
+            final ItemStack item = this.slots[i].getItem();
+            items[serverSlotIndexToClient(i)] = item;
+            this.sentItems[i] = item;
+            this.slots[i].dirtyState = 0;
+            size += getItemSize(item);
+        }
+        this.slotMessages++;
+        this.slotBytes += size;
+        return new MessagePlayOutWindowItems(this.containerId, items);
+    }
+
+    private Message createCursorMessage() {
+        final ItemStack item = this.cursor.getItem();
+        this.cursor.dirtyState = 0;
+        this.slotMessages++;
+        this.slotBytes += SET_SLOT_MESSAGE_SIZE + getItemSize(item);
+        return new MessagePlayOutSetWindowSlot(-1, -1, item);
+    }
+
+    protected void collectSlotChangeMessages(List<Message> messages, int index, boolean forceSilently) {
+        if (isDirty(index)) {
+            final BaseClientSlot slot = this.slots[index];
             int containerId = getContainerId();
             // Check if we can do a silent update
             if ((slot.dirtyState & BaseClientSlot.SILENT_UPDATE) != 0 || forceSilently) {
-                final int flags = getSlotFlags()[index];
-                int silentIndex = (flags & FLAG_HOTBAR_MASK) >> FLAG_HOTBAR_SHIFT;
-                if (silentIndex == 0) {
-                    silentIndex = (flags & FLAG_SILENT_SLOT_INDEX_MASK) >> FLAG_SILENT_SLOT_INDEX_SHIFT;
-                } else {
-                    silentIndex--; // hotbar silent index is + 1
-                }
+                final int silentIndex = getSilentSlotIndex(index);
                 if (silentIndex != 0) {
                     index = silentIndex;
                     containerId = -2;
@@ -817,8 +1022,12 @@ protected void collectSlotChangeMessages(List<Message> messages, int index, bool
             }
             // Reset the dirty state
             slot.dirtyState = 0;
+            final ItemStack item = slot.getItem();
+            this.sentItems[slot.index] = item;
+            this.slotMessages++;
+            this.slotBytes += SET_SLOT_MESSAGE_SIZE + getItemSize(item);
             // Add a update message
-            messages.add(new MessagePlayOutSetWindowSlot(containerId, serverSlotIndexToClient(index), slot.getItem()));
+            messages.add(new MessagePlayOutSetWindowSlot(containerId, serverSlotIndexToClient(index), item));
         }
     }
 
@@ -922,6 +1131,7 @@ protected int serverSlotIndexToClient(int index) {
     @SuppressWarnings({"ConstantConditions", "OptionalGetWithoutIsPresent"})
     public void handlePick(int slotIndex) {
         populate();
+        invalidateSentItems();
         // Convert the slot index
         final int serverSlotIndex = clientSlotIndexToServer(slotIndex);
 
@@ -933,6 +1143,7 @@ public void handlePick(int slotIndex) {
 
     public void handleCreativeClick(int slotIndex, ItemStack itemStack) {
         populate();
+        invalidateSentItems();
         // You can only use this in creative mode
         if (this.player == null || this.player.require(Keys.GAME_MODE) != GameModes.CREATIVE) {
             return;
@@ -953,6 +1164,7 @@ public void handleCreativeClick(int slotIndex, ItemStack itemStack) {
 
     public void handleClick(int slotIndex, int mode, int button) {
         populate();
+        invalidateSentItems();
         // Convert the slot index
         slotIndex = clientSlotIndexToServer(slotIndex);
 
@@ -31,6 +31,8 @@
 import org.spongepowered.api.item.inventory.query.QueryOperation;
 import org.spongepowered.api.item.inventory.query.QueryOperationType;
 
+import java.util.Objects;
+
 @SuppressWarnings("unchecked")
 public final class LanternQueryOperation<T> implements QueryOperation<T> {
 
@@ -47,6 +49,50 @@ public QueryOperationType<T> getType() {
         return this.type;
     }
 
+    /**
+     * Gets the argument of this operation.
+     *
+     * @return The argument
+     */
+    public T getArg() {
+        return this.arg;
+    }
+
+    /**
+     * Gets which index may be used to find the candidates of this operation.
+     *
+     * @return The index type
+     */
+    public QueryIndexType getIndexType() {
+        return this.type.getIndexType();
+    }
+
+    /**
+     * Gets how the results of this operation may be cached.
+     *
+     * @return The cache type
+     */
+    public QueryCacheType getCacheType() {
+        return this.type.getCacheType();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof LanternQueryOperation)) {
+            return false;
+        }
+        final LanternQueryOperation other = (LanternQueryOperation) obj;
+        return this.type == other.type && Objects.equals(this.arg, other.arg);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.type.hashCode() + Objects.hashCode(this.arg);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -0,0 +1,55 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.inventory.query;
+
+import org.spongepowered.api.item.ItemType;
+import org.spongepowered.api.item.inventory.InventoryProperty;
+
+/**
+ * Represents which index of a inventory can be used to find
+ * the candidates of a {@link LanternQueryOperationType}.
+ */
+public enum QueryIndexType {
+    /**
+     * No index can be used, every inventory will be tested.
+     */
+    NONE,
+    /**
+     * The argument is a {@link ItemType}, only the
+     * slots with that item type will be tested.
+     */
+    ITEM_TYPE,
+    /**
+     * The argument is a {@link InventoryProperty}, only the inventories
+     * that have a property of the same type will be tested.
+     */
+    INVENTORY_PROPERTY,
+    /**
+     * The argument is a {@link Class}, only the inventories
+     * that are instances of the class will be tested.
+     */
+    INVENTORY_TYPE,
+}
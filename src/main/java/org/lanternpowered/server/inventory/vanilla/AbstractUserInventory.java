@@ -84,6 +84,8 @@ protected void init() {
                 .withCarrier(getCarrier().orElse(null))
                 .plugin(getPlugin())
                 .build();
+        // The equipment inventory is now included in queries
+        clearCachedQueries();
     }
 
     @Override
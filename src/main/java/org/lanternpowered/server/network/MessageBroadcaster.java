@@ -0,0 +1,203 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.message.EncodedMessage;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.codec.EncodingStatistics;
+import org.lanternpowered.server.network.message.codec.SharedMessageEncoder;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A helper class to send {@link Message}s to multiple {@link LanternPlayer}s.
+ * <p>
+ * Messages that are send to more than one player will only be encoded once, the
+ * encoded content (and the compressed content) will be shared between all the
+ * channels. Messages that cannot be shared, for example because they contain
+ * localized text or need to be processed first, fall back to being encoded
+ * for every channel, see {@link SharedMessageEncoder#tryEncode(ProtocolState, Message)}.
+ * <p>
+ * The broadcast methods take ownership of the given messages, {@link EncodedMessage}s
+ * will be released after they are send.
+ */
+public final class MessageBroadcaster {
+
+    /**
+     * Sends the {@link Message} to all the players.
+     *
+     * @param players The players
+     * @param message The message
+     */
+    public static void broadcast(Collection<? extends LanternPlayer> players, Message message) {
+        broadcast(players, null, message);
+    }
+
+    /**
+     * Sends the {@link Message} to all the players that
+     * match the filter, if present.
+     *
+     * @param players The players
+     * @param filter The filter
+     * @param message The message
+     */
+    public static void broadcast(Collection<? extends LanternPlayer> players,
+            @Nullable Predicate<? super LanternPlayer> filter, Message message) {
+        checkNotNull(players, "players");
+        checkNotNull(message, "message");
+        final Collection<? extends LanternPlayer> targets = getTargets(players, filter);
+        if (targets.isEmpty()) {
+            // Nothing to send, but the message is still owned by us
+            if (message instanceof EncodedMessage) {
+                ((EncodedMessage) message).release();
+            }
+            return;
+        }
+        send(targets, message);
+    }
+
+    /**
+     * Sends the {@link Message} provided by the supplier to all the players
+     * that match the filter, if present. The supplier will only be called if
+     * there is at least one target.
+     *
+     * @param players The players
+     * @param filter The filter
+     * @param messageSupplier The message supplier
+     */
+    public static void broadcast(Collection<? extends LanternPlayer> players,
+            @Nullable Predicate<? super LanternPlayer> filter, Supplier<? extends Message> messageSupplier) {
+        checkNotNull(players, "players");
+        checkNotNull(messageSupplier, "messageSupplier");
+        final Collection<? extends LanternPlayer> targets = getTargets(players, filter);
+        if (targets.isEmpty()) {
+            return;
+        }
+        send(targets, checkNotNull(messageSupplier.get(), "message"));
+    }
+
+    private static void send(Collection<? extends LanternPlayer> targets, Message message) {
+        final EncodedMessage encoded = encode(targets.size(), message);
+        try {
+            for (LanternPlayer player : targets) {
+                final NetworkSession session = player.getConnection();
+                session.send(select(session, message, encoded));
+            }
+        } finally {
+            if (encoded != null) {
+                encoded.release();
+            }
+        }
+    }
+
+    /**
+     * Gets all the players that match the filter, the
+     * players will be returned if there is no filter.
+     */
+    private static Collection<? extends LanternPlayer> getTargets(Collection<? extends LanternPlayer> players,
+            @Nullable Predicate<? super LanternPlayer> filter) {
+        if (filter == null) {
+            return players;
+        }
+        final List<LanternPlayer> targets = new ArrayList<>(players.size());
+        for (LanternPlayer player : players) {
+            if (filter.test(player)) {
+                targets.add(player);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Sends the {@link Message}s to all the players.
+     *
+     * @param players The players
+     * @param messages The messages
+     */
+    public static void broadcast(Collection<? extends LanternPlayer> players, List<Message> messages) {
+        checkNotNull(players, "players");
+        checkNotNull(messages, "messages");
+        if (messages.size() == 1) {
+            broadcast(players, null, messages.get(0));
+            return;
+        }
+        final EncodedMessage[] encoded = new EncodedMessage[messages.size()];
+        try {
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = encode(players.size(), messages.get(i));
+            }
+            for (LanternPlayer player : players) {
+                final NetworkSession session = player.getConnection();
+                final List<Message> sessionMessages = new ArrayList<>(encoded.length);
+                for (int i = 0; i < encoded.length; i++) {
+                    sessionMessages.add(select(session, messages.get(i), encoded[i]));
+                }
+                session.send(sessionMessages);
+            }
+        } finally {
+            for (EncodedMessage encodedMessage : encoded) {
+                if (encodedMessage != null) {
+                    encodedMessage.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the message so that it can be shared, if there
+     * will be more than one target and if it's possible.
+     */
+    @Nullable
+    private static EncodedMessage encode(int targets, Message message) {
+        if (message instanceof EncodedMessage) {
+            return (EncodedMessage) message;
+        }
+        // Only encode the message once if it will be send multiple times,
+        // all the players in a world are expected to be in the play state
+        return targets > 1 ? SharedMessageEncoder.tryEncode(ProtocolState.PLAY, message) : null;
+    }
+
+    private static Message select(NetworkSession session, Message message, @Nullable EncodedMessage encoded) {
+        if (encoded != null && (encoded == message || session.getProtocolState() == encoded.getState())) {
+            EncodingStatistics.incrementSharedWrites();
+            return encoded.retainedDuplicate();
+        }
+        return message;
+    }
+
+    private MessageBroadcaster() {
+    }
+}
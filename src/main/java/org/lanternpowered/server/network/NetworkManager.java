@@ -38,11 +38,13 @@
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.lanternpowered.server.LanternServer;
+import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.network.buffer.LanternByteBufferAllocator;
 import org.lanternpowered.server.network.message.codec.CodecContext;
 import org.lanternpowered.server.network.message.codec.SimpleCodecContext;
 import org.lanternpowered.server.network.pipeline.LegacyProtocolHandler;
 import org.lanternpowered.server.network.pipeline.MessageCodecHandler;
+import org.lanternpowered.server.network.pipeline.MessageFlushHandler;
 import org.lanternpowered.server.network.pipeline.MessageFramingHandler;
 import org.lanternpowered.server.network.pipeline.MessageProcessorHandler;
 import org.lanternpowered.server.network.pipeline.NoopHandler;
@@ -101,6 +103,14 @@ public void pulseSessions() {
         this.sessions.forEach(NetworkSession::pulse);
     }
 
+    /**
+     * Flushes the messages that were written to the sessions
+     * during the tick. Is called at the end of every tick.
+     */
+    public void flushSessions() {
+        this.sessions.forEach(NetworkSession::flushTick);
+    }
+
     /**
      * Called when the {@link NetworkSession} becomes active.
      *
@@ -137,7 +147,9 @@ protected void initChannel(SocketChannel ch) {
                         final ChannelPipeline pipeline = ch.pipeline();
                         final NetworkSession networkSession = new NetworkSession(ch, server, NetworkManager.this);
                         final CodecContext codecContext = new SimpleCodecContext(new LanternByteBufferAllocator(ch.alloc()), ch, networkSession);
-                        pipeline.addLast(new ReadTimeoutHandler(NetworkSession.READ_TIMEOUT_SECONDS))
+                        final int flushByteBudget = Lantern.getGame().getGlobalConfig().getNetworkFlushByteBudget();
+                        pipeline.addLast(NetworkSession.FLUSH, new MessageFlushHandler(flushByteBudget))
+                                .addLast(new ReadTimeoutHandler(NetworkSession.READ_TIMEOUT_SECONDS))
                                 .addLast(NetworkSession.LEGACY_PING, new LegacyProtocolHandler(networkSession))
                                 .addLast(NetworkSession.ENCRYPTION, NoopHandler.INSTANCE)
                                 .addLast(NetworkSession.FRAMING, new MessageFramingHandler())
@@ -61,6 +61,7 @@
 import org.lanternpowered.server.network.message.MessageRegistration;
 import org.lanternpowered.server.network.message.UnknownMessage;
 import org.lanternpowered.server.network.message.handler.Handler;
+import org.lanternpowered.server.network.pipeline.MessageFlushHandler;
 import org.lanternpowered.server.network.protocol.Protocol;
 import org.lanternpowered.server.network.protocol.ProtocolState;
 import org.lanternpowered.server.network.vanilla.message.type.connection.MessageInOutKeepAlive;
@@ -128,6 +129,7 @@ public final class NetworkSession extends SimpleChannelInboundHandler<Message> i
     public static final String CODECS = "codecs";
     public static final String PROCESSOR = "processor";
     public static final String HANDLER = "handler";
+    public static final String FLUSH = "flush";
 
     /**
      * The game profile of the player the last time he joined.
@@ -229,10 +231,32 @@ public Channel getChannel() {
      */
     private boolean firstClientSettingsMessage;
 
+    /**
+     * Whether the messages that are send in the play state should only be
+     * written, they will be flushed at the end of the tick.
+     */
+    private final boolean coalesceWrites;
+
+    /**
+     * Whether there are messages written that aren't flushed yet.
+     */
+    private volatile boolean flushPending;
+
+    /**
+     * The write statistics of the last tick.
+     */
+    private long lastWrites;
+    private long lastBytes;
+    private long lastFlushes;
+    private volatile int writesPerTick;
+    private volatile int bytesPerTick;
+    private volatile int flushesPerTick;
+
     public NetworkSession(Channel channel, LanternServer server, NetworkManager networkManager) {
         this.networkManager = networkManager;
         this.channel = channel;
         this.server = server;
+        this.coalesceWrites = Lantern.getGame().getGlobalConfig().shouldCoalesceNetworkWrites();
     }
 
     private static long currentTime() {
@@ -364,7 +388,7 @@ private void initKeepAliveTask() {
                 final long time = currentTime();
                 if (this.keepAliveTime == -1L) {
                     this.keepAliveTime = time;
-                    send(new MessageInOutKeepAlive(time));
+                    sendUrgent(new MessageInOutKeepAlive(time));
                 } else {
                     disconnect(t("disconnect.timeout"));
                 }
@@ -611,6 +635,8 @@ private void closeChannel(Text reason) {
     public ChannelFuture sendWithFuture(Message message) {
         checkNotNull(message, "message");
         if (!this.channel.isActive()) {
+            // The message won't be send, so release it
+            ReferenceCountUtil.release(message);
             return this.channel.newPromise();
         }
         ReferenceCountUtil.retain(message);
@@ -631,12 +657,16 @@ public ChannelFuture sendWithFuture(Message... messages) {
         }
         final ChannelPromise promise = this.channel.newPromise();
         if (!this.channel.isActive()) {
+            for (Message message : messages) {
+                ReferenceCountUtil.release(message);
+            }
             return promise;
         }
         promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
         // Don't bother checking if we are in the event loop,
         // there is only one message.
         if (messages.length == 1) {
+            ReferenceCountUtil.retain(messages[0]);
             this.channel.writeAndFlush(messages[0], promise);
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
@@ -684,6 +714,7 @@ public ChannelFuture sendWithFuture(Iterable<Message> messages) {
         }
         final ChannelPromise promise = this.channel.newPromise();
         if (!this.channel.isActive()) {
+            messages.forEach(ReferenceCountUtil::release);
             return promise;
         }
         promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
@@ -691,6 +722,7 @@ public ChannelFuture sendWithFuture(Iterable<Message> messages) {
         // Don't bother checking if we are in the event loop,
         // there is only one message.
         if (!it.hasNext()) {
+            ReferenceCountUtil.retain(message);
             this.channel.writeAndFlush(message, promise);
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
@@ -735,13 +767,103 @@ public ChannelFuture sendWithFuture(Iterable<Message> messages) {
     public void send(Message message) {
         checkNotNull(message, "message");
         if (!this.channel.isActive()) {
+            // The message won't be send, so release it
+            ReferenceCountUtil.release(message);
             return;
         }
         ReferenceCountUtil.retain(message);
         // Thrown exceptions will be delegated through the exceptionCaught method
+        if (shouldCoalesceWrites()) {
+            this.channel.write(message, this.channel.voidPromise());
+            this.flushPending = true;
+        } else {
+            this.channel.writeAndFlush(message, this.channel.voidPromise());
+        }
+    }
+
+    /**
+     * Sends a {@link Message} and flushes it directly, even
+     * if the writes are being coalesced within a tick.
+     *
+     * @param message The message
+     */
+    public void sendUrgent(Message message) {
+        checkNotNull(message, "message");
+        if (!this.channel.isActive()) {
+            // The message won't be send, so release it
+            ReferenceCountUtil.release(message);
+            return;
+        }
+        ReferenceCountUtil.retain(message);
+        this.flushPending = false;
         this.channel.writeAndFlush(message, this.channel.voidPromise());
     }
 
+    /**
+     * Gets whether the messages that are send should only be written
+     * to the channel, to be flushed at the end of the tick. The messages
+     * will also be flushed if the byte budget is exceeded.
+     *
+     * @return Should coalesce writes
+     */
+    private boolean shouldCoalesceWrites() {
+        return this.coalesceWrites && this.protocolState == ProtocolState.PLAY;
+    }
+
+    /**
+     * Flushes all the messages that were written during the tick,
+     * and updates the write statistics. Is called at the end of
+     * every tick.
+     */
+    void flushTick() {
+        if (this.flushPending) {
+            this.flushPending = false;
+            this.channel.flush();
+        }
+        final MessageFlushHandler flushHandler = (MessageFlushHandler) this.channel.pipeline().get(FLUSH);
+        if (flushHandler != null) {
+            final long writes = flushHandler.getWrites();
+            final long bytes = flushHandler.getBytes();
+            final long flushes = flushHandler.getFlushes();
+            this.writesPerTick = (int) (writes - this.lastWrites);
+            this.bytesPerTick = (int) (bytes - this.lastBytes);
+            this.flushesPerTick = (int) (flushes - this.lastFlushes);
+            this.lastWrites = writes;
+            this.lastBytes = bytes;
+            this.lastFlushes = flushes;
+        }
+    }
+
+    /**
+     * Gets the amount of messages that were written
+     * to the channel during the last tick.
+     *
+     * @return The writes per tick
+     */
+    public int getWritesPerTick() {
+        return this.writesPerTick;
+    }
+
+    /**
+     * Gets the amount of bytes that were written
+     * to the channel during the last tick.
+     *
+     * @return The bytes per tick
+     */
+    public int getBytesPerTick() {
+        return this.bytesPerTick;
+    }
+
+    /**
+     * Gets the amount of flushes that were issued
+     * to the channel during the last tick.
+     *
+     * @return The flushes per tick
+     */
+    public int getFlushesPerTick() {
+        return this.flushesPerTick;
+    }
+
     /**
      * Sends a array of {@link Message}s.
      *
@@ -749,11 +871,26 @@ public void send(Message message) {
      */
     public void send(Message... messages) {
         checkNotNull(messages, "messages");
-        if (messages.length == 0 || !this.channel.isActive()) {
+        if (messages.length == 0) {
+            return;
+        }
+        if (!this.channel.isActive()) {
+            for (Message message : messages) {
+                ReferenceCountUtil.release(message);
+            }
             return;
         }
         final ChannelPromise voidPromise = this.channel.voidPromise();
-        if (messages.length == 1) {
+        if (shouldCoalesceWrites()) {
+            // Writes outside the event loop don't wake it up, so
+            // there is no need to combine them in a single task
+            for (Message message : messages) {
+                ReferenceCountUtil.retain(message);
+                this.channel.write(message, voidPromise);
+            }
+            this.flushPending = true;
+        } else if (messages.length == 1) {
+            ReferenceCountUtil.retain(messages[0]);
             this.channel.writeAndFlush(messages[0], voidPromise);
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
@@ -793,11 +930,26 @@ public void send(Iterable<Message> messages) {
         if (!it.hasNext()) {
             return;
         }
+        if (!this.channel.isActive()) {
+            messages.forEach(ReferenceCountUtil::release);
+            return;
+        }
+        final ChannelPromise voidPromise = this.channel.voidPromise();
+        if (shouldCoalesceWrites()) {
+            // Writes outside the event loop don't wake it up, so
+            // there is no need to combine them in a single task
+            for (Message message : messages) {
+                ReferenceCountUtil.retain(message);
+                this.channel.write(message, voidPromise);
+            }
+            this.flushPending = true;
+            return;
+        }
         Message message = it.next();
         // Don't bother checking if we are in the event loop,
         // there is only one message.
-        final ChannelPromise voidPromise = this.channel.voidPromise();
         if (!it.hasNext()) {
+            ReferenceCountUtil.retain(message);
             this.channel.writeAndFlush(message, voidPromise);
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
@@ -37,6 +37,7 @@
 import org.lanternpowered.server.entity.event.EntityEvent;
 import org.lanternpowered.server.entity.event.EntityEventType;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.MessageBroadcaster;
 import org.lanternpowered.server.network.message.Message;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.living.player.Player;
@@ -98,6 +99,39 @@ final class SimpleEntityProtocolContext implements EntityProtocolUpdateContext {
         @SuppressWarnings("NullableProblems")
         private Set<LanternPlayer> trackers;
 
+        /**
+         * The messages that are waiting to be sent, if the
+         * messages shouldn't be sent directly.
+         */
+        @Nullable private List<Runnable> pendingSends;
+
+        /**
+         * Defers all the messages that are sent through this context
+         * until {@link #flushPendingSends()} is called.
+         */
+        void deferSends() {
+            this.pendingSends = new ArrayList<>();
+        }
+
+        /**
+         * Sends all the messages that were deferred.
+         */
+        void flushPendingSends() {
+            final List<Runnable> pendingSends = this.pendingSends;
+            if (pendingSends != null) {
+                this.pendingSends = null;
+                pendingSends.forEach(Runnable::run);
+            }
+        }
+
+        private void send(Runnable send) {
+            if (this.pendingSends != null) {
+                this.pendingSends.add(send);
+            } else {
+                send.run();
+            }
+        }
+
         @Override
         public Optional<LanternEntity> getById(int entityId) {
             return entityProtocolManager.getEntityProtocolById(entityId).map(AbstractEntityProtocol::getEntity);
@@ -113,7 +147,7 @@ public OptionalInt getId(Entity entity) {
         @Override
         public void sendToSelf(Message message) {
             if (entity instanceof Player) {
-                ((LanternPlayer) entity).getConnection().send(message);
+                send(() -> ((LanternPlayer) entity).getConnection().send(message));
             }
         }
 
@@ -126,7 +160,8 @@ public void sendToSelf(Supplier<Message> messageSupplier) {
 
         @Override
         public void sendToAll(Message message) {
-            this.trackers.forEach(tracker -> tracker.getConnection().send(message));
+            final Set<LanternPlayer> trackers = this.trackers;
+            send(() -> MessageBroadcaster.broadcast(trackers, message));
         }
 
         @Override
@@ -138,11 +173,8 @@ public void sendToAll(Supplier<Message> message) {
 
         @Override
         public void sendToAllExceptSelf(Message message) {
-            this.trackers.forEach(tracker -> {
-                if (tracker != entity) {
-                    tracker.getConnection().send(message);
-                }
-            });
+            final Set<LanternPlayer> trackers = this.trackers;
+            send(() -> MessageBroadcaster.broadcast(trackers, tracker -> tracker != entity, message));
         }
 
         @Override
@@ -274,31 +306,32 @@ final class TrackerUpdateContextData {
     }
 
     @Nullable
-    TrackerUpdateContextData buildUpdateContextData(Set<LanternPlayer> players) {
-        players = new HashSet<>(players);
-
-        final Set<LanternPlayer> removed = new HashSet<>();
+    TrackerUpdateContextData buildUpdateContextData(TrackerGrid<LanternPlayer> players) {
         final Set<LanternPlayer> added = new HashSet<>();
 
-        final Vector3d pos = this.entity.getPosition();
+        // Only the players within the tracking range need to be checked
+        players.forEachInRange(this.entity.getPosition(), this.trackingRange, tracker -> {
+            if (tracker != this.entity && isVisible(tracker)) {
+                added.add(tracker);
+            }
+        });
+        if (players.contains(this.entity)) {
+            added.add((LanternPlayer) this.entity);
+        }
+
+        final Set<LanternPlayer> removed = new HashSet<>();
 
         final Iterator<LanternPlayer> trackerIt = this.trackers.iterator();
         while (trackerIt.hasNext()) {
             final LanternPlayer tracker = trackerIt.next();
-            final boolean flag = players.remove(tracker);
-            if (tracker != this.entity &&
-                    (!flag || !isVisible(pos, tracker))) {
+            // Remove the trackers that are still visible from the added
+            // trackers, the remaining ones are new
+            if (!added.remove(tracker)) {
                 trackerIt.remove();
                 removed.add(tracker);
             }
         }
 
-        for (LanternPlayer tracker : players) {
-            if (tracker == this.entity || isVisible(pos, tracker)) {
-                added.add(tracker);
-            }
-        }
-
         boolean flag0 = this.tickCounter++ % this.tickRate == 0 && !this.trackers.isEmpty();
         boolean flag1 = !added.isEmpty();
         boolean flag2 = !removed.isEmpty();
@@ -420,10 +453,6 @@ void postUpdateTrackers(TrackerUpdateContextData contextData) {
         }
     }
 
-    private boolean isVisible(Vector3d pos, LanternPlayer tracker) {
-        return pos.distanceSquared(tracker.getPosition()) < this.trackingRange * this.trackingRange && isVisible(tracker);
-    }
-
     /**
      * Gets whether the tracked entity is visible for the tracker.
      *
@@ -28,6 +28,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.flowpowered.math.vector.Vector3d;
+import com.google.common.util.concurrent.Futures;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntIterator;
@@ -40,14 +41,19 @@
 import org.spongepowered.api.text.Text;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 
@@ -59,6 +65,22 @@ public final class EntityProtocolManager {
 
     private static final int UPDATE_RATE = 3;
 
+    /**
+     * The minimum amount of {@link AbstractEntityProtocol}s before
+     * the trackers will be updated in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * The pool that builds the tracker updates in parallel, it's shared
+     * by all the worlds and separated from the common pool.
+     */
+    private static final ForkJoinPool TRACKER_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("entity-tracker-" + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
     public static int acquireEntityId() {
         return new EntityProtocolInitContextImpl(null).acquire();
     }
@@ -313,7 +335,6 @@ public void remove(LanternEntity entity) {
      * @param players The players
      */
     public void updateTrackers(Set<LanternPlayer> players) {
-        // TODO: Sync the updates in a different thread?
         if (this.pulseCounter++ % UPDATE_RATE != 0) {
             return;
         }
@@ -323,15 +344,36 @@ public void updateTrackers(Set<LanternPlayer> players) {
             removed.destroy(new EntityProtocolInitContextImpl(removed));
         }
 
-        final List<AbstractEntityProtocol.TrackerUpdateContextData> updateContextDataList = new ArrayList<>();
+        // Index all the players by chunk section, so that every entity
+        // only needs to check the players that are within its range
+        final TrackerGrid<LanternPlayer> grid = new TrackerGrid<>();
+        for (LanternPlayer player : players) {
+            grid.add(player, player.getPosition());
+        }
 
-        final Set<AbstractEntityProtocol<?>> protocols = new HashSet<>(this.entityProtocols.values());
-        for (AbstractEntityProtocol<?> protocol : protocols) {
-            synchronized (protocol.trackers) {
-                final AbstractEntityProtocol.TrackerUpdateContextData contextData = protocol.buildUpdateContextData(players);
+        // Process the entities in a fixed order, so that the messages are always sent in the same order
+        final List<AbstractEntityProtocol<?>> protocols = new ArrayList<>(new HashSet<>(this.entityProtocols.values()));
+        protocols.sort(Comparator.comparingInt(AbstractEntityProtocol::getRootEntityId));
+        final List<AbstractEntityProtocol.TrackerUpdateContextData> updateContextDataList = new ArrayList<>();
+        if (protocols.size() < PARALLEL_THRESHOLD) {
+            for (AbstractEntityProtocol<?> protocol : protocols) {
+                final AbstractEntityProtocol.TrackerUpdateContextData contextData = updateTrackers(protocol, grid, false);
+                if (contextData != null) {
+                    updateContextDataList.add(contextData);
+                }
+            }
+        } else {
+            // Every entity protocol only modifies its own state, so the update
+            // messages can be build in parallel, they are sent afterwards on
+            // this thread in the order of the entity protocols
+            final List<Callable<AbstractEntityProtocol.TrackerUpdateContextData>> tasks = new ArrayList<>(protocols.size());
+            for (AbstractEntityProtocol<?> protocol : protocols) {
+                tasks.add(() -> updateTrackers(protocol, grid, true));
+            }
+            for (Future<AbstractEntityProtocol.TrackerUpdateContextData> future : TRACKER_POOL.invokeAll(tasks)) {
+                final AbstractEntityProtocol.TrackerUpdateContextData contextData = Futures.getUnchecked(future);
                 if (contextData != null) {
-                    //noinspection unchecked
-                    protocol.updateTrackers(contextData);
+                    contextData.ctx.flushPendingSends();
                     updateContextDataList.add(contextData);
                 }
             }
@@ -344,6 +386,21 @@ public void updateTrackers(Set<LanternPlayer> players) {
         }
     }
 
+    @Nullable
+    private static AbstractEntityProtocol.TrackerUpdateContextData updateTrackers(
+            AbstractEntityProtocol<?> protocol, TrackerGrid<LanternPlayer> grid, boolean deferSends) {
+        synchronized (protocol.trackers) {
+            final AbstractEntityProtocol.TrackerUpdateContextData contextData = protocol.buildUpdateContextData(grid);
+            if (contextData != null) {
+                if (deferSends) {
+                    contextData.ctx.deferSends();
+                }
+                protocol.updateTrackers(contextData);
+            }
+            return contextData;
+        }
+    }
+
     /**
      * Updates all the localized {@link Text} objects
      * that are used by the entities for the given
@@ -27,6 +27,7 @@
 
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.network.entity.vanilla.ArmorStandEntityProtocol;
 import org.lanternpowered.server.network.entity.vanilla.BatEntityProtocol;
 import org.lanternpowered.server.network.entity.vanilla.ChickenEntityProtocol;
@@ -53,6 +54,7 @@
 import org.lanternpowered.server.network.entity.vanilla.ZombieVillagerEntityProtocol;
 import org.spongepowered.api.CatalogKey;
 
+@ParallelRegistration
 public class EntityProtocolTypeRegistryModule extends DefaultCatalogRegistryModule<EntityProtocolType> {
 
     public EntityProtocolTypeRegistryModule() {
@@ -0,0 +1,201 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.entity;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.GenericMath;
+import com.flowpowered.math.vector.Vector3d;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A grid that indexes objects by the chunk section they are located in,
+ * this allows range lookups without looping through all the objects.
+ * <p>
+ * The grid is build once and can afterwards be queried by multiple
+ * threads, as long as no objects are being added at the same time.
+ *
+ * @param <T> The type of the indexed objects
+ */
+final class TrackerGrid<T> {
+
+    private static final class Entry<T> {
+
+        private final T object;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        private Entry(T object, double x, double y, double z) {
+            this.object = object;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+
+    private static final class Section<T> {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final List<Entry<T>> entries = new ArrayList<>();
+
+        private Section(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+
+    /**
+     * Packs the chunk section coordinates into a long key.
+     *
+     * @param x The x coordinate of the section
+     * @param y The y coordinate of the section
+     * @param z The z coordinate of the section
+     * @return The key
+     */
+    static long key(int x, int y, int z) {
+        return ((long) x & 0x3ffffff) << 38 | ((long) z & 0x3ffffff) << 12 | (y & 0xfff);
+    }
+
+    private final Long2ObjectMap<Section<T>> sections = new Long2ObjectOpenHashMap<>();
+    private final List<Section<T>> sectionList = new ArrayList<>();
+    private final Set<T> objects = new HashSet<>();
+
+    /**
+     * Adds the object at the given position to the grid.
+     *
+     * @param object The object
+     * @param position The position of the object
+     */
+    void add(T object, Vector3d position) {
+        checkNotNull(object, "object");
+        checkNotNull(position, "position");
+        if (!this.objects.add(object)) {
+            return;
+        }
+        final double x = position.getX();
+        final double y = position.getY();
+        final double z = position.getZ();
+        final int sx = GenericMath.floor(x) >> 4;
+        final int sy = GenericMath.floor(y) >> 4;
+        final int sz = GenericMath.floor(z) >> 4;
+        final long key = key(sx, sy, sz);
+        Section<T> section = this.sections.get(key);
+        if (section == null) {
+            section = new Section<>(sx, sy, sz);
+            this.sections.put(key, section);
+            this.sectionList.add(section);
+        }
+        section.entries.add(new Entry<>(object, x, y, z));
+    }
+
+    /**
+     * Gets whether the object is present in this grid.
+     *
+     * @param object The object
+     * @return Whether the object is present
+     */
+    boolean contains(Object object) {
+        return this.objects.contains(object);
+    }
+
+    /**
+     * Gets the amount of objects in this grid.
+     *
+     * @return The size
+     */
+    int size() {
+        return this.objects.size();
+    }
+
+    /**
+     * Applies the consumer to all the objects of which the
+     * distance to the position is less than the range.
+     *
+     * @param position The position
+     * @param range The range
+     * @param consumer The consumer
+     */
+    void forEachInRange(Vector3d position, double range, Consumer<T> consumer) {
+        final double x = position.getX();
+        final double y = position.getY();
+        final double z = position.getZ();
+        final double rangeSquared = range * range;
+
+        final int minX = GenericMath.floor(x - range) >> 4;
+        final int minY = GenericMath.floor(y - range) >> 4;
+        final int minZ = GenericMath.floor(z - range) >> 4;
+        final int maxX = GenericMath.floor(x + range) >> 4;
+        final int maxY = GenericMath.floor(y + range) >> 4;
+        final int maxZ = GenericMath.floor(z + range) >> 4;
+
+        final long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        // If there are less occupied sections than sections within the
+        // range, it's cheaper to loop through the occupied sections
+        if (volume > this.sectionList.size()) {
+            for (Section<T> section : this.sectionList) {
+                if (section.x >= minX && section.x <= maxX &&
+                        section.y >= minY && section.y <= maxY &&
+                        section.z >= minZ && section.z <= maxZ) {
+                    forEachInRange(section.entries, x, y, z, rangeSquared, consumer);
+                }
+            }
+            return;
+        }
+        for (int sx = minX; sx <= maxX; sx++) {
+            for (int sz = minZ; sz <= maxZ; sz++) {
+                for (int sy = minY; sy <= maxY; sy++) {
+                    final Section<T> section = this.sections.get(key(sx, sy, sz));
+                    if (section != null) {
+                        forEachInRange(section.entries, x, y, z, rangeSquared, consumer);
+                    }
+                }
+            }
+        }
+    }
+
+    private static <T> void forEachInRange(List<Entry<T>> entries, double x, double y, double z,
+            double rangeSquared, Consumer<T> consumer) {
+        for (Entry<T> entry : entries) {
+            final double dx = entry.x - x;
+            final double dy = entry.y - y;
+            final double dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz < rangeSquared) {
+                consumer.accept(entry.object);
+            }
+        }
+    }
+}
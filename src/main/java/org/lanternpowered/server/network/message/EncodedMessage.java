@@ -0,0 +1,161 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.message;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.lanternpowered.server.network.pipeline.MessageCompressor;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a {@link Message} of which the opcode and content are
+ * already encoded for a specific {@link ProtocolState}.
+ * <p>
+ * The encoded content can be shared between multiple channels, use
+ * {@link #retainedDuplicate()} to get a instance that can be send to
+ * a different channel without encoding the message again. The compressed
+ * content is shared in the same way, see {@link #getCompressedContent(MessageCompressor)}.
+ */
+public final class EncodedMessage extends AbstractReferenceCountedMessage<ByteBuf> {
+
+    private final ProtocolState state;
+    private final CompressedContent compressedContent;
+
+    /**
+     * Creates a new encoded message.
+     *
+     * @param state The protocol state the content was encoded for
+     * @param content The content, including the opcode
+     */
+    public EncodedMessage(ProtocolState state, ByteBuf content) {
+        this(checkNotNull(state, "state"), checkNotNull(content, "content"), new CompressedContent());
+    }
+
+    private EncodedMessage(ProtocolState state, ByteBuf content, CompressedContent compressedContent) {
+        super(content);
+        this.state = state;
+        this.compressedContent = compressedContent;
+    }
+
+    /**
+     * Gets the {@link ProtocolState} that the content was encoded for.
+     *
+     * @return The protocol state
+     */
+    public ProtocolState getState() {
+        return this.state;
+    }
+
+    /**
+     * Gets the encoded content, including the opcode.
+     *
+     * @return The content
+     */
+    public ByteBuf getContent() {
+        return getRefCounted();
+    }
+
+    /**
+     * Creates a new {@link EncodedMessage} which shares the content
+     * of this message. The reference count of the content will be
+     * increased by one.
+     *
+     * @return The duplicate message
+     */
+    public EncodedMessage retainedDuplicate() {
+        return new EncodedMessage(this.state, getRefCounted().retainedDuplicate(), this.compressedContent);
+    }
+
+    /**
+     * Gets the content compressed with the level of the given {@link MessageCompressor}.
+     * The content is only compressed once, the result is shared between this message and
+     * all its duplicates. The compressor is only used if the content wasn't compressed yet
+     * by a different channel. The reference count of the returned buffer is owned by the
+     * caller.
+     * <p>
+     * {@code null} will be returned if compression doesn't reduce the size
+     * of the content.
+     *
+     * @param compressor The compressor of the channel
+     * @return The compressed content, or {@code null}
+     */
+    @Nullable
+    public ByteBuf getCompressedContent(MessageCompressor compressor) {
+        checkNotNull(compressor, "compressor");
+        return this.compressedContent.get(getRefCounted(), compressor);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("state", this.state)
+                .add("length", getRefCounted().readableBytes())
+                .toString();
+    }
+
+    private static final class CompressedContent {
+
+        private boolean computed;
+        private int level;
+        @Nullable private ByteBuf content;
+
+        @Nullable
+        synchronized ByteBuf get(ByteBuf source, MessageCompressor compressor) {
+            final int level = compressor.getLevel();
+            if (!this.computed) {
+                this.content = compress(source, compressor);
+                this.level = level;
+                this.computed = true;
+            } else if (this.level != level) {
+                // Only the first level is cached, all the channels
+                // are expected to use the same level
+                return compress(source, compressor);
+            }
+            return this.content == null ? null : this.content.retainedDuplicate();
+        }
+
+        @Nullable
+        private static ByteBuf compress(ByteBuf source, MessageCompressor compressor) {
+            final ByteBuf compressed = compressor.compress(PooledByteBufAllocator.DEFAULT, source);
+            if (compressed == null) {
+                return null;
+            }
+            // Copy the content into a unpooled buffer with the exact size, the cached
+            // buffer is never released and will be garbage collected with the message
+            try {
+                return Unpooled.copiedBuffer(compressed);
+            } finally {
+                compressed.release();
+            }
+        }
+    }
+}
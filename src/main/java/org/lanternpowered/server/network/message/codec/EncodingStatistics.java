@@ -0,0 +1,102 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.message.codec;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the amount of {@link org.lanternpowered.server.network.message.Message}s
+ * that are encoded, can be used to verify how many encodings are saved by sharing
+ * encoded messages between channels.
+ */
+public final class EncodingStatistics {
+
+    private static final LongAdder channelEncodings = new LongAdder();
+    private static final LongAdder sharedEncodings = new LongAdder();
+    private static final LongAdder sharedWrites = new LongAdder();
+
+    /**
+     * Is called when a message is encoded for a single channel.
+     */
+    public static void incrementChannelEncodings() {
+        channelEncodings.increment();
+    }
+
+    /**
+     * Is called when a message is encoded once to be shared.
+     */
+    public static void incrementSharedEncodings() {
+        sharedEncodings.increment();
+    }
+
+    /**
+     * Is called when a shared encoded message is written to a channel.
+     */
+    public static void incrementSharedWrites() {
+        sharedWrites.increment();
+    }
+
+    /**
+     * Gets the amount of messages that were encoded for a single channel.
+     *
+     * @return The channel encodings
+     */
+    public static long getChannelEncodings() {
+        return channelEncodings.sum();
+    }
+
+    /**
+     * Gets the amount of messages that were encoded once to be shared.
+     *
+     * @return The shared encodings
+     */
+    public static long getSharedEncodings() {
+        return sharedEncodings.sum();
+    }
+
+    /**
+     * Gets the amount of times that a shared encoded
+     * message was written to a channel.
+     *
+     * @return The shared writes
+     */
+    public static long getSharedWrites() {
+        return sharedWrites.sum();
+    }
+
+    /**
+     * Gets the amount of encodings that were saved by
+     * sharing encoded messages between channels.
+     *
+     * @return The saved encodings
+     */
+    public static long getSavedEncodings() {
+        return Math.max(0, getSharedWrites() - getSharedEncodings());
+    }
+
+    private EncodingStatistics() {
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.message.codec;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.lanternpowered.server.network.buffer.LanternByteBuffer.writeVarInt;
+
+import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.EncoderException;
+import org.lanternpowered.server.network.NetworkSession;
+import org.lanternpowered.server.network.buffer.ByteBuffer;
+import org.lanternpowered.server.network.buffer.ByteBufferAllocator;
+import org.lanternpowered.server.network.buffer.LanternByteBuffer;
+import org.lanternpowered.server.network.buffer.contextual.ContextualValueType;
+import org.lanternpowered.server.network.message.CodecRegistration;
+import org.lanternpowered.server.network.message.EncodedMessage;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.MessageRegistration;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A encoder that can be used to encode {@link Message}s outside of a channel
+ * pipeline, the resulting {@link EncodedMessage}s can be shared between all
+ * the channels that are in the same {@link ProtocolState}.
+ * <p>
+ * Only messages that don't depend on the target session can be encoded, a
+ * {@link EncoderException} will be thrown if the codec attempts to access the
+ * session or if the message has to be processed first.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public final class SharedMessageEncoder {
+
+    // All the message types that failed to be encoded as a shared message, per protocol state
+    private static final Map<ProtocolState, Set<Class<?>>> unsharableTypes = new EnumMap<>(ProtocolState.class);
+
+    static {
+        for (ProtocolState state : ProtocolState.values()) {
+            unsharableTypes.put(state, Sets.newConcurrentHashSet());
+        }
+    }
+
+    /**
+     * Attempts to encode the {@link Message} for the given {@link ProtocolState}. If
+     * the message cannot be shared, because it needs to be processed first or because
+     * it depends on the target session (for example localized text), {@code null} will
+     * be returned and the message should be encoded per channel instead.
+     * <p>
+     * The message types that fail once will be skipped for following attempts.
+     *
+     * @param state The protocol state
+     * @param message The message
+     * @return The encoded message, or {@code null} if the message cannot be shared
+     */
+    @Nullable
+    public static EncodedMessage tryEncode(ProtocolState state, Message message) {
+        checkNotNull(state, "state");
+        checkNotNull(message, "message");
+        final Set<Class<?>> unsharable = unsharableTypes.get(state);
+        if (unsharable.contains(message.getClass())) {
+            return null;
+        }
+        try {
+            return encode(state, message);
+        } catch (EncoderException e) {
+            // This only happens once for every message type
+            unsharable.add(message.getClass());
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the {@link Message} for the given {@link ProtocolState}.
+     *
+     * @param state The protocol state
+     * @param message The message
+     * @return The encoded message
+     * @throws EncoderException If the message couldn't be encoded
+     */
+    public static EncodedMessage encode(ProtocolState state, Message message) throws EncoderException {
+        checkNotNull(state, "state");
+        checkNotNull(message, "message");
+        final MessageRegistration<Message> registration = (MessageRegistration<Message>) state.getProtocol().outbound()
+                .findByMessageType(message.getClass()).orElse(null);
+        if (registration == null) {
+            throw new EncoderException("Message type (" + message.getClass().getName() + ") is not registered in state " + state + "!");
+        }
+        if (!registration.getProcessors().isEmpty()) {
+            throw new EncoderException("Message type (" + message.getClass().getName() + ") needs to be processed and cannot be shared!");
+        }
+        final CodecRegistration codecRegistration = registration.getCodecRegistration().orElse(null);
+        if (codecRegistration == null) {
+            throw new EncoderException("Message type (" + message.getClass().getName() + ") is not registered to allow encoding!");
+        }
+        final SharedCodecContext context = new SharedCodecContext(ByteBufferAllocator.pooled());
+        final LanternByteBuffer content;
+        try {
+            content = (LanternByteBuffer) codecRegistration.getCodec().encode(context, message);
+        } catch (Throwable t) {
+            // Don't leak the buffers that were being written
+            context.releaseBuffers();
+            throw t;
+        }
+        final ByteBuf opcode = PooledByteBufAllocator.DEFAULT.buffer(5);
+        writeVarInt(opcode, codecRegistration.getOpcode());
+        EncodingStatistics.incrementSharedEncodings();
+        return new EncodedMessage(state, Unpooled.wrappedBuffer(opcode, content.getDelegate()));
+    }
+
+    /**
+     * A {@link CodecContext} that keeps track of all the {@link ByteBuffer}s
+     * that are allocated through it, so they can be released if the encoding fails.
+     */
+    private static final class SharedCodecContext implements CodecContext, ByteBufferAllocator {
+
+        private final ByteBufferAllocator byteBufferAlloc;
+        private final List<ByteBuffer> buffers = new ArrayList<>(1);
+
+        SharedCodecContext(ByteBufferAllocator byteBufferAlloc) {
+            this.byteBufferAlloc = byteBufferAlloc;
+        }
+
+        private ByteBuffer track(ByteBuffer buffer) {
+            this.buffers.add(buffer);
+            return buffer;
+        }
+
+        /**
+         * Releases all the allocated {@link ByteBuffer}s that
+         * weren't released by the codec itself.
+         */
+        void releaseBuffers() {
+            for (ByteBuffer buffer : this.buffers) {
+                if (buffer.refCnt() > 0) {
+                    buffer.release(buffer.refCnt());
+                }
+            }
+            this.buffers.clear();
+        }
+
+        @Override
+        public ByteBufferAllocator byteBufAlloc() {
+            return this;
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return track(this.byteBufferAlloc.buffer());
+        }
+
+        @Override
+        public ByteBuffer buffer(int initialCapacity) {
+            return track(this.byteBufferAlloc.buffer(initialCapacity));
+        }
+
+        @Override
+        public ByteBuffer heapBuffer() {
+            return track(this.byteBufferAlloc.heapBuffer());
+        }
+
+        @Override
+        public ByteBuffer heapBuffer(int initialCapacity) {
+            return track(this.byteBufferAlloc.heapBuffer(initialCapacity));
+        }
+
+        @Override
+        public ByteBuffer directBuffer() {
+            return track(this.byteBufferAlloc.directBuffer());
+        }
+
+        @Override
+        public ByteBuffer directBuffer(int initialCapacity) {
+            return track(this.byteBufferAlloc.directBuffer(initialCapacity));
+        }
+
+        @Override
+        public ByteBuffer wrappedBuffer(byte[] byteArray) {
+            return this.byteBufferAlloc.wrappedBuffer(byteArray);
+        }
+
+        @Override
+        public <V> void write(ByteBuffer buffer, ContextualValueType<V> type, V value) {
+            type.write(this, value, buffer);
+        }
+
+        @Override
+        public <V> V read(ByteBuffer buffer, ContextualValueType<V> type) {
+            return type.read(this, buffer);
+        }
+
+        @Override
+        public NetworkSession getSession() {
+            throw new EncoderException("A shared message cannot depend on the session.");
+        }
+
+        @Override
+        public Channel getChannel() {
+            throw new EncoderException("A shared message cannot depend on the channel.");
+        }
+    }
+
+    private SharedMessageEncoder() {
+    }
+}
@@ -31,22 +31,26 @@
 import com.google.common.collect.Sets;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToMessageCodec;
 import io.netty.util.ReferenceCountUtil;
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.network.NetworkSession;
 import org.lanternpowered.server.network.buffer.ByteBuffer;
 import org.lanternpowered.server.network.buffer.LanternByteBuffer;
 import org.lanternpowered.server.network.message.BulkMessage;
 import org.lanternpowered.server.network.message.CodecRegistration;
+import org.lanternpowered.server.network.message.EncodedMessage;
 import org.lanternpowered.server.network.message.HandlerMessage;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.message.MessageRegistration;
 import org.lanternpowered.server.network.message.UnknownMessage;
 import org.lanternpowered.server.network.message.codec.Codec;
 import org.lanternpowered.server.network.message.codec.CodecContext;
+import org.lanternpowered.server.network.message.codec.EncodingStatistics;
 import org.lanternpowered.server.network.message.handler.Handler;
 import org.lanternpowered.server.network.message.processor.Processor;
 import org.lanternpowered.server.network.protocol.Protocol;
@@ -67,6 +71,10 @@ public MessageCodecHandler(CodecContext codecContext) {
 
     @Override
     protected void encode(ChannelHandlerContext ctx, Message message, List<Object> output) {
+        if (message instanceof EncodedMessage) {
+            encodeShared(ctx, (EncodedMessage) message, output);
+            return;
+        }
         final Protocol protocol = this.codecContext.getSession().getProtocol();
         final MessageRegistration<Message> registration = (MessageRegistration<Message>) protocol.outbound()
                 .findByMessageType(message.getClass()).orElse(null);
@@ -91,11 +99,32 @@ protected void encode(ChannelHandlerContext ctx, Message message, List<Object> o
         } finally {
             ReferenceCountUtil.release(message);
         }
+        EncodingStatistics.incrementChannelEncodings();
 
         // Add the buffer to the output
         output.add(Unpooled.wrappedBuffer(opcode, content.getDelegate()));
     }
 
+    private void encodeShared(ChannelHandlerContext ctx, EncodedMessage message, List<Object> output) {
+        try {
+            final ProtocolState state = this.codecContext.getSession().getProtocolState();
+            if (message.getState() != state) {
+                throw new EncoderException("Encoded message for state " + message.getState() +
+                        " cannot be send in state " + state + "!");
+            }
+            // The content is shared between channels, so don't modify the original buffer,
+            // the compressed content can also be shared if compression is enabled
+            final ChannelHandler compression = ctx.pipeline().get(NetworkSession.COMPRESSION);
+            if (compression instanceof MessageCompressionHandler) {
+                output.add(((MessageCompressionHandler) compression).encodeShared(message));
+            } else {
+                output.add(message.getContent().retainedDuplicate());
+            }
+        } finally {
+            ReferenceCountUtil.release(message);
+        }
+    }
+
     private static final Set<Integer> warnedMissingOpcodes = Sets.newConcurrentHashSet();
 
     @Override
@@ -54,63 +54,108 @@
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderException;
-import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToMessageCodec;
+import org.lanternpowered.server.network.message.EncodedMessage;
 
 import java.util.List;
 import java.util.zip.Deflater;
-import java.util.zip.Inflater;
 
-public final class MessageCompressionHandler extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+/**
+ * Compresses outgoing and decompresses incoming messages.
+ * <p>
+ * The compression is done by a {@link MessageCompressor} that is owned by
+ * the channel, it reuses its buffers and doesn't need any intermediate
+ * byte arrays. The content of {@link EncodedMessage}s is only compressed once
+ * and shared between all the channels, see {@link #encodeShared(EncodedMessage)}.
+ */
+public final class MessageCompressionHandler extends MessageToMessageCodec<ByteBuf, Object> {
 
-    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
-    private final Inflater inflater = new Inflater();
+    /**
+     * The maximum size of a decompressed message, larger messages are rejected.
+     */
+    public static final int MAX_DECOMPRESSED_SIZE = 2097152;
 
+    private final MessageCompressor compressor;
     private final int compressionThreshold;
 
     public MessageCompressionHandler(int compressionThreshold) {
+        this(compressionThreshold, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public MessageCompressionHandler(int compressionThreshold, int compressionLevel) {
+        this.compressor = new MessageCompressor(compressionLevel);
         this.compressionThreshold = compressionThreshold;
     }
 
+    /**
+     * Gets the compression threshold, messages that are smaller
+     * than the threshold will not be compressed.
+     *
+     * @return The compression threshold
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Gets the compression level.
+     *
+     * @return The compression level
+     */
+    public int getCompressionLevel() {
+        return this.compressor.getLevel();
+    }
+
+    /**
+     * Gets the content of the {@link EncodedMessage} that should be passed
+     * to this handler. The compressed content is cached by the message, so
+     * it only needs to be compressed once for all the channels.
+     *
+     * @param message The encoded message
+     * @return The content
+     */
+    Object encodeShared(EncodedMessage message) {
+        final ByteBuf content = message.getContent();
+        final int length = content.readableBytes();
+        if (length < this.compressionThreshold) {
+            return content.retainedDuplicate();
+        }
+        final ByteBuf compressed = message.getCompressedContent(this.compressor);
+        if (compressed == null) {
+            // Compression increased the size, send it uncompressed
+            return new PrecompressedContent(content.retainedDuplicate(), 0);
+        }
+        return new PrecompressedContent(compressed, length);
+    }
+
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof ByteBuf || msg instanceof PrecompressedContent;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) {
         final ByteBuf prefixBuf = ctx.alloc().buffer(5);
         final ByteBuf contentsBuf;
 
-        if (msg.readableBytes() >= this.compressionThreshold) {
-            // Message should be compressed
-            final int index = msg.readerIndex();
-            final int length = msg.readableBytes();
-
-            final byte[] sourceData = new byte[length];
-            msg.readBytes(sourceData);
-            this.deflater.setInput(sourceData);
-            this.deflater.finish();
-
-            final byte[] compressedData = new byte[length];
-            final int compressedLength = this.deflater.deflate(compressedData);
-            this.deflater.reset();
-
-            if (compressedLength == 0) {
-                // Compression failed in some weird way
-                throw new EncoderException("Failed to compress message of size " + length);
-            } else if (compressedLength >= length) {
-                // Compression increased the size. threshold is probably too low
-                // Send as an uncompressed packet
-                writeVarInt(prefixBuf, 0);
-                msg.readerIndex(index);
-                msg.retain();
-                contentsBuf = msg;
-            } else {
-                // All is well
+        if (msg instanceof PrecompressedContent) {
+            // Already compressed, just write the prefix
+            final PrecompressedContent content = (PrecompressedContent) msg;
+            writeVarInt(prefixBuf, content.getUncompressedLength());
+            contentsBuf = content.content().retain();
+        } else {
+            final ByteBuf buf = (ByteBuf) msg;
+            final int length = buf.readableBytes();
+            final ByteBuf compressed = length >= this.compressionThreshold ? this.compressor.compress(ctx.alloc(), buf) : null;
+            if (compressed != null) {
                 writeVarInt(prefixBuf, length);
-                contentsBuf = Unpooled.wrappedBuffer(compressedData, 0, compressedLength);
+                contentsBuf = compressed;
+            } else {
+                // Message is below the threshold or compression increased
+                // the size, send it as an uncompressed message
+                writeVarInt(prefixBuf, 0);
+                contentsBuf = buf.retain();
             }
-        } else {
-            // Message should be sent through
-            writeVarInt(prefixBuf, 0);
-            msg.retain();
-            contentsBuf = msg;
         }
 
         out.add(Unpooled.wrappedBuffer(prefixBuf, contentsBuf));
@@ -132,27 +177,35 @@ protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out)
             buf.retain(); // Retain the sliced buffer, otherwise will MessageToMessageCodec clean it up
             out.add(buf);
         } else {
+            if (uncompressedSize > MAX_DECOMPRESSED_SIZE) {
+                throw new DecoderException(String.format("Received compressed message of size %s greater than the maximum %s",
+                        uncompressedSize, MAX_DECOMPRESSED_SIZE));
+            }
             // Message is compressed
-            final byte[] sourceData = new byte[msg.readableBytes()];
-            msg.readBytes(sourceData);
-            this.inflater.setInput(sourceData);
-
-            final byte[] destData = new byte[uncompressedSize];
-            final int resultLength = this.inflater.inflate(destData);
-            this.inflater.reset();
+            final ByteBuf buf = this.compressor.decompress(ctx.alloc(), msg, uncompressedSize);
+            final int resultLength = buf.readableBytes();
 
             if (resultLength == 0) {
+                buf.release();
                 // Might be a leftover from before compression was enabled (no compression header)
                 // UncompressedSize is likely to be < threshold
                 msg.readerIndex(index);
                 msg.retain();
                 out.add(msg);
             } else if (resultLength != uncompressedSize) {
+                buf.release();
                 throw new DecoderException("Received compressed message claiming to be of size "
                         + uncompressedSize + " but actually " + resultLength);
             } else {
-                out.add(Unpooled.wrappedBuffer(destData));
+                out.add(buf);
             }
         }
     }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        super.handlerRemoved(ctx);
+        // Free the native resources of the deflater and inflater
+        this.compressor.release();
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compresses and decompresses the content of messages with zlib.
+ * <p>
+ * The results are written directly into the backing array of pooled heap
+ * buffers, the content of heap buffers is passed directly to the deflater
+ * or inflater. Only direct and composite buffers need to be copied, into a
+ * scratch array that is reused.
+ * <p>
+ * This class isn't thread safe, every channel has its own compressor.
+ */
+public final class MessageCompressor {
+
+    private static void checkLevel(int level) {
+        checkArgument(level == Deflater.DEFAULT_COMPRESSION || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "Invalid compression level: %s", level);
+    }
+
+    private final int level;
+    private final Deflater deflater;
+    private final Inflater inflater = new Inflater();
+
+    // The scratch array for content that isn't backed by a array
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Constructs a new {@link MessageCompressor} for the given compression level.
+     *
+     * @param level The compression level
+     */
+    public MessageCompressor(int level) {
+        checkLevel(level);
+        this.level = level;
+        this.deflater = new Deflater(level);
+    }
+
+    /**
+     * Gets the compression level.
+     *
+     * @return The compression level
+     */
+    public int getLevel() {
+        return this.level;
+    }
+
+    private byte[] copyToScratch(ByteBuf source, int length) {
+        if (this.scratch.length < length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length << 1)];
+        }
+        source.getBytes(source.readerIndex(), this.scratch, 0, length);
+        return this.scratch;
+    }
+
+    /**
+     * Compresses the readable bytes of the source buffer, the reader
+     * index of the source will not be modified.
+     * <p>
+     * {@code null} will be returned if the compressed content wouldn't be
+     * smaller than the original content.
+     *
+     * @param alloc The allocator for the compressed buffer
+     * @param source The source buffer
+     * @return The compressed buffer, or {@code null}
+     */
+    @Nullable
+    public ByteBuf compress(ByteBufAllocator alloc, ByteBuf source) {
+        final int length = source.readableBytes();
+        if (source.hasArray()) {
+            this.deflater.setInput(source.array(), source.arrayOffset() + source.readerIndex(), length);
+        } else {
+            this.deflater.setInput(copyToScratch(source, length), 0, length);
+        }
+        this.deflater.finish();
+        // Only a result that is smaller than the original is useful
+        final ByteBuf dest = alloc.heapBuffer(length);
+        final byte[] output = dest.array();
+        final int offset = dest.arrayOffset() + dest.writerIndex();
+        int written = 0;
+        try {
+            while (!this.deflater.finished() && written < length) {
+                written += this.deflater.deflate(output, offset + written, length - written);
+            }
+            if (!this.deflater.finished()) {
+                dest.release();
+                return null;
+            }
+        } catch (Throwable t) {
+            dest.release();
+            throw t;
+        } finally {
+            this.deflater.reset();
+        }
+        dest.writerIndex(dest.writerIndex() + written);
+        return dest;
+    }
+
+    /**
+     * Decompresses the readable bytes of the source buffer. The resulting buffer
+     * may contain less bytes than the expected size if the content was invalid.
+     *
+     * @param alloc The allocator for the decompressed buffer
+     * @param source The source buffer
+     * @param size The expected decompressed size
+     * @return The decompressed buffer
+     * @throws DataFormatException If the content is invalid
+     */
+    public ByteBuf decompress(ByteBufAllocator alloc, ByteBuf source, int size) throws DataFormatException {
+        final int length = source.readableBytes();
+        if (source.hasArray()) {
+            this.inflater.setInput(source.array(), source.arrayOffset() + source.readerIndex(), length);
+        } else {
+            this.inflater.setInput(copyToScratch(source, length), 0, length);
+        }
+        final ByteBuf dest = alloc.heapBuffer(size, size);
+        final byte[] output = dest.array();
+        final int offset = dest.arrayOffset() + dest.writerIndex();
+        int read = 0;
+        try {
+            while (read < size && !this.inflater.finished()) {
+                final int count = this.inflater.inflate(output, offset + read, size - read);
+                if (count == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+        } catch (Throwable t) {
+            dest.release();
+            throw t;
+        } finally {
+            this.inflater.reset();
+        }
+        source.skipBytes(length);
+        dest.writerIndex(dest.writerIndex() + read);
+        return dest;
+    }
+
+    /**
+     * Releases the native resources of this compressor, it
+     * can no longer be used afterwards.
+     */
+    public void release() {
+        this.deflater.end();
+        this.inflater.end();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * A handler that counts the messages and bytes that are written to the
+ * channel, and the flushes that are issued. Messages that are written
+ * without being flushed will be flushed once the byte budget is exceeded.
+ * <p>
+ * This handler should be the first one of the pipeline, so that
+ * the final size of every message is known.
+ */
+public final class MessageFlushHandler extends ChannelOutboundHandlerAdapter {
+
+    private final int byteBudget;
+
+    // The counters are only modified by the event loop
+    private volatile long writes;
+    private volatile long bytes;
+    private volatile long flushes;
+
+    private int pendingWrites;
+    private int pendingBytes;
+
+    public MessageFlushHandler(int byteBudget) {
+        this.byteBudget = byteBudget;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            final int size = ((ByteBuf) msg).readableBytes();
+            this.bytes += size;
+            this.pendingBytes += size;
+        }
+        this.writes++;
+        this.pendingWrites++;
+        ctx.write(msg, promise);
+        if (this.pendingBytes >= this.byteBudget) {
+            flush(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        // Only count the flushes that actually write something
+        if (this.pendingWrites > 0) {
+            this.flushes++;
+            this.pendingWrites = 0;
+            this.pendingBytes = 0;
+        }
+        ctx.flush();
+    }
+
+    /**
+     * Gets the total amount of messages that were written.
+     *
+     * @return The writes
+     */
+    public long getWrites() {
+        return this.writes;
+    }
+
+    /**
+     * Gets the total amount of bytes that were written.
+     *
+     * @return The bytes
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Gets the total amount of flushes that wrote messages.
+     *
+     * @return The flushes
+     */
+    public long getFlushes() {
+        return this.flushes;
+    }
+}
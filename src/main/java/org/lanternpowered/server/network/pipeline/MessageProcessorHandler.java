@@ -30,6 +30,7 @@
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.EncoderException;
 import io.netty.util.ReferenceCountUtil;
+import org.lanternpowered.server.network.message.EncodedMessage;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.message.MessageRegistration;
 import org.lanternpowered.server.network.message.UnknownMessage;
@@ -59,6 +60,11 @@ public void write(ChannelHandlerContext ctx, Object msg0, ChannelPromise promise
         if (msg == UnknownMessage.INSTANCE) {
             return;
         }
+        // Already encoded messages cannot be processed
+        if (msg instanceof EncodedMessage) {
+            ctx.write(msg, promise);
+            return;
+        }
         final Protocol protocol = this.codecContext.getSession().getProtocol();
         final MessageRegistration registration = protocol.outbound().findByMessageType(msg.getClass()).orElse(null);
         // There must be a registration
@@ -0,0 +1,59 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * Content that is already compressed, the {@link MessageCompressionHandler}
+ * only needs to prepend the uncompressed length.
+ */
+final class PrecompressedContent extends DefaultByteBufHolder {
+
+    private final int uncompressedLength;
+
+    /**
+     * Constructs a new {@link PrecompressedContent}.
+     *
+     * @param content The compressed content
+     * @param uncompressedLength The uncompressed length, or {@code 0} if the content isn't compressed
+     */
+    PrecompressedContent(ByteBuf content, int uncompressedLength) {
+        super(content);
+        this.uncompressedLength = uncompressedLength;
+    }
+
+    /**
+     * Gets the uncompressed length of the content, {@code 0}
+     * if the content isn't compressed.
+     *
+     * @return The uncompressed length
+     */
+    int getUncompressedLength() {
+        return this.uncompressedLength;
+    }
+}
@@ -26,10 +26,12 @@
 package org.lanternpowered.server.network.tile;
 
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.network.tile.vanilla.BannerTileEntityProtocol;
 import org.lanternpowered.server.network.tile.vanilla.SignTileEntityProtocol;
 import org.spongepowered.api.CatalogKey;
 
+@ParallelRegistration
 public class TileEntityProtocolTypeRegistryModule extends DefaultCatalogRegistryModule<TileEntityProtocolType> {
 
     public TileEntityProtocolTypeRegistryModule() {
@@ -35,6 +35,8 @@
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.DataView;
 
+import javax.annotation.Nullable;
+
 public final class CodecPlayOutChunkData implements Codec<MessagePlayOutChunkData> {
 
     private final static DataQuery X = DataQuery.of("x");
@@ -66,30 +68,13 @@ public ByteBuffer encode(CodecContext context, MessagePlayOutChunkData message)
             }
             sectionBitmask |= 1 << i;
             final MessagePlayOutChunkData.Section section = sections[i];
-            final VariableValueArray types = section.getTypes();
-            dataBuf.writeByte((byte) types.getBitsPerValue());
-            final int[] palette = section.getPalette();
-            if (palette != null) {
-                dataBuf.writeVarInt(palette.length);
-                for (int value : palette) {
-                    dataBuf.writeVarInt(value);
-                }
+            final ByteBuffer data = section.getData();
+            if (data != null) {
+                // Don't modify the reader index of the shared buffer
+                dataBuf.writeBytes(data.slice());
             } else {
-                // Using global palette
-                dataBuf.writeVarInt(0);
-            }
-            final long[] backing = types.getBacking();
-            dataBuf.writeVarInt(backing.length);
-            final byte[] blockLight = section.getBlockLight();
-            final byte[] skyLight = section.getSkyLight();
-            dataBuf.ensureWritable(backing.length * 8 + blockLight.length +
-                    (skyLight != null ? skyLight.length : 0));
-            for (long value : backing) {
-                dataBuf.writeLong(value);
-            }
-            dataBuf.writeBytes(blockLight);
-            if (skyLight != null) {
-                dataBuf.writeBytes(skyLight);
+                //noinspection ConstantConditions
+                writeSectionData(dataBuf, section.getTypes(), section.getPalette(), section.getBlockLight(), section.getSkyLight());
             }
             final Short2ObjectMap<DataView> tileEntities = section.getTileEntities();
             if (!tileEntities.isEmpty() && tileEntitiesBuf == null) {
@@ -131,4 +116,38 @@ public ByteBuffer encode(CodecContext context, MessagePlayOutChunkData message)
         return buf;
     }
 
+    /**
+     * Writes the block and light data of a chunk section to
+     * the {@link ByteBuffer}.
+     *
+     * @param buf The byte buffer
+     * @param types The block types
+     * @param palette The palette, or {@code null} if the global palette is used
+     * @param blockLight The block light
+     * @param skyLight The sky light, or {@code null} if not present
+     */
+    public static void writeSectionData(ByteBuffer buf, VariableValueArray types, @Nullable int[] palette,
+            byte[] blockLight, @Nullable byte[] skyLight) {
+        buf.writeByte((byte) types.getBitsPerValue());
+        if (palette != null) {
+            buf.writeVarInt(palette.length);
+            for (int value : palette) {
+                buf.writeVarInt(value);
+            }
+        } else {
+            // Using global palette
+            buf.writeVarInt(0);
+        }
+        final long[] backing = types.getBacking();
+        buf.writeVarInt(backing.length);
+        buf.ensureWritable(backing.length * 8 + blockLight.length +
+                (skyLight != null ? skyLight.length : 0));
+        for (long value : backing) {
+            buf.writeLong(value);
+        }
+        buf.writeBytes(blockLight);
+        if (skyLight != null) {
+            buf.writeBytes(skyLight);
+        }
+    }
 }
@@ -44,11 +44,12 @@ public final class HandlerLoginFinish implements Handler<MessageLoginInFinish> {
     public void handle(NetworkContext context, MessageLoginInFinish message) {
         final LanternGameProfile gameProfile = message.getGameProfile();
         final NetworkSession session = context.getSession();
-        int compressionThreshold = Lantern.getGame().getGlobalConfig().getNetworkCompressionThreshold();
+        final int compressionThreshold = Lantern.getGame().getGlobalConfig().getNetworkCompressionThreshold();
+        final int compressionLevel = Lantern.getGame().getGlobalConfig().getNetworkCompressionLevel();
         if (compressionThreshold != -1) {
             session.sendWithFuture(new MessageLoginOutSetCompression(compressionThreshold)).addListener(future ->
                     context.getChannel().pipeline().replace(NetworkSession.COMPRESSION, NetworkSession.COMPRESSION,
-                            new MessageCompressionHandler(compressionThreshold)));
+                            new MessageCompressionHandler(compressionThreshold, compressionLevel)));
         } else {
             // Remove the compression handler placeholder
             context.getChannel().pipeline().remove(NetworkSession.COMPRESSION);
@@ -29,6 +29,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import org.lanternpowered.server.network.buffer.ByteBuffer;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.util.collect.array.VariableValueArray;
 import org.spongepowered.api.data.DataView;
@@ -47,7 +48,7 @@ public MessagePlayOutChunkData(int x, int z, boolean skylight, Section[] section
         checkNotNull(sections, "sections");
         for (Section section : sections) {
             if (section != null) {
-                checkArgument((section.skyLight != null) == skylight,
+                checkArgument(section.hasSkyLight == skylight,
                         "Skylight must be present in every section if skylight is to true, and absent if false.");
             }
         }
@@ -83,21 +84,44 @@ public byte[] getBiomes() {
      */
     public static class Section {
 
-        private final VariableValueArray types;
+        @Nullable private final VariableValueArray types;
         @Nullable private final int[] palette;
-        private final byte[] blockLight;
+        @Nullable private final byte[] blockLight;
         @Nullable private final byte[] skyLight;
+        @Nullable private final ByteBuffer data;
         private final Short2ObjectMap<DataView> tileEntities;
+        private final boolean hasSkyLight;
 
         public Section(VariableValueArray types, @Nullable int[] palette, byte[] blockLight, @Nullable byte[] skyLight,
                 Short2ObjectMap<DataView> tileEntities) {
             this.tileEntities = tileEntities;
+            this.hasSkyLight = skyLight != null;
             this.blockLight = blockLight;
             this.skyLight = skyLight;
             this.palette = palette;
             this.types = types;
+            this.data = null;
         }
 
+        /**
+         * Creates a new section of which the block and light data is already
+         * encoded, the data buffer won't be released by the message.
+         *
+         * @param data The encoded block and light data
+         * @param skyLight Whether the encoded data contains sky light
+         * @param tileEntities The tile entities
+         */
+        public Section(ByteBuffer data, boolean skyLight, Short2ObjectMap<DataView> tileEntities) {
+            this.tileEntities = tileEntities;
+            this.hasSkyLight = skyLight;
+            this.data = data;
+            this.blockLight = null;
+            this.skyLight = null;
+            this.palette = null;
+            this.types = null;
+        }
+
+        @Nullable
         public byte[] getBlockLight() {
             return this.blockLight;
         }
@@ -107,6 +131,11 @@ public byte[] getSkyLight() {
             return this.skyLight;
         }
 
+        public boolean hasSkyLight() {
+            return this.hasSkyLight;
+        }
+
+        @Nullable
         public VariableValueArray getTypes() {
             return this.types;
         }
@@ -116,6 +145,16 @@ public int[] getPalette() {
             return this.palette;
         }
 
+        /**
+         * Gets the already encoded block and light data, if present.
+         *
+         * @return The encoded data
+         */
+        @Nullable
+        public ByteBuffer getData() {
+            return this.data;
+        }
+
         public Short2ObjectMap<DataView> getTileEntities() {
             return this.tileEntities;
         }
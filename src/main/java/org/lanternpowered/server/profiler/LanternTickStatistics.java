@@ -0,0 +1,148 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.profiler;
+
+import org.lanternpowered.api.profiler.TickStatistics;
+import org.lanternpowered.server.game.LanternGame;
+
+/**
+ * The {@link TickStatistics} of the server thread, which are
+ * always recorded, only two {@link System#nanoTime()} calls per tick.
+ */
+public final class LanternTickStatistics implements TickStatistics {
+
+    private static final int WINDOW_SIZE = LanternGame.TICKS_PER_SECOND * 60;
+
+    private static final double[] HISTOGRAM_BOUNDS = { 5, 10, 20, 30, 40, 50, 75, 100, 200, 500 };
+
+    private final long[] tickStarts = new long[WINDOW_SIZE];
+    private final long[] tickTimes = new long[WINDOW_SIZE];
+
+    // The total amount of recorded ticks
+    private volatile int ticks;
+
+    /**
+     * Records a tick, may only be called by the server thread.
+     *
+     * @param start The start time of the tick, in nanoseconds
+     * @param end The end time of the tick, in nanoseconds
+     */
+    public void record(long start, long end) {
+        final int index = this.ticks % WINDOW_SIZE;
+        this.tickStarts[index] = start;
+        this.tickTimes[index] = end - start;
+        this.ticks++;
+    }
+
+    @Override
+    public int getWindowSize() {
+        return WINDOW_SIZE;
+    }
+
+    @Override
+    public int getSampleCount() {
+        return Math.min(this.ticks, WINDOW_SIZE);
+    }
+
+    @Override
+    public double getTicksPerSecond() {
+        final int ticks = this.ticks;
+        final int count = Math.min(ticks, WINDOW_SIZE);
+        if (count < 2) {
+            return LanternGame.TICKS_PER_SECOND;
+        }
+        final long oldest = this.tickStarts[(ticks - count) % WINDOW_SIZE];
+        final long newest = this.tickStarts[(ticks - 1) % WINDOW_SIZE];
+        if (newest <= oldest) {
+            return LanternGame.TICKS_PER_SECOND;
+        }
+        final double tps = (count - 1) * 1000000000.0 / (newest - oldest);
+        return Math.min(tps, LanternGame.TICKS_PER_SECOND);
+    }
+
+    @Override
+    public double getAverageTickTime() {
+        final int count = getSampleCount();
+        if (count == 0) {
+            return 0.0;
+        }
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            total += this.tickTimes[i];
+        }
+        return (total / (double) count) / 1000000.0;
+    }
+
+    /**
+     * Gets the average tick time of the most recent
+     * ticks, in milliseconds.
+     *
+     * @param ticks The maximum amount of ticks to include
+     * @return The average tick time
+     */
+    public double getRecentAverageTickTime(int ticks) {
+        final int total = this.ticks;
+        final int count = Math.min(Math.min(total, WINDOW_SIZE), ticks);
+        if (count <= 0) {
+            return 0.0;
+        }
+        long time = 0L;
+        for (int i = 1; i <= count; i++) {
+            time += this.tickTimes[(total - i) % WINDOW_SIZE];
+        }
+        return (time / (double) count) / 1000000.0;
+    }
+
+    @Override
+    public double getMaxTickTime() {
+        final int count = getSampleCount();
+        long max = 0L;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, this.tickTimes[i]);
+        }
+        return max / 1000000.0;
+    }
+
+    @Override
+    public double[] getTickTimeHistogramBounds() {
+        return HISTOGRAM_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getTickTimeHistogram() {
+        final long[] histogram = new long[HISTOGRAM_BOUNDS.length + 1];
+        final int count = getSampleCount();
+        for (int i = 0; i < count; i++) {
+            final double time = this.tickTimes[i] / 1000000.0;
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BOUNDS.length && time >= HISTOGRAM_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+        }
+        return histogram;
+    }
+}
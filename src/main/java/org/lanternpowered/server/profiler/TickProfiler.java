@@ -0,0 +1,229 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.profiler;
+
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The built-in tick profiler.
+ * <p>
+ * The profiler is disabled by default, in that case {@link #start()} will
+ * return {@code 0} and all the recording calls will return immediately, so
+ * the instrumentation costs nothing more than a volatile read.
+ */
+public final class TickProfiler {
+
+    private static final List<TickRecorder> recorders = new CopyOnWriteArrayList<>();
+    private static final Map<String, PluginTimings> pluginTimings = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+    private static volatile int generation;
+    private static volatile long enableTime;
+
+    /**
+     * Gets whether the profiler is enabled.
+     *
+     * @return Is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables the profiler, all the previously recorded times will be cleared.
+     */
+    public static void enable() {
+        pluginTimings.clear();
+        generation++;
+        enableTime = System.nanoTime();
+        enabled = true;
+    }
+
+    /**
+     * Disables the profiler, the recorded times will remain available.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the time that the profiler has been enabled, in nanoseconds.
+     *
+     * @return The profiling time
+     */
+    public static long getProfilingTime() {
+        return enableTime == 0L ? 0L : System.nanoTime() - enableTime;
+    }
+
+    /**
+     * Gets the start time of a section that should be profiled, or
+     * {@code 0} if the profiler is disabled.
+     *
+     * @return The start time
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Creates a new {@link TickRecorder} for the given name, the
+     * recorder should be used by a single thread.
+     *
+     * @param name The name
+     * @return The tick recorder
+     */
+    public static TickRecorder createRecorder(String name) {
+        final TickRecorder recorder = new TickRecorder(name);
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Removes the {@link TickRecorder}.
+     *
+     * @param recorder The tick recorder
+     */
+    public static void removeRecorder(TickRecorder recorder) {
+        recorders.remove(recorder);
+    }
+
+    /**
+     * Gets all the {@link TickRecorder}s.
+     *
+     * @return The tick recorders
+     */
+    public static Collection<TickRecorder> getRecorders() {
+        return Collections.unmodifiableList(recorders);
+    }
+
+    /**
+     * Records the time that was spent in a event
+     * listener of the given {@link PluginContainer}.
+     *
+     * @param plugin The plugin
+     * @param start The start time
+     */
+    public static void recordEventListener(PluginContainer plugin, long start) {
+        if (start == 0L) {
+            return;
+        }
+        final PluginTimings timings = getTimings(plugin);
+        timings.eventListenerTime.add(System.nanoTime() - start);
+        timings.eventListenerCalls.increment();
+    }
+
+    /**
+     * Records the time that was spent in a scheduled
+     * task of the given {@link PluginContainer}.
+     *
+     * @param plugin The plugin
+     * @param start The start time
+     */
+    public static void recordTask(PluginContainer plugin, long start) {
+        if (start == 0L) {
+            return;
+        }
+        final PluginTimings timings = getTimings(plugin);
+        timings.taskTime.add(System.nanoTime() - start);
+        timings.taskRuns.increment();
+    }
+
+    private static PluginTimings getTimings(PluginContainer plugin) {
+        return pluginTimings.computeIfAbsent(plugin.getId(), id -> new PluginTimings());
+    }
+
+    /**
+     * Gets the {@link PluginTimings} mapped by the plugin id.
+     *
+     * @return The plugin timings
+     */
+    public static Map<String, PluginTimings> getPluginTimings() {
+        return Collections.unmodifiableMap(pluginTimings);
+    }
+
+    /**
+     * The time that was spent in the event listeners
+     * and scheduled tasks of a plugin.
+     */
+    public static final class PluginTimings {
+
+        private final LongAdder eventListenerTime = new LongAdder();
+        private final LongAdder eventListenerCalls = new LongAdder();
+        private final LongAdder taskTime = new LongAdder();
+        private final LongAdder taskRuns = new LongAdder();
+
+        /**
+         * Gets the total time spent in event listeners, in nanoseconds.
+         *
+         * @return The event listener time
+         */
+        public long getEventListenerTime() {
+            return this.eventListenerTime.sum();
+        }
+
+        /**
+         * Gets the amount of times that event listeners were called.
+         *
+         * @return The event listener calls
+         */
+        public long getEventListenerCalls() {
+            return this.eventListenerCalls.sum();
+        }
+
+        /**
+         * Gets the total time spent in scheduled tasks, in nanoseconds.
+         *
+         * @return The task time
+         */
+        public long getTaskTime() {
+            return this.taskTime.sum();
+        }
+
+        /**
+         * Gets the amount of times that scheduled tasks were run.
+         *
+         * @return The task runs
+         */
+        public long getTaskRuns() {
+            return this.taskRuns.sum();
+        }
+    }
+
+    private TickProfiler() {
+    }
+}
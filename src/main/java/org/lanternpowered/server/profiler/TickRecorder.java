@@ -0,0 +1,173 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.profiler;
+
+import java.util.Arrays;
+
+/**
+ * Records the time that is spent in the {@link TickSection}s of a single thread.
+ * <p>
+ * All the times are stored in ring buffers that are allocated upfront, so
+ * recording doesn't allocate anything. Only the owning thread may record
+ * times, reading them from other threads may result in slightly outdated
+ * values, which is fine for profiling purposes.
+ */
+public final class TickRecorder {
+
+    /**
+     * The amount of ticks that are kept in the ring buffers.
+     */
+    public static final int WINDOW_SIZE = 600;
+
+    private static final TickSection[] SECTIONS = TickSection.values();
+
+    private final String name;
+
+    private final long[][] sectionTimes = new long[SECTIONS.length][WINDOW_SIZE];
+    private final long[] tickTimes = new long[WINDOW_SIZE];
+
+    // The total amount of recorded ticks
+    private volatile int ticks;
+
+    // The index of the current tick in the ring buffers
+    private int index;
+
+    // The start time of the current tick, 0 if it isn't being recorded
+    private long tickStart;
+
+    // The profiler generation of the recorded times
+    private int generation;
+
+    TickRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of this recorder.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Starts recording a new tick, nothing will be
+     * recorded if the {@link TickProfiler} is disabled.
+     */
+    public void beginTick() {
+        if (!TickProfiler.isEnabled()) {
+            this.tickStart = 0L;
+            return;
+        }
+        // The profiler was restarted, clear the old times
+        final int generation = TickProfiler.getGeneration();
+        if (this.generation != generation) {
+            this.generation = generation;
+            reset();
+        }
+        this.index = this.ticks % WINDOW_SIZE;
+        for (long[] times : this.sectionTimes) {
+            times[this.index] = 0L;
+        }
+        this.tickStart = System.nanoTime();
+    }
+
+    /**
+     * Ends the recording of the current tick.
+     */
+    public void endTick() {
+        if (this.tickStart == 0L) {
+            return;
+        }
+        this.tickTimes[this.index] = System.nanoTime() - this.tickStart;
+        this.tickStart = 0L;
+        this.ticks++;
+    }
+
+    /**
+     * Ends the given {@link TickSection} which was started
+     * at the given time, see {@link TickProfiler#start()}.
+     *
+     * @param section The tick section
+     * @param start The start time
+     */
+    public void end(TickSection section, long start) {
+        if (start == 0L || this.tickStart == 0L) {
+            return;
+        }
+        this.sectionTimes[section.ordinal()][this.index] += System.nanoTime() - start;
+    }
+
+    /**
+     * Gets the amount of ticks that are currently in the ring buffers.
+     *
+     * @return The sample count
+     */
+    public int getSampleCount() {
+        return Math.min(this.ticks, WINDOW_SIZE);
+    }
+
+    /**
+     * Gets the average time that was spent in the {@link TickSection}
+     * per tick, in milliseconds.
+     *
+     * @param section The tick section
+     * @return The average time
+     */
+    public double getAverageTime(TickSection section) {
+        return average(this.sectionTimes[section.ordinal()]);
+    }
+
+    /**
+     * Gets the average time of a tick, in milliseconds.
+     *
+     * @return The average time
+     */
+    public double getAverageTickTime() {
+        return average(this.tickTimes);
+    }
+
+    private double average(long[] times) {
+        final int count = getSampleCount();
+        if (count == 0) {
+            return 0.0;
+        }
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            total += times[i];
+        }
+        return (total / (double) count) / 1000000.0;
+    }
+
+    private void reset() {
+        for (long[] times : this.sectionTimes) {
+            Arrays.fill(times, 0L);
+        }
+        Arrays.fill(this.tickTimes, 0L);
+        this.ticks = 0;
+    }
+}
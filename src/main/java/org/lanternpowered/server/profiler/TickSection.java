@@ -0,0 +1,64 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.profiler;
+
+/**
+ * Represents a section of a tick that is timed by a {@link TickRecorder}.
+ */
+public enum TickSection {
+
+    // The sections of the server thread
+    NETWORK_SESSIONS        ("Network sessions"),
+    SYNC_SCHEDULER          ("Sync scheduler"),
+    WORLDS                  ("Worlds"),
+
+    // The sections of the world threads
+    CHUNK_MANAGER           ("Chunk manager"),
+    TIME                    ("Time"),
+    WEATHER                 ("Weather"),
+    ENTITIES                ("Entities"),
+    TILE_ENTITIES           ("Tile entities"),
+    REGIONS                 ("Parallel regions"),
+    LIGHTING                ("Lighting"),
+    OBSERVED_CHUNKS         ("Observed chunks"),
+    ENTITY_TRACKERS         ("Entity trackers"),
+    ;
+
+    private final String displayName;
+
+    TickSection(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the display name of this section.
+     *
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return this.displayName;
+    }
+}
@@ -27,37 +27,49 @@
 
 import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.util.ThreadHelper;
-import org.spongepowered.api.scheduler.Task;
 
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 final class AsyncScheduler extends SchedulerBase {
 
-    // A counter for executor threads
-    private final AtomicInteger counter = new AtomicInteger();
+    /**
+     * The minimum amount of threads of the executor, async tasks are
+     * commonly used for blocking operations (web requests, file io, etc.),
+     * even if they aren't marked as blocking.
+     */
+    private static final int MIN_PARALLELISM = 4;
 
-    // Adjustable timeout for pending Tasks
-    private long minimumTimeout = Long.MAX_VALUE;
-    private long lastProcessingTimestamp;
+    // The wheel of all the scheduled tasks, with a resolution of
+    // 2^20 nanoseconds (about one millisecond)
+    private final TimingWheel<ScheduledTask> wheel = new TimingWheel<>(20, System.nanoTime());
     // Locking mechanism
     private final Lock lock = new ReentrantLock();
     private final Condition condition = this.lock.newCondition();
-    // The dynamic thread pooling executor of asynchronous tasks.
-    private ExecutorService executor;
+    // The work stealing executor of asynchronous tasks.
+    private final ForkJoinPool pool;
+    private final Executor executor;
+    private final Executor blockingExecutor = this::executeBlocking;
     // Whether the scheduler is running
-    private boolean running;
+    private volatile boolean running;
     private final Thread thread;
 
     AsyncScheduler() {
         super(ScheduledTask.TaskSynchronicity.ASYNCHRONOUS);
 
+        final int parallelism = Math.max(MIN_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("async-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        this.executor = this.pool;
+
         // We are starting it
         this.running = true;
 
@@ -67,7 +79,7 @@ final class AsyncScheduler extends SchedulerBase {
     }
 
     /**
-     * Attempt to shutdown the underlying {@link ExecutorService}, and force
+     * Attempt to shutdown the underlying {@link ForkJoinPool}, and force
      * the executor to shutdown after a timeout.
      *
      * @param timeout The timeout
@@ -86,102 +98,126 @@ void shutdown(long timeout, TimeUnit unit) {
         }
         try {
             this.thread.join();
-            this.executor.shutdown();
-            if (!this.executor.awaitTermination(timeout, unit)) {
-                this.executor.shutdownNow();
+            this.pool.shutdown();
+            if (!this.pool.awaitTermination(timeout, unit)) {
+                this.pool.shutdownNow();
             }
         } catch (InterruptedException ignored) {
         }
     }
 
     private void mainLoop() {
-        this.executor = Executors.newCachedThreadPool(ThreadHelper.newThreadFactory(
-                () -> "async-" + this.counter.getAndIncrement()));
-        this.lastProcessingTimestamp = System.nanoTime();
         while (this.running) {
-            recalibrateMinimumTimeout();
             runTick();
         }
     }
 
-    private void recalibrateMinimumTimeout() {
-        this.lock.lock();
-        try {
-            final Set<Task> tasks = getScheduledTasks();
-            this.minimumTimeout = Long.MAX_VALUE;
-            long now = System.nanoTime();
-            for (Task tmpTask : tasks) {
-                ScheduledTask task = (ScheduledTask) tmpTask;
-                // Recalibrate the wait delay for processing tasks before new
-                // tasks cause the scheduler to process pending tasks.
-                if (task.offset == 0 && task.period == 0) {
-                    this.minimumTimeout = 0;
-                }
-                // The time since the task last executed or was added to the map
-                long timeSinceLast = now - task.getTimestamp();
-
-                if (task.offset > 0 && task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-                    // There is an offset and the task hasn't run yet
-                    this.minimumTimeout = Math.min(task.offset - timeSinceLast, this.minimumTimeout);
-                }
-                if (task.period > 0 && task.getState().isActive) {
-                    // The task repeats and has run after the initial delay
-                    this.minimumTimeout = Math.min(task.period - timeSinceLast, this.minimumTimeout);
-                }
-                if (this.minimumTimeout <= 0) {
-                    break;
-                }
-            }
-            if (!tasks.isEmpty()) {
-                long latency = System.nanoTime() - this.lastProcessingTimestamp;
-                this.minimumTimeout -= (latency <= 0) ? 0 : latency;
-                this.minimumTimeout = (this.minimumTimeout < 0) ? 0 : this.minimumTimeout;
-            }
-        } finally {
-            this.lock.unlock();
-        }
-    }
-
     @Override
     protected void preTick() {
         this.lock.lock();
         try {
-            this.condition.await(this.minimumTimeout, TimeUnit.NANOSECONDS);
+            // Wait until the next bucket of the wheel is due, unless
+            // new tasks were added in the meantime
+            if (this.running && !hasAddedTasks()) {
+                final long next = this.wheel.nextExpiration();
+                if (next == Long.MAX_VALUE) {
+                    this.condition.await();
+                } else {
+                    final long timeout = next - System.nanoTime();
+                    if (timeout > 0) {
+                        this.condition.await(timeout, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
         } catch (InterruptedException ignored) {
             // The taskMap has been modified; there is work to do.
             // Continue on without handling the Exception.
         } catch (IllegalMonitorStateException e) {
             Lantern.getLogger().error("The scheduler internal state machine suffered a catastrophic error", e);
+        } finally {
+            this.lock.unlock();
         }
     }
 
     @Override
-    protected void postTick() {
-        this.lastProcessingTimestamp = System.nanoTime();
+    protected TimingWheel<ScheduledTask> getWheel(ScheduledTask task) {
+        // Async tasks are always based on wall clock time
+        return this.wheel;
     }
 
     @Override
-    protected void finallyPostTick() {
-        this.lock.unlock();
+    protected void advanceWheels() {
+        this.wheel.advance(System.nanoTime(), this::processTask);
     }
 
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
-        this.executor.submit(runnable);
+        if (task.blocking) {
+            executeBlocking(runnable);
+        } else {
+            this.pool.execute(runnable);
+        }
+    }
+
+    /**
+     * Executes the runnable on the pool as a {@link ForkJoinPool.ManagedBlocker},
+     * this allows the pool to start a compensation thread while the runnable is
+     * blocked, instead of stalling all the other tasks. Only used for the tasks
+     * that are marked as blocking, every compensation thread is an extra thread.
+     *
+     * @param runnable The runnable
+     */
+    private void executeBlocking(Runnable runnable) {
+        this.pool.execute(() -> {
+            try {
+                ForkJoinPool.managedBlock(new BlockingRunnable(runnable));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
     }
 
     @Override
     protected void addTask(ScheduledTask task) {
+        super.addTask(task);
         this.lock.lock();
         try {
-            super.addTask(task);
             this.condition.signalAll();
         } finally {
             this.lock.unlock();
         }
     }
 
-    public ExecutorService getExecutor() {
+    public Executor getExecutor() {
         return this.executor;
     }
+
+    public Executor getBlockingExecutor() {
+        return this.blockingExecutor;
+    }
+
+    private static final class BlockingRunnable implements ForkJoinPool.ManagedBlocker {
+
+        private final Runnable runnable;
+        private boolean done;
+
+        private BlockingRunnable(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                this.runnable.run();
+            } finally {
+                this.done = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return this.done;
+        }
+    }
 }
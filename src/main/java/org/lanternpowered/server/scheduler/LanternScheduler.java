@@ -187,4 +187,30 @@ public CompletableFuture<Void> submitAsyncTask(Runnable callable) {
             return null;
         }, this.asyncScheduler.getExecutor());
     }
+
+    /**
+     * Submits a async task that blocks while it's running, for
+     * example because it performs web requests or file io.
+     *
+     * @param callable The callable
+     * @param <T> The type of the result
+     * @return The future of the result
+     */
+    public <T> CompletableFuture<T> submitBlockingAsyncTask(Callable<T> callable) {
+        return Functional.asyncFailableFuture(callable, this.asyncScheduler.getBlockingExecutor());
+    }
+
+    /**
+     * Submits a async task that blocks while it's running, for
+     * example because it performs web requests or file io.
+     *
+     * @param callable The runnable
+     * @return The future
+     */
+    public CompletableFuture<Void> submitBlockingAsyncTask(Runnable callable) {
+        return Functional.asyncFailableFuture(() -> {
+            callable.run();
+            return null;
+        }, this.asyncScheduler.getBlockingExecutor());
+    }
 }
@@ -51,6 +51,7 @@ public class LanternTaskBuilder implements Task.Builder {
     private long interval;
     private boolean delayIsTicks;
     private boolean intervalIsTicks;
+    private boolean blocking;
 
     public LanternTaskBuilder(LanternScheduler scheduler) {
         this.scheduler = scheduler;
@@ -64,6 +65,7 @@ public LanternTaskBuilder reset() {
         this.syncType = ScheduledTask.TaskSynchronicity.SYNCHRONOUS;
         this.delay = 0;
         this.interval = 0;
+        this.blocking = false;
         return this;
     }
 
@@ -73,6 +75,19 @@ public LanternTaskBuilder async() {
         return this;
     }
 
+    /**
+     * Marks the task as blocking, for example because it performs web requests
+     * or file io. Blocking async tasks allow the async executor to start extra
+     * threads while they are blocked. This implies {@link #async()}.
+     *
+     * @return This builder, for chaining
+     */
+    public LanternTaskBuilder blocking() {
+        this.syncType = ScheduledTask.TaskSynchronicity.ASYNCHRONOUS;
+        this.blocking = true;
+        return this;
+    }
+
     @Override
     public LanternTaskBuilder execute(Consumer<Task> consumer) {
         this.consumer = consumer;
@@ -137,7 +152,7 @@ public Task submit(Object plugin) {
             delayIsTicks = intervalIsTicks = false;
         }
         ScheduledTask task = new ScheduledTask(this.syncType, this.consumer, name, delay,
-                delayIsTicks, interval, intervalIsTicks, pluginContainer);
+                delayIsTicks, interval, intervalIsTicks, this.blocking, pluginContainer);
         this.scheduler.submit(task);
         return task;
     }
@@ -152,6 +167,7 @@ public LanternTaskBuilder from(Task value) {
         this.interval = task.period;
         this.consumer = task.getConsumer();
         this.syncType = task.syncType;
+        this.blocking = task.blocking;
         this.name = task.getName();
         return this;
     }
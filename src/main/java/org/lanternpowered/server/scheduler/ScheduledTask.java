@@ -33,6 +33,8 @@
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 /**
  * An internal representation of a {@link Task} created by a plugin.
  */
@@ -45,12 +47,19 @@ public class ScheduledTask implements Task {
     private final PluginContainer owner;
     private final Consumer<Task> executor;
     private long timestamp;
-    private ScheduledTaskState state;
+    private volatile ScheduledTaskState state;
     private final UUID id;
     private final String name;
     final TaskSynchronicity syncType;
+    // Whether the task blocks while it's running, only used by async tasks
+    final boolean blocking;
     private final String stringRepresentation;
 
+    // The node that is used to schedule the task in the timing wheels
+    final TimingWheel.Node<ScheduledTask> wheelNode = new TimingWheel.Node<>(this);
+    // The scheduler this task was submitted to
+    @Nullable SchedulerBase scheduler;
+
     // Internal Task state. Not for user-service use.
     public enum ScheduledTaskState {
         /**
@@ -78,7 +87,7 @@ public enum ScheduledTaskState {
     }
 
     ScheduledTask(TaskSynchronicity syncType, Consumer<Task> executor, String taskName, long delay, boolean delayIsTicks, long interval,
-            boolean intervalIsTicks, PluginContainer pluginContainer) {
+            boolean intervalIsTicks, boolean blocking, PluginContainer pluginContainer) {
         // All tasks begin waiting.
         this.setState(ScheduledTaskState.WAITING);
         this.offset = delay;
@@ -90,6 +99,7 @@ public enum ScheduledTaskState {
         this.id = UUID.randomUUID();
         this.name = taskName;
         this.syncType = syncType;
+        this.blocking = blocking;
 
         this.stringRepresentation = MoreObjects.toStringHelper(this)
                 .add("name", this.name)
@@ -98,6 +108,7 @@ public enum ScheduledTaskState {
                 .add("owner", this.owner)
                 .add("id", this.id)
                 .add("isAsync", this.isAsynchronous())
+                .add("isBlocking", this.blocking)
                 .toString();
     }
 
@@ -126,11 +137,15 @@ public long getInterval() {
 
     @Override
     public boolean cancel() {
+        final ScheduledTaskState state = this.getState();
         boolean success = false;
-        if (this.getState() != ScheduledTask.ScheduledTaskState.RUNNING) {
+        if (state != ScheduledTask.ScheduledTaskState.RUNNING) {
             success = true;
         }
         this.setState(ScheduledTask.ScheduledTaskState.CANCELED);
+        if (state != ScheduledTaskState.CANCELED && this.scheduler != null) {
+            this.scheduler.cancelTask(this);
+        }
         return success;
     }
 
@@ -26,20 +26,27 @@
 package org.lanternpowered.server.scheduler;
 
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.profiler.TickProfiler;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
 
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 abstract class SchedulerBase {
 
-    // The simple queue of all pending (and running) ScheduledTasks
+    // All pending (and running) ScheduledTasks, by their unique id
     private final Map<UUID, ScheduledTask> taskMap = new ConcurrentHashMap<>();
+    // The tasks that were added or cancelled since the last tick, the
+    // timing wheels may only be modified by the thread of the scheduler
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<ScheduledTask> canceledTasks = new ConcurrentLinkedQueue<>();
     private long sequenceNumber = 0L;
     private final String taskNameFmt;
 
@@ -67,6 +74,16 @@ protected long getTimestamp(ScheduledTask task) {
         return System.nanoTime();
     }
 
+    /**
+     * Gets the {@link TimingWheel} in which the task should be scheduled
+     * for its current state, the time of the wheel must match the timestamps
+     * provided by {@link #getTimestamp(ScheduledTask)}.
+     *
+     * @param task The task
+     * @return The timing wheel
+     */
+    protected abstract TimingWheel<ScheduledTask> getWheel(ScheduledTask task);
+
     /**
      * Adds the task to the task map, will attempt to process the task on the
      * next call to {@link #runTick}.
@@ -75,7 +92,9 @@ protected long getTimestamp(ScheduledTask task) {
      */
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
+        task.scheduler = this;
         this.taskMap.put(task.getUniqueId(), task);
+        this.addedTasks.add(task);
     }
 
     /**
@@ -87,29 +106,62 @@ protected void removeTask(ScheduledTask task) {
         this.taskMap.remove(task.getUniqueId());
     }
 
+    /**
+     * Is called when the task is cancelled, the task will be removed
+     * from its timing wheel during the next tick.
+     *
+     * @param task The task
+     */
+    void cancelTask(ScheduledTask task) {
+        removeTask(task);
+        this.canceledTasks.add(task);
+    }
+
+    /**
+     * Gets whether there are tasks that were added since the last tick.
+     *
+     * @return Has added tasks
+     */
+    protected boolean hasAddedTasks() {
+        return !this.addedTasks.isEmpty();
+    }
+
     protected Optional<Task> getTask(UUID id) {
         return Optional.ofNullable(this.taskMap.get(id));
     }
 
     protected Set<Task> getScheduledTasks() {
-        synchronized (this.taskMap) {
-            return new HashSet<>(this.taskMap.values());
-        }
+        return new HashSet<>(this.taskMap.values());
     }
 
     /**
-     * Process all tasks in the map.
+     * Process all tasks that are due.
      */
     protected final void runTick() {
         preTick();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            ScheduledTask task;
+            while ((task = this.canceledTasks.poll()) != null) {
+                task.wheelNode.remove();
+            }
+            while ((task = this.addedTasks.poll()) != null) {
+                if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+                    schedule(task);
+                }
+            }
+            advanceWheels();
             postTick();
         } finally {
             finallyPostTick();
         }
     }
 
+    /**
+     * Advances the timing wheels of this scheduler, all the tasks
+     * that are due should be passed to {@link #processTask(ScheduledTask)}.
+     */
+    protected abstract void advanceWheels();
+
     /**
      * Fired when the scheduler begins to tick, before any tasks are processed.
      */
@@ -129,8 +181,12 @@ protected void postTick() {
     protected void finallyPostTick() {
     }
 
+    private void schedule(ScheduledTask task) {
+        getWheel(task).schedule(task.wheelNode, task.nextExecutionTimestamp());
+    }
+
     /**
-     * Processes the task.
+     * Processes the task, is called once the task is due.
      *
      * @param task The task to process
      */
@@ -141,29 +197,17 @@ protected void processTask(ScheduledTask task) {
             removeTask(task);
             return;
         }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
         // Repeating tasks get a reset-timestamp each time they are set RUNNING
         // If the task has a period of 0 (zero) this task will not repeat, and
         // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                removeTask(task);
-            }
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        task.setTimestamp(getTimestamp(task));
+        startTask(task);
+        // If task is one time shot, remove it from the map.
+        if (task.period == 0L) {
+            removeTask(task);
+        } else if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+            schedule(task);
         }
     }
 
@@ -175,11 +219,14 @@ protected void processTask(ScheduledTask task) {
     protected void startTask(final ScheduledTask task) {
         executeTaskRunnable(task, () -> {
             task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
+            final long start = TickProfiler.start();
             try {
                 task.getConsumer().accept(task);
             } catch (Throwable t) {
                 Lantern.getLogger().error("The Scheduler tried to run the task {} owned by {}, but an error occurred.",
                         task.getName(), task.getOwner(), t);
+            } finally {
+                TickProfiler.recordTask(task.getOwner(), start);
             }
         });
     }
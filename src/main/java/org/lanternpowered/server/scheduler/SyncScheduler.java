@@ -32,6 +32,13 @@ final class SyncScheduler extends SchedulerBase {
     // The number of ticks elapsed since this scheduler began.
     private volatile long counter = 0L;
 
+    // The wheel for the tasks that are based on ticks
+    private final TimingWheel<ScheduledTask> tickWheel = new TimingWheel<>(0, 0L);
+    // The wheel for the tasks that are based on wall clock time, a
+    // resolution of 2^20 nanoseconds (about one millisecond) is more
+    // than enough, it's only advanced once per tick
+    private final TimingWheel<ScheduledTask> timeWheel = new TimingWheel<>(20, System.nanoTime());
+
     SyncScheduler() {
         super(ScheduledTask.TaskSynchronicity.SYNCHRONOUS);
     }
@@ -65,6 +72,18 @@ protected long getTimestamp(ScheduledTask task) {
         return 0L;
     }
 
+    @Override
+    protected TimingWheel<ScheduledTask> getWheel(ScheduledTask task) {
+        final boolean ticks = task.getState() == ScheduledTask.ScheduledTaskState.WAITING ? task.delayIsTicks : task.intervalIsTicks;
+        return ticks ? this.tickWheel : this.timeWheel;
+    }
+
+    @Override
+    protected void advanceWheels() {
+        this.tickWheel.advance(this.counter, this::processTask);
+        this.timeWheel.advance(System.nanoTime(), this::processTask);
+    }
+
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
         final CauseStack causeStack = CauseStack.current();
@@ -0,0 +1,293 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hierarchical timing wheel, scheduling and removing entries is done in
+ * constant time and advancing the wheel only touches the buckets that
+ * contain entries that are due (or have to be moved to a lower level).
+ * <p>
+ * Each level has {@link #SLOTS} buckets, a entry is stored in the level that
+ * represents the highest bit in which its deadline differs from the current
+ * time of the wheel. Once the time reaches the start of a bucket of a higher
+ * level, all its entries will be moved to the lower levels. The occupied
+ * buckets of each level are tracked in a bit set, which makes it cheap to
+ * skip ahead to the next bucket that contains entries.
+ * <p>
+ * The time of the wheel is expressed in units, a unit is {@code 1 << resolutionShift}
+ * of the raw time that is passed to the wheel (ticks, nanoseconds, etc.). Deadlines
+ * are rounded up to the next unit, entries will never expire early.
+ * <p>
+ * This class isn't thread safe, it should only be accessed by the thread that
+ * advances the wheel.
+ *
+ * @param <T> The type of the values
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+
+    /**
+     * The amount of slots per level.
+     */
+    static final int SLOTS = 1 << BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    // Enough levels to cover the complete range of a long
+    private static final int LEVELS = (Long.SIZE + BITS - 1) / BITS;
+
+    private final int resolutionShift;
+    private final long origin;
+
+    @SuppressWarnings("unchecked")
+    private final Node<T>[][] buckets = new Node[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+
+    // The current time of the wheel, in units, all the entries
+    // with a deadline before or at this time are expired
+    private long current;
+    private int size;
+
+    // The level of the bucket that was found by the last nextUnit call
+    private int nextLevel;
+
+    /**
+     * Constructs a new {@link TimingWheel}.
+     *
+     * @param resolutionShift The amount of bits to shift the raw time to get units
+     * @param origin The raw time at which the wheel starts
+     */
+    TimingWheel(int resolutionShift, long origin) {
+        checkArgument(resolutionShift >= 0 && resolutionShift < Long.SIZE, "Invalid resolution shift");
+        this.resolutionShift = resolutionShift;
+        this.origin = origin;
+    }
+
+    /**
+     * Gets the amount of entries in this wheel.
+     *
+     * @return The size
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Schedules the node at the given raw deadline, if the node is already
+     * scheduled it will be rescheduled. A deadline which is already passed
+     * will expire the next time that the wheel is advanced.
+     *
+     * @param node The node
+     * @param deadline The raw deadline
+     */
+    void schedule(Node<T> node, long deadline) {
+        if (node.wheel != null) {
+            node.wheel.remove(node);
+        }
+        final long time = deadline - this.origin;
+        long unit = time >> this.resolutionShift;
+        if ((time & ((1L << this.resolutionShift) - 1)) != 0) {
+            unit++;
+        }
+        node.deadline = Math.max(unit, this.current + 1);
+        node.wheel = this;
+        this.size++;
+        insert(node);
+    }
+
+    private void insert(Node<T> node) {
+        final int level = (63 - Long.numberOfLeadingZeros(node.deadline ^ this.current)) / BITS;
+        final int slot = (int) (node.deadline >>> (level * BITS)) & MASK;
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = this.buckets[level][slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        this.buckets[level][slot] = node;
+        this.occupied[level] |= 1L << slot;
+    }
+
+    /**
+     * Removes the node from this wheel.
+     *
+     * @param node The node
+     * @return Whether the node was scheduled in this wheel
+     */
+    boolean remove(Node<T> node) {
+        if (node.wheel != this) {
+            return false;
+        }
+        unlink(node);
+        node.wheel = null;
+        this.size--;
+        return true;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            this.buckets[node.level][node.slot] = node.next;
+            if (node.next == null) {
+                this.occupied[node.level] &= ~(1L << node.slot);
+            }
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * Gets the raw time at which the wheel needs to be advanced next, either
+     * because entries expire or need to be moved to a lower level. Will return
+     * {@link Long#MAX_VALUE} if the wheel is empty.
+     *
+     * @return The next raw time
+     */
+    long nextExpiration() {
+        final long unit = nextUnit();
+        return unit == Long.MAX_VALUE ? unit : this.origin + (unit << this.resolutionShift);
+    }
+
+    private long nextUnit() {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = level * BITS;
+            final int digit = (int) (this.current >>> shift) & MASK;
+            // Entries of a level are always located after the current
+            // digit, there is no need to wrap around
+            final long bits = digit == MASK ? 0L : this.occupied[level] & (-1L << (digit + 1));
+            if (bits != 0L) {
+                this.nextLevel = level;
+                final int shift0 = shift + BITS;
+                final long high = shift0 >= Long.SIZE ? 0L : (this.current >>> shift0) << shift0;
+                return high | ((long) Long.numberOfTrailingZeros(bits) << shift);
+            }
+        }
+        throw new IllegalStateException("Entries are present but no bucket is occupied.");
+    }
+
+    /**
+     * Advances the wheel up to the given raw time and passes the values of
+     * all the expired entries to the consumer, in order of their deadline.
+     * The consumer is allowed to schedule new entries.
+     *
+     * @param now The raw time
+     * @param consumer The consumer of expired values
+     */
+    void advance(long now, Consumer<T> consumer) {
+        final long target = (now - this.origin) >> this.resolutionShift;
+        while (this.current < target) {
+            final long next = nextUnit();
+            if (next > target) {
+                // Nothing happens until the target time
+                this.current = target;
+                return;
+            }
+            this.current = next;
+            final int level = this.nextLevel;
+            final int slot = (int) (next >>> (level * BITS)) & MASK;
+            Node<T> node = this.buckets[level][slot];
+            this.buckets[level][slot] = null;
+            this.occupied[level] &= ~(1L << slot);
+            // Move the entries that aren't due to a lower
+            // level and collect the ones that are
+            Node<T> expired = null;
+            while (node != null) {
+                final Node<T> nextNode = node.next;
+                if (node.deadline <= next) {
+                    node.next = expired;
+                    expired = node;
+                } else {
+                    insert(node);
+                }
+                node = nextNode;
+            }
+            while (expired != null) {
+                final Node<T> nextNode = expired.next;
+                expired.prev = null;
+                expired.next = null;
+                expired.wheel = null;
+                this.size--;
+                consumer.accept(expired.value);
+                expired = nextNode;
+            }
+        }
+    }
+
+    /**
+     * A entry of a {@link TimingWheel}, a node can only be scheduled
+     * in one wheel at the same time.
+     *
+     * @param <T> The type of the value
+     */
+    static final class Node<T> {
+
+        final T value;
+
+        @Nullable private TimingWheel<T> wheel;
+        @Nullable private Node<T> prev;
+        @Nullable private Node<T> next;
+        private long deadline;
+        private int level;
+        private int slot;
+
+        Node(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Gets whether this node is scheduled in a wheel.
+         *
+         * @return Is scheduled
+         */
+        boolean isScheduled() {
+            return this.wheel != null;
+        }
+
+        /**
+         * Removes this node from the wheel it's scheduled in, if any.
+         *
+         * @return Whether the node was scheduled
+         */
+        boolean remove() {
+            return this.wheel != null && this.wheel.remove(this);
+        }
+    }
+}
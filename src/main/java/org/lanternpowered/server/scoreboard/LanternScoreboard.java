@@ -34,6 +34,7 @@
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.MessageBroadcaster;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutScoreboardDisplayObjective;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutScoreboardObjective;
@@ -70,8 +71,7 @@ public class LanternScoreboard implements Scoreboard {
 
     void sendToPlayers(Supplier<List<Message>> messageSupplier) {
         if (!this.players.isEmpty()) {
-            final List<Message> messages = messageSupplier.get();
-            this.players.forEach(player -> player.getConnection().send(messages));
+            MessageBroadcaster.broadcast(this.players, messageSupplier.get());
         }
     }
 
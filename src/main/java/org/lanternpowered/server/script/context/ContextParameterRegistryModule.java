@@ -30,8 +30,10 @@
 import org.lanternpowered.api.script.context.Parameters;
 import org.lanternpowered.api.world.World;
 import org.lanternpowered.server.game.registry.DefaultCatalogRegistryModule;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.spongepowered.api.world.Location;
 
+@ParallelRegistration
 public class ContextParameterRegistryModule extends DefaultCatalogRegistryModule<Parameter> {
 
     public ContextParameterRegistryModule() {
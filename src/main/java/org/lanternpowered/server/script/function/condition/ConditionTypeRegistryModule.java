@@ -31,8 +31,10 @@
 import org.lanternpowered.api.script.function.condition.ConditionType;
 import org.lanternpowered.api.script.function.condition.ConditionTypes;
 import org.lanternpowered.api.script.function.condition.OrCondition;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.script.AbstractObjectTypeRegistryModule;
 
+@ParallelRegistration
 public class ConditionTypeRegistryModule extends AbstractObjectTypeRegistryModule<Condition, ConditionType> {
 
     private final static ConditionTypeRegistryModule INSTANCE = new ConditionTypeRegistryModule();
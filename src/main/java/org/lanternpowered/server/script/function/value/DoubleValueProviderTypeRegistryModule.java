@@ -29,8 +29,10 @@
 import org.lanternpowered.api.script.function.value.DoubleValueProvider;
 import org.lanternpowered.api.script.function.value.DoubleValueProviderType;
 import org.lanternpowered.api.script.function.value.DoubleValueProviderTypes;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.script.AbstractObjectTypeRegistryModule;
 
+@ParallelRegistration
 public class DoubleValueProviderTypeRegistryModule extends AbstractObjectTypeRegistryModule<DoubleValueProvider, DoubleValueProviderType> {
 
     private final static DoubleValueProviderTypeRegistryModule INSTANCE = new DoubleValueProviderTypeRegistryModule();
@@ -29,8 +29,10 @@
 import org.lanternpowered.api.script.function.value.FloatValueProvider;
 import org.lanternpowered.api.script.function.value.FloatValueProviderType;
 import org.lanternpowered.api.script.function.value.FloatValueProviderTypes;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.script.AbstractObjectTypeRegistryModule;
 
+@ParallelRegistration
 public class FloatValueProviderTypeRegistryModule extends AbstractObjectTypeRegistryModule<FloatValueProvider, FloatValueProviderType> {
 
     private final static FloatValueProviderTypeRegistryModule INSTANCE = new FloatValueProviderTypeRegistryModule();
@@ -29,8 +29,10 @@
 import org.lanternpowered.api.script.function.value.IntValueProvider;
 import org.lanternpowered.api.script.function.value.IntValueProviderType;
 import org.lanternpowered.api.script.function.value.IntValueProviderTypes;
+import org.lanternpowered.server.game.registry.ParallelRegistration;
 import org.lanternpowered.server.script.AbstractObjectTypeRegistryModule;
 
+@ParallelRegistration
 public class IntValueProviderTypeRegistryModule extends AbstractObjectTypeRegistryModule<IntValueProvider, IntValueProviderType> {
 
     private final static IntValueProviderTypeRegistryModule INSTANCE = new IntValueProviderTypeRegistryModule();
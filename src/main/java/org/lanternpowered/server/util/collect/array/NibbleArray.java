@@ -25,6 +25,7 @@
  */
 package org.lanternpowered.server.util.collect.array;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.lanternpowered.server.util.Conditions.checkArrayRange;
 
 import org.spongepowered.api.util.annotation.NonnullByDefault;
@@ -94,6 +95,20 @@ public NibbleArray(int length, byte[] initialContent, boolean packed) {
         }
     }
 
+    /**
+     * Creates a new {@link NibbleArray} of the given length that is
+     * backed by the packed content, the content will not be copied.
+     *
+     * @param length the length of the array
+     * @param packedContent the packed content
+     * @return the nibble array
+     */
+    public static NibbleArray wrap(int length, byte[] packedContent) {
+        checkArgument(packedContent.length == (length + 1) / 2, "Packed content length mismatch: Got "
+                + packedContent.length + ", but expected " + (length + 1) / 2);
+        return new NibbleArray(packedContent, length);
+    }
+
     private NibbleArray(byte[] content, int length) {
         this.backingArraySize = content.length;
         this.backingArray = content;
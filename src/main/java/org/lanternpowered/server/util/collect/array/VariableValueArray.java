@@ -48,6 +48,22 @@ public VariableValueArray(int bitsPerValue, int capacity) {
         this.capacity = capacity;
     }
 
+    private VariableValueArray(VariableValueArray array) {
+        this.backing = array.backing.clone();
+        this.bitsPerValue = array.bitsPerValue;
+        this.valueMask = array.valueMask;
+        this.capacity = array.capacity;
+    }
+
+    /**
+     * Creates a copy of this array.
+     *
+     * @return The copy
+     */
+    public VariableValueArray copy() {
+        return new VariableValueArray(this);
+    }
+
     public long[] getBacking() {
         return this.backing;
     }
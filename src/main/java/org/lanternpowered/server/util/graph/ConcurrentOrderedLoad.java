@@ -0,0 +1,226 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.graph;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.lanternpowered.server.util.graph.DirectedGraph.DataNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Executes an action for every node of a directed graph, where an edge is
+ * representing a load-after dependency, just like {@link TopologicalOrder}.
+ * A node will only be executed after all its dependencies are executed, but
+ * nodes whose dependencies are all satisfied will be executed concurrently.
+ * <p>
+ * Serial nodes will always be executed on the thread that called
+ * {@link #execute(Executor, Predicate, Consumer)}, one at a time, while
+ * the other nodes are executed by the {@link Executor}.
+ * <p>
+ * The structure of the graph is copied on construction, so the graph may be
+ * modified afterwards and the load can be executed multiple times.
+ */
+public final class ConcurrentOrderedLoad<T> {
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+
+    /**
+     * Constructs a new {@link ConcurrentOrderedLoad} for the given graph.
+     *
+     * @param graph The graph
+     * @throws CyclicGraphException if the graph contains a cycle
+     */
+    public ConcurrentOrderedLoad(DirectedGraph<T> graph) {
+        final Map<DataNode<T>, Node<T>> nodes = new HashMap<>();
+        for (DataNode<T> dataNode : graph.getNodes()) {
+            final Node<T> node = new Node<>(dataNode.getData());
+            nodes.put(dataNode, node);
+            this.nodes.add(node);
+        }
+        for (DataNode<T> dataNode : graph.getNodes()) {
+            final Node<T> node = nodes.get(dataNode);
+            for (DataNode<T> adjacent : dataNode.getAdjacent()) {
+                nodes.get(adjacent).dependents.add(node);
+                node.dependencyCount++;
+            }
+        }
+        checkAcyclic(graph);
+    }
+
+    private void checkAcyclic(DirectedGraph<T> graph) {
+        // Kahn's algorithm, every node is visited once its dependencies are visited
+        final Map<Node<T>, Integer> remaining = new HashMap<>();
+        final List<Node<T>> queue = new ArrayList<>();
+        for (Node<T> node : this.nodes) {
+            remaining.put(node, node.dependencyCount);
+            if (node.dependencyCount == 0) {
+                queue.add(node);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            for (Node<T> dependent : queue.get(i).dependents) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (queue.size() != this.nodes.size()) {
+            // Let the topological order report the cycles
+            final DirectedGraph<T> copy = new DirectedGraph<>();
+            for (DataNode<T> dataNode : graph.getNodes()) {
+                copy.add(dataNode.getData());
+                for (DataNode<T> adjacent : dataNode.getAdjacent()) {
+                    copy.addEdge(dataNode.getData(), adjacent.getData());
+                }
+            }
+            TopologicalOrder.createOrderedLoad(copy);
+        }
+    }
+
+    /**
+     * Executes the action for all the nodes, this method
+     * blocks until every node is executed.
+     * <p>
+     * If the action fails for a node, no new actions will be started
+     * and the first exception will be rethrown once the running ones
+     * are finished.
+     *
+     * @param executor The executor for nodes that aren't serial
+     * @param serial The predicate to test whether a node is serial
+     * @param action The action to execute for every node
+     */
+    public void execute(Executor executor, Predicate<T> serial, Consumer<T> action) {
+        checkNotNull(executor, "executor");
+        checkNotNull(serial, "serial");
+        checkNotNull(action, "action");
+        if (this.nodes.isEmpty()) {
+            return;
+        }
+        new Execution(executor, serial, action).execute();
+    }
+
+    private static final class Node<T> {
+
+        private final List<Node<T>> dependents = new ArrayList<>();
+        private final T data;
+        private int dependencyCount;
+
+        private Node(T data) {
+            this.data = data;
+        }
+    }
+
+    private final class Execution {
+
+        private final Executor executor;
+        private final Predicate<T> serial;
+        private final Consumer<T> action;
+
+        private final Map<Node<T>, AtomicInteger> dependencies = new HashMap<>();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // The serial nodes that are ready to be executed, the
+        // end node is added once every node is executed
+        private final BlockingQueue<Node<T>> serialQueue = new LinkedBlockingQueue<>();
+        private final Node<T> end = new Node<>(null);
+
+        private Execution(Executor executor, Predicate<T> serial, Consumer<T> action) {
+            this.executor = executor;
+            this.serial = serial;
+            this.action = action;
+        }
+
+        private void execute() {
+            final List<Node<T>> nodes = ConcurrentOrderedLoad.this.nodes;
+            for (Node<T> node : nodes) {
+                this.dependencies.put(node, new AtomicInteger(node.dependencyCount));
+            }
+            this.remaining.set(nodes.size());
+            for (Node<T> node : nodes) {
+                if (node.dependencyCount == 0) {
+                    schedule(node);
+                }
+            }
+            try {
+                Node<T> node;
+                while ((node = this.serialQueue.take()) != this.end) {
+                    run(node);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing the ordered load.", e);
+            }
+            final Throwable failure = this.failure.get();
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+        }
+
+        private void schedule(Node<T> node) {
+            if (this.serial.test(node.data)) {
+                this.serialQueue.add(node);
+            } else {
+                this.executor.execute(() -> run(node));
+            }
+        }
+
+        private void run(Node<T> node) {
+            if (this.failure.get() == null) {
+                try {
+                    this.action.accept(node.data);
+                } catch (Throwable t) {
+                    this.failure.compareAndSet(null, t);
+                }
+            }
+            for (Node<T> dependent : node.dependents) {
+                // The map isn't modified during the execution,
+                // so it can be safely accessed by all the threads
+                if (this.dependencies.get(dependent).decrementAndGet() == 0) {
+                    schedule(dependent);
+                }
+            }
+            if (this.remaining.decrementAndGet() == 0) {
+                this.serialQueue.add(this.end);
+            }
+        }
+    }
+}
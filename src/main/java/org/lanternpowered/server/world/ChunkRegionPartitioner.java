@@ -0,0 +1,126 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partitions chunks into regions that can be ticked independently.
+ * <p>
+ * Two chunks end up in the same region if the distance between them
+ * (on the x or z axis) is less than or equal to the border distance, this
+ * means that the chunks of different regions are always separated by at
+ * least border distance chunks that aren't loaded.
+ */
+public final class ChunkRegionPartitioner {
+
+    /**
+     * Packs the chunk coordinates into a key.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The key
+     */
+    public static long key(int x, int z) {
+        return (long) x << 32 | z & 0xffffffffL;
+    }
+
+    /**
+     * Gets the chunk x coordinate from the key.
+     *
+     * @param key The key
+     * @return The chunk x coordinate
+     */
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Gets the chunk z coordinate from the key.
+     *
+     * @param key The key
+     * @return The chunk z coordinate
+     */
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Partitions the given chunk keys into independent regions.
+     *
+     * @param chunks The chunk keys, see {@link #key(int, int)}
+     * @param borderDistance The border distance, in chunks
+     * @return The regions, sorted from large to small
+     */
+    public static List<LongList> partition(LongCollection chunks, int borderDistance) {
+        checkArgument(borderDistance >= 1, "The border distance must be at least 1");
+        final LongSet remaining = new LongOpenHashSet(chunks);
+        final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        final List<LongList> regions = new ArrayList<>();
+        final LongIterator it = chunks.iterator();
+        while (it.hasNext()) {
+            final long start = it.nextLong();
+            if (!remaining.remove(start)) {
+                continue;
+            }
+            final LongList region = new LongArrayList();
+            queue.enqueue(start);
+            while (!queue.isEmpty()) {
+                final long key = queue.dequeueLong();
+                region.add(key);
+                final int x = keyX(key);
+                final int z = keyZ(key);
+                for (int dx = -borderDistance; dx <= borderDistance; dx++) {
+                    for (int dz = -borderDistance; dz <= borderDistance; dz++) {
+                        final long neighbor = key(x + dx, z + dz);
+                        if (remaining.remove(neighbor)) {
+                            queue.enqueue(neighbor);
+                        }
+                    }
+                }
+            }
+            regions.add(region);
+        }
+        // Start with the largest regions, this gives the best balance
+        // when the regions are distributed over the threads
+        regions.sort((o1, o2) -> Integer.compare(o2.size(), o1.size()));
+        return regions;
+    }
+
+    private ChunkRegionPartitioner() {
+    }
+}
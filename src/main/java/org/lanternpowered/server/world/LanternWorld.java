@@ -61,12 +61,16 @@
 import org.lanternpowered.server.entity.living.player.ObservedChunkManager;
 import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.network.MessageBroadcaster;
 import org.lanternpowered.server.network.entity.EntityProtocolManager;
 import org.lanternpowered.server.network.entity.EntityProtocolType;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutParticleEffect;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutRecord;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutStopSounds;
+import org.lanternpowered.server.profiler.TickProfiler;
+import org.lanternpowered.server.profiler.TickRecorder;
+import org.lanternpowered.server.profiler.TickSection;
 import org.lanternpowered.server.text.chat.LanternChatType;
 import org.lanternpowered.server.text.title.LanternTitles;
 import org.lanternpowered.server.util.VecHelper;
@@ -74,12 +78,14 @@
 import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.lanternpowered.server.world.chunk.LanternChunkManager;
 import org.lanternpowered.server.world.chunk.LanternChunkTicketManager;
+import org.lanternpowered.server.world.chunk.LightingEngine;
 import org.lanternpowered.server.world.dimension.LanternDimensionType;
 import org.lanternpowered.server.world.extent.AbstractExtent;
 import org.lanternpowered.server.world.extent.ExtentViewDownsize;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBiomeVolumeWorker;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBlockVolumeWorker;
 import org.lanternpowered.server.world.gen.IGeneratorType;
+import org.lanternpowered.server.world.physics.CollisionEngine;
 import org.lanternpowered.server.world.pregen.LanternChunkPreGenerateTask;
 import org.lanternpowered.server.world.rules.Rule;
 import org.lanternpowered.server.world.rules.RuleHolder;
@@ -171,7 +177,6 @@
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -221,6 +226,16 @@ public class LanternWorld implements AbstractExtent, org.lanternpowered.api.worl
      */
     private final ObservedChunkManager observedChunkManager = new ObservedChunkManager(this);
 
+    /**
+     * The engine that propagates the light changes within this world.
+     */
+    private final LightingEngine lightingEngine = new LightingEngine(this);
+
+    /**
+     * The engine that resolves the block collisions within this world.
+     */
+    private final CollisionEngine collisionEngine = new CollisionEngine(this);
+
     /**
      * The {@link Scoreboard} that is attached to this {@link World}.
      */
@@ -258,6 +273,21 @@ public class LanternWorld implements AbstractExtent, org.lanternpowered.api.worl
      */
     private EntityProtocolManager entityProtocolManager = new EntityProtocolManager();
 
+    /**
+     * The ticker that pulses the chunk regions in parallel, if enabled.
+     */
+    @Nullable private final ParallelWorldTicker parallelTicker;
+
+    /**
+     * The recorder that profiles the ticks of this world.
+     */
+    private final TickRecorder tickRecorder;
+
+    /**
+     * The chunk pre-generate tasks that are running in this world.
+     */
+    private final Set<LanternChunkPreGenerateTask> chunkPreGenerateTasks = Sets.newConcurrentHashSet();
+
     public LanternWorld(LanternGame game, WorldConfig worldConfig, Path directory,
             Scoreboard scoreboard, LanternWorldProperties properties) {
         this.logger = LoggerFactory.getLogger("world/" + properties.getWorldName());
@@ -289,7 +319,15 @@ public LanternWorld(LanternGame game, WorldConfig worldConfig, Path directory,
         this.chunkManager = new LanternChunkManager(Lantern.getMinecraftPlugin(), this.game, this, this.worldConfig, chunkLoadService,
                 chunkIOService, worldGenerator, directory);
         this.worldContext = new Context(Context.WORLD_KEY, getName());
+        this.worldEventListener.add(this.lightingEngine);
         this.worldEventListener.add(this.observedChunkManager);
+        if (this.worldConfig.isParallelTickingEnabled()) {
+            this.parallelTicker = new ParallelWorldTicker(this, this.worldConfig.getParallelTickingThreads(),
+                    this.worldConfig.getParallelTickingBorderDistance());
+        } else {
+            this.parallelTicker = null;
+        }
+        this.tickRecorder = TickProfiler.createRecorder("world/" + getName());
         getWorldBorder().updateCurrentTime();
     }
 
@@ -302,6 +340,14 @@ public ObservedChunkManager getObservedChunkManager() {
         return this.observedChunkManager;
     }
 
+    public LightingEngine getLightingEngine() {
+        return this.lightingEngine;
+    }
+
+    public CollisionEngine getCollisionEngine() {
+        return this.collisionEngine;
+    }
+
     public void initialize() {
         // Initialize the world if needed
         if (this.properties.isInitialized()) {
@@ -319,6 +365,16 @@ public Scoreboard getScoreboard() {
         return this.scoreboard;
     }
 
+    /**
+     * Gets the {@link LanternChunkPreGenerateTask}s
+     * that are running in this world.
+     *
+     * @return The chunk pre-generate tasks
+     */
+    public Set<LanternChunkPreGenerateTask> getChunkPreGenerateTasks() {
+        return this.chunkPreGenerateTasks;
+    }
+
     /**
      * Shuts the world down and saves all the
      * data in the process.
@@ -330,8 +386,17 @@ void shutdown() {
             this.spawnLoadingTicket.release();
             this.spawnLoadingTicket = null;
         }
+        // Stop the pre-generation engines, they
+        // can't outlive the chunk manager
+        for (LanternChunkPreGenerateTask task : this.chunkPreGenerateTasks) {
+            task.shutdown();
+        }
         // Shut the chunk manager down
         this.chunkManager.shutdown();
+        if (this.parallelTicker != null) {
+            this.parallelTicker.shutdown();
+        }
+        TickProfiler.removeRecorder(this.tickRecorder);
     }
 
     /**
@@ -623,11 +688,17 @@ public Optional<UUID> getNotifier(int x, int y, int z) {
 
     @Override
     public void setCreator(int x, int y, int z, @Nullable UUID uuid) {
+        if (deferOutsideRegion(x, z, () -> setCreator(x, y, z, uuid))) {
+            return;
+        }
         this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setCreator(x, y, z, uuid);
     }
 
     @Override
     public void setNotifier(int x, int y, int z, @Nullable UUID uuid) {
+        if (deferOutsideRegion(x, z, () -> setNotifier(x, y, z, uuid))) {
+            return;
+        }
         this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setNotifier(x, y, z, uuid);
     }
 
@@ -733,6 +804,9 @@ public BlockType getBlockType(int x, int y, int z) {
 
     @Override
     public void setBiome(int x, int y, int z, BiomeType biome) {
+        if (deferOutsideRegion(x, z, () -> setBiome(x, y, z, biome))) {
+            return;
+        }
         this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setBiome(x, y, z, biome);
     }
 
@@ -776,13 +850,45 @@ public BiomeType getBiome(int x, int y, int z) {
         return this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).getBiome(x, y, z);
     }
 
+    /**
+     * Defers a change to the end of the tick, if the target chunk isn't part of the region
+     * that is being ticked by the current thread, see
+     * {@link ParallelWorldTicker#deferOutsideRegion(int, int, Runnable)}.
+     *
+     * @param x The x coordinate of the block
+     * @param z The z coordinate of the block
+     * @param action The change
+     * @return Whether the change was deferred
+     */
+    private boolean deferOutsideRegion(int x, int z, Runnable action) {
+        return this.parallelTicker != null && this.parallelTicker.deferOutsideRegion(x >> 4, z >> 4, action);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Changes outside of the region that is being ticked by the current thread are
+     * deferred to the end of the tick, {@code true} is returned for those changes
+     * before the block is actually set, see {@link #deferOutsideRegion(int, int, Runnable)}.
+     */
     @Override
     public boolean setBlock(int x, int y, int z, BlockState blockState) {
+        if (deferOutsideRegion(x, z, () -> setBlock(x, y, z, blockState))) {
+            return true;
+        }
         return this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setBlock(x, y, z, blockState);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@code true} if the change is deferred, see {@link #setBlock(int, int, int, BlockState)}.
+     */
     @Override
     public boolean setBlock(int x, int y, int z, BlockState blockState, BlockChangeFlag flag) {
+        if (deferOutsideRegion(x, z, () -> setBlock(x, y, z, blockState, flag))) {
+            return true;
+        }
         return this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setBlock(x, y, z, blockState, flag);
     }
 
@@ -791,15 +897,31 @@ public BlockSnapshot createSnapshot(int x, int y, int z) {
         return this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).createSnapshot(x, y, z);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@code true} if the change is deferred, see {@link #setBlock(int, int, int, BlockState)}.
+     */
     @Override
     public boolean restoreSnapshot(int x, int y, int z, BlockSnapshot snapshot, boolean force, BlockChangeFlag flag) {
+        if (deferOutsideRegion(x, z, () -> restoreSnapshot(x, y, z, snapshot, force, flag))) {
+            return true;
+        }
         return this.chunkManager.getOrLoadChunk(x >> 4, z >> 4)
                 .restoreSnapshot(x, y, z, snapshot, force, flag);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@code true} if the change is deferred, see {@link #setBlock(int, int, int, BlockState)}.
+     */
     @Override
     public boolean restoreSnapshot(BlockSnapshot snapshot, boolean force, BlockChangeFlag flag) {
         final Vector3i pos = checkNotNull(snapshot, "snapshot").getPosition();
+        if (deferOutsideRegion(pos.getX(), pos.getZ(), () -> restoreSnapshot(snapshot, force, flag))) {
+            return true;
+        }
         return this.chunkManager.getOrLoadChunk(pos.getX() >> 4, pos.getZ() >> 4)
                 .restoreSnapshot(pos.getX(), pos.getY(), pos.getZ(), snapshot, force, flag);
     }
@@ -968,6 +1090,9 @@ public boolean validateRawData(int x, int y, int z, DataView container) {
 
     @Override
     public void setRawData(int x, int y, int z, DataView container) throws InvalidDataException {
+        if (deferOutsideRegion(x, z, () -> setRawData(x, y, z, container))) {
+            return;
+        }
         this.chunkManager.getOrLoadChunk(x >> 4, z >> 4).setRawData(x, y, z, container);
     }
 
@@ -1123,8 +1248,7 @@ public void sendMessage(ChatType type, Text message) {
     public void sendTitle(Title title) {
         checkNotNull(title, "title");
         if (!this.players.isEmpty()) {
-            final List<Message> networkMessages = LanternTitles.getMessages(title);
-            this.players.forEach(player -> player.getConnection().send(networkMessages));
+            MessageBroadcaster.broadcast(this.players, LanternTitles.getMessages(title));
         }
     }
 
@@ -1360,6 +1484,10 @@ public Collection<Entity> spawnEntities(Iterable<? extends Entity> entities) {
     }
 
     private boolean spawnEntity0(Entity entity) {
+        // Entities that are spawned while ticking a region are added at the end of the tick
+        if (this.parallelTicker != null && this.parallelTicker.defer(() -> spawnEntity0(entity))) {
+            return true;
+        }
         final LanternEntity entity1 = addEntity((LanternEntity) entity);
         if (entity1 != null) {
             if (entity == entity1) {
@@ -1378,11 +1506,30 @@ private boolean spawnEntity0(Entity entity) {
     }
 
     public void addEntities(Iterable<Entity> entities) {
+        if (this.parallelTicker != null) {
+            final List<Entity> entityList = Lists.newArrayList(entities);
+            if (this.parallelTicker.defer(() -> addEntities(entityList))) {
+                return;
+            }
+        }
         for (Entity entity : entities) {
             addEntity((LanternEntity) entity);
         }
     }
 
+    /**
+     * Runs the action directly, unless the current thread is ticking a region
+     * of this world. The action will then run on the world thread once all the
+     * regions are ticked.
+     *
+     * @param action The action
+     */
+    public void runOutsideOfRegions(Runnable action) {
+        if (this.parallelTicker == null || !this.parallelTicker.defer(action)) {
+            action.run();
+        }
+    }
+
     @Nullable
     private LanternEntity addEntity(LanternEntity entity) {
         final LanternEntity entity1 = this.entitiesByUniqueId.putIfAbsent(entity.getUniqueId(), entity);
@@ -1397,38 +1544,72 @@ private LanternEntity addEntity(LanternEntity entity) {
         return null;
     }
 
-    private void pulseEntities() {
-        // Pulse the entities
-        for (LanternEntity entity : new ArrayList<>(this.entitiesByUniqueId.values())) {
+    private void pulseEntities(Collection<LanternEntity> entities) {
+        for (LanternEntity entity : entities) {
             if (entity.isRemoved()) {
-                final Vector3i lastChunk = entity.getLastChunkSectionCoords();
-                if (lastChunk != null && entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
-                    final LanternChunk chunk = this.chunkManager.getChunkIfLoaded(lastChunk.getX(), lastChunk.getZ());
-                    if (chunk != null) {
-                        chunk.removeEntity(entity, lastChunk.getY());
-                    }
-                }
-                this.entityProtocolManager.remove(entity);
-                this.entitiesByUniqueId.remove(entity.getUniqueId());
+                finishEntityRemoval(entity);
             } else {
-                final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
-                entity.pulse();
-                final Vector3i pos = entity.getPosition().toInt();
-                final Vector3i newChunk = new Vector3i(pos.getX() >> 4, fixEntityYSection(pos.getY() >> 4), pos.getZ() >> 4);
-                if (lastChunkSection == null || !lastChunkSection.equals(newChunk)) {
-                    LanternChunk chunk;
-                    if (lastChunkSection != null && (chunk = this.chunkManager.getChunkIfLoaded(
-                            lastChunkSection.getX(), lastChunkSection.getZ())) != null) {
-                        chunk.removeEntity(entity, lastChunkSection.getY());
-                    }
-                    chunk = this.chunkManager.getOrLoadChunk(newChunk.getX(), newChunk.getZ());
-                    chunk.addEntity(entity, newChunk.getY());
-                    entity.setLastChunkCoords(newChunk);
+                final Vector3i newChunk = pulseEntity(entity);
+                if (newChunk != null) {
+                    moveEntity(entity, newChunk);
                 }
             }
         }
     }
 
+    /**
+     * Removes the {@link LanternEntity} that was marked as removed
+     * from its chunk and this world.
+     *
+     * @param entity The entity
+     */
+    void finishEntityRemoval(LanternEntity entity) {
+        final Vector3i lastChunk = entity.getLastChunkSectionCoords();
+        if (lastChunk != null && entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
+            final LanternChunk chunk = this.chunkManager.getChunkIfLoaded(lastChunk.getX(), lastChunk.getZ());
+            if (chunk != null) {
+                chunk.removeEntity(entity, lastChunk.getY());
+            }
+        }
+        this.entityProtocolManager.remove(entity);
+        this.entitiesByUniqueId.remove(entity.getUniqueId());
+    }
+
+    /**
+     * Pulses the {@link LanternEntity}, the entity won't be moved to
+     * a different chunk. See {@link #moveEntity(LanternEntity, Vector3i)}.
+     *
+     * @param entity The entity
+     * @return The new chunk section coordinates, or {@code null} if the entity didn't leave its chunk section
+     */
+    @Nullable
+    Vector3i pulseEntity(LanternEntity entity) {
+        final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
+        entity.pulse();
+        final Vector3i pos = entity.getPosition().toInt();
+        final Vector3i newChunk = new Vector3i(pos.getX() >> 4, fixEntityYSection(pos.getY() >> 4), pos.getZ() >> 4);
+        return lastChunkSection == null || !lastChunkSection.equals(newChunk) ? newChunk : null;
+    }
+
+    /**
+     * Moves the {@link LanternEntity} to the given chunk section, the chunk will be
+     * loaded if needed.
+     *
+     * @param entity The entity
+     * @param newChunk The new chunk section coordinates
+     */
+    void moveEntity(LanternEntity entity, Vector3i newChunk) {
+        final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
+        LanternChunk chunk;
+        if (lastChunkSection != null && (chunk = this.chunkManager.getChunkIfLoaded(
+                lastChunkSection.getX(), lastChunkSection.getZ())) != null) {
+            chunk.removeEntity(entity, lastChunkSection.getY());
+        }
+        chunk = this.chunkManager.getOrLoadChunk(newChunk.getX(), newChunk.getZ());
+        chunk.addEntity(entity, newChunk.getY());
+        entity.setLastChunkCoords(newChunk);
+    }
+
     @Override
     public LanternWorldBorder getWorldBorder() {
         return this.properties.getWorldBorder();
@@ -1527,26 +1708,55 @@ public int getSeaLevel() {
     }
 
     public void pulse() {
+        this.tickRecorder.beginTick();
         final CauseStack causeStack = CauseStack.current();
         causeStack.pushCause(this);
 
+        long start = TickProfiler.start();
         this.chunkManager.pulse(causeStack);
+        this.tickRecorder.end(TickSection.CHUNK_MANAGER, start);
+        start = TickProfiler.start();
         this.timeUniverse.pulse();
+        this.tickRecorder.end(TickSection.TIME, start);
         if (this.weatherUniverse != null) {
+            start = TickProfiler.start();
             this.weatherUniverse.pulse(causeStack);
+            this.tickRecorder.end(TickSection.WEATHER, start);
         }
 
-        // Pulse the entities
-        pulseEntities();
-
-        // Pulse the tile entities
-        getLoadedChunks().forEach(chunk -> ((LanternChunk) chunk).pulse());
+        final List<LanternEntity> entities = new ArrayList<>(this.entitiesByUniqueId.values());
+        if (this.parallelTicker != null) {
+            // Pulse the entities and tile entities per region
+            start = TickProfiler.start();
+            this.parallelTicker.pulse(entities);
+            this.tickRecorder.end(TickSection.REGIONS, start);
+        } else {
+            // Pulse the entities
+            start = TickProfiler.start();
+            pulseEntities(entities);
+            this.tickRecorder.end(TickSection.ENTITIES, start);
+
+            // Pulse the tile entities
+            start = TickProfiler.start();
+            getLoadedChunks().forEach(chunk -> ((LanternChunk) chunk).pulse());
+            this.tickRecorder.end(TickSection.TILE_ENTITIES, start);
+        }
 
         causeStack.popCause();
 
+        // Update the light before the changes are streamed to the players
+        start = TickProfiler.start();
+        this.lightingEngine.pulse();
+        this.tickRecorder.end(TickSection.LIGHTING, start);
+
         // TODO: Maybe async?
+        start = TickProfiler.start();
         this.observedChunkManager.pulse();
+        this.tickRecorder.end(TickSection.OBSERVED_CHUNKS, start);
+        start = TickProfiler.start();
         this.entityProtocolManager.updateTrackers(this.players);
+        this.tickRecorder.end(TickSection.ENTITY_TRACKERS, start);
+        this.tickRecorder.endTick();
     }
 
     public void broadcast(Supplier<Message> message) {
@@ -1554,15 +1764,11 @@ public void broadcast(Supplier<Message> message) {
     }
 
     public void broadcast(Supplier<Message> message, @Nullable Predicate<LanternPlayer> filter) {
-        Set<LanternPlayer> players = this.players;
-        if (filter != null) {
-            players = players.stream().filter(filter).collect(Collectors.toSet());
-        }
-        if (players.isEmpty()) {
+        if (this.players.isEmpty()) {
             return;
         }
-        final Message message0 = message.get();
-        players.forEach(player -> player.getConnection().send(message0));
+        // The message will only be created if there is a player that matches the filter
+        MessageBroadcaster.broadcast(this.players, filter, message);
     }
 
     @Override
@@ -31,6 +31,7 @@
 import com.flowpowered.math.vector.Vector3d;
 import com.google.common.collect.Sets;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.MessageBroadcaster;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutWorldBorder;
 import org.lanternpowered.server.world.pregen.LanternChunkPreGenerateTask;
@@ -83,8 +84,7 @@ public void removePlayer(LanternPlayer player) {
 
     private void broadcast(Supplier<Message> supplier) {
         if (!this.players.isEmpty()) {
-            final Message message = supplier.get();
-            this.players.forEach(p -> p.getConnection().send(message));
+            MessageBroadcaster.broadcast(this.players, supplier.get());
         }
     }
 
@@ -0,0 +1,295 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.lanternpowered.api.cause.CauseStack;
+import org.lanternpowered.server.cause.LanternCauseStack;
+import org.lanternpowered.server.cause.LanternCauseStackManager;
+import org.lanternpowered.server.entity.LanternEntity;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.util.UncheckedThrowables;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.spongepowered.api.world.Chunk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ticks the entities and chunks of a {@link LanternWorld} in parallel.
+ * <p>
+ * The loaded chunks are partitioned by the {@link ChunkRegionPartitioner} into
+ * regions which are separated by a border of chunks that aren't loaded. Each region
+ * is ticked on the fork join pool, the effects that can cross the borders of a
+ * region are merged on the world thread once all the regions are done:
+ * <ul>
+ *     <li>Entities that move to a different chunk are only moved at the barrier,
+ *     this may load chunks and modify the entity sets of other regions.</li>
+ *     <li>Entities that are spawned or loaded are only added to the world at the
+ *     barrier, see {@link #defer(Runnable)}.</li>
+ *     <li>Block and biome changes in chunks that aren't part of the region are applied
+ *     at the barrier, see {@link #deferOutsideRegion(int, int, Runnable)}.</li>
+ *     <li>Chunks outside of the region may be loaded, the chunk manager supports
+ *     concurrent loads, but their populations are started at the barrier.</li>
+ *     <li>Scheduled block updates are stored in a concurrent queue per chunk and
+ *     will be processed the next time the target chunk is pulsed.</li>
+ *     <li>Events are posted on the region threads, each of them has its own cause stack
+ *     which starts with the world, just like the world thread.</li>
+ * </ul>
+ * Players and entities without a chunk are still pulsed on the world thread
+ * before the regions, they touch a lot of shared state (inventories, connections,
+ * chunk loading tickets, etc.).
+ */
+final class ParallelWorldTicker {
+
+    // The region that is being ticked by the current thread
+    private static final ThreadLocal<Region> currentRegion = new ThreadLocal<>();
+
+    private final LanternWorld world;
+    private final ForkJoinPool pool;
+    private final int borderDistance;
+
+    ParallelWorldTicker(LanternWorld world, int parallelism, int borderDistance) {
+        this.world = world;
+        this.borderDistance = borderDistance;
+        final String name = "world-" + world.getName().toLowerCase(Locale.ENGLISH) + "-region-";
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+                @Override
+                protected void onStart() {
+                    super.onStart();
+                    // Every region thread needs its own cause stack
+                    LanternCauseStackManager.INSTANCE.setCurrentCauseStack(new LanternCauseStack());
+                }
+            };
+            thread.setName(name + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Pulses the given entities and all the loaded chunks.
+     *
+     * @param entities The entities
+     */
+    void pulse(Collection<LanternEntity> entities) {
+        final Collection<Chunk> chunks = this.world.getLoadedChunks();
+        final LongList keys = new LongArrayList(chunks.size());
+        for (Chunk chunk : chunks) {
+            keys.add(ChunkRegionPartitioner.key(((LanternChunk) chunk).getX(), ((LanternChunk) chunk).getZ()));
+        }
+        final List<LongList> partition = ChunkRegionPartitioner.partition(keys, this.borderDistance);
+        if (partition.size() <= 1) {
+            // Nothing to gain, just pulse everything on the world thread
+            entities.forEach(this::pulseEntity);
+            chunks.forEach(chunk -> ((LanternChunk) chunk).pulse());
+            return;
+        }
+
+        final Long2IntMap regionByChunk = new Long2IntOpenHashMap(keys.size());
+        regionByChunk.defaultReturnValue(-1);
+        final Region[] regions = new Region[partition.size()];
+        for (int i = 0; i < regions.length; i++) {
+            final LongList regionKeys = partition.get(i);
+            regions[i] = new Region(this.world, regionKeys);
+            final LongIterator it = regionKeys.iterator();
+            while (it.hasNext()) {
+                regionByChunk.put(it.nextLong(), i);
+            }
+        }
+        for (Chunk chunk : chunks) {
+            final LanternChunk chunk0 = (LanternChunk) chunk;
+            regions[regionByChunk.get(ChunkRegionPartitioner.key(chunk0.getX(), chunk0.getZ()))].chunks.add(chunk0);
+        }
+
+        final List<LanternEntity> worldThreadEntities = new ArrayList<>();
+        for (LanternEntity entity : entities) {
+            if (entity.isRemoved()) {
+                this.world.finishEntityRemoval(entity);
+                continue;
+            }
+            final Vector3i chunk = entity.getLastChunkSectionCoords();
+            final int region = chunk == null || entity instanceof LanternPlayer ? -1 :
+                    regionByChunk.get(ChunkRegionPartitioner.key(chunk.getX(), chunk.getZ()));
+            if (region == -1) {
+                worldThreadEntities.add(entity);
+            } else {
+                regions[region].entities.add(entity);
+            }
+        }
+        worldThreadEntities.forEach(this::pulseEntity);
+
+        for (Region region : regions) {
+            this.pool.execute(region);
+        }
+        Throwable throwable = null;
+        for (Region region : regions) {
+            try {
+                region.join();
+            } catch (Throwable t) {
+                if (throwable == null) {
+                    throwable = t;
+                } else {
+                    throwable.addSuppressed(t);
+                }
+            }
+        }
+        // The barrier, move all the entities to their new chunks
+        for (Region region : regions) {
+            for (int i = 0; i < region.movedEntities.size(); i++) {
+                this.world.moveEntity(region.movedEntities.get(i), region.movedEntityChunks.get(i));
+            }
+        }
+        // Apply the changes that crossed the borders of the regions,
+        // in the order of the regions to keep them deterministic
+        for (Region region : regions) {
+            for (Runnable action : region.deferredActions) {
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    if (throwable == null) {
+                        throwable = t;
+                    } else {
+                        throwable.addSuppressed(t);
+                    }
+                }
+            }
+        }
+        if (throwable != null) {
+            throw UncheckedThrowables.throwUnchecked(throwable);
+        }
+    }
+
+    private void pulseEntity(LanternEntity entity) {
+        if (entity.isRemoved()) {
+            this.world.finishEntityRemoval(entity);
+        } else {
+            final Vector3i newChunk = this.world.pulseEntity(entity);
+            if (newChunk != null) {
+                this.world.moveEntity(entity, newChunk);
+            }
+        }
+    }
+
+    /**
+     * Defers the action until all the regions are ticked, if the current thread
+     * is ticking a region of the world. The action will run on the world thread.
+     *
+     * @param action The action
+     * @return Whether the action was deferred
+     */
+    boolean defer(Runnable action) {
+        final Region region = currentRegion.get();
+        if (region == null || region.world != this.world) {
+            return false;
+        }
+        region.deferredActions.add(action);
+        return true;
+    }
+
+    /**
+     * Defers the action until all the regions are ticked, if the current thread
+     * is ticking a region of the world which doesn't contain the given chunk.
+     *
+     * @param chunkX The x coordinate of the chunk
+     * @param chunkZ The z coordinate of the chunk
+     * @param action The action
+     * @return Whether the action was deferred
+     */
+    boolean deferOutsideRegion(int chunkX, int chunkZ, Runnable action) {
+        final Region region = currentRegion.get();
+        if (region == null || region.world != this.world ||
+                region.chunkKeys.contains(ChunkRegionPartitioner.key(chunkX, chunkZ))) {
+            return false;
+        }
+        region.deferredActions.add(action);
+        return true;
+    }
+
+    /**
+     * Shuts the ticker down.
+     */
+    void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private static final class Region extends RecursiveAction {
+
+        private static final long serialVersionUID = 5107493526815632489L;
+
+        private final LanternWorld world;
+        private final LongSet chunkKeys;
+        private final List<LanternChunk> chunks;
+        private final List<LanternEntity> entities = new ArrayList<>();
+
+        // The actions that should run on the world thread
+        private final List<Runnable> deferredActions = new ArrayList<>();
+
+        // The entities that moved to a different chunk section
+        private final List<LanternEntity> movedEntities = new ArrayList<>();
+        private final List<Vector3i> movedEntityChunks = new ArrayList<>();
+
+        private Region(LanternWorld world, LongList chunkKeys) {
+            this.world = world;
+            this.chunkKeys = new LongOpenHashSet(chunkKeys);
+            this.chunks = new ArrayList<>(chunkKeys.size());
+        }
+
+        @Override
+        protected void compute() {
+            final CauseStack causeStack = CauseStack.current();
+            causeStack.pushCause(this.world);
+            currentRegion.set(this);
+            try {
+                for (LanternEntity entity : this.entities) {
+                    final Vector3i newChunk = this.world.pulseEntity(entity);
+                    if (newChunk != null) {
+                        this.movedEntities.add(entity);
+                        this.movedEntityChunks.add(newChunk);
+                    }
+                }
+                for (LanternChunk chunk : this.chunks) {
+                    chunk.pulse();
+                }
+            } finally {
+                currentRegion.remove();
+                causeStack.popCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.key;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyX;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyZ;
+
+import com.google.common.base.Throwables;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.lanternpowered.server.world.ChunkRegionPartitioner;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Schedules the population of chunks.
+ * <p>
+ * The population of a chunk writes to a region of 2x2 chunks, the chunk itself and
+ * the chunks at (x + 1, z), (x, z + 1) and (x + 1, z + 1). A population can run once
+ * all the chunks of its region are generated, and while it runs, the region is
+ * locked so that overlapping populations never run at the same time.
+ * <p>
+ * Populations are grouped into four phases based on the parity of the chunk
+ * coordinates, the regions of the populations within one phase never overlap,
+ * so they can run concurrently without influencing each other. Within a batch, see
+ * {@link #populate(LongCollection, LongConsumer)}, the phases are always executed in
+ * the same order, which makes the output for the same seed and chunks independent
+ * of the amount of threads.
+ * <p>
+ * This only applies to batches. The populations that are triggered by chunk loads,
+ * see {@link #populate(long, LongConsumer)}, run in the order in which the chunks
+ * finish loading, so populations with overlapping regions may run in a different
+ * order and produce a different output.
+ * <p>
+ * Populators may generate chunks outside of their region, populations that become
+ * possible because of those chunks are deferred through {@link #runAfterPopulations(Runnable)}
+ * until the locks are released, otherwise two threads could wait on each other's locks.
+ * <p>
+ * All the chunks are represented by keys, see {@link ChunkRegionPartitioner#key(int, int)}.
+ */
+final class ChunkPopulationScheduler {
+
+    /**
+     * The amount of phases.
+     */
+    static final int PHASES = 4;
+
+    /**
+     * The amount of stripes of the region locks.
+     */
+    private static final int LOCK_STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ThreadLocal<PopulationState> populationState = ThreadLocal.withInitial(PopulationState::new);
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Constructs a new {@link ChunkPopulationScheduler}.
+     *
+     * @param executor The executor to run populations concurrently
+     * @param parallelism The maximum amount of populations that run concurrently
+     */
+    ChunkPopulationScheduler(Executor executor, int parallelism) {
+        checkArgument(parallelism >= 1, "The parallelism must be at least 1");
+        this.executor = executor;
+        this.parallelism = parallelism;
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the phase of the population of the chunk.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The phase
+     */
+    static int getPhase(int x, int z) {
+        return (x & 1) | (z & 1) << 1;
+    }
+
+    /**
+     * Gets the keys of the populations of which the region contains the
+     * given chunk, sorted by phase. These are the populations that may
+     * become possible once the chunk is generated.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The population keys
+     */
+    static long[] getDependentPopulations(int x, int z) {
+        final long[] keys = new long[PHASES];
+        for (int dx = 0; dx <= 1; dx++) {
+            for (int dz = 0; dz <= 1; dz++) {
+                keys[getPhase(x - dx, z - dz)] = key(x - dx, z - dz);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Gets whether all the chunks in the region of the population are generated.
+     *
+     * @param x The chunk x coordinate of the population
+     * @param z The chunk z coordinate of the population
+     * @param generated The test whether a chunk is generated
+     * @return Whether the population can run
+     */
+    static boolean canPopulate(int x, int z, ChunkTest generated) {
+        return generated.test(x, z) && generated.test(x + 1, z) &&
+                generated.test(x, z + 1) && generated.test(x + 1, z + 1);
+    }
+
+    /**
+     * A test for a chunk.
+     */
+    @FunctionalInterface
+    interface ChunkTest {
+
+        /**
+         * Tests the chunk.
+         *
+         * @param x The chunk x coordinate
+         * @param z The chunk z coordinate
+         * @return The result
+         */
+        boolean test(int x, int z);
+    }
+
+    private static final class PopulationState {
+
+        // The amount of populations that are running on the thread
+        private int depth;
+
+        // The actions that wait until the populations are done
+        private final Deque<Runnable> deferred = new ArrayDeque<>();
+    }
+
+    /**
+     * Gets whether the current thread is running a
+     * population and holds the locks of its region.
+     *
+     * @return Whether the current thread is populating
+     */
+    boolean isPopulating() {
+        return this.populationState.get().depth > 0;
+    }
+
+    /**
+     * Runs the action once the current thread finished its populations
+     * and released their locks, or directly if it isn't populating.
+     *
+     * @param action The action
+     */
+    void runAfterPopulations(Runnable action) {
+        final PopulationState state = this.populationState.get();
+        if (state.depth == 0) {
+            action.run();
+        } else {
+            state.deferred.add(action);
+        }
+    }
+
+    /**
+     * Runs the population of the chunk while holding the locks of its
+     * region, the deferred actions are executed after they are released.
+     *
+     * @param key The population key
+     * @param populator The populator
+     */
+    void populate(long key, LongConsumer populator) {
+        final int x = keyX(key);
+        final int z = keyZ(key);
+        final int[] stripes = {
+                getStripe(x, z),
+                getStripe(x + 1, z),
+                getStripe(x, z + 1),
+                getStripe(x + 1, z + 1),
+        };
+        // Always lock in the same order to avoid dead locks, chunks
+        // that share a stripe will just lock it multiple times
+        Arrays.sort(stripes);
+        final PopulationState state = this.populationState.get();
+        try {
+            for (int stripe : stripes) {
+                this.locks[stripe].lock();
+            }
+            state.depth++;
+            try {
+                populator.accept(key);
+            } finally {
+                state.depth--;
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    this.locks[stripes[i]].unlock();
+                }
+            }
+        } finally {
+            if (state.depth == 0) {
+                // The actions may start new populations, which
+                // will run the remaining actions themselves
+                Runnable action;
+                while ((action = state.deferred.poll()) != null) {
+                    action.run();
+                }
+            }
+        }
+    }
+
+    private static int getStripe(int x, int z) {
+        return (int) HashCommon.mix(key(x, z)) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Runs the populations of all the given chunks, phase by phase. The
+     * populations within a phase are distributed over the executor, the
+     * calling thread helps and waits until all the populations are done.
+     *
+     * @param keys The population keys
+     * @param populator The populator
+     */
+    void populate(LongCollection keys, LongConsumer populator) {
+        populate(keys, populator, Runnable::run);
+    }
+
+    /**
+     * Runs the populations of all the given chunks, phase by phase. The
+     * populations within a phase are distributed over the executor, the
+     * calling thread helps and waits until all the populations are done.
+     * <p>
+     * Every population is passed to the throttle before the locks of its
+     * region are acquired, the throttle must run it on the calling thread
+     * but may wait first, to limit the populations that run concurrently.
+     *
+     * @param keys The population keys
+     * @param populator The populator
+     * @param throttle The throttle
+     */
+    void populate(LongCollection keys, LongConsumer populator, Executor throttle) {
+        final LongList[] phases = new LongList[PHASES];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LongArrayList();
+        }
+        final LongIterator it = keys.iterator();
+        while (it.hasNext()) {
+            final long key = it.nextLong();
+            phases[getPhase(keyX(key), keyZ(key))].add(key);
+        }
+        for (LongList phase : phases) {
+            if (!phase.isEmpty()) {
+                populatePhase(phase.toLongArray(), populator, throttle);
+            }
+        }
+    }
+
+    private void populatePhase(long[] keys, LongConsumer populator, Executor throttle) {
+        final PhaseTask task = new PhaseTask(keys, populator, throttle);
+        // Submit helpers for the remaining populations, the helpers that
+        // start after all the populations are claimed will stop directly
+        final int helpers = Math.min(this.parallelism, keys.length) - 1;
+        for (int i = 0; i < helpers; i++) {
+            this.executor.execute(task);
+        }
+        task.run();
+        task.await();
+        final Throwable throwable = task.throwable.get();
+        if (throwable != null) {
+            Throwables.throwIfUnchecked(throwable);
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private final class PhaseTask implements Runnable {
+
+        private final long[] keys;
+        private final LongConsumer populator;
+        private final Executor throttle;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicReference<Throwable> throwable = new AtomicReference<>();
+        private int completed;
+
+        private PhaseTask(long[] keys, LongConsumer populator, Executor throttle) {
+            this.keys = keys;
+            this.populator = populator;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public void run() {
+            int index;
+            while ((index = this.next.getAndIncrement()) < this.keys.length) {
+                final long key = this.keys[index];
+                try {
+                    this.throttle.execute(() -> populate(key, this.populator));
+                } catch (Throwable t) {
+                    this.throwable.compareAndSet(null, t);
+                } finally {
+                    synchronized (this) {
+                        if (++this.completed == this.keys.length) {
+                            notifyAll();
+                        }
+                    }
+                }
+            }
+        }
+
+        private synchronized void await() {
+            boolean interrupted = false;
+            while (this.completed < this.keys.length) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -142,6 +142,33 @@ public <T> T work(int index, Function<O, T> function, boolean write, boolean for
         }
     }
 
+    /**
+     * Performs a read function that results in a short on the object. The
+     * argument will be passed through to the function, this allows the function
+     * to be non capturing so that frequent reads don't allocate anything.
+     *
+     * @param index The index of the object
+     * @param argument The argument that will be passed to the function
+     * @param function The function that will be executed
+     * @return The result of the function
+     */
+    public short workShort(int index, int argument, ObjectIntToShortFunction<O> function) {
+        final StampedLock lock = this.locks[index];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            final short result = function.apply(this.objects[index], argument);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return function.apply(this.objects[index], argument);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
     /**
      * Allows us to perform some work on the section, the function may return
      * a null, this can happen if the section was empty (all air), and may return
@@ -159,4 +186,10 @@ public void work(int index, Function<O, O> function) {
             lock.unlockWrite(stamp);
         }
     }
+
+    @FunctionalInterface
+    public interface ObjectIntToShortFunction<O> {
+
+        short apply(O object, int argument);
+    }
 }
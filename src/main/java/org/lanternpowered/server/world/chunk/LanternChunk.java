@@ -40,8 +40,6 @@
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
 import org.lanternpowered.api.cause.CauseStack;
 import org.lanternpowered.server.block.LanternBlockSnapshot;
 import org.lanternpowered.server.block.LanternBlockType;
@@ -70,6 +68,8 @@
 import org.lanternpowered.server.world.extent.ExtentViewDownsize;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBiomeVolumeWorker;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBlockVolumeWorker;
+import org.lanternpowered.server.world.physics.BlockCollisionShapes;
+import org.lanternpowered.server.world.physics.VoxelShape;
 import org.spongepowered.api.block.BlockSnapshot;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
@@ -126,7 +126,6 @@
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -179,13 +178,7 @@ public static class ChunkSection {
         /**
          * The block types array.
          */
-        final short[] types;
-
-        /**
-         * The amount of blocks per block type/state in
-         * this chunk section.
-         */
-        final Short2ShortMap typesCountMap = new Short2ShortOpenHashMap();
+        final PaletteBlockArray types;
 
         /**
          * The light level arrays.
@@ -195,11 +188,6 @@ public static class ChunkSection {
 
         final Short2ObjectMap<LanternTileEntity> tileEntities;
 
-        /**
-         * The amount of non air blocks in this chunk section.
-         */
-        int nonAirCount;
-
         ChunkSection() {
             this(null);
         }
@@ -208,11 +196,9 @@ public static class ChunkSection {
             if (types != null) {
                 checkArgument(types.length == CHUNK_SECTION_VOLUME, "Type array length mismatch: Got "
                         + types.length + ", but expected " + CHUNK_SECTION_VOLUME);
-                this.types = new short[CHUNK_SECTION_VOLUME];
-                System.arraycopy(types, 0, this.types, 0, CHUNK_SECTION_VOLUME);
-                recountTypes();
+                this.types = new PaletteBlockArray(types);
             } else {
-                this.types = new short[CHUNK_SECTION_VOLUME];
+                this.types = new PaletteBlockArray(CHUNK_SECTION_VOLUME);
             }
             this.tileEntities = new Short2ObjectOpenHashMap<>();
             this.lightFromBlock = new NibbleArray(CHUNK_SECTION_VOLUME);
@@ -230,10 +216,7 @@ public ChunkSection(short[] types, NibbleArray lightFromSky, NibbleArray lightFr
             this.lightFromBlock = lightFromBlock;
             this.lightFromSky = lightFromSky;
             this.tileEntities = tileEntities;
-            this.types = types;
-
-            // Count the non air blocks.
-            recountTypes();
+            this.types = new PaletteBlockArray(types);
         }
 
         public static int index(Vector3i position) {
@@ -252,27 +235,8 @@ public static int index(int x, int y, int z) {
             return (y << 8) | (z << 4) | x;
         }
 
-        /**
-         * Recounts the amount of non air blocks.
-         */
-        private void recountTypes() {
-            this.nonAirCount = 0;
-            this.typesCountMap.clear();
-            for (short type : this.types) {
-                if (type != 0) {
-                    this.nonAirCount++;
-                    this.typesCountMap.put(type, (short) (this.typesCountMap.get(type) + 1));
-                }
-            }
-        }
-
         private ChunkSectionSnapshot asSnapshot(boolean skylight) {
-            final Short2ShortMap typeCounts = new Short2ShortOpenHashMap(this.typesCountMap);
-            final int count = this.types.length - this.nonAirCount;
-            if (count > 0) {
-                typeCounts.put((short) 0, (short) count);
-            }
-            return new ChunkSectionSnapshot(this.types.clone(), typeCounts, new Short2ObjectOpenHashMap<>(this.tileEntities),
+            return new ChunkSectionSnapshot(this.types.copy(), new Short2ObjectOpenHashMap<>(this.tileEntities),
                     this.lightFromBlock.getPackedArray(), skylight ? this.lightFromSky.getPackedArray() : null);
         }
     }
@@ -280,9 +244,7 @@ private ChunkSectionSnapshot asSnapshot(boolean skylight) {
     public static class ChunkSectionSnapshot {
 
         // The block types array.
-        public final short[] types;
-        // The types count map.
-        public final Short2ShortMap typesCountMap;
+        public final PaletteBlockArray types;
         // The tile entities
         public final Short2ObjectMap<LanternTileEntity> tileEntities;
 
@@ -290,11 +252,10 @@ public static class ChunkSectionSnapshot {
         @Nullable public final byte[] lightFromSky;
         public final byte[] lightFromBlock;
 
-        private ChunkSectionSnapshot(short[] types, Short2ShortMap typesCountMap, Short2ObjectMap<LanternTileEntity> tileEntities,
+        private ChunkSectionSnapshot(PaletteBlockArray types, Short2ObjectMap<LanternTileEntity> tileEntities,
                 byte[] lightFromBlock, @Nullable byte[] lightFromSky) {
             this.tileEntities = tileEntities;
             this.lightFromBlock = lightFromBlock;
-            this.typesCountMap = typesCountMap;
             this.lightFromSky = lightFromSky;
             this.types = types;
         }
@@ -519,6 +480,80 @@ public void initializeLight() {
         this.lightPopulated = true;
     }
 
+    /**
+     * Gets the raw chunk sections array, sections may be {@code null}
+     * if they only contain air.
+     *
+     * @return The chunk sections
+     */
+    ChunkSection[] getRawSections() {
+        return this.chunkSections.getRawObjects();
+    }
+
+    /**
+     * Gets the {@link ChunkSection} at the given index, a empty
+     * section will be created if there isn't one yet.
+     *
+     * @param index The section index
+     * @return The chunk section
+     */
+    ChunkSection getOrCreateSection(int index) {
+        ChunkSection section = this.chunkSections.getRawObjects()[index];
+        if (section == null) {
+            this.chunkSections.work(index, section1 -> section1 == null ? createEmptySection(index) : section1);
+            section = this.chunkSections.getRawObjects()[index];
+        }
+        return section;
+    }
+
+    private ChunkSection createEmptySection(int index) {
+        final ChunkSection section = new ChunkSection();
+        if (this.world.getDimension().hasSky()) {
+            // Start with the light that the section had while it was empty
+            final int top = index << 4 | 0xf;
+            for (int z = 0; z < CHUNK_SECTION_SIZE; z++) {
+                for (int x = 0; x < CHUNK_SECTION_SIZE; x++) {
+                    final int light = getEmptySectionSkyLight(x, top, z);
+                    if (light == 15) {
+                        for (int y = 0; y < CHUNK_SECTION_SIZE; y++) {
+                            section.lightFromSky.set(ChunkSection.index(x, y, z), (byte) 15);
+                        }
+                    } else {
+                        for (int y = 0; y < CHUNK_SECTION_SIZE; y++) {
+                            section.lightFromSky.set(ChunkSection.index(x, y, z), (byte) Math.max(0, light - (0xf - y)));
+                        }
+                    }
+                }
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Gets the sky light at the given position within a section
+     * that doesn't exist yet, the section only contains air.
+     * <p>
+     * The light falls down from the first section above the position,
+     * direct sky light doesn't lose strength while falling through air. If
+     * there isn't any section above the position, it's exposed to the sky.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The sky light
+     */
+    int getEmptySectionSkyLight(int x, int y, int z) {
+        final ChunkSection[] sections = this.chunkSections.getRawObjects();
+        for (int i = (y >> 4) + 1; i < sections.length; i++) {
+            final ChunkSection section = sections[i];
+            if (section != null) {
+                final int light = section.lightFromSky.get(ChunkSection.index(x & 0xf, 0, z & 0xf));
+                return light == 15 ? 15 : Math.max(0, light - ((i << 4) - y));
+            }
+        }
+        return 15;
+    }
+
     public void setLightPopulated(boolean lightPopulated) {
         this.lightPopulated = lightPopulated;
     }
@@ -547,6 +582,19 @@ public ChunkSectionSnapshot[] getSectionSnapshots(boolean skylight, int sectionB
         return array;
     }
 
+    /**
+     * Gets a copy of the tile entities within the chunk
+     * section at the given index.
+     *
+     * @param index The index of the section
+     * @return The tile entities, or {@code null} if the section is empty
+     */
+    @Nullable
+    public Short2ObjectMap<LanternTileEntity> getSectionTileEntities(int index) {
+        return this.chunkSections.work(index, section -> section == null ? null :
+                new Short2ObjectOpenHashMap<>(section.tileEntities), false, true);
+    }
+
     public int[] getHeightMap() {
         final int[] heightMap0 = new int[this.heightMap.length];
         for (int i = 0; i < heightMap0.length; i++) {
@@ -610,7 +658,7 @@ public int getHighestYAt(int x, int z) {
                         // Loop down in the section until we may find a
                         // non empty block
                         while (--y >= 0) {
-                            if (section.types[(y << 8) | index] != 0) {
+                            if (section.types.get((y << 8) | index) != 0) {
                                 values0[0] = j << 4 | y;
                                 values1[0] = true;
                                 break;
@@ -684,7 +732,7 @@ private void automaticHeightMap() {
                         // Loop down in the section until we may find a
                         // non empty block
                         while (--y >= 0) {
-                            if (section.types[(y << 8) | index] != 0) {
+                            if (section.types.get((y << 8) | index) != 0) {
                                 finished[index] = true;
                                 heightMap[index] = (byte) y;
                                 if (++values0[0] >= CHUNK_AREA) {
@@ -830,6 +878,10 @@ public void setBiomeId(int x, int y, int z, short biome) {
         }
     }
 
+    // A non capturing function, to avoid allocations when looking up block types
+    private static final ConcurrentObjectArray.ObjectIntToShortFunction<ChunkSection> TYPE_FUNCTION =
+            (section, index) -> section == null ? 0 : section.types.get(index);
+
     public short getType(Vector3i coordinates) {
         return getType(coordinates.getX(), coordinates.getY(), coordinates.getZ());
     }
@@ -847,12 +899,7 @@ public short getType(int x, int y, int z) {
         if (!this.loaded) {
             return 0;
         }
-        return this.chunkSections.work(y >> 4, section -> {
-            if (section != null) {
-                return section.types[ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)];
-            }
-            return (short) 0;
-        }, false);
+        return this.chunkSections.workShort(y >> 4, ChunkSection.index(x & 0xf, y & 0xf, z & 0xf), TYPE_FUNCTION);
     }
 
     @Override
@@ -890,35 +937,17 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
                     return section;
                 }
                 // Create a new section
-                section = new ChunkSection();
+                section = createEmptySection(y >> 4);
             }
             final int index = ChunkSection.index(rx, y & 0xf, rz);
-            final short oldType = section.types[index];
+            final short oldType = section.types.set(index, type1);
             if (oldType == type1) {
                 return section;
             }
-            if (oldType != 0) {
-                short count = section.typesCountMap.get(oldType);
-                if (count > 0) {
-                    if (--count <= 0) {
-                        section.typesCountMap.remove(oldType);
-                    } else {
-                        section.typesCountMap.put(oldType, count);
-                    }
-                }
-            }
-            if (type1 != 0) {
-                section.typesCountMap.put(type1, (short) (section.typesCountMap.get(type1) + 1));
-                if (oldType == 0) {
-                    section.nonAirCount++;
-                }
-            } else {
-                section.nonAirCount--;
-            }
-            final BlockState oldState = BlockRegistryModule.get().getStateByInternalIdAndData(oldType).get();
+            final BlockState oldState = BlockRegistryModule.get().getRawStateByInternalIdAndData(oldType);
             changeData[0] = oldState;
             // The section is empty, destroy it
-            if (section.nonAirCount <= 0) {
+            if (section.types.getNonAirCount() <= 0) {
                 return null;
             }
             final LanternTileEntity tileEntity = section.tileEntities.get((short) index);
@@ -960,7 +989,6 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
             } else if (tileEntity != null) {
                 tileEntity.setBlock(block);
             }
-            section.types[index] = type1;
             return section;
         });
 
@@ -1025,7 +1053,7 @@ public byte getSkyLight(int x, int y, int z) {
         if (!this.loaded) {
             return 15;
         }
-        return this.chunkSections.work(y >> 4, section -> section == null ? 15 :
+        return this.chunkSections.work(y >> 4, section -> section == null ? (byte) getEmptySectionSkyLight(x, y, z) :
                 section.lightFromSky.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)), false);
     }
 
@@ -1255,25 +1283,15 @@ public Optional<AABB> getBlockSelectionBox(int x, int y, int z) {
 
     @Override
     public Collection<AABB> getBlockCollisionBoxes(int x, int y, int z) {
-        final BlockState block = getBlock(x, y, z);
-        if (block.getType() == BlockTypes.AIR) {
-            return Collections.emptySet();
-        }
-        final ObjectProvider<Collection<AABB>> aabbObjectProvider = ((LanternBlockType) block.getType()).getCollisionBoxesProvider();
-        if (aabbObjectProvider == null) {
+        final short type = getType(x, y, z);
+        if (type == 0) {
             return Collections.emptySet();
         }
-        final Collection<AABB> collisionBoxes;
-        if (aabbObjectProvider instanceof ConstantObjectProvider
-                || aabbObjectProvider instanceof CachedSimpleObjectProvider
-                || aabbObjectProvider instanceof SimpleObjectProvider) {
-            collisionBoxes = aabbObjectProvider.get(block, null, null);
-        } else {
-            collisionBoxes = aabbObjectProvider.get(block, new Location<>(this.world, x, y, z), null);
+        VoxelShape shape = BlockCollisionShapes.get(type);
+        if (shape == null) {
+            shape = BlockCollisionShapes.get(getBlock(x, y, z), new Location<>(this.world, x, y, z));
         }
-        return collisionBoxes == null || collisionBoxes.isEmpty() ? Collections.emptySet() : collisionBoxes.stream()
-                .map(aabb -> aabb.offset(x, y, z))
-                .collect(Collectors.toList());
+        return shape.isEmpty() ? Collections.emptySet() : shape.toBoxes(x, y, z);
     }
 
     @Override
@@ -1599,7 +1617,8 @@ public boolean containsBlock(int x, int y, int z) {
 
     @Override
     public BlockState getBlock(int x, int y, int z) {
-        return BlockRegistryModule.get().getStateByInternalIdAndData(getType(x, y, z)).orElse(BlockTypes.AIR.getDefaultState());
+        final BlockState blockState = BlockRegistryModule.get().getRawStateByInternalIdAndData(getType(x, y, z));
+        return blockState == null ? BlockTypes.AIR.getDefaultState() : blockState;
     }
 
     @Override
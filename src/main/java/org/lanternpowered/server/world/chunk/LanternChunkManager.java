@@ -27,6 +27,8 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.lanternpowered.server.util.Conditions.checkPlugin;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyX;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyZ;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_AREA;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_HEIGHT;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
@@ -46,6 +48,10 @@
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
 import org.lanternpowered.api.cause.CauseStack;
 import org.lanternpowered.api.util.concurrent.SoftThreadLocal;
 import org.lanternpowered.server.config.world.WorldConfig;
@@ -62,10 +68,12 @@
 import org.lanternpowered.server.util.gen.block.AtomicShortArrayMutableBlockBuffer;
 import org.lanternpowered.server.util.gen.block.ShortArrayImmutableBlockBuffer;
 import org.lanternpowered.server.util.gen.block.ShortArrayMutableBlockBuffer;
+import org.lanternpowered.server.world.ChunkRegionPartitioner;
 import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
 import org.lanternpowered.server.world.extent.ExtentBufferHelper;
 import org.lanternpowered.server.world.extent.SoftBufferExtentViewDownsize;
+import org.lanternpowered.server.world.gen.ChunkGenerationPopulator;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
@@ -113,6 +121,7 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
@@ -184,11 +193,14 @@ public int hashCode() {
             CHUNK_LOADING_CORE_POOL_SIZE, CHUNK_LOADING_MAX_POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
             ThreadHelper.newThreadFactory());
 
+    // The scheduler that is used to populate chunks
+    private final ChunkPopulationScheduler populationScheduler = new ChunkPopulationScheduler(
+            this.chunkTaskExecutor, CHUNK_LOADING_CORE_POOL_SIZE);
+
     // Some objects that can be used in {@link Chunk} population.
     private class PopulationData {
 
         private final Random random = new Random();
-        private final ChunkLoadingTicket lockTicket = new InternalLoadingTicket();
     }
 
     private LanternChunkQueueTask queueTask(Vector2i coords, Runnable runnable) {
@@ -676,6 +688,71 @@ public LanternChunk getOrCreateChunk(Vector2i coords, CauseStack cause, boolean
         return getOrCreateChunk(coords, cause, generate, true);
     }
 
+    /**
+     * Gets or creates the chunk at the specified coordinates, the chunk will be generated
+     * if missing but not populated. This allows a area of chunks to be generated
+     * concurrently, after which the chunks can be populated at once through
+     * {@link #populateChunks(LongCollection, CauseStack)}.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @param causeStack the cause stack
+     * @return the chunk
+     */
+    public LanternChunk getOrGenerateChunkWithoutPopulation(int x, int z, CauseStack causeStack) {
+        return getOrCreateChunk(new Vector2i(x, z), causeStack, true, false, true);
+    }
+
+    /**
+     * Populates all the loaded chunks that aren't populated yet and of which the
+     * surrounding chunks are loaded, see {@link ChunkPopulationScheduler}. The
+     * populations are distributed over the chunk loading threads, the current
+     * thread waits until all of them are done.
+     *
+     * @param keys the keys of the chunks, see {@link ChunkRegionPartitioner#key(int, int)}
+     * @param causeStack the cause stack
+     */
+    public void populateChunks(LongCollection keys, CauseStack causeStack) {
+        populateChunks(keys, causeStack, Runnable::run);
+    }
+
+    /**
+     * Populates all the loaded chunks that aren't populated yet and of which the
+     * surrounding chunks are loaded, see {@link ChunkPopulationScheduler}. Every
+     * population is passed to the throttle before it starts, the throttle must run
+     * it on the calling thread but may wait first to limit the amount of concurrent
+     * populations.
+     *
+     * @param keys the keys of the chunks, see {@link ChunkRegionPartitioner#key(int, int)}
+     * @param causeStack the cause stack
+     * @param throttle the throttle
+     */
+    public void populateChunks(LongCollection keys, CauseStack causeStack, Executor throttle) {
+        checkNotNull(keys, "keys");
+        checkNotNull(causeStack, "causeStack");
+        checkNotNull(throttle, "throttle");
+        final Cause cause = causeStack.getCurrentCause();
+        final ChunkPopulationScheduler.ChunkTest loaded = (x, z) -> isChunkLoaded(new Vector2i(x, z)) != null;
+        final LongList populations = new LongArrayList();
+        final LongIterator it = keys.iterator();
+        while (it.hasNext()) {
+            final long key = it.nextLong();
+            final int x = keyX(key);
+            final int z = keyZ(key);
+            final LanternChunk chunk = isChunkLoaded(new Vector2i(x, z));
+            if (chunk != null && !chunk.populated && ChunkPopulationScheduler.canPopulate(x, z, loaded)) {
+                populations.add(key);
+            }
+        }
+        this.populationScheduler.populate(populations, key -> {
+            final LanternChunk chunk = isChunkLoaded(new Vector2i(keyX(key), keyZ(key)));
+            // The population may be completed by a different thread in the meantime
+            if (chunk != null && !chunk.populating && !chunk.populated) {
+                populateChunk(chunk, cause, this.populationData.get().random);
+            }
+        }, throttle);
+    }
+
     /**
      *
      * @param coords the coordinates of the chunk to load
@@ -686,6 +763,10 @@ public LanternChunk getOrCreateChunk(Vector2i coords, CauseStack cause, boolean
      * @return the chunk
      */
     private LanternChunk getOrCreateChunk(Vector2i coords, CauseStack causeStack, boolean generate, boolean wait) {
+        return getOrCreateChunk(coords, causeStack, generate, true, wait);
+    }
+
+    private LanternChunk getOrCreateChunk(Vector2i coords, CauseStack causeStack, boolean generate, boolean populate, boolean wait) {
         checkNotNull(causeStack, "causeStack");
         LanternChunk chunk = this.loadedChunks.get(checkNotNull(coords, "coords"));
         // Chunk is already loaded
@@ -735,7 +816,7 @@ private LanternChunk getOrCreateChunk(Vector2i coords, CauseStack causeStack, bo
             return chunk;
         }
         // Try to load the chunk
-        load(chunk, causeStack, generate);
+        load0(chunk, causeStack, generate, populate, true);
         this.world.addEntities(chunk.getEntities());
         if (!this.ticketsByPos.containsKey(coords)) {
             this.pendingForUnload.add(new UnloadingChunkEntry(coords));
@@ -787,54 +868,38 @@ private void tryPopulateSurroundingChunks(LanternChunk chunk, Cause cause) {
         final Vector2i pos = chunk.chunkPos;
         final Vector2i[] sides = getSides(pos);
         final PopulationData populationData = this.populationData.get();
-        final Random random = populationData.random;
-        // TODO: Populating must be done in the sync thread???
+        // Keep the chunk and the surrounding chunks loaded while populating, every call uses
+        // its own ticket because the deferred populations may lock the same chunks
+        final ChunkLoadingTicket ticket = createInternalTicket();
+        lockInternally(pos, ticket);
         for (Vector2i side : sides) {
-            lockInternally(side, populationData.lockTicket);
-        }
-        LanternChunk up = isChunkLoaded(sides[UP]);
-        LanternChunk right = isChunkLoaded(sides[RIGHT]);
-        LanternChunk rightUp = isChunkLoaded(sides[RIGHT_UP]);
-        if (up != null && right != null && rightUp != null) {
-            if (!chunk.populating && !chunk.populated) {
-                populateChunk(chunk, cause, random);
-            }
-        }
-        LanternChunk left = isChunkLoaded(sides[LEFT]);
-        LanternChunk leftDown = isChunkLoaded(sides[LEFT_DOWN]);
-        LanternChunk down = isChunkLoaded(sides[DOWN]);
-        if (leftDown != null && left != null && down != null) {
-            if (!leftDown.populating && !leftDown.populated) {
-                populateChunk(leftDown, cause, random);
-            }
+            lockInternally(side, ticket);
         }
-        if (up == null) { // Maybe it is loaded by now?
-            up = isChunkLoaded(sides[UP]);
-        }
-        if (left == null) { // Maybe it is loaded by now?
-            left = isChunkLoaded(sides[LEFT]);
-        }
-        LanternChunk leftUp = isChunkLoaded(sides[LEFT_UP]);
-        if (left != null && leftUp != null && up != null) {
-            if (!left.populating && !left.populated) {
-                populateChunk(left, cause, random);
+        try {
+            final ChunkPopulationScheduler.ChunkTest generated = (x, z) -> isChunkLoaded(new Vector2i(x, z)) != null;
+            // The chunk is part of the regions of four populations, try all
+            // the populations of which the region is completely generated
+            for (long key : ChunkPopulationScheduler.getDependentPopulations(pos.getX(), pos.getY())) {
+                final int x = keyX(key);
+                final int z = keyZ(key);
+                if (!ChunkPopulationScheduler.canPopulate(x, z, generated)) {
+                    continue;
+                }
+                this.populationScheduler.populate(key, key1 -> {
+                    final LanternChunk target = x == pos.getX() && z == pos.getY() ? chunk : isChunkLoaded(new Vector2i(x, z));
+                    // The region is locked, so the population cannot be started by another thread
+                    // at this point, but it may have been completed by one before we got the lock
+                    if (target != null && !target.populating && !target.populated) {
+                        populateChunk(target, cause, populationData.random);
+                    }
+                });
             }
-        }
-        if (right == null) { // Maybe it is loaded by now?
-            right = isChunkLoaded(sides[RIGHT]);
-        }
-        if (down == null) { // Maybe it is loaded by now?
-            down = isChunkLoaded(sides[DOWN]);
-        }
-        LanternChunk rightDown = isChunkLoaded(sides[RIGHT_DOWN]);
-        if (down != null && rightDown != null && right != null) {
-            if (!down.populating && !down.populated) {
-                populateChunk(down, cause, random);
+        } finally {
+            unlockInternally(pos, ticket);
+            for (Vector2i side : sides) {
+                unlockInternally(side, ticket);
             }
         }
-        for (Vector2i side : sides) {
-            unlockInternally(side, populationData.lockTicket);
-        }
     }
 
     private void populateChunk(LanternChunk chunk, Cause cause, Random random) {
@@ -916,10 +981,10 @@ private LanternChunk isChunkLoaded(Vector2i pos) {
      * @return true if it was successful
      */
     public boolean load(LanternChunk chunk, CauseStack causeStack, boolean generate) {
-        return load0(chunk, causeStack, generate, true);
+        return load0(chunk, causeStack, generate, true, true);
     }
 
-    private boolean load0(LanternChunk chunk, CauseStack causeStack, boolean generate, boolean wait) {
+    private boolean load0(LanternChunk chunk, CauseStack causeStack, boolean generate, boolean populate, boolean wait) {
         checkNotNull(chunk, "chunk");
         checkNotNull(causeStack, "causeStack");
         if (chunk.loaded) {
@@ -946,6 +1011,7 @@ private boolean load0(LanternChunk chunk, CauseStack causeStack, boolean generat
             }
         }
         boolean success = true;
+        Cause populationCause = null;
         try {
             chunk.lockState = LanternChunk.LockState.LOADING;
             final LanternChunkQueueTask task = this.chunkQueueTasks.remove(chunk.getCoords());
@@ -981,8 +1047,10 @@ private boolean load0(LanternChunk chunk, CauseStack causeStack, boolean generat
                 this.game.getLogger().error("Error while generating chunk ({};{})", chunk.getX(), chunk.getZ(), e);
                 return success = false;
             }
-            // Try to populate the chunk
-            tryPopulateSurroundingChunks(chunk, cause0);
+            // Try to populate the chunk once it's unlocked
+            if (populate) {
+                populationCause = cause0;
+            }
             this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause0, chunk));
             this.world.getEventListener().onLoadChunk(chunk);
             return true;
@@ -992,6 +1060,16 @@ private boolean load0(LanternChunk chunk, CauseStack causeStack, boolean generat
             chunk.loadingSuccess = success;
             chunk.lockCondition.signalAll();
             chunk.lock.unlock();
+            // The populations lock their regions, which may not happen while holding the
+            // lock of this chunk, a populator may be waiting for it. If this chunk is being
+            // generated by a populator, wait until it's done to avoid a similar situation
+            if (populationCause != null) {
+                final Cause cause = populationCause;
+                // The populations write into the neighbor chunks, which may be ticked by
+                // a different region, so start them once all the regions are ticked
+                this.world.runOutsideOfRegions(() ->
+                        this.populationScheduler.runAfterPopulations(() -> tryPopulateSurroundingChunks(chunk, cause)));
+            }
         }
     }
 
@@ -1023,7 +1101,13 @@ private void generate(LanternChunk chunk, Cause cause) {
 
         // Apply the main world generator
         final GenerationPopulator baseGenerator = this.worldGenerator.getBaseGenerationPopulator();
-        baseGenerator.populate(this.world, blockBuffer, immutableBiomeVolume);
+        if (baseGenerator instanceof ChunkGenerationPopulator) {
+            // Directly write into the section buffers
+            ((ChunkGenerationPopulator) baseGenerator).populate(this.world, chunk.getX(), chunk.getZ(),
+                    blockBuffer.types, blockBuffer.nonAirCount, immutableBiomeVolume);
+        } else {
+            baseGenerator.populate(this.world, blockBuffer, immutableBiomeVolume);
+        }
 
         // Get all the used biome types
         final Set<BiomeType> biomeTypes = ImmutableSet.copyOf(biomeBuffer.biomeTypes);
@@ -1147,8 +1231,9 @@ public boolean setBlock(int x, int y, int z, BlockState block) {
         @Override
         public BlockState getBlock(int x, int y, int z) {
             checkRange(x, y, z);
-            return BlockRegistryModule.get().getStateByInternalIdAndData(this.types[y >> 4][((y & 0xf) << 8) | ((z & 0xf) << 4) | x & 0xf])
-                    .orElse(BlockTypes.AIR.getDefaultState());
+            final BlockState blockState = BlockRegistryModule.get().getRawStateByInternalIdAndData(
+                    this.types[y >> 4][((y & 0xf) << 8) | ((z & 0xf) << 4) | x & 0xf]);
+            return blockState == null ? BlockTypes.AIR.getDefaultState() : blockState;
         }
 
         @Override
@@ -1194,6 +1279,8 @@ public boolean save(LanternChunk chunk) {
 
     private boolean save0(LanternChunk chunk) {
         try {
+            // Only a snapshot of the chunk is created while it's locked, the
+            // snapshot will be serialized and written asynchronously
             this.chunkIOService.write(chunk);
             return true;
         } catch (IOException e) {
@@ -1299,15 +1386,26 @@ private boolean unload0(LanternChunk chunk, CauseStack causeStack, boolean wait)
         }
     }
 
+    /**
+     * Creates a new internal loading ticket, which can be used to keep chunks
+     * loaded through {@link #lockInternally(Vector2i, ChunkLoadingTicket)}.
+     *
+     * @return the loading ticket
+     */
+    public ChunkLoadingTicket createInternalTicket() {
+        return new InternalLoadingTicket();
+    }
+
     /**
      * Locks the chunk of the coordinates with a internal loading ticket. This
      * method does not trigger the loading of a chunk but locks the chunk from
      * unloading.
      *
      * @param coords the coordinates
+     * @param ticket the loading ticket
      * @return whether it was previously empty
      */
-    private boolean lockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
+    public boolean lockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
         final boolean[] empty = new boolean[1];
         this.ticketsByPos.computeIfAbsent(coords, coords0 -> {
             empty[0] = true;
@@ -1316,7 +1414,15 @@ private boolean lockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
         return empty[0];
     }
 
-    private boolean unlockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
+    /**
+     * Unlocks the chunk of the coordinates from the internal loading ticket,
+     * the chunk can be unloaded once it isn't locked by any ticket.
+     *
+     * @param coords the coordinates
+     * @param ticket the loading ticket
+     * @return whether the chunk was locked by the ticket
+     */
+    public boolean unlockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
         final Set<ChunkLoadingTicket> set = this.ticketsByPos.get(coords);
         if (set != null && set.remove(ticket)) {
             if (set.isEmpty()) {
@@ -1460,6 +1566,7 @@ public void shutdown() {
         this.loadedChunks.clear();
         this.reusableChunks.clear();
         this.chunkTaskExecutor.shutdown();
+        // Unloading the service also waits for all the pending chunk saves
         try {
             this.chunkIOService.unload();
         } catch (IOException e) {
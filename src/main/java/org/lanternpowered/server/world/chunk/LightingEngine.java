@@ -0,0 +1,426 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_HEIGHT;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.lanternpowered.server.block.action.BlockAction;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.WorldEventListener;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.data.property.block.LightEmissionProperty;
+import org.spongepowered.api.data.property.block.MatterProperty;
+import org.spongepowered.api.data.property.block.SolidCubeProperty;
+
+import java.util.function.IntUnaryOperator;
+
+import javax.annotation.Nullable;
+
+/**
+ * A incremental lighting engine that propagates block and sky light
+ * within a {@link LanternWorld}.
+ * <p>
+ * All the block changes within a tick are collected and re-lit in one
+ * batch when the engine is pulsed. Propagation is done with a breadth first
+ * search that first removes the light that was provided by the old blocks
+ * and then spreads the light from the remaining sources, this means that
+ * only the regions that are touched by the changes are updated.
+ * <p>
+ * Positions and light levels are packed into {@code long}s to avoid
+ * allocating any objects while propagating.
+ */
+public final class LightingEngine implements WorldEventListener {
+
+    // The bit layout of the packed positions: x (26) | z (26) | y (8) | level (4)
+    private static final int X_SHIFT = 38;
+    private static final int Z_SHIFT = 12;
+    private static final int Y_SHIFT = 4;
+
+    private static final int DIRECTION_DOWN = 0;
+
+    // The offsets of all the neighbor directions, the first one is down
+    private static final int[] OFFSET_X = { 0, 0, -1, 1, 0, 0 };
+    private static final int[] OFFSET_Y = { -1, 1, 0, 0, 0, 0 };
+    private static final int[] OFFSET_Z = { 0, 0, 0, 0, -1, 1 };
+
+    private static final int MAX_LIGHT = 15;
+
+    // The light properties mapped by the internal id and data of the block state,
+    // stored as (flag << 8 | emission << 4 | opacity) where the flag marks whether
+    // the entry is already computed
+    private static final short[] lightProperties = new short[65536];
+    private static final short COMPUTED_FLAG = 0x100;
+
+    private static int getLightProperties(short type) {
+        final int index = type & 0xffff;
+        short properties = lightProperties[index];
+        if ((properties & COMPUTED_FLAG) == 0) {
+            properties = (short) (COMPUTED_FLAG | computeLightProperties(type));
+            lightProperties[index] = properties;
+        }
+        return properties;
+    }
+
+    private static int computeLightProperties(short type) {
+        final BlockState blockState = BlockRegistryModule.get().getRawStateByInternalIdAndData(type);
+        if (blockState == null) {
+            return 0;
+        }
+        final int emission = blockState.getProperty(LightEmissionProperty.class)
+                .map(LightEmissionProperty::getValue).orElse(0);
+        final int opacity;
+        if (blockState.getProperty(SolidCubeProperty.class).map(SolidCubeProperty::getValue).orElse(false)) {
+            opacity = MAX_LIGHT;
+        } else if (blockState.getProperty(MatterProperty.class).map(MatterProperty::getValue).orElse(null) == MatterProperty.Matter.LIQUID) {
+            opacity = 2;
+        } else {
+            opacity = 0;
+        }
+        return (Math.max(0, Math.min(MAX_LIGHT, emission)) << 4) | opacity;
+    }
+
+    private static long pack(int x, int y, int z, int level) {
+        return ((long) x & 0x3ffffff) << X_SHIFT | ((long) z & 0x3ffffff) << Z_SHIFT | (long) (y & 0xff) << Y_SHIFT | level & 0xf;
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> X_SHIFT);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed >> Y_SHIFT) & 0xff;
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << (64 - X_SHIFT) >> (64 - X_SHIFT + Z_SHIFT));
+    }
+
+    private static int unpackLevel(long packed) {
+        return (int) packed & 0xf;
+    }
+
+    private final LanternWorld world;
+
+    // The function to get the light properties of a block type
+    private final IntUnaryOperator lightPropertiesFunction;
+
+    // The lock for the pending changes
+    private final Object lock = new Object();
+
+    // All the positions (packed without light level) that changed during the current tick
+    private LongSet pendingChanges = new LongOpenHashSet();
+    private LongSet processingChanges = new LongOpenHashSet();
+
+    // The queues that are reused for propagation
+    private final LongArrayFIFOQueue decreaseQueue = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue increaseQueue = new LongArrayFIFOQueue();
+
+    // The sections that were modified, mapped by the chunk key
+    private final Long2IntMap dirtySections = new Long2IntOpenHashMap();
+
+    // A cache for the chunks that are accessed during a pulse, null values
+    // are stored for chunks that aren't loaded
+    private final Long2ObjectMap<LanternChunk> chunkCache = new Long2ObjectOpenHashMap<>();
+    @Nullable private LanternChunk lastChunk;
+
+    public LightingEngine(LanternWorld world) {
+        this(world, type -> getLightProperties((short) type));
+    }
+
+    LightingEngine(LanternWorld world, IntUnaryOperator lightPropertiesFunction) {
+        this.world = world;
+        this.lightPropertiesFunction = lightPropertiesFunction;
+    }
+
+    /**
+     * Queues the light at the given position to be updated
+     * the next time that the engine is pulsed.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     */
+    public void queueUpdate(int x, int y, int z) {
+        if (y < 0 || y >= CHUNK_HEIGHT) {
+            return;
+        }
+        synchronized (this.lock) {
+            this.pendingChanges.add(pack(x, y, z, 0));
+        }
+    }
+
+    /**
+     * Re-lights all the positions that were queued since
+     * the last pulse.
+     */
+    public void pulse() {
+        final LongSet changes;
+        synchronized (this.lock) {
+            if (this.pendingChanges.isEmpty()) {
+                return;
+            }
+            changes = this.pendingChanges;
+            this.pendingChanges = this.processingChanges;
+            this.processingChanges = changes;
+        }
+        try {
+            relight(changes, false);
+            if (this.world.getDimension().hasSky()) {
+                relight(changes, true);
+            }
+            final ObjectIterator<Long2IntMap.Entry> it = this.dirtySections.long2IntEntrySet().iterator();
+            while (it.hasNext()) {
+                final Long2IntMap.Entry entry = it.next();
+                this.world.getObservedChunkManager().markLightDirty(entry.getLongKey(), entry.getIntValue());
+            }
+        } finally {
+            changes.clear();
+            this.dirtySections.clear();
+            this.chunkCache.clear();
+            this.decreaseQueue.clear();
+            this.increaseQueue.clear();
+            this.lastChunk = null;
+        }
+    }
+
+    private void relight(LongSet changes, boolean sky) {
+        final LongIterator it = changes.iterator();
+        while (it.hasNext()) {
+            final long packed = it.nextLong();
+            final int x = unpackX(packed);
+            final int y = unpackY(packed);
+            final int z = unpackZ(packed);
+            final int oldLevel = getLight(sky, x, y, z);
+            if (oldLevel < 0) { // The chunk was unloaded in the meantime
+                continue;
+            }
+            if (oldLevel > 0) {
+                setLight(sky, x, y, z, 0);
+                this.decreaseQueue.enqueue(pack(x, y, z, oldLevel));
+            }
+            final int properties = this.lightPropertiesFunction.applyAsInt(getType(x, y, z));
+            final int source;
+            if (sky) {
+                // The top of the world is directly lit by the sky
+                source = y == CHUNK_HEIGHT - 1 && (properties & 0xf) == 0 ? MAX_LIGHT : 0;
+            } else {
+                source = (properties >> 4) & 0xf;
+            }
+            if (source > 0) {
+                setLight(sky, x, y, z, source);
+                this.increaseQueue.enqueue(pack(x, y, z, source));
+            }
+            // The surrounding light may now be able to spread
+            // through the position, so queue the neighbors
+            for (int i = 0; i < OFFSET_X.length; i++) {
+                final int ny = y + OFFSET_Y[i];
+                if (ny >= 0 && ny < CHUNK_HEIGHT) {
+                    this.increaseQueue.enqueue(pack(x + OFFSET_X[i], ny, z + OFFSET_Z[i], 0));
+                }
+            }
+        }
+        propagateDecrease(sky);
+        propagateIncrease(sky);
+    }
+
+    private void propagateDecrease(boolean sky) {
+        while (!this.decreaseQueue.isEmpty()) {
+            final long packed = this.decreaseQueue.dequeueLong();
+            final int x = unpackX(packed);
+            final int y = unpackY(packed);
+            final int z = unpackZ(packed);
+            final int level = unpackLevel(packed);
+            for (int i = 0; i < OFFSET_X.length; i++) {
+                final int ny = y + OFFSET_Y[i];
+                if (ny < 0 || ny >= CHUNK_HEIGHT) {
+                    continue;
+                }
+                final int nx = x + OFFSET_X[i];
+                final int nz = z + OFFSET_Z[i];
+                final int neighborLevel = getLight(sky, nx, ny, nz);
+                if (neighborLevel <= 0) {
+                    continue;
+                }
+                // Sky light travels down without losing strength, so the
+                // full column below the position was provided by it
+                if (neighborLevel < level || (sky && i == DIRECTION_DOWN && level == MAX_LIGHT && neighborLevel == MAX_LIGHT)) {
+                    setLight(sky, nx, ny, nz, 0);
+                    this.decreaseQueue.enqueue(pack(nx, ny, nz, neighborLevel));
+                    if (!sky) {
+                        // Restore light sources that were cleared
+                        final int emission = (this.lightPropertiesFunction.applyAsInt(getType(nx, ny, nz)) >> 4) & 0xf;
+                        if (emission > 0) {
+                            setLight(false, nx, ny, nz, emission);
+                            this.increaseQueue.enqueue(pack(nx, ny, nz, emission));
+                        }
+                    }
+                } else {
+                    // The neighbor is lit by a different source, let it spread
+                    // back into the area that was cleared
+                    this.increaseQueue.enqueue(pack(nx, ny, nz, neighborLevel));
+                }
+            }
+        }
+    }
+
+    private void propagateIncrease(boolean sky) {
+        while (!this.increaseQueue.isEmpty()) {
+            final long packed = this.increaseQueue.dequeueLong();
+            final int x = unpackX(packed);
+            final int y = unpackY(packed);
+            final int z = unpackZ(packed);
+            // Always use the current level, it may be changed
+            // after the position was queued
+            final int level = getLight(sky, x, y, z);
+            if (level <= 1) {
+                continue;
+            }
+            for (int i = 0; i < OFFSET_X.length; i++) {
+                final int ny = y + OFFSET_Y[i];
+                if (ny < 0 || ny >= CHUNK_HEIGHT) {
+                    continue;
+                }
+                final int nx = x + OFFSET_X[i];
+                final int nz = z + OFFSET_Z[i];
+                final int neighborLevel = getLight(sky, nx, ny, nz);
+                if (neighborLevel < 0 || neighborLevel >= level - 1) {
+                    continue;
+                }
+                final int opacity = this.lightPropertiesFunction.applyAsInt(getType(nx, ny, nz)) & 0xf;
+                final int newLevel;
+                if (sky && i == DIRECTION_DOWN && level == MAX_LIGHT && opacity == 0) {
+                    newLevel = MAX_LIGHT;
+                } else {
+                    newLevel = level - Math.max(1, opacity);
+                }
+                if (newLevel > neighborLevel) {
+                    setLight(sky, nx, ny, nz, newLevel);
+                    this.increaseQueue.enqueue(pack(nx, ny, nz, newLevel));
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private LanternChunk getChunk(int chunkX, int chunkZ) {
+        final LanternChunk lastChunk = this.lastChunk;
+        if (lastChunk != null && lastChunk.getX() == chunkX && lastChunk.getZ() == chunkZ) {
+            return lastChunk;
+        }
+        final long key = LanternChunk.key(chunkX, chunkZ);
+        LanternChunk chunk = this.chunkCache.get(key);
+        if (chunk == null) {
+            if (this.chunkCache.containsKey(key)) {
+                return null;
+            }
+            chunk = this.world.getChunkManager().getChunkIfLoaded(chunkX, chunkZ);
+            this.chunkCache.put(key, chunk);
+            if (chunk == null) {
+                return null;
+            }
+        }
+        this.lastChunk = chunk;
+        return chunk;
+    }
+
+    private short getType(int x, int y, int z) {
+        final LanternChunk chunk = getChunk(x >> 4, z >> 4);
+        if (chunk == null) {
+            return 0;
+        }
+        final LanternChunk.ChunkSection section = chunk.getRawSections()[y >> 4];
+        return section == null ? 0 : section.types.get(LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf));
+    }
+
+    /**
+     * Gets the light level at the given position, returns {@code -1}
+     * if the chunk of the position isn't loaded.
+     */
+    private int getLight(boolean sky, int x, int y, int z) {
+        final LanternChunk chunk = getChunk(x >> 4, z >> 4);
+        if (chunk == null) {
+            return -1;
+        }
+        final LanternChunk.ChunkSection section = chunk.getRawSections()[y >> 4];
+        if (section == null) {
+            return sky ? chunk.getEmptySectionSkyLight(x, y, z) : 0;
+        }
+        final int index = LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf);
+        return (sky ? section.lightFromSky : section.lightFromBlock).get(index);
+    }
+
+    private void setLight(boolean sky, int x, int y, int z, int level) {
+        final LanternChunk chunk = getChunk(x >> 4, z >> 4);
+        if (chunk == null) {
+            return;
+        }
+        final int sectionIndex = y >> 4;
+        LanternChunk.ChunkSection section = chunk.getRawSections()[sectionIndex];
+        if (section == null) {
+            // No need to create a section to store the default value
+            if (level == (sky ? chunk.getEmptySectionSkyLight(x, y, z) : 0)) {
+                return;
+            }
+            section = chunk.getOrCreateSection(sectionIndex);
+        }
+        final int index = LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf);
+        (sky ? section.lightFromSky : section.lightFromBlock).set(index, (byte) level);
+        final long key = chunk.getKey();
+        this.dirtySections.put(key, this.dirtySections.get(key) | (1 << sectionIndex));
+    }
+
+    @Override
+    public void onLoadChunk(LanternChunk chunk) {
+    }
+
+    @Override
+    public void onUnloadChunk(LanternChunk chunk) {
+    }
+
+    @Override
+    public void onPopulateChunk(LanternChunk chunk) {
+    }
+
+    @Override
+    public void onBlockChange(int x, int y, int z, BlockState oldBlockState, BlockState newBlockState) {
+        queueUpdate(x, y, z);
+    }
+
+    @Override
+    public void onBlockAction(int x, int y, int z, BlockType blockType, BlockAction blockAction) {
+    }
+}
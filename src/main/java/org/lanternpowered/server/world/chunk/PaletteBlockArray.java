@@ -0,0 +1,396 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
+import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
+import org.lanternpowered.server.util.collect.array.VariableValueArray;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A array of block types (internal id and data) that is compressed with a palette.
+ * <p>
+ * The array can be represented in three ways:
+ * <ul>
+ *     <li>A single value, if all the blocks are the same. There is no
+ *     storage needed besides the value itself.</li>
+ *     <li>A local palette, each value is a index in the palette. The bits per value
+ *     start at {@link #MIN_BITS} and grow up to {@link #MAX_PALETTE_BITS} once the
+ *     palette is full.</li>
+ *     <li>Global, each value is the block type itself.</li>
+ * </ul>
+ * Modifications aren't thread safe and should be guarded by the chunk section lock.
+ * The storage and the palette are published together as one immutable {@link State},
+ * so {@link #get(int)} can be called without holding the lock. Such a read may see a
+ * value that is being replaced, but never a palette index as block type or the other
+ * way around.
+ */
+public final class PaletteBlockArray {
+
+    /**
+     * The minimum amount of bits per value for a local palette.
+     */
+    public static final int MIN_BITS = 4;
+
+    /**
+     * The maximum amount of bits per value for a local palette, more
+     * bits will result in the global representation.
+     */
+    public static final int MAX_PALETTE_BITS = 8;
+
+    /**
+     * The bits per value of the global representation.
+     */
+    public static final int GLOBAL_BITS = 16;
+
+    private final int capacity;
+
+    /**
+     * The storage together with the palette it indexes. The state is replaced
+     * every time the representation changes, the values within the storage and
+     * unused palette slots are modified in place.
+     */
+    private static final class State {
+
+        // The storage, null if all the values are the same
+        @Nullable final VariableValueArray storage;
+
+        // The local palette, null if the global representation is used,
+        // slots with a count of zero are free and can be reused
+        @Nullable final short[] palette;
+
+        State(@Nullable VariableValueArray storage, @Nullable short[] palette) {
+            this.storage = storage;
+            this.palette = palette;
+        }
+    }
+
+    private volatile State state;
+
+    @Nullable private int[] counts;
+    private int paletteSize;
+
+    // The lookup from a type to the index in the palette
+    @Nullable private Short2ShortMap indexByType;
+
+    private int nonAirCount;
+
+    /**
+     * Constructs a new {@link PaletteBlockArray} that is filled with air.
+     *
+     * @param capacity The capacity
+     */
+    public PaletteBlockArray(int capacity) {
+        this.capacity = capacity;
+        initSingle((short) 0);
+    }
+
+    /**
+     * Constructs a new {@link PaletteBlockArray} with the given block types.
+     *
+     * @param types The block types
+     */
+    public PaletteBlockArray(short[] types) {
+        this.capacity = types.length;
+        final Short2ShortMap indexByType = new Short2ShortOpenHashMap();
+        indexByType.defaultReturnValue((short) -1);
+        short[] palette = new short[1 << MIN_BITS];
+        int[] counts = new int[palette.length];
+        int paletteSize = 0;
+        for (short type : types) {
+            short index = indexByType.get(type);
+            if (index == -1) {
+                if (paletteSize == palette.length) {
+                    palette = Arrays.copyOf(palette, paletteSize << 1);
+                    counts = Arrays.copyOf(counts, paletteSize << 1);
+                }
+                index = (short) paletteSize++;
+                indexByType.put(type, index);
+                palette[index] = type;
+            }
+            counts[index]++;
+        }
+        if (paletteSize <= 1) {
+            initSingle(paletteSize == 0 ? 0 : palette[0]);
+            return;
+        }
+        final int bits = Math.max(MIN_BITS, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        if (bits > MAX_PALETTE_BITS) {
+            final VariableValueArray storage = new VariableValueArray(GLOBAL_BITS, this.capacity);
+            for (int i = 0; i < types.length; i++) {
+                storage.set(i, types[i] & 0xffff);
+            }
+            this.state = new State(storage, null);
+        } else {
+            final VariableValueArray storage = new VariableValueArray(bits, this.capacity);
+            for (int i = 0; i < types.length; i++) {
+                storage.set(i, indexByType.get(types[i]));
+            }
+            this.state = new State(storage, Arrays.copyOf(palette, 1 << bits));
+            this.counts = Arrays.copyOf(counts, 1 << bits);
+            this.paletteSize = paletteSize;
+            this.indexByType = indexByType;
+        }
+        final short air = indexByType.get((short) 0);
+        this.nonAirCount = this.capacity - (air == -1 ? 0 : counts[air]);
+    }
+
+    private PaletteBlockArray(PaletteBlockArray other) {
+        this.capacity = other.capacity;
+        final State state = other.state;
+        this.state = new State(state.storage == null ? null : state.storage.copy(),
+                state.palette == null ? null : state.palette.clone());
+        this.counts = other.counts == null ? null : other.counts.clone();
+        this.paletteSize = other.paletteSize;
+        this.indexByType = other.indexByType == null ? null : new Short2ShortOpenHashMap(other.indexByType);
+        if (this.indexByType != null) {
+            this.indexByType.defaultReturnValue((short) -1);
+        }
+        this.nonAirCount = other.nonAirCount;
+    }
+
+    private void initSingle(short type) {
+        this.state = new State(null, new short[] { type });
+        this.counts = new int[] { this.capacity };
+        this.paletteSize = 1;
+        this.indexByType = new Short2ShortOpenHashMap();
+        this.indexByType.defaultReturnValue((short) -1);
+        this.indexByType.put(type, (short) 0);
+        this.nonAirCount = type == 0 ? 0 : this.capacity;
+    }
+
+    /**
+     * Gets the block type at the given index.
+     *
+     * @param index The index
+     * @return The block type
+     */
+    public short get(int index) {
+        // Read the state once, the storage and palette need to match
+        final State state = this.state;
+        //noinspection ConstantConditions
+        if (state.storage == null) {
+            return state.palette[0];
+        }
+        final int value = state.storage.get(index);
+        return state.palette == null ? (short) value : state.palette[value];
+    }
+
+    /**
+     * Sets the block type at the given index.
+     *
+     * @param index The index
+     * @param type The block type
+     * @return The block type that was previously at the index
+     */
+    public short set(int index, short type) {
+        final short oldType = get(index);
+        if (oldType == type) {
+            return oldType;
+        }
+        if (oldType == 0) {
+            this.nonAirCount++;
+        } else if (type == 0) {
+            this.nonAirCount--;
+        }
+        State state = this.state;
+        if (state.palette == null) {
+            //noinspection ConstantConditions
+            state.storage.set(index, type & 0xffff);
+            return oldType;
+        }
+        if (state.storage == null) {
+            // All the values were the same, create the storage
+            // for the smallest palette, all the values will
+            // point to the first entry
+            this.counts = Arrays.copyOf(this.counts, 1 << MIN_BITS);
+            state = new State(new VariableValueArray(MIN_BITS, this.capacity), Arrays.copyOf(state.palette, 1 << MIN_BITS));
+            this.state = state;
+        }
+        // Free the old palette entry if it isn't used anymore
+        final int oldIndex = this.indexByType.get(oldType);
+        if (--this.counts[oldIndex] == 0) {
+            this.indexByType.remove(oldType);
+        }
+        int newIndex = this.indexByType.get(type);
+        if (newIndex == -1) {
+            newIndex = addToPalette(type);
+            // The palette may be resized
+            state = this.state;
+            if (newIndex == -1) {
+                // Switched to the global representation
+                //noinspection ConstantConditions
+                state.storage.set(index, type & 0xffff);
+                return oldType;
+            }
+        }
+        //noinspection ConstantConditions
+        state.storage.set(index, newIndex);
+        // All the blocks are the same now
+        if (++this.counts[newIndex] == this.capacity) {
+            initSingle(type);
+        }
+        return oldType;
+    }
+
+    /**
+     * Adds the type to the palette and returns the index, {@code -1} will be
+     * returned if the palette was full and the global representation is used.
+     *
+     * @param type The block type
+     * @return The index in the palette
+     */
+    @SuppressWarnings("ConstantConditions")
+    private int addToPalette(short type) {
+        // Try to reuse a free slot, no value refers to a free slot
+        // except the one that is being replaced by the new type
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.counts[i] == 0) {
+                this.state.palette[i] = type;
+                this.indexByType.put(type, (short) i);
+                return i;
+            }
+        }
+        if (this.paletteSize == this.state.palette.length) {
+            final int bits = this.state.storage.getBitsPerValue() + 1;
+            if (bits > MAX_PALETTE_BITS) {
+                resize(GLOBAL_BITS);
+                return -1;
+            }
+            resize(bits);
+        }
+        final int index = this.paletteSize++;
+        this.state.palette[index] = type;
+        this.indexByType.put(type, (short) index);
+        return index;
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private void resize(int bits) {
+        final State state = this.state;
+        final VariableValueArray storage = new VariableValueArray(bits, this.capacity);
+        if (bits == GLOBAL_BITS) {
+            for (int i = 0; i < this.capacity; i++) {
+                storage.set(i, state.palette[state.storage.get(i)] & 0xffff);
+            }
+            this.state = new State(storage, null);
+            this.counts = null;
+            this.indexByType = null;
+            this.paletteSize = 0;
+        } else {
+            for (int i = 0; i < this.capacity; i++) {
+                storage.set(i, state.storage.get(i));
+            }
+            this.state = new State(storage, Arrays.copyOf(state.palette, 1 << bits));
+            this.counts = Arrays.copyOf(this.counts, 1 << bits);
+        }
+    }
+
+    /**
+     * Gets the capacity.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the amount of blocks that aren't air.
+     *
+     * @return The non air count
+     */
+    public int getNonAirCount() {
+        return this.nonAirCount;
+    }
+
+    /**
+     * Gets the amount of bits that are used per value, {@code 0} if all the
+     * values are the same, between {@link #MIN_BITS} and {@link #MAX_PALETTE_BITS}
+     * for a local palette and {@link #GLOBAL_BITS} for the global representation.
+     *
+     * @return The bits per value
+     */
+    public int getBitsPerValue() {
+        final VariableValueArray storage = this.state.storage;
+        return storage == null ? 0 : storage.getBitsPerValue();
+    }
+
+    /**
+     * Gets the storage of the values, the values are either indexes in the
+     * {@link #getPalette()} or the block types if the palette is {@code null}.
+     * The storage will be {@code null} if all the values are the same.
+     *
+     * @return The storage
+     */
+    @Nullable
+    public VariableValueArray getStorage() {
+        return this.state.storage;
+    }
+
+    /**
+     * Gets the local palette, {@code null} if the global representation
+     * is used. The palette may contain block types that aren't used.
+     *
+     * @return The palette
+     */
+    @Nullable
+    public short[] getPalette() {
+        final short[] palette = this.state.palette;
+        return palette == null ? null : Arrays.copyOf(palette, this.paletteSize);
+    }
+
+    /**
+     * Gets all the block types as a array.
+     *
+     * @return The block types
+     */
+    public short[] toArray() {
+        final short[] types = new short[this.capacity];
+        final State state = this.state;
+        if (state.storage == null) {
+            //noinspection ConstantConditions
+            Arrays.fill(types, state.palette[0]);
+        } else {
+            for (int i = 0; i < types.length; i++) {
+                types[i] = get(i);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Creates a copy of this array.
+     *
+     * @return The copy
+     */
+    public PaletteBlockArray copy() {
+        return new PaletteBlockArray(this);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen;
+
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.extent.ImmutableBiomeVolume;
+import org.spongepowered.api.world.gen.GenerationPopulator;
+
+/**
+ * A {@link GenerationPopulator} that can write the blocks of a complete
+ * chunk directly into the raw section buffers, which avoids a block state
+ * lookup and volume check for every block. The chunk manager will use
+ * this method when it's the base generation populator.
+ * <p>
+ * Implementations should not depend on any shared mutable state, the
+ * chunks can be generated concurrently.
+ */
+public interface ChunkGenerationPopulator extends GenerationPopulator {
+
+    /**
+     * Populates the raw section buffers of the given chunk.
+     *
+     * @param world The world
+     * @param chunkX The x coordinate of the chunk
+     * @param chunkZ The z coordinate of the chunk
+     * @param types The block state ids of every section, indexed by {@code y << 8 | z << 4 | x}
+     * @param nonAirCount The amount of non air blocks in every section, must be kept up to date
+     * @param biomes The biomes of the chunk
+     */
+    void populate(World world, int chunkX, int chunkZ, short[][] types, int[] nonAirCount, ImmutableBiomeVolume biomes);
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import java.util.Random;
+
+/**
+ * A noise generator that sums multiple octaves of {@link PerlinNoise}, every
+ * following octave has double the frequency and half the amplitude. The output
+ * is normalized by the total amplitude of all the octaves.
+ * <p>
+ * The noise is immutable once constructed, so it can be sampled concurrently.
+ */
+final class OctaveNoise {
+
+    // Coordinates are wrapped around this value to avoid precision loss far
+    // away from the origin, it's a multiple of the period of the perlin noise
+    private static final double WRAP = 33554432.0;
+
+    private final PerlinNoise[] octaves;
+    private final double normalizer;
+
+    /**
+     * Constructs a new {@link OctaveNoise}.
+     *
+     * @param random The random to initialize the octaves
+     * @param octaves The amount of octaves
+     */
+    OctaveNoise(Random random, int octaves) {
+        this.octaves = new PerlinNoise[octaves];
+        double amplitude = 1.0;
+        double total = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            this.octaves[i] = new PerlinNoise(random);
+            total += amplitude;
+            amplitude *= 0.5;
+        }
+        this.normalizer = 1.0 / total;
+    }
+
+    private static double wrap(double value) {
+        return value - Math.floor(value / WRAP + 0.5) * WRAP;
+    }
+
+    /**
+     * Samples the noise at the given coordinates.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The noise value, between -1 and 1
+     */
+    double noise(double x, double y, double z) {
+        double value = 0.0;
+        double frequency = 1.0;
+        double amplitude = 1.0;
+        for (PerlinNoise octave : this.octaves) {
+            value += octave.noise(wrap(x * frequency), wrap(y * frequency), wrap(z * frequency)) * amplitude;
+            frequency *= 2.0;
+            amplitude *= 0.5;
+        }
+        return value * this.normalizer;
+    }
+
+    /**
+     * Samples the noise on a grid of points and stores the values in the buffer. The
+     * buffer is indexed by {@code (x * sizeZ + z) * sizeY + y}. All the points are
+     * sampled octave by octave, which keeps the inner loops small and free of
+     * branches.
+     *
+     * @param buffer The buffer to store the values in
+     * @param x The x coordinate of the first point
+     * @param y The y coordinate of the first point
+     * @param z The z coordinate of the first point
+     * @param sizeX The amount of points on the x axis
+     * @param sizeY The amount of points on the y axis
+     * @param sizeZ The amount of points on the z axis
+     * @param stepX The distance between the points on the x axis
+     * @param stepY The distance between the points on the y axis
+     * @param stepZ The distance between the points on the z axis
+     */
+    void noise(double[] buffer, double x, double y, double z, int sizeX, int sizeY, int sizeZ,
+            double stepX, double stepY, double stepZ) {
+        final int size = sizeX * sizeY * sizeZ;
+        for (int i = 0; i < size; i++) {
+            buffer[i] = 0.0;
+        }
+        double frequency = 1.0;
+        double amplitude = 1.0;
+        for (PerlinNoise octave : this.octaves) {
+            int index = 0;
+            for (int ix = 0; ix < sizeX; ix++) {
+                final double px = wrap((x + ix * stepX) * frequency);
+                for (int iz = 0; iz < sizeZ; iz++) {
+                    final double pz = wrap((z + iz * stepZ) * frequency);
+                    for (int iy = 0; iy < sizeY; iy++) {
+                        buffer[index++] += octave.noise(px, wrap((y + iy * stepY) * frequency), pz) * amplitude;
+                    }
+                }
+            }
+            frequency *= 2.0;
+            amplitude *= 0.5;
+        }
+        for (int i = 0; i < size; i++) {
+            buffer[i] *= this.normalizer;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.api.world.extent.MutableBiomeVolume;
+import org.spongepowered.api.world.gen.BiomeGenerator;
+
+final class OverworldBiomeGenerator implements BiomeGenerator {
+
+    private final OverworldTerrainGenerator terrainGenerator;
+    private final BiomeType[] biomeTypes;
+
+    OverworldBiomeGenerator(OverworldTerrainGenerator terrainGenerator, BiomeType[] biomeTypes) {
+        this.terrainGenerator = terrainGenerator;
+        this.biomeTypes = biomeTypes;
+    }
+
+    @Override
+    public void generateBiomes(MutableBiomeVolume buffer) {
+        final Vector3i min = buffer.getBiomeMin();
+        final Vector3i max = buffer.getBiomeMax();
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int z = min.getZ(); z <= max.getZ(); z++) {
+                final BiomeType biomeType = this.biomeTypes[this.terrainGenerator.getBiome(
+                        x >> OverworldTerrainGenerator.BIOME_CELL_BITS, z >> OverworldTerrainGenerator.BIOME_CELL_BITS)];
+                for (int y = min.getY(); y <= max.getY(); y++) {
+                    buffer.setBiome(x, y, z, biomeType);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.world.gen.ChunkGenerationPopulator;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.extent.ImmutableBiomeVolume;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+
+import java.util.Arrays;
+
+final class OverworldGenerationPopulator implements ChunkGenerationPopulator {
+
+    private final OverworldTerrainGenerator terrainGenerator;
+    private final int height;
+
+    OverworldGenerationPopulator(OverworldTerrainGenerator terrainGenerator, int height) {
+        this.terrainGenerator = terrainGenerator;
+        this.height = height;
+    }
+
+    @Override
+    public void populate(World world, int chunkX, int chunkZ, short[][] types, int[] nonAirCount, ImmutableBiomeVolume biomes) {
+        this.terrainGenerator.generate(chunkX, chunkZ, types, nonAirCount);
+    }
+
+    @Override
+    public void populate(World world, MutableBlockVolume buffer, ImmutableBiomeVolume biomes) {
+        // Generate every chunk that intersects with the buffer and copy the blocks
+        final Vector3i min = buffer.getBlockMin();
+        final Vector3i max = buffer.getBlockMax();
+        final int maxY = Math.min(max.getY(), this.height - 1);
+        final BlockRegistryModule blockRegistry = BlockRegistryModule.get();
+        final short[][] types = new short[this.height >> 4][4096];
+        final int[] nonAirCount = new int[types.length];
+        for (int chunkX = min.getX() >> 4; chunkX <= max.getX() >> 4; chunkX++) {
+            for (int chunkZ = min.getZ() >> 4; chunkZ <= max.getZ() >> 4; chunkZ++) {
+                for (short[] section : types) {
+                    Arrays.fill(section, (short) 0);
+                }
+                this.terrainGenerator.generate(chunkX, chunkZ, types, nonAirCount);
+                final int minX = Math.max(min.getX(), chunkX << 4);
+                final int maxX = Math.min(max.getX(), (chunkX << 4) + 15);
+                final int minZ = Math.max(min.getZ(), chunkZ << 4);
+                final int maxZ = Math.min(max.getZ(), (chunkZ << 4) + 15);
+                for (int y = Math.max(min.getY(), 0); y <= maxY; y++) {
+                    final short[] section = types[y >> 4];
+                    for (int x = minX; x <= maxX; x++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            final short type = section[(y & 0xf) << 8 | (z & 0xf) << 4 | x & 0xf];
+                            if (type != 0) {
+                                buffer.setBlock(x, y, z, blockRegistry.getRawStateByInternalIdAndData(type));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.game.registry.type.world.biome.BiomeRegistryModule;
+import org.lanternpowered.server.world.gen.LanternGeneratorType;
+import org.lanternpowered.server.world.gen.LanternWorldGenerator;
+import org.spongepowered.api.CatalogKey;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.api.world.biome.BiomeTypes;
+import org.spongepowered.api.world.gen.WorldGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A noise based overworld generator. The terrain of every chunk is generated
+ * independently from its neighbors, which allows chunks to be generated in
+ * parallel, for example by the chunk pre-generator.
+ */
+public final class OverworldGeneratorType extends LanternGeneratorType {
+
+    public OverworldGeneratorType(CatalogKey key) {
+        super(key);
+    }
+
+    @Override
+    public WorldGenerator createGenerator(World world) {
+        final DataContainer settings = world.getProperties().getGeneratorSettings();
+        final int seaLevel = getSeaLevel(settings);
+        final int height = getGeneratorHeight(settings);
+
+        final List<BiomeType> biomeTypes = new ArrayList<>();
+        final List<OverworldTerrainGenerator.Biome> biomes = new ArrayList<>();
+        final short grass = getStateId(BlockTypes.GRASS);
+        final short dirt = getStateId(BlockTypes.DIRT);
+        final short sand = getStateId(BlockTypes.SAND);
+        final short sandstone = getStateId(BlockTypes.SANDSTONE);
+        final short gravel = getStateId(BlockTypes.GRAVEL);
+
+        addBiome(biomeTypes, biomes, "deep_ocean", 0.0, 0.0, -0.6, -0.9, 0.05, gravel, gravel);
+        addBiome(biomeTypes, biomes, "ocean", 0.0, 0.0, -0.25, -0.5, 0.05, sand, sand);
+        addBiome(biomeTypes, biomes, "beaches", 0.0, 0.0, -0.05, 0.0, 0.02, sand, sand);
+        addBiome(biomeTypes, biomes, "plains", 0.0, -0.1, 0.2, 0.12, 0.05, grass, dirt);
+        addBiome(biomeTypes, biomes, "desert", 0.5, -0.4, 0.25, 0.12, 0.05, sand, sandstone);
+        addBiome(biomeTypes, biomes, "forest", 0.1, 0.3, 0.25, 0.15, 0.15, grass, dirt);
+        addBiome(biomeTypes, biomes, "taiga", -0.4, 0.2, 0.25, 0.2, 0.2, grass, dirt);
+        addBiome(biomeTypes, biomes, "swampland", 0.2, 0.5, 0.1, -0.1, 0.05, grass, dirt);
+        addBiome(biomeTypes, biomes, "extreme_hills", -0.2, -0.1, 0.55, 1.0, 0.5, grass, dirt);
+        addBiome(biomeTypes, biomes, "jungle", 0.5, 0.5, 0.3, 0.15, 0.25, grass, dirt);
+
+        // Water isn't available yet, fall back to air in that case
+        final short water = BlockRegistryModule.get().get(CatalogKey.minecraft("water"))
+                .map(OverworldGeneratorType::getStateId).orElse((short) 0);
+
+        final OverworldTerrainGenerator terrainGenerator = new OverworldTerrainGenerator(
+                world.getProperties().getSeed(), seaLevel, height, getStateId(BlockTypes.STONE), water,
+                getStateId(BlockTypes.BEDROCK), biomes.toArray(new OverworldTerrainGenerator.Biome[biomes.size()]));
+        final OverworldBiomeGenerator biomeGenerator = new OverworldBiomeGenerator(
+                terrainGenerator, biomeTypes.toArray(new BiomeType[biomeTypes.size()]));
+        final OverworldGenerationPopulator generationPopulator = new OverworldGenerationPopulator(terrainGenerator, height);
+        return new LanternWorldGenerator(world, biomeGenerator, generationPopulator);
+    }
+
+    private static void addBiome(List<BiomeType> biomeTypes, List<OverworldTerrainGenerator.Biome> biomes, String id,
+            double temperature, double humidity, double continentalness, double depth, double scale,
+            short topBlock, short fillerBlock) {
+        biomeTypes.add(BiomeRegistryModule.get().get(CatalogKey.minecraft(id)).orElse(BiomeTypes.PLAINS));
+        biomes.add(new OverworldTerrainGenerator.Biome(temperature, humidity, continentalness, depth, scale, topBlock, fillerBlock));
+    }
+
+    private static short getStateId(BlockType blockType) {
+        final BlockState blockState = blockType.getDefaultState();
+        return BlockRegistryModule.get().getStateInternalIdAndData(blockState);
+    }
+}
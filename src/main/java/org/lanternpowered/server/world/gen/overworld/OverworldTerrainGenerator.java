@@ -0,0 +1,363 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Random;
+
+/**
+ * Generates the terrain of overworld chunks from noise.
+ * <p>
+ * The biomes are selected from climate noise on a grid of 4x4 blocks. The density
+ * of the terrain is only sampled at the corners of cells of 4x8x4 blocks, with the
+ * depth and scale of the surrounding biomes blended together, and is interpolated
+ * in between. Afterwards the surface rules of the biomes are applied to every column.
+ * <p>
+ * The blocks are written directly into the section arrays of a chunk as internal
+ * block state ids. The generator holds no state besides the noise, so chunks
+ * can be generated concurrently.
+ */
+final class OverworldTerrainGenerator {
+
+    private static final int CHUNK_SIZE = 16;
+
+    // The size of a biome cell, the biomes are the same within a cell
+    static final int BIOME_CELL_BITS = 2;
+
+    // The size of a density cell, the density is sampled at
+    // the corners of the cells and interpolated in between
+    private static final int CELL_WIDTH = 4;
+    private static final int CELL_HEIGHT = 8;
+
+    private static final int CELLS_XZ = CHUNK_SIZE / CELL_WIDTH;
+    private static final int SAMPLES_XZ = CELLS_XZ + 1;
+
+    // The radius of the biome blending, in biome cells
+    private static final int BLEND_RADIUS = 2;
+    private static final int BLEND_SIZE = BLEND_RADIUS * 2 + 1;
+    private static final double[] BLEND_WEIGHTS = new double[BLEND_SIZE * BLEND_SIZE];
+
+    // The size of the biome grid that is needed to blend all the samples of a chunk
+    private static final int BIOME_GRID_SIZE = SAMPLES_XZ + BLEND_RADIUS * 2;
+
+    // The amount of blocks that a biome depth of 1 raises the terrain
+    private static final double DEPTH_HEIGHT = 32.0;
+    // The amplitude of the terrain noise, in blocks
+    private static final double BASE_AMPLITUDE = 8.0;
+    private static final double SCALE_AMPLITUDE = 96.0;
+
+    // The scales of the noise coordinates
+    private static final double TERRAIN_SCALE_XZ = 1.0 / 96.0;
+    private static final double TERRAIN_SCALE_Y = 1.0 / 48.0;
+    private static final double CLIMATE_SCALE = 1.0 / 64.0;
+    private static final double CONTINENTAL_SCALE = 1.0 / 160.0;
+    private static final double SURFACE_SCALE = 1.0 / 16.0;
+
+    // The maximum height of the random bedrock layer
+    private static final int BEDROCK_HEIGHT = 5;
+
+    static {
+        for (int x = -BLEND_RADIUS; x <= BLEND_RADIUS; x++) {
+            for (int z = -BLEND_RADIUS; z <= BLEND_RADIUS; z++) {
+                BLEND_WEIGHTS[(x + BLEND_RADIUS) * BLEND_SIZE + z + BLEND_RADIUS] = 10.0 / Math.sqrt(x * x + z * z + 0.2);
+            }
+        }
+    }
+
+    /**
+     * The settings of a biome within the generator.
+     */
+    static final class Biome {
+
+        final double temperature;
+        final double humidity;
+        final double continentalness;
+        final double depth;
+        final double scale;
+        final short topBlock;
+        final short fillerBlock;
+
+        /**
+         * Constructs a new {@link Biome}.
+         *
+         * @param temperature The temperature where the biome is placed, between -1 and 1
+         * @param humidity The humidity where the biome is placed, between -1 and 1
+         * @param continentalness The continentalness where the biome is placed, between -1 and 1,
+         *                        negative values are located in the oceans
+         * @param depth The depth, the terrain is raised by {@link #DEPTH_HEIGHT} blocks per unit
+         * @param scale The scale, the amount of variation in the terrain height
+         * @param topBlock The internal id of the block state at the surface
+         * @param fillerBlock The internal id of the block state below the surface
+         */
+        Biome(double temperature, double humidity, double continentalness, double depth, double scale,
+                short topBlock, short fillerBlock) {
+            this.temperature = temperature;
+            this.humidity = humidity;
+            this.continentalness = continentalness;
+            this.depth = depth;
+            this.scale = scale;
+            this.topBlock = topBlock;
+            this.fillerBlock = fillerBlock;
+        }
+    }
+
+    private final Biome[] biomes;
+    private final int seaLevel;
+    private final int height;
+    private final int samplesY;
+    private final long seed;
+
+    private final short stone;
+    private final short water;
+    private final short bedrock;
+
+    private final OctaveNoise terrainNoise;
+    private final OctaveNoise temperatureNoise;
+    private final OctaveNoise humidityNoise;
+    private final OctaveNoise continentalNoise;
+    private final OctaveNoise surfaceNoise;
+
+    /**
+     * Constructs a new {@link OverworldTerrainGenerator}.
+     *
+     * @param seed The world seed
+     * @param seaLevel The sea level
+     * @param height The height of the generated terrain, must be a multiple of 16
+     * @param stone The internal id of the stone block state
+     * @param water The internal id of the water block state
+     * @param bedrock The internal id of the bedrock block state
+     * @param biomes The biomes
+     */
+    OverworldTerrainGenerator(long seed, int seaLevel, int height, short stone, short water, short bedrock, Biome[] biomes) {
+        checkArgument(height > 0 && height % CHUNK_SIZE == 0, "The height must be a positive multiple of 16");
+        checkArgument(biomes.length > 0, "At least one biome is required");
+        this.seed = seed;
+        this.seaLevel = seaLevel;
+        this.height = height;
+        this.samplesY = height / CELL_HEIGHT + 1;
+        this.stone = stone;
+        this.water = water;
+        this.bedrock = bedrock;
+        this.biomes = biomes.clone();
+        final Random random = new Random(seed);
+        this.terrainNoise = new OctaveNoise(random, 5);
+        this.temperatureNoise = new OctaveNoise(random, 4);
+        this.humidityNoise = new OctaveNoise(random, 4);
+        this.continentalNoise = new OctaveNoise(random, 4);
+        this.surfaceNoise = new OctaveNoise(random, 3);
+    }
+
+    /**
+     * Gets the index of the biome at the given biome cell. The biome with
+     * the nearest climate to the climate at the cell will be selected.
+     *
+     * @param cellX The x coordinate of the biome cell
+     * @param cellZ The z coordinate of the biome cell
+     * @return The biome index
+     */
+    int getBiome(int cellX, int cellZ) {
+        // Scale the noise, the values are mostly in the range of -0.5 and 0.5
+        final double temperature = this.temperatureNoise.noise(cellX * CLIMATE_SCALE, 0, cellZ * CLIMATE_SCALE) * 2.0;
+        final double humidity = this.humidityNoise.noise(cellX * CLIMATE_SCALE, 0, cellZ * CLIMATE_SCALE) * 2.0;
+        final double continentalness = this.continentalNoise.noise(cellX * CONTINENTAL_SCALE, 0, cellZ * CONTINENTAL_SCALE) * 2.0;
+        int result = 0;
+        double nearest = Double.MAX_VALUE;
+        for (int i = 0; i < this.biomes.length; i++) {
+            final Biome biome = this.biomes[i];
+            final double dt = biome.temperature - temperature;
+            final double dh = biome.humidity - humidity;
+            // Continentalness weighs more, oceans and land should be separated
+            final double dc = (biome.continentalness - continentalness) * 2.0;
+            final double distance = dt * dt + dh * dh + dc * dc;
+            if (distance < nearest) {
+                nearest = distance;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates the terrain of the chunk. The section arrays are indexed by
+     * {@code (y & 0xf) << 8 | z << 4 | x} and should be filled with air, the
+     * amount of non air blocks of every section will be updated.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param sections The internal block state ids of all the sections
+     * @param nonAirCount The amount of non air blocks of all the sections
+     */
+    void generate(int chunkX, int chunkZ, short[][] sections, int[] nonAirCount) {
+        // The biomes around the chunk, including the border needed for blending,
+        // the density samples line up with the biome cells (CELL_WIDTH = 4)
+        final int[] biomeGrid = new int[BIOME_GRID_SIZE * BIOME_GRID_SIZE];
+        for (int x = 0; x < BIOME_GRID_SIZE; x++) {
+            for (int z = 0; z < BIOME_GRID_SIZE; z++) {
+                biomeGrid[x * BIOME_GRID_SIZE + z] = getBiome(
+                        (chunkX << 2) + x - BLEND_RADIUS, (chunkZ << 2) + z - BLEND_RADIUS);
+            }
+        }
+        final double[] density = sampleDensity(chunkX, chunkZ, biomeGrid);
+        fillTerrain(density, sections, nonAirCount);
+        applySurface(chunkX, chunkZ, biomeGrid, sections, nonAirCount);
+    }
+
+    private double[] sampleDensity(int chunkX, int chunkZ, int[] biomeGrid) {
+        final int samplesY = this.samplesY;
+        final double[] density = new double[SAMPLES_XZ * SAMPLES_XZ * samplesY];
+        this.terrainNoise.noise(density,
+                (chunkX << 4) * TERRAIN_SCALE_XZ, 0, (chunkZ << 4) * TERRAIN_SCALE_XZ,
+                SAMPLES_XZ, samplesY, SAMPLES_XZ,
+                CELL_WIDTH * TERRAIN_SCALE_XZ, CELL_HEIGHT * TERRAIN_SCALE_Y, CELL_WIDTH * TERRAIN_SCALE_XZ);
+        int index = 0;
+        for (int x = 0; x < SAMPLES_XZ; x++) {
+            for (int z = 0; z < SAMPLES_XZ; z++) {
+                // Blend the depth and scale of the surrounding biomes
+                double depth = 0.0;
+                double scale = 0.0;
+                double totalWeight = 0.0;
+                for (int bx = 0; bx < BLEND_SIZE; bx++) {
+                    for (int bz = 0; bz < BLEND_SIZE; bz++) {
+                        final Biome biome = this.biomes[biomeGrid[(x + bx) * BIOME_GRID_SIZE + z + bz]];
+                        final double weight = BLEND_WEIGHTS[bx * BLEND_SIZE + bz];
+                        depth += biome.depth * weight;
+                        scale += biome.scale * weight;
+                        totalWeight += weight;
+                    }
+                }
+                depth /= totalWeight;
+                scale /= totalWeight;
+                final double terrainHeight = this.seaLevel + depth * DEPTH_HEIGHT;
+                final double amplitude = BASE_AMPLITUDE + scale * SCALE_AMPLITUDE;
+                for (int y = 0; y < samplesY; y++) {
+                    // Positive values are solid
+                    density[index] = density[index] * amplitude - (y * CELL_HEIGHT - terrainHeight);
+                    index++;
+                }
+            }
+        }
+        return density;
+    }
+
+    private void fillTerrain(double[] density, short[][] sections, int[] nonAirCount) {
+        final int samplesY = this.samplesY;
+        final int cellsY = samplesY - 1;
+        for (int cx = 0; cx < CELLS_XZ; cx++) {
+            for (int cz = 0; cz < CELLS_XZ; cz++) {
+                final int i00 = (cx * SAMPLES_XZ + cz) * samplesY;
+                final int i01 = (cx * SAMPLES_XZ + cz + 1) * samplesY;
+                final int i10 = ((cx + 1) * SAMPLES_XZ + cz) * samplesY;
+                final int i11 = ((cx + 1) * SAMPLES_XZ + cz + 1) * samplesY;
+                for (int cy = 0; cy < cellsY; cy++) {
+                    final double d000 = density[i00 + cy];
+                    final double d001 = density[i01 + cy];
+                    final double d100 = density[i10 + cy];
+                    final double d101 = density[i11 + cy];
+                    // The change of the density per block on the y axis
+                    final double dy00 = (density[i00 + cy + 1] - d000) / CELL_HEIGHT;
+                    final double dy01 = (density[i01 + cy + 1] - d001) / CELL_HEIGHT;
+                    final double dy10 = (density[i10 + cy + 1] - d100) / CELL_HEIGHT;
+                    final double dy11 = (density[i11 + cy + 1] - d101) / CELL_HEIGHT;
+                    for (int yy = 0; yy < CELL_HEIGHT; yy++) {
+                        final int y = cy * CELL_HEIGHT + yy;
+                        final short[] types = sections[y >> 4];
+                        final int yIndex = (y & 0xf) << 8;
+                        final short fluid = y < this.seaLevel ? this.water : 0;
+                        int count = 0;
+                        final double e00 = d000 + dy00 * yy;
+                        final double e01 = d001 + dy01 * yy;
+                        final double e10 = d100 + dy10 * yy;
+                        final double e11 = d101 + dy11 * yy;
+                        for (int xx = 0; xx < CELL_WIDTH; xx++) {
+                            final double tx = xx / (double) CELL_WIDTH;
+                            final double e0 = e00 + (e10 - e00) * tx;
+                            final double e1 = e01 + (e11 - e01) * tx;
+                            final int xIndex = yIndex | (cx * CELL_WIDTH + xx);
+                            for (int zz = 0; zz < CELL_WIDTH; zz++) {
+                                final double value = e0 + (e1 - e0) * (zz / (double) CELL_WIDTH);
+                                final short type = value > 0.0 ? this.stone : fluid;
+                                types[xIndex | (cz * CELL_WIDTH + zz) << 4] = type;
+                                if (type != 0) {
+                                    count++;
+                                }
+                            }
+                        }
+                        nonAirCount[y >> 4] += count;
+                    }
+                }
+            }
+        }
+    }
+
+    private void applySurface(int chunkX, int chunkZ, int[] biomeGrid, short[][] sections, int[] nonAirCount) {
+        final long seed = this.seed;
+        for (int x = 0; x < CHUNK_SIZE; x++) {
+            for (int z = 0; z < CHUNK_SIZE; z++) {
+                final int blockX = (chunkX << 4) | x;
+                final int blockZ = (chunkZ << 4) | z;
+                final Biome biome = this.biomes[biomeGrid[
+                        ((x >> BIOME_CELL_BITS) + BLEND_RADIUS) * BIOME_GRID_SIZE + (z >> BIOME_CELL_BITS) + BLEND_RADIUS]];
+                final int surfaceDepth = Math.max(1, 3 + (int) (this.surfaceNoise.noise(
+                        blockX * SURFACE_SCALE, 0, blockZ * SURFACE_SCALE) * 4.0));
+                final int columnIndex = z << 4 | x;
+                int depth = -1;
+                for (int y = this.height - 1; y >= 0; y--) {
+                    final short[] types = sections[y >> 4];
+                    final int index = (y & 0xf) << 8 | columnIndex;
+                    if (types[index] != this.stone) {
+                        // Air or a fluid, the next solid block is a surface again
+                        depth = -1;
+                    } else if (depth == -1) {
+                        depth = surfaceDepth;
+                        // Use the filler block for surfaces below the sea
+                        types[index] = y >= this.seaLevel - 1 ? biome.topBlock : biome.fillerBlock;
+                    } else if (depth > 0) {
+                        depth--;
+                        types[index] = biome.fillerBlock;
+                    }
+                }
+                // The bedrock layer
+                for (int y = 0; y < BEDROCK_HEIGHT; y++) {
+                    if (y == 0 || y <= hash(seed, blockX, y, blockZ) % BEDROCK_HEIGHT) {
+                        final short[] types = sections[y >> 4];
+                        final int index = (y & 0xf) << 8 | columnIndex;
+                        if (types[index] == 0) {
+                            nonAirCount[y >> 4]++;
+                        }
+                        types[index] = this.bedrock;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int hash(long seed, int x, int y, int z) {
+        long hash = seed ^ (x * 3129871L) ^ (z * 116129781L) ^ y;
+        hash = hash * hash * 42317861L + hash * 11L;
+        return (int) (hash >>> 16) & Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import java.util.Random;
+
+/**
+ * A improved perlin noise generator. The noise is immutable
+ * once constructed, so it can be sampled concurrently.
+ */
+final class PerlinNoise {
+
+    // The gradients, the hash selects one of the 12 cube edges,
+    // the last four entries repeat some of them to fill 16 entries
+    private static final double[] GRADIENT_X = { 1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0, 1, 0, -1, 0 };
+    private static final double[] GRADIENT_Y = { 1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1, 1, -1, 1, -1 };
+    private static final double[] GRADIENT_Z = { 0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1, 0, 1, 0, -1 };
+
+    private final int[] permutations = new int[512];
+
+    private final double offsetX;
+    private final double offsetY;
+    private final double offsetZ;
+
+    PerlinNoise(Random random) {
+        this.offsetX = random.nextDouble() * 256.0;
+        this.offsetY = random.nextDouble() * 256.0;
+        this.offsetZ = random.nextDouble() * 256.0;
+        for (int i = 0; i < 256; i++) {
+            this.permutations[i] = i;
+        }
+        for (int i = 0; i < 256; i++) {
+            final int j = random.nextInt(256 - i) + i;
+            final int value = this.permutations[i];
+            this.permutations[i] = this.permutations[j];
+            this.permutations[j] = value;
+            this.permutations[i + 256] = this.permutations[i];
+        }
+    }
+
+    /**
+     * Samples the noise at the given coordinates.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The noise value, between -1 and 1
+     */
+    double noise(double x, double y, double z) {
+        x += this.offsetX;
+        y += this.offsetY;
+        z += this.offsetZ;
+
+        final int floorX = floor(x);
+        final int floorY = floor(y);
+        final int floorZ = floor(z);
+
+        final int cellX = floorX & 0xff;
+        final int cellY = floorY & 0xff;
+        final int cellZ = floorZ & 0xff;
+
+        x -= floorX;
+        y -= floorY;
+        z -= floorZ;
+
+        final double fadeX = fade(x);
+        final double fadeY = fade(y);
+        final double fadeZ = fade(z);
+
+        final int[] p = this.permutations;
+        final int a = p[cellX] + cellY;
+        final int aa = p[a] + cellZ;
+        final int ab = p[a + 1] + cellZ;
+        final int b = p[cellX + 1] + cellY;
+        final int ba = p[b] + cellZ;
+        final int bb = p[b + 1] + cellZ;
+
+        return lerp(fadeZ,
+                lerp(fadeY,
+                        lerp(fadeX, gradient(p[aa], x, y, z), gradient(p[ba], x - 1, y, z)),
+                        lerp(fadeX, gradient(p[ab], x, y - 1, z), gradient(p[bb], x - 1, y - 1, z))),
+                lerp(fadeY,
+                        lerp(fadeX, gradient(p[aa + 1], x, y, z - 1), gradient(p[ba + 1], x - 1, y, z - 1)),
+                        lerp(fadeX, gradient(p[ab + 1], x, y - 1, z - 1), gradient(p[bb + 1], x - 1, y - 1, z - 1))));
+    }
+
+    private static int floor(double value) {
+        final int floor = (int) value;
+        return value < floor ? floor - 1 : floor;
+    }
+
+    private static double fade(double value) {
+        return value * value * value * (value * (value * 6.0 - 15.0) + 10.0);
+    }
+
+    private static double lerp(double delta, double start, double end) {
+        return start + delta * (end - start);
+    }
+
+    private static double gradient(int hash, double x, double y, double z) {
+        final int index = hash & 0xf;
+        return GRADIENT_X[index] * x + GRADIENT_Y[index] * y + GRADIENT_Z[index] * z;
+    }
+}
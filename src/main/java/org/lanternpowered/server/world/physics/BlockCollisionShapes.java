@@ -0,0 +1,115 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.physics;
+
+import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.provider.CachedSimpleObjectProvider;
+import org.lanternpowered.server.block.provider.ConstantObjectProvider;
+import org.lanternpowered.server.block.provider.ObjectProvider;
+import org.lanternpowered.server.block.provider.SimpleObjectProvider;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.util.AABB;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
+/**
+ * The {@link VoxelShape}s that are used for block collisions, mapped by the
+ * internal id and data of the block state. The shapes are computed the first
+ * time they are requested, shapes that depend on the location of the block
+ * can't be cached and must be requested through
+ * {@link #get(BlockState, Location)}.
+ */
+public final class BlockCollisionShapes {
+
+    // A marker for the shapes that depend on the location
+    private static final VoxelShape DYNAMIC = new VoxelShape(new double[0]);
+
+    // The shapes mapped by the internal id and data of the block state,
+    // a null entry means that the shape isn't computed yet
+    private static final VoxelShape[] shapes = new VoxelShape[65536];
+
+    /**
+     * Gets the collision {@link VoxelShape} of the block state with the given internal
+     * id and data. {@code null} will be returned if the shape depends on the location.
+     *
+     * @param type The internal id and data of the block state
+     * @return The voxel shape, or {@code null} if the shape depends on the location
+     */
+    @Nullable
+    public static VoxelShape get(short type) {
+        final int index = type & 0xffff;
+        VoxelShape shape = shapes[index];
+        if (shape == null) {
+            // Shapes are immutable, so it doesn't matter if
+            // multiple threads compute the same shape
+            shape = compute(type);
+            shapes[index] = shape;
+        }
+        return shape == DYNAMIC ? null : shape;
+    }
+
+    /**
+     * Gets the collision {@link VoxelShape} of the block state at the given location.
+     *
+     * @param blockState The block state
+     * @param location The location of the block
+     * @return The voxel shape
+     */
+    public static VoxelShape get(BlockState blockState, Location<World> location) {
+        final ObjectProvider<Collection<AABB>> provider = ((LanternBlockType) blockState.getType()).getCollisionBoxesProvider();
+        if (provider == null) {
+            return VoxelShape.EMPTY;
+        }
+        final Collection<AABB> boxes = provider.get(blockState, location, null);
+        return boxes == null ? VoxelShape.EMPTY : VoxelShape.of(boxes);
+    }
+
+    private static VoxelShape compute(short type) {
+        final BlockState blockState = BlockRegistryModule.get().getRawStateByInternalIdAndData(type);
+        if (blockState == null) {
+            return VoxelShape.EMPTY;
+        }
+        final ObjectProvider<Collection<AABB>> provider = ((LanternBlockType) blockState.getType()).getCollisionBoxesProvider();
+        if (provider == null) {
+            return VoxelShape.EMPTY;
+        }
+        if (provider instanceof ConstantObjectProvider ||
+                provider instanceof CachedSimpleObjectProvider ||
+                provider instanceof SimpleObjectProvider) {
+            final Collection<AABB> boxes = provider.get(blockState, null, null);
+            return boxes == null ? VoxelShape.EMPTY : VoxelShape.of(boxes);
+        }
+        return DYNAMIC;
+    }
+
+    private BlockCollisionShapes() {
+    }
+}
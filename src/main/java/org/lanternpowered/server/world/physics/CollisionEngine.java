@@ -0,0 +1,210 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.physics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_HEIGHT;
+
+import com.flowpowered.math.GenericMath;
+import com.flowpowered.math.vector.Vector3d;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.spongepowered.api.util.AABB;
+import org.spongepowered.api.world.Location;
+
+import javax.annotation.Nullable;
+
+/**
+ * A engine that resolves the collisions between moving bounding
+ * boxes and the blocks of a {@link LanternWorld}.
+ * <p>
+ * The collision shapes of the blocks are looked up through the
+ * {@link BlockCollisionShapes} by the internal block state id, so
+ * iterating over the blocks doesn't allocate any objects.
+ */
+public final class CollisionEngine {
+
+    private static final int AXIS_X = 0;
+    private static final int AXIS_Y = 1;
+    private static final int AXIS_Z = 2;
+
+    private final LanternWorld world;
+
+    public CollisionEngine(LanternWorld world) {
+        this.world = checkNotNull(world, "world");
+    }
+
+    /**
+     * Moves the bounding box by the given motion and clips the motion so
+     * that the box doesn't move into any block. The motion is resolved
+     * along the y axis first, followed by the x and z axes.
+     *
+     * @param box The bounding box
+     * @param motion The motion
+     * @return The clipped motion
+     */
+    public Vector3d collide(AABB box, Vector3d motion) {
+        checkNotNull(box, "box");
+        checkNotNull(motion, "motion");
+        double dx = motion.getX();
+        double dy = motion.getY();
+        double dz = motion.getZ();
+        if (dx == 0.0 && dy == 0.0 && dz == 0.0) {
+            return motion;
+        }
+        double minX = box.getMin().getX();
+        double minY = box.getMin().getY();
+        double minZ = box.getMin().getZ();
+        double maxX = box.getMax().getX();
+        double maxY = box.getMax().getY();
+        double maxZ = box.getMax().getZ();
+
+        // The area the box sweeps through, expanded by one block
+        // to include shapes that are larger than a block
+        final int startX = GenericMath.floor(Math.min(minX, minX + dx)) - 1;
+        final int startY = GenericMath.floor(Math.min(minY, minY + dy)) - 1;
+        final int startZ = GenericMath.floor(Math.min(minZ, minZ + dz)) - 1;
+        final int endX = GenericMath.floor(Math.max(maxX, maxX + dx)) + 1;
+        final int endY = GenericMath.floor(Math.max(maxY, maxY + dy)) + 1;
+        final int endZ = GenericMath.floor(Math.max(maxZ, maxZ + dz)) + 1;
+
+        if (dy != 0.0) {
+            dy = clip(AXIS_Y, startX, startY, startZ, endX, endY, endZ, minX, minY, minZ, maxX, maxY, maxZ, dy);
+            minY += dy;
+            maxY += dy;
+        }
+        if (dx != 0.0) {
+            dx = clip(AXIS_X, startX, startY, startZ, endX, endY, endZ, minX, minY, minZ, maxX, maxY, maxZ, dx);
+            minX += dx;
+            maxX += dx;
+        }
+        if (dz != 0.0) {
+            dz = clip(AXIS_Z, startX, startY, startZ, endX, endY, endZ, minX, minY, minZ, maxX, maxY, maxZ, dz);
+        }
+        if (dx == motion.getX() && dy == motion.getY() && dz == motion.getZ()) {
+            return motion;
+        }
+        return new Vector3d(dx, dy, dz);
+    }
+
+    /**
+     * Gets whether the given bounding box intersects with any block.
+     *
+     * @param box The bounding box
+     * @return Whether there is a intersection
+     */
+    public boolean intersects(AABB box) {
+        checkNotNull(box, "box");
+        return intersects(box.getMin().getX(), box.getMin().getY(), box.getMin().getZ(),
+                box.getMax().getX(), box.getMax().getY(), box.getMax().getZ());
+    }
+
+    /**
+     * Gets whether the given bounds intersect with any block.
+     *
+     * @param minX The minimum x coordinate of the bounds
+     * @param minY The minimum y coordinate of the bounds
+     * @param minZ The minimum z coordinate of the bounds
+     * @param maxX The maximum x coordinate of the bounds
+     * @param maxY The maximum y coordinate of the bounds
+     * @param maxZ The maximum z coordinate of the bounds
+     * @return Whether there is a intersection
+     */
+    public boolean intersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        final int startX = GenericMath.floor(minX) - 1;
+        final int startZ = GenericMath.floor(minZ) - 1;
+        final int endX = GenericMath.floor(maxX) + 1;
+        final int endZ = GenericMath.floor(maxZ) + 1;
+        final int startY = Math.max(0, GenericMath.floor(minY) - 1);
+        final int endY = Math.min(CHUNK_HEIGHT - 1, GenericMath.floor(maxY) + 1);
+        for (int chunkX = startX >> 4; chunkX <= endX >> 4; chunkX++) {
+            for (int chunkZ = startZ >> 4; chunkZ <= endZ >> 4; chunkZ++) {
+                final LanternChunk chunk = this.world.getChunkManager().getChunkIfLoaded(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                final int chunkEndX = Math.min(endX, (chunkX << 4) | 0xf);
+                final int chunkEndZ = Math.min(endZ, (chunkZ << 4) | 0xf);
+                for (int x = Math.max(startX, chunkX << 4); x <= chunkEndX; x++) {
+                    for (int z = Math.max(startZ, chunkZ << 4); z <= chunkEndZ; z++) {
+                        for (int y = startY; y <= endY; y++) {
+                            final VoxelShape shape = getShape(chunk, x, y, z);
+                            if (shape != null && shape.intersects(x, y, z, minX, minY, minZ, maxX, maxY, maxZ)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private double clip(int axis, int startX, int startY, int startZ, int endX, int endY, int endZ,
+            double minX, double minY, double minZ, double maxX, double maxY, double maxZ, double motion) {
+        startY = Math.max(0, startY);
+        endY = Math.min(CHUNK_HEIGHT - 1, endY);
+        for (int chunkX = startX >> 4; chunkX <= endX >> 4; chunkX++) {
+            for (int chunkZ = startZ >> 4; chunkZ <= endZ >> 4; chunkZ++) {
+                final LanternChunk chunk = this.world.getChunkManager().getChunkIfLoaded(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                final int chunkEndX = Math.min(endX, (chunkX << 4) | 0xf);
+                final int chunkEndZ = Math.min(endZ, (chunkZ << 4) | 0xf);
+                for (int x = Math.max(startX, chunkX << 4); x <= chunkEndX; x++) {
+                    for (int z = Math.max(startZ, chunkZ << 4); z <= chunkEndZ; z++) {
+                        for (int y = startY; y <= endY; y++) {
+                            final VoxelShape shape = getShape(chunk, x, y, z);
+                            if (shape == null) {
+                                continue;
+                            }
+                            motion = shape.clip(axis, x, y, z, minX, minY, minZ, maxX, maxY, maxZ, motion);
+                            if (motion == 0.0) {
+                                return 0.0;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return motion;
+    }
+
+    @Nullable
+    private VoxelShape getShape(LanternChunk chunk, int x, int y, int z) {
+        final short type = chunk.getType(x, y, z);
+        if (type == 0) {
+            return null;
+        }
+        final VoxelShape shape = BlockCollisionShapes.get(type);
+        if (shape != null) {
+            return shape;
+        }
+        // The shape depends on the location, this is the only case that allocates
+        return BlockCollisionShapes.get(chunk.getBlock(x, y, z), new Location<>(this.world, x, y, z));
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.physics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import org.spongepowered.api.util.AABB;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A immutable shape that is made out of boxes, relative to the
+ * origin of the block. The bounds of all the boxes are stored in
+ * a single flat array so that they can be iterated without
+ * allocating any objects.
+ */
+public final class VoxelShape {
+
+    private static final int MIN_X = 0;
+    private static final int MIN_Y = 1;
+    private static final int MIN_Z = 2;
+    private static final int MAX_X = 3;
+    private static final int MAX_Y = 4;
+    private static final int MAX_Z = 5;
+    private static final int STRIDE = 6;
+
+    /**
+     * A shape without any boxes.
+     */
+    public static final VoxelShape EMPTY = new VoxelShape(new double[0]);
+
+    /**
+     * A shape that fills the complete block.
+     */
+    public static final VoxelShape FULL_CUBE = new VoxelShape(new double[] { 0.0, 0.0, 0.0, 1.0, 1.0, 1.0 });
+
+    /**
+     * Creates a {@link VoxelShape} from the given boxes, {@code null}
+     * entries will be ignored.
+     *
+     * @param boxes The boxes
+     * @return The voxel shape
+     */
+    public static VoxelShape of(Collection<AABB> boxes) {
+        checkNotNull(boxes, "boxes");
+        final double[] bounds = new double[boxes.size() * STRIDE];
+        int index = 0;
+        for (AABB box : boxes) {
+            if (box == null) {
+                continue;
+            }
+            bounds[index + MIN_X] = box.getMin().getX();
+            bounds[index + MIN_Y] = box.getMin().getY();
+            bounds[index + MIN_Z] = box.getMin().getZ();
+            bounds[index + MAX_X] = box.getMax().getX();
+            bounds[index + MAX_Y] = box.getMax().getY();
+            bounds[index + MAX_Z] = box.getMax().getZ();
+            index += STRIDE;
+        }
+        if (index == 0) {
+            return EMPTY;
+        }
+        if (index == STRIDE && isFullCube(bounds)) {
+            return FULL_CUBE;
+        }
+        if (index != bounds.length) {
+            final double[] trimmed = new double[index];
+            System.arraycopy(bounds, 0, trimmed, 0, index);
+            return new VoxelShape(trimmed);
+        }
+        return new VoxelShape(bounds);
+    }
+
+    private static boolean isFullCube(double[] bounds) {
+        return bounds[MIN_X] == 0.0 && bounds[MIN_Y] == 0.0 && bounds[MIN_Z] == 0.0 &&
+                bounds[MAX_X] == 1.0 && bounds[MAX_Y] == 1.0 && bounds[MAX_Z] == 1.0;
+    }
+
+    private final double[] bounds;
+
+    VoxelShape(double[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Gets whether this shape doesn't contain any boxes.
+     *
+     * @return Is empty
+     */
+    public boolean isEmpty() {
+        return this.bounds.length == 0;
+    }
+
+    /**
+     * Gets the amount of boxes in this shape.
+     *
+     * @return The amount of boxes
+     */
+    public int size() {
+        return this.bounds.length / STRIDE;
+    }
+
+    /**
+     * Converts this shape into {@link AABB}s that are offset by the given position.
+     *
+     * @param x The x offset
+     * @param y The y offset
+     * @param z The z offset
+     * @return The boxes
+     */
+    public List<AABB> toBoxes(double x, double y, double z) {
+        final ImmutableList.Builder<AABB> boxes = ImmutableList.builder();
+        for (int i = 0; i < this.bounds.length; i += STRIDE) {
+            boxes.add(new AABB(
+                    x + this.bounds[i + MIN_X], y + this.bounds[i + MIN_Y], z + this.bounds[i + MIN_Z],
+                    x + this.bounds[i + MAX_X], y + this.bounds[i + MAX_Y], z + this.bounds[i + MAX_Z]));
+        }
+        return boxes.build();
+    }
+
+    /**
+     * Gets whether any box of this shape, offset by the given
+     * position, intersects with the given bounds.
+     *
+     * @param x The x offset of the shape
+     * @param y The y offset of the shape
+     * @param z The z offset of the shape
+     * @param minX The minimum x coordinate of the bounds
+     * @param minY The minimum y coordinate of the bounds
+     * @param minZ The minimum z coordinate of the bounds
+     * @param maxX The maximum x coordinate of the bounds
+     * @param maxY The maximum y coordinate of the bounds
+     * @param maxZ The maximum z coordinate of the bounds
+     * @return Whether there is a intersection
+     */
+    public boolean intersects(double x, double y, double z,
+            double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        final double[] bounds = this.bounds;
+        for (int i = 0; i < bounds.length; i += STRIDE) {
+            if (x + bounds[i + MIN_X] < maxX && x + bounds[i + MAX_X] > minX &&
+                    y + bounds[i + MIN_Y] < maxY && y + bounds[i + MAX_Y] > minY &&
+                    z + bounds[i + MIN_Z] < maxZ && z + bounds[i + MAX_Z] > minZ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clips the motion of the given bounds along the given axis, so that the
+     * bounds will not move into any box of this shape, offset by the given
+     * position. Only boxes that overlap with the bounds on the other two axes
+     * are taken into account.
+     *
+     * @param axis The axis, {@code 0} for x, {@code 1} for y and {@code 2} for z
+     * @param x The x offset of the shape
+     * @param y The y offset of the shape
+     * @param z The z offset of the shape
+     * @param minX The minimum x coordinate of the bounds
+     * @param minY The minimum y coordinate of the bounds
+     * @param minZ The minimum z coordinate of the bounds
+     * @param maxX The maximum x coordinate of the bounds
+     * @param maxY The maximum y coordinate of the bounds
+     * @param maxZ The maximum z coordinate of the bounds
+     * @param motion The motion along the axis
+     * @return The clipped motion
+     */
+    public double clip(int axis, double x, double y, double z,
+            double minX, double minY, double minZ, double maxX, double maxY, double maxZ, double motion) {
+        final double[] bounds = this.bounds;
+        for (int i = 0; i < bounds.length && motion != 0.0; i += STRIDE) {
+            final double boxMinX = x + bounds[i + MIN_X];
+            final double boxMinY = y + bounds[i + MIN_Y];
+            final double boxMinZ = z + bounds[i + MIN_Z];
+            final double boxMaxX = x + bounds[i + MAX_X];
+            final double boxMaxY = y + bounds[i + MAX_Y];
+            final double boxMaxZ = z + bounds[i + MAX_Z];
+            final double min;
+            final double max;
+            final double boxMin;
+            final double boxMax;
+            if (axis == 0) {
+                if (boxMaxY <= minY || boxMinY >= maxY || boxMaxZ <= minZ || boxMinZ >= maxZ) {
+                    continue;
+                }
+                min = minX;
+                max = maxX;
+                boxMin = boxMinX;
+                boxMax = boxMaxX;
+            } else if (axis == 1) {
+                if (boxMaxX <= minX || boxMinX >= maxX || boxMaxZ <= minZ || boxMinZ >= maxZ) {
+                    continue;
+                }
+                min = minY;
+                max = maxY;
+                boxMin = boxMinY;
+                boxMax = boxMaxY;
+            } else {
+                if (boxMaxX <= minX || boxMinX >= maxX || boxMaxY <= minY || boxMinY >= maxY) {
+                    continue;
+                }
+                min = minZ;
+                max = maxZ;
+                boxMin = boxMinZ;
+                boxMax = boxMaxZ;
+            }
+            if (motion > 0.0 && max <= boxMin) {
+                motion = Math.min(motion, boxMin - max);
+            } else if (motion < 0.0 && min >= boxMax) {
+                motion = Math.max(motion, boxMax - min);
+            }
+        }
+        return motion;
+    }
+}
@@ -0,0 +1,502 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.pregen;
+
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.key;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyX;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyZ;
+
+import com.flowpowered.math.vector.Vector2i;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.lanternpowered.api.cause.CauseStack;
+import org.lanternpowered.server.cause.LanternCauseStack;
+import org.lanternpowered.server.cause.LanternCauseStackManager;
+import org.lanternpowered.server.data.io.ChunkIOService;
+import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.util.ThreadHelper;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.ChunkLoadingTicket;
+import org.lanternpowered.server.world.chunk.LanternChunkManager;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * A engine that pre-generates the chunks of a square area on its own threads.
+ * <p>
+ * The area is processed region by region, a region covers the same 32x32 chunks
+ * as a region file, so each region file is written in one go instead of being
+ * revisited over and over. The chunks of a region are generated concurrently by
+ * all the workers, populated in phases and unloaded once the region is complete,
+ * after which the progress is stored so that the pre-generation can be resumed
+ * after a restart.
+ * <p>
+ * The amount of workers that may generate chunks can be changed at any time, this
+ * is used to throttle the engine based on the tick times of the server. The same
+ * throttle, including the pause and the budget, applies to the populations and to
+ * the unloading of the chunks, only generated chunks consume the budget.
+ */
+final class ChunkPreGenerateEngine implements Runnable {
+
+    // The amount of bits of a region coordinate, matches the region files
+    private static final int REGION_BITS = 5;
+
+    // The time in milliseconds that a throttled worker sleeps before trying again
+    private static final long THROTTLE_SLEEP = 10L;
+
+    private final LanternWorld world;
+    private final LanternChunkManager chunkManager;
+    private final ChunkIOService chunkIOService;
+    private final PluginContainer plugin;
+    private final ExecutorService executor;
+    private final Thread thread;
+    private final String name;
+    private final int workers;
+
+    private final int centerX;
+    private final int centerZ;
+    private final int chunkRadius;
+
+    // The regions that should be generated, sorted by distance to the center
+    private final long[] regions;
+
+    private final ChunkPreGenerateProgress progress;
+
+    private final AtomicInteger generated = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    // The amount of chunks that may still be generated, negative if unlimited
+    private final AtomicInteger budget = new AtomicInteger(-1);
+
+    // The amount of workers that are populating or unloading chunks
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private volatile int allowedWorkers;
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+    private volatile boolean failed;
+    private volatile boolean done;
+
+    ChunkPreGenerateEngine(LanternWorld world, PluginContainer plugin, int centerX, int centerZ, int chunkRadius) {
+        this.world = world;
+        this.chunkManager = world.getChunkManager();
+        this.chunkIOService = this.chunkManager.getChunkIOService();
+        this.plugin = plugin;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.chunkRadius = chunkRadius;
+        this.regions = getRegions(centerX - chunkRadius, centerZ - chunkRadius,
+                centerX + chunkRadius, centerZ + chunkRadius, centerX, centerZ);
+        this.progress = loadProgress();
+        this.generated.set(this.progress.generated);
+        this.skipped.set(this.progress.skipped);
+        // Leave one core for the main thread
+        this.workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.allowedWorkers = this.workers;
+        this.name = "world-" + world.getName().toLowerCase(Locale.ENGLISH) + "-pregen-";
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> newDaemonThread(() -> {
+            initCauseStack();
+            runnable.run();
+        }, this.name + counter.getAndIncrement()));
+        this.thread = newDaemonThread(this, this.name + "main");
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        // The engine is stopped when the world unloads, it
+        // shouldn't keep the server alive on its own
+        final Thread thread = ThreadHelper.newThread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Gets the regions that contain the given area, sorted by the
+     * distance of the region center to the center of the area.
+     */
+    static long[] getRegions(int minX, int minZ, int maxX, int maxZ, int centerX, int centerZ) {
+        final LongList regions = new LongArrayList();
+        for (int x = minX >> REGION_BITS; x <= maxX >> REGION_BITS; x++) {
+            for (int z = minZ >> REGION_BITS; z <= maxZ >> REGION_BITS; z++) {
+                regions.add(key(x, z));
+            }
+        }
+        final long[] array = regions.toLongArray();
+        // The order must be stable, the progress depends on it
+        LongArrays.quickSort(array, (a, b) -> {
+            final int result = Long.compare(getDistanceSquared(a, centerX, centerZ), getDistanceSquared(b, centerX, centerZ));
+            return result != 0 ? result : Long.compare(a, b);
+        });
+        return array;
+    }
+
+    private static long getDistanceSquared(long region, int centerX, int centerZ) {
+        final long dx = (keyX(region) << REGION_BITS) + (1 << (REGION_BITS - 1)) - centerX;
+        final long dz = (keyZ(region) << REGION_BITS) + (1 << (REGION_BITS - 1)) - centerZ;
+        return dx * dx + dz * dz;
+    }
+
+    private void initCauseStack() {
+        // Every engine thread needs its own cause stack
+        LanternCauseStackManager.INSTANCE.setCurrentCauseStack(new LanternCauseStack());
+        CauseStack.current().pushCause(this.plugin);
+    }
+
+    /**
+     * Starts the engine on a new thread.
+     */
+    void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Waits until the engine and all its workers are stopped, the
+     * engine should be cancelled before this method is called.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit The time unit of the timeout
+     * @return Whether the engine stopped within the timeout
+     * @throws InterruptedException If the current thread got interrupted
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long end = System.nanoTime() + unit.toNanos(timeout);
+        if (this.thread.isAlive()) {
+            TimeUnit.NANOSECONDS.timedJoin(this.thread, end - System.nanoTime());
+            if (this.thread.isAlive()) {
+                return false;
+            }
+        }
+        // Normally already done by the main thread of the engine
+        this.executor.shutdown();
+        return this.executor.awaitTermination(Math.max(0L, end - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the maximum amount of workers.
+     *
+     * @return The workers
+     */
+    int getWorkers() {
+        return this.workers;
+    }
+
+    /**
+     * Gets the amount of workers that are allowed to generate chunks.
+     *
+     * @return The allowed workers
+     */
+    int getAllowedWorkers() {
+        return this.allowedWorkers;
+    }
+
+    /**
+     * Sets the amount of workers that are allowed to generate chunks,
+     * all the workers will be paused if the amount is {@code 0}.
+     *
+     * @param allowedWorkers The allowed workers
+     */
+    void setAllowedWorkers(int allowedWorkers) {
+        this.allowedWorkers = Math.max(0, Math.min(allowedWorkers, this.workers));
+    }
+
+    /**
+     * Sets whether all the workers should be paused.
+     *
+     * @param paused Whether the workers are paused
+     */
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Sets the amount of chunks that may still be generated, this replaces
+     * the remaining budget. A negative amount means unlimited.
+     *
+     * @param budget The budget
+     */
+    void setBudget(int budget) {
+        this.budget.set(budget);
+    }
+
+    /**
+     * Gets the amount of generated chunks, including
+     * the chunks of a resumed pre-generation.
+     *
+     * @return The generated chunks
+     */
+    int getGeneratedChunks() {
+        return this.generated.get();
+    }
+
+    /**
+     * Gets the amount of chunks that were skipped because they
+     * already existed, including the chunks of a resumed pre-generation.
+     *
+     * @return The skipped chunks
+     */
+    int getSkippedChunks() {
+        return this.skipped.get();
+    }
+
+    /**
+     * Cancels the engine, the region that is currently
+     * being generated will be saved before it stops.
+     */
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Gets whether the engine stopped.
+     *
+     * @return Whether the engine is done
+     */
+    boolean isDone() {
+        return this.done;
+    }
+
+    /**
+     * Gets whether the engine stopped because of a error.
+     *
+     * @return Whether the engine failed
+     */
+    boolean isFailed() {
+        return this.failed;
+    }
+
+    @Override
+    public void run() {
+        initCauseStack();
+        final CauseStack causeStack = CauseStack.current();
+        final ChunkPreGenerateProgress progress = this.progress;
+        try {
+            for (int i = progress.regionIndex; i < this.regions.length && !this.cancelled; i++) {
+                final long region = this.regions[i];
+                generateRegion(keyX(region), keyZ(region), causeStack);
+                // Only store the progress of completed regions
+                if (!this.cancelled) {
+                    progress.regionIndex = i + 1;
+                    progress.generated = this.generated.get();
+                    progress.skipped = this.skipped.get();
+                    progress.save();
+                }
+            }
+            if (!this.cancelled) {
+                progress.delete();
+            }
+        } catch (Throwable t) {
+            Lantern.getLogger().error("An error occurred while pre-generating the chunks of world {}", this.world.getName(), t);
+            this.failed = true;
+            this.cancelled = true;
+        } finally {
+            this.executor.shutdown();
+            this.done = true;
+        }
+    }
+
+    private ChunkPreGenerateProgress loadProgress() {
+        try {
+            return ChunkPreGenerateProgress.load(this.world.getDirectory(), this.centerX, this.centerZ, this.chunkRadius);
+        } catch (IOException e) {
+            Lantern.getLogger().warn("Unable to load the chunk pre-generation progress of world {}, starting from the beginning",
+                    this.world.getName(), e);
+            return ChunkPreGenerateProgress.create(this.world.getDirectory(), this.centerX, this.centerZ, this.chunkRadius);
+        }
+    }
+
+    private void generateRegion(int regionX, int regionZ, CauseStack causeStack) throws IOException, InterruptedException {
+        final int minX = Math.max(regionX << REGION_BITS, this.centerX - this.chunkRadius);
+        final int minZ = Math.max(regionZ << REGION_BITS, this.centerZ - this.chunkRadius);
+        final int maxX = Math.min(((regionX + 1) << REGION_BITS) - 1, this.centerX + this.chunkRadius);
+        final int maxZ = Math.min(((regionZ + 1) << REGION_BITS) - 1, this.centerZ + this.chunkRadius);
+
+        final LongSet missing = new LongOpenHashSet();
+        int existing = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (this.chunkIOService.exists(x, z)) {
+                    existing++;
+                } else {
+                    missing.add(key(x, z));
+                }
+            }
+        }
+        this.skipped.addAndGet(existing);
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        // The populations at the borders of the region depend on the chunks of
+        // the surrounding regions, so a ring around the region is loaded as well
+        final LongList chunks = new LongArrayList();
+        for (int x = minX - 1; x <= maxX + 1; x++) {
+            for (int z = minZ - 1; z <= maxZ + 1; z++) {
+                final long key = key(x, z);
+                if (missing.contains(key) || this.chunkIOService.exists(x, z)) {
+                    chunks.add(key);
+                }
+            }
+        }
+
+        // Keep all the chunks loaded until the region is complete
+        final ChunkLoadingTicket ticket = this.chunkManager.createInternalTicket();
+        for (int i = 0; i < chunks.size(); i++) {
+            final long key = chunks.getLong(i);
+            this.chunkManager.lockInternally(new Vector2i(keyX(key), keyZ(key)), ticket);
+        }
+        try {
+            final RegionTask task = new RegionTask(chunks.toLongArray(), missing);
+            for (int i = 0; i < this.workers; i++) {
+                this.executor.execute(task);
+            }
+            task.latch.await();
+            if (task.throwable != null) {
+                throw new IllegalStateException("An error occurred while generating region (" + regionX + ";" + regionZ + ")",
+                        task.throwable);
+            }
+            // Populate the chunks even if the engine got cancelled, to
+            // avoid that unpopulated chunks will be left behind
+            this.chunkManager.populateChunks(chunks, causeStack, this::runThrottled);
+        } finally {
+            // Unload and save all the chunks, one after the other
+            for (int i = 0; i < chunks.size(); i++) {
+                final long key = chunks.getLong(i);
+                final Vector2i coords = new Vector2i(keyX(key), keyZ(key));
+                runThrottled(() -> {
+                    this.chunkManager.unlockInternally(coords, ticket);
+                    this.chunkManager.unload(coords, causeStack);
+                });
+            }
+        }
+    }
+
+    /**
+     * Waits until the worker is allowed to load or generate a chunk.
+     *
+     * @param worker The index of the worker
+     * @param generate Whether the chunk will be generated
+     * @return Whether the worker may continue, false if the engine is cancelled
+     * @throws InterruptedException If the worker got interrupted
+     */
+    private boolean awaitTurn(int worker, boolean generate) throws InterruptedException {
+        while (!this.cancelled) {
+            if (!this.paused && worker < this.allowedWorkers && (!generate || tryAcquireBudget())) {
+                return true;
+            }
+            Thread.sleep(THROTTLE_SLEEP);
+        }
+        return false;
+    }
+
+    /**
+     * Runs the task once a worker is available, the amount of tasks that run
+     * concurrently is limited by the allowed workers. The task will be run
+     * without waiting once the engine is cancelled, so that the current
+     * region can be completed as fast as possible.
+     *
+     * @param task The task
+     */
+    private void runThrottled(Runnable task) {
+        boolean interrupted = false;
+        while (true) {
+            final int active = this.activeWorkers.get();
+            if (this.cancelled || interrupted || (!this.paused && this.budget.get() != 0 && active < this.allowedWorkers)) {
+                if (this.activeWorkers.compareAndSet(active, active + 1)) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                Thread.sleep(THROTTLE_SLEEP);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            task.run();
+        } finally {
+            this.activeWorkers.decrementAndGet();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean tryAcquireBudget() {
+        return this.budget.getAndUpdate(budget -> budget > 0 ? budget - 1 : budget) != 0;
+    }
+
+    private final class RegionTask implements Runnable {
+
+        private final long[] chunks;
+        private final LongSet missing;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger workerIds = new AtomicInteger();
+        private final CountDownLatch latch = new CountDownLatch(ChunkPreGenerateEngine.this.workers);
+        @Nullable private volatile Throwable throwable;
+
+        private RegionTask(long[] chunks, LongSet missing) {
+            this.chunks = chunks;
+            this.missing = missing;
+        }
+
+        @Override
+        public void run() {
+            final int worker = this.workerIds.getAndIncrement();
+            final CauseStack causeStack = CauseStack.current();
+            try {
+                int index;
+                while (this.throwable == null && (index = this.next.getAndIncrement()) < this.chunks.length) {
+                    final long key = this.chunks[index];
+                    final boolean generate = this.missing.contains(key);
+                    if (!awaitTurn(worker, generate)) {
+                        break;
+                    }
+                    ChunkPreGenerateEngine.this.chunkManager.getOrGenerateChunkWithoutPopulation(keyX(key), keyZ(key), causeStack);
+                    if (generate) {
+                        ChunkPreGenerateEngine.this.generated.incrementAndGet();
+                    }
+                }
+            } catch (Throwable t) {
+                this.throwable = t;
+            } finally {
+                this.latch.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.pregen;
+
+import org.lanternpowered.server.data.persistence.nbt.NbtStreamUtils;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * The progress of a chunk pre-generation, which is stored in the
+ * world folder so that it can be resumed after a restart.
+ */
+final class ChunkPreGenerateProgress {
+
+    private static final String PROGRESS_FILE = "pregen.dat";
+
+    private static final DataQuery CENTER_X = DataQuery.of("CenterX");
+    private static final DataQuery CENTER_Z = DataQuery.of("CenterZ");
+    private static final DataQuery RADIUS = DataQuery.of("Radius");
+    private static final DataQuery REGION_INDEX = DataQuery.of("RegionIndex");
+    private static final DataQuery GENERATED = DataQuery.of("Generated");
+    private static final DataQuery SKIPPED = DataQuery.of("Skipped");
+
+    private final Path file;
+    private final int centerX;
+    private final int centerZ;
+    private final int chunkRadius;
+
+    // The index of the next region that should be generated
+    int regionIndex;
+
+    int generated;
+    int skipped;
+
+    private ChunkPreGenerateProgress(Path file, int centerX, int centerZ, int chunkRadius) {
+        this.file = file;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.chunkRadius = chunkRadius;
+    }
+
+    /**
+     * Creates a new progress for the pre-generation with the given center
+     * and radius, which will be stored in the world folder.
+     *
+     * @param worldFolder The world folder
+     * @param centerX The center chunk x coordinate
+     * @param centerZ The center chunk z coordinate
+     * @param chunkRadius The radius, in chunks
+     * @return The progress
+     */
+    static ChunkPreGenerateProgress create(Path worldFolder, int centerX, int centerZ, int chunkRadius) {
+        return new ChunkPreGenerateProgress(worldFolder.resolve(PROGRESS_FILE), centerX, centerZ, chunkRadius);
+    }
+
+    /**
+     * Loads the progress of the pre-generation with the given center and radius
+     * from the world folder. A new progress will be returned if no progress was
+     * stored or if the stored progress belongs to a different pre-generation.
+     *
+     * @param worldFolder The world folder
+     * @param centerX The center chunk x coordinate
+     * @param centerZ The center chunk z coordinate
+     * @param chunkRadius The radius, in chunks
+     * @return The progress
+     * @throws IOException If the progress file couldn't be read
+     */
+    static ChunkPreGenerateProgress load(Path worldFolder, int centerX, int centerZ, int chunkRadius) throws IOException {
+        final ChunkPreGenerateProgress progress = create(worldFolder, centerX, centerZ, chunkRadius);
+        if (!Files.exists(progress.file)) {
+            return progress;
+        }
+        final DataContainer dataContainer = NbtStreamUtils.read(Files.newInputStream(progress.file), true);
+        if (Optional.of(centerX).equals(dataContainer.getInt(CENTER_X)) &&
+                Optional.of(centerZ).equals(dataContainer.getInt(CENTER_Z)) &&
+                Optional.of(chunkRadius).equals(dataContainer.getInt(RADIUS))) {
+            progress.regionIndex = dataContainer.getInt(REGION_INDEX).orElse(0);
+            progress.generated = dataContainer.getInt(GENERATED).orElse(0);
+            progress.skipped = dataContainer.getInt(SKIPPED).orElse(0);
+        }
+        return progress;
+    }
+
+    /**
+     * Saves the progress, the file is replaced at once so that a crash
+     * while saving will never leave a corrupted progress file behind.
+     *
+     * @throws IOException If the progress file couldn't be written
+     */
+    void save() throws IOException {
+        final DataContainer dataContainer = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED)
+                .set(CENTER_X, this.centerX)
+                .set(CENTER_Z, this.centerZ)
+                .set(RADIUS, this.chunkRadius)
+                .set(REGION_INDEX, this.regionIndex)
+                .set(GENERATED, this.generated)
+                .set(SKIPPED, this.skipped);
+        final Path tempFile = this.file.resolveSibling(PROGRESS_FILE + ".tmp");
+        NbtStreamUtils.write(dataContainer, Files.newOutputStream(tempFile), true);
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the progress file, should be called
+     * once the pre-generation is complete.
+     *
+     * @throws IOException If the progress file couldn't be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+}
@@ -28,15 +28,14 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.lanternpowered.server.util.Conditions.checkPlugin;
-import static org.lanternpowered.server.util.UncheckedThrowables.doUnchecked;
 
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.lanternpowered.api.cause.CauseStack;
-import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.chunk.LanternChunkLayout;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
@@ -57,6 +56,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -66,35 +66,27 @@ public class LanternChunkPreGenerateTask implements ChunkPreGenerate, Consumer<T
     private static final int DEFAULT_TICK_INTERVAL = 4;
     private static final float DEFAULT_TICK_PERCENT = 0.8f;
 
-    private static final Vector3i[] OFFSETS = {
-            Vector3i.UNIT_Z.negate().mul(2),
-            Vector3i.UNIT_X.mul(2),
-            Vector3i.UNIT_Z.mul(2),
-            Vector3i.UNIT_X.negate().mul(2)
-    };
+    // The time in seconds that a world waits for the engine to stop when unloading
+    private static final long SHUTDOWN_TIMEOUT = 30L;
 
-    private final World world;
-    private final int chunkRadius;
+    private final LanternWorld world;
     private final int chunkCount;
     private final float tickPercent;
-    private final long tickTimeLimit;
+    private final double tickTimeLimit;
     private final Cause cause;
     private final int totalChunksToGenerate;
     private final Task spongeTask;
     private final int tickInterval;
     private final PluginContainer plugin;
+    private final ChunkPreGenerateEngine engine;
 
     // If null, no listeners have been assigned, so they don't need to be registered or unregistered.
     @Nullable private final EventListener<ChunkPreGenerationEvent> eventListener;
 
-    private Vector3i currentPosition;
-    private int currentGenCount;
-    private int currentLayer;
-    private int currentIndex;
-    private int nextJump;
-
-    private int chunksSkipped = 0;
-    private int chunksGenerated = 0;
+    // The chunk counts of the engine at the previous step
+    private int lastGenerated;
+    private int lastSkipped;
+    private long lastStepTime;
 
     // Used for wall clock times.
     private long generationStartTime = 0;
@@ -103,33 +95,33 @@ public class LanternChunkPreGenerateTask implements ChunkPreGenerate, Consumer<T
 
     private LanternChunkPreGenerateTask(PluginContainer plugin, World world, Vector3d center, double diameter,
             int chunkCount, float tickPercent, int tickInterval, Cause cause, List<Consumer<ChunkPreGenerationEvent>> eventListeners) {
-        final int preferredTickInterval = Lantern.getScheduler().getPreferredTickInterval();
-
         this.plugin = plugin;
-        this.world = world;
+        this.world = (LanternWorld) world;
 
-        this.chunkRadius = GenericMath.floor(diameter / 32);
+        final int chunkRadius = GenericMath.floor(diameter / 32);
         this.chunkCount = chunkCount;
         this.tickPercent = tickPercent;
-        this.tickTimeLimit = Math.round(preferredTickInterval * tickPercent);
+        this.tickTimeLimit = Lantern.getScheduler().getPreferredTickInterval() * tickPercent;
         this.cause = cause;
         this.tickInterval = tickInterval;
-        final Optional<Vector3i> currentPosition = LanternChunkLayout.INSTANCE.toChunk(center.toInt());
-        if (currentPosition.isPresent()) {
-            this.currentPosition = currentPosition.get();
-        } else {
+        final Optional<Vector3i> centerChunk = LanternChunkLayout.INSTANCE.toChunk(center.toInt());
+        if (!centerChunk.isPresent()) {
             throw new IllegalArgumentException("Center is not a valid chunk coordinate");
         }
-        this.currentGenCount = 4;
-        this.currentLayer = 0;
-        this.currentIndex = 0;
-        this.nextJump = 0;
 
-        this.totalChunksToGenerate = (int) Math.pow(this.chunkRadius * 2 + 1, 2);
+        this.totalChunksToGenerate = (int) Math.pow(chunkRadius * 2 + 1, 2);
+
+        this.engine = new ChunkPreGenerateEngine(this.world, plugin, centerChunk.get().getX(), centerChunk.get().getZ(), chunkRadius);
+        // Don't report the chunks of a resumed pre-generation as a step
+        this.lastGenerated = this.engine.getGeneratedChunks();
+        this.lastSkipped = this.engine.getSkippedChunks();
+        if (this.chunkCount > 0) {
+            this.engine.setBudget(this.chunkCount * this.tickInterval);
+        }
 
         this.spongeTask = Lantern.getScheduler()
                 .createTaskBuilder()
-                .intervalTicks(preferredTickInterval)
+                .intervalTicks(tickInterval)
                 .execute(this)
                 .submit(plugin);
 
@@ -139,6 +131,9 @@ private LanternChunkPreGenerateTask(PluginContainer plugin, World world, Vector3
         } else {
             this.eventListener = null;
         }
+
+        this.world.getChunkPreGenerateTasks().add(this);
+        this.engine.start();
     }
 
     Task getSpongeTask() {
@@ -152,12 +147,12 @@ public WorldProperties getWorldProperties() {
 
     @Override
     public int getTotalGeneratedChunks() {
-        return this.chunksGenerated;
+        return this.engine.getGeneratedChunks();
     }
 
     @Override
     public int getTotalSkippedChunks() {
-        return this.chunksSkipped;
+        return this.engine.getSkippedChunks();
     }
 
     @Override
@@ -188,11 +183,26 @@ public boolean isCancelled() {
     @Override
     public void cancel() {
         if (!this.isCancelled) {
-            if (this.eventListener != null) {
-                Sponge.getEventManager().unregisterListeners(this.eventListener);
-            }
+            this.engine.cancel();
             this.spongeTask.cancel();
             this.isCancelled = true;
+            release();
+        }
+    }
+
+    /**
+     * Cancels this task and waits until the engine is stopped, the
+     * chunks of the world may no longer be touched afterwards.
+     */
+    public void shutdown() {
+        cancel();
+        try {
+            if (!this.engine.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                Lantern.getLogger().warn("The chunk pre-generation of world {} didn't stop within {} seconds",
+                        this.world.getName(), SHUTDOWN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -201,6 +211,7 @@ public void accept(Task task) {
         final long stepStartTime = System.currentTimeMillis();
         if (this.generationStartTime == 0) {
             this.generationStartTime = stepStartTime;
+            this.lastStepTime = stepStartTime;
         }
 
         // Create and fire event.
@@ -213,71 +224,59 @@ public void accept(Task task) {
             return;
         }
 
+        // Skip the step by pausing the engine until the next one, but don't cancel the task.
+        this.engine.setPaused(preEvent.getSkipStep());
         if (preEvent.getSkipStep()) {
-            // Skip the step, but don't cancel the task.
             return;
         }
 
-        // Count how many chunks are generated during the tick
-        int count = 0;
-        int skipped = 0;
-        do {
-            final Vector3i position = nextChunkPosition();
-            final Vector3i pos1 = position.sub(Vector3i.UNIT_X);
-            final Vector3i pos2 = position.sub(Vector3i.UNIT_Z);
-            final Vector3i pos3 = pos2.sub(Vector3i.UNIT_X);
-
-            // We can only skip generation if all chunks are loaded.
-            if (!areAllChunksLoaded(position, pos1, pos2, pos3)) {
-
-                // At least one chunk isn't generated, so to populate, we need to load them all.
-                this.world.loadChunk(position, true);
-                this.world.loadChunk(pos1, true);
-                this.world.loadChunk(pos2, true);
-                this.world.loadChunk(pos3, true);
-
-                count += this.currentGenCount;
-            } else {
-
-                // Skipped them, log this.
-                skipped += this.currentGenCount;
-            }
-        } while (hasNextChunkPosition() && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime));
+        // The chunks are generated by the engine threads, throttle them based on the
+        // tick times of the last step, the main thread must stay within the tick limit
+        if (this.tickPercent > 0) {
+            final double tickTime = Lantern.getServer().getTickStatistics().getRecentAverageTickTime(this.tickInterval);
+            final int allowedWorkers = this.engine.getAllowedWorkers();
+            this.engine.setAllowedWorkers(tickTime > this.tickTimeLimit ? allowedWorkers / 2 : allowedWorkers + 1);
+        }
+        if (this.chunkCount > 0) {
+            this.engine.setBudget(this.chunkCount * this.tickInterval);
+        }
 
-        this.chunksGenerated += count;
-        this.chunksSkipped += skipped;
+        final int generated = this.engine.getGeneratedChunks();
+        final int skipped = this.engine.getSkippedChunks();
+        final int count = generated - this.lastGenerated;
+        final int skippedCount = skipped - this.lastSkipped;
+        this.lastGenerated = generated;
+        this.lastSkipped = skipped;
 
-        final long deltaTime = System.currentTimeMillis() - stepStartTime;
-        this.generationEndTime = System.currentTimeMillis();
+        final long deltaTime = stepStartTime - this.lastStepTime;
+        this.lastStepTime = stepStartTime;
+        this.generationEndTime = stepStartTime;
 
         // Create and fire event.
         if (Sponge.getEventManager().post(SpongeEventFactory.createChunkPreGenerationEventPost(
-                this.cause, this, this.world, Duration.ofMillis(deltaTime), count, skipped))) {
+                this.cause, this, this.world, Duration.ofMillis(deltaTime), count, skippedCount))) {
             cancelTask(task);
             return;
         }
 
-        if (!hasNextChunkPosition()) {
+        if (this.engine.isDone()) {
+            if (this.engine.isFailed()) {
+                cancelTask(task);
+                return;
+            }
             // Generation has completed.
             Sponge.getEventManager().post(SpongeEventFactory.createChunkPreGenerationEventComplete(this.cause, this, this.world));
             this.isCancelled = true;
-            unregisterListener();
+            release();
             task.cancel();
         }
     }
 
-    private boolean areAllChunksLoaded(Vector3i chunk1, Vector3i chunk2, Vector3i chunk3, Vector3i chunk4) {
-        // In order to be able to check whether a chunk exists, we could use standard Sponge API methods. However,
-        // because they set up an async method which we need to get sync anyway, we just bypass it.
-        // This results in a extremely noticeable speed improvement.
-        final ChunkIOService service = (ChunkIOService) this.world.getWorldStorage();
-        return doUnchecked(() -> service.exists(chunk1) && service.exists(chunk2) && service.exists(chunk3) && service.exists(chunk4));
-    }
-
-    private void unregisterListener() {
+    private void release() {
         if (this.eventListener != null) {
             Sponge.getEventManager().unregisterListeners(this.eventListener);
         }
+        this.world.getChunkPreGenerateTasks().remove(this);
     }
 
     private void cancelTask(Task task) {
@@ -287,42 +286,9 @@ private void cancelTask(Task task) {
             task.cancel();
         }
 
+        this.engine.cancel();
         this.isCancelled = true;
-        unregisterListener();
-    }
-
-    private boolean hasNextChunkPosition() {
-        return this.currentLayer <= this.chunkRadius;
-    }
-
-    private Vector3i nextChunkPosition() {
-        final Vector3i nextPosition = this.currentPosition;
-        final int currentLayerIndex;
-        if (this.currentIndex >= this.nextJump) {
-            // Reached end of layer, jump to the next so we can keep spiralling
-            this.currentPosition = this.currentPosition.sub(Vector3i.UNIT_X).sub(Vector3i.UNIT_Z);
-            this.currentLayer++;
-            // Each the jump increment increases by 4 at each new layer
-            this.nextJump += this.currentLayer * 4;
-            currentLayerIndex = 1;
-        } else {
-            // Get the current index since the last jump
-            currentLayerIndex = this.currentIndex - (this.nextJump - this.currentLayer * 4);
-            // Move to next position in layer, by following a square
-            this.currentPosition = this.currentPosition.add(OFFSETS[currentLayerIndex / this.currentLayer]);
-        }
-        // If we're at the corner it's 3, else 2 for an edge
-        this.currentGenCount = currentLayerIndex % this.currentLayer == 0 ? 3 : 2;
-        this.currentIndex++;
-        return nextPosition;
-    }
-
-    private boolean checkChunkCount(int count) {
-        return this.chunkCount <= 0 || count < this.chunkCount;
-    }
-
-    private boolean checkTickTime(long tickTime) {
-        return this.tickPercent <= 0 || tickTime < this.tickTimeLimit;
+        release();
     }
 
     public static class Builder implements ChunkPreGenerate.Builder {
@@ -361,11 +327,13 @@ public ChunkPreGenerate.Builder logger(@Nullable Logger logger) {
                 this.addListener(event -> {
                     if (event instanceof ChunkPreGenerationEvent.Post) {
                         ChunkPreGenerationEvent.Post post = (ChunkPreGenerationEvent.Post) event;
-                        logger.info("Generated {} chunks in {}, {}% complete", post.getChunksGeneratedThisStep(),
-                                DurationFormatUtils.formatDuration(post.getTimeTakenForStep().toMillis(), TIME_FORMAT, false),
+                        final long millis = post.getTimeTakenForStep().toMillis();
+                        logger.info("Generated {} chunks in {} ({} chunks/s), {}% complete", post.getChunksGeneratedThisStep(),
+                                DurationFormatUtils.formatDuration(millis, TIME_FORMAT, false),
+                                GenericMath.floor(post.getChunksGeneratedThisStep() * 1000.0 / Math.max(millis, 1)),
                                 GenericMath.floor(
                                         (post.getChunkPreGenerate().getTotalGeneratedChunks() + post.getChunkPreGenerate().getTotalSkippedChunks())
-                                                / post.getChunkPreGenerate().getTargetTotalChunks() * 100)
+                                                * 100.0 / post.getChunkPreGenerate().getTargetTotalChunks())
                         );
                     } else if (event instanceof ChunkPreGenerationEvent.Complete) {
                         logger.info("Done! Generated a total of {} chunks in {}", event.getChunkPreGenerate().getTargetTotalChunks(),
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.launch.transformer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TransformedClassCacheTest {
+
+    private static final byte[] VERSION = TransformedClassCache.version(Collections.emptyList());
+
+    private static final byte[] ORIGINAL = "original".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRANSFORMED = "transformed".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createCache() throws Exception {
+        final Path file = this.folder.getRoot().toPath().resolve("transformed-classes.bin");
+        final TransformedClassCache cache = TransformedClassCache.open(file, VERSION);
+        cache.put("a.b.C", TransformedClassCache.hash(ORIGINAL), TRANSFORMED);
+        cache.put("a.b.D", TransformedClassCache.hash(TRANSFORMED), ORIGINAL);
+        cache.save();
+        return file;
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        final TransformedClassCache cache = TransformedClassCache.open(createCache(), VERSION);
+        assertEquals(2, cache.size());
+        assertArrayEquals(TRANSFORMED, cache.get("a.b.C", TransformedClassCache.hash(ORIGINAL)));
+        assertArrayEquals(ORIGINAL, cache.get("a.b.D", TransformedClassCache.hash(TRANSFORMED)));
+        assertNull(cache.get("a.b.E", TransformedClassCache.hash(ORIGINAL)));
+    }
+
+    @Test
+    public void testModifiedClass() throws Exception {
+        final TransformedClassCache cache = TransformedClassCache.open(createCache(), VERSION);
+        assertNull(cache.get("a.b.C", TransformedClassCache.hash(TRANSFORMED)));
+    }
+
+    @Test
+    public void testSaveReadEntries() throws Exception {
+        final Path file = createCache();
+        TransformedClassCache cache = TransformedClassCache.open(file, VERSION);
+        // The entries that were read should be copied into the new archive
+        cache.put("a.b.E", TransformedClassCache.hash(ORIGINAL), TRANSFORMED);
+        cache.save();
+        cache = TransformedClassCache.open(file, VERSION);
+        assertEquals(3, cache.size());
+        assertArrayEquals(TRANSFORMED, cache.get("a.b.C", TransformedClassCache.hash(ORIGINAL)));
+        assertArrayEquals(TRANSFORMED, cache.get("a.b.E", TransformedClassCache.hash(ORIGINAL)));
+    }
+
+    @Test
+    public void testVersionChange() throws Exception {
+        final byte[] version = TransformedClassCache.hash(VERSION);
+        assertEquals(0, TransformedClassCache.open(createCache(), version).size());
+    }
+
+    @Test
+    public void testCorruptedArchive() throws Exception {
+        final Path file = createCache();
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+        assertEquals(0, TransformedClassCache.open(file, VERSION).size());
+    }
+
+    @Test
+    public void testPluginJarHash() throws Exception {
+        final Path jar = this.folder.getRoot().toPath().resolve("plugin.jar");
+        Files.write(jar, ORIGINAL);
+        final byte[] jarHash = TransformedClassCache.hash(jar);
+        assertArrayEquals(TransformedClassCache.hash(ORIGINAL), jarHash);
+        final Path file = this.folder.getRoot().toPath().resolve("transformed-classes.bin");
+        TransformedClassCache cache = TransformedClassCache.open(file, VERSION);
+        cache.put("a.b.C", TransformedClassCache.hash(jarHash, TransformedClassCache.hash(ORIGINAL)), TRANSFORMED);
+        cache.save();
+        // The class didn't change, but the plugin jar did
+        Files.write(jar, TRANSFORMED);
+        cache = TransformedClassCache.open(file, VERSION);
+        assertNull(cache.get("a.b.C", TransformedClassCache.hash(TransformedClassCache.hash(jar), TransformedClassCache.hash(ORIGINAL))));
+        assertArrayEquals(TRANSFORMED, cache.get("a.b.C", TransformedClassCache.hash(jarHash, TransformedClassCache.hash(ORIGINAL))));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block.state;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class BlockStateIndexerTest {
+
+    private final static String MESSAGE = "%s %s state transitions took: %s ms, %s ns per transition";
+
+    // For example: a boolean, a direction and a power level
+    private static final int[] SIZES = { 2, 6, 16 };
+
+    @Test
+    public void testLayoutMatchesCartesianProduct() {
+        final BlockStateIndexer indexer = new BlockStateIndexer(SIZES);
+        final List<Set<Integer>> valueIndexes = new ArrayList<>();
+        for (int size : SIZES) {
+            valueIndexes.add(ContiguousSet.create(Range.closedOpen(0, size), DiscreteDomain.integers()));
+        }
+        int stateIndex = 0;
+        for (List<Integer> combination : Sets.cartesianProduct(valueIndexes)) {
+            for (int i = 0; i < SIZES.length; i++) {
+                assertEquals((int) combination.get(i), indexer.getValueIndex(stateIndex, i));
+            }
+            stateIndex++;
+        }
+        assertEquals(stateIndex, indexer.getStateCount());
+    }
+
+    @Test
+    public void testWithValueIndex() {
+        final BlockStateIndexer indexer = new BlockStateIndexer(SIZES);
+        for (int stateIndex = 0; stateIndex < indexer.getStateCount(); stateIndex++) {
+            for (int traitIndex = 0; traitIndex < SIZES.length; traitIndex++) {
+                for (int valueIndex = 0; valueIndex < SIZES[traitIndex]; valueIndex++) {
+                    final int result = indexer.withValueIndex(stateIndex, traitIndex, valueIndex);
+                    for (int i = 0; i < SIZES.length; i++) {
+                        assertEquals(i == traitIndex ? valueIndex : indexer.getValueIndex(stateIndex, i),
+                                indexer.getValueIndex(result, i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSingleState() {
+        final BlockStateIndexer indexer = new BlockStateIndexer(new int[0]);
+        assertEquals(1, indexer.getStateCount());
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        final BlockStateIndexer indexer = new BlockStateIndexer(SIZES);
+        final int stateCount = indexer.getStateCount();
+        final Object[] traits = new Object[SIZES.length];
+        final Object[][] values = new Object[SIZES.length][];
+        final List<Object2IntMap<Object>> valueIndexes = new ArrayList<>();
+        for (int i = 0; i < SIZES.length; i++) {
+            traits[i] = "trait" + i;
+            values[i] = new Object[SIZES[i]];
+            final Object2IntMap<Object> map = new Object2IntOpenHashMap<>();
+            for (int j = 0; j < SIZES[i]; j++) {
+                values[i][j] = "value" + j;
+                map.put(values[i][j], j);
+            }
+            valueIndexes.add(map);
+        }
+        final Integer[] states = new Integer[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            states[i] = i;
+        }
+
+        // The previous lookup table of every state: trait -> value -> state
+        final List<ImmutableTable<Object, Object, Integer>> tables = new ArrayList<>();
+        for (int stateIndex = 0; stateIndex < stateCount; stateIndex++) {
+            final ImmutableTable.Builder<Object, Object, Integer> builder = ImmutableTable.builder();
+            for (int i = 0; i < SIZES.length; i++) {
+                for (int j = 0; j < SIZES[i]; j++) {
+                    if (j != indexer.getValueIndex(stateIndex, i)) {
+                        builder.put(traits[i], values[i][j], states[indexer.withValueIndex(stateIndex, i, j)]);
+                    }
+                }
+            }
+            tables.add(builder.build());
+        }
+
+        final int transitions = 2000000;
+        for (int run = 0; run < 2; run++) {
+            long time = System.nanoTime();
+            int state = 0;
+            for (int i = 0; i < transitions; i++) {
+                final int traitIndex = i % SIZES.length;
+                final Object value = values[traitIndex][(state + i) % SIZES[traitIndex]];
+                final Integer result = tables.get(state).row(traits[traitIndex]).get(value);
+                state = result == null ? state : result;
+            }
+            long duration = System.nanoTime() - time;
+            if (run == 1) {
+                System.out.println(String.format(MESSAGE, "Table", transitions, duration / 1000000L, duration / transitions));
+            }
+            final int tableState = state;
+
+            time = System.nanoTime();
+            state = 0;
+            for (int i = 0; i < transitions; i++) {
+                final int traitIndex = i % SIZES.length;
+                final Object value = values[traitIndex][(state + i) % SIZES[traitIndex]];
+                final int valueIndex = valueIndexes.get(traitIndex).getInt(value);
+                state = states[indexer.withValueIndex(state, traitIndex, valueIndex)];
+            }
+            duration = System.nanoTime() - time;
+            if (run == 1) {
+                System.out.println(String.format(MESSAGE, "Indexed", transitions, duration / 1000000L, duration / transitions));
+            }
+            assertEquals(tableState, state);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.lanternpowered.server.data.element.ElementKeyRegistration;
+import org.lanternpowered.server.data.key.LanternKey;
+import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.data.value.mutable.Value;
+
+import java.util.Collections;
+import java.util.Optional;
+
+@SuppressWarnings("unchecked")
+public class DirectElementAccessTest {
+
+    private static <E> LanternKey<Value<E>> createKey() {
+        final LanternKey<Value<E>> key = mock(LanternKey.class);
+        when(key.getListeners()).thenReturn(Collections.emptyList());
+        return key;
+    }
+
+    private static ICompositeValueStore createStore(ValueCollection valueCollection) {
+        final ICompositeValueStore store = mock(ICompositeValueStore.class, CALLS_REAL_METHODS);
+        doReturn(valueCollection).when(store).getValueCollection();
+        return store;
+    }
+
+    @Test
+    public void testGetDirect() {
+        final LanternKey<Value<Boolean>> booleanKey = createKey();
+        final LanternKey<Value<Integer>> intKey = createKey();
+        final ElementKeyRegistration<Value<Boolean>, Boolean> booleanElement = mock(ElementKeyRegistration.class);
+        when(booleanElement.get()).thenReturn(true);
+        final ElementKeyRegistration<Value<Integer>, Integer> intElement = mock(ElementKeyRegistration.class);
+        when(intElement.get()).thenReturn(42);
+        final ValueCollection valueCollection = mock(ValueCollection.class);
+        doReturn(booleanElement).when(valueCollection).getDirectElement(booleanKey);
+        doReturn(intElement).when(valueCollection).getDirectElement(intKey);
+        final ICompositeValueStore store = createStore(valueCollection);
+        assertTrue(store.getBoolean(booleanKey));
+        assertEquals(42, store.getInt(intKey));
+        // The optional lookups should be avoided
+        verify(store, never()).get(any(Key.class));
+    }
+
+    @Test
+    public void testGetFallback() {
+        final LanternKey<Value<Boolean>> booleanKey = createKey();
+        final LanternKey<Value<Integer>> intKey = createKey();
+        // No direct elements are available
+        final ValueCollection valueCollection = mock(ValueCollection.class);
+        final ICompositeValueStore store = createStore(valueCollection);
+        doReturn(Optional.of(true)).when(store).get(booleanKey);
+        doReturn(Optional.of(21)).when(store).get(intKey);
+        assertTrue(store.getBoolean(booleanKey));
+        assertEquals(21, store.getInt(intKey));
+    }
+
+    @Test
+    public void testOfferDirect() {
+        final LanternKey<Value<Boolean>> booleanKey = createKey();
+        final LanternKey<Value<Integer>> intKey = createKey();
+        final ElementKeyRegistration<Value<Boolean>, Boolean> booleanElement = mock(ElementKeyRegistration.class);
+        final ElementKeyRegistration<Value<Integer>, Integer> intElement = mock(ElementKeyRegistration.class);
+        final ValueCollection valueCollection = mock(ValueCollection.class);
+        doReturn(booleanElement).when(valueCollection).getDirectElement(booleanKey);
+        doReturn(intElement).when(valueCollection).getDirectElement(intKey);
+        final ICompositeValueStore store = createStore(valueCollection);
+        assertTrue(store.offerBoolean(booleanKey, true));
+        assertTrue(store.offerInt(intKey, 15));
+        verify(booleanElement).set(true);
+        verify(intElement).set(15);
+        verify(store, never()).offerFast(any(Key.class), any());
+    }
+
+    @Test
+    public void testOfferFallback() {
+        final LanternKey<Value<Boolean>> booleanKey = createKey();
+        final LanternKey<Value<Integer>> intKey = createKey();
+        // No direct elements are available
+        final ValueCollection valueCollection = mock(ValueCollection.class);
+        final ICompositeValueStore store = createStore(valueCollection);
+        doReturn(true).when(store).offerFast(booleanKey, true);
+        doReturn(false).when(store).offerFast(intKey, 15);
+        assertTrue(store.offerBoolean(booleanKey, true));
+        assertFalse(store.offerInt(intKey, 15));
+        verify(store).offerFast(booleanKey, true);
+        verify(store).offerFast(intKey, 15);
+    }
+}
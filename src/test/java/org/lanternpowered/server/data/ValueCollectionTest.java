@@ -0,0 +1,104 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.lanternpowered.server.data.key.LanternKey;
+import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.data.value.mutable.Value;
+
+public class ValueCollectionTest {
+
+    @SuppressWarnings("unchecked")
+    private static LanternKey<Value<Integer>> createKey(int index) {
+        final LanternKey<Value<Integer>> key = mock(LanternKey.class);
+        when(key.getIndex()).thenReturn(index);
+        return key;
+    }
+
+    @Test
+    public void testRegistrations() {
+        final ValueCollection collection = ValueCollection.create();
+        // Indexes far apart shouldn't be a problem
+        final LanternKey<Value<Integer>> keyA = createKey(3);
+        final LanternKey<Value<Integer>> keyB = createKey(100000);
+        final LanternKey<Value<Integer>> keyC = createKey(50);
+        final Object processorA = collection.registerProcessor(keyA);
+        final Object processorB = collection.registerProcessor(keyB);
+        assertTrue(collection.has(keyA));
+        assertTrue(collection.has(keyB));
+        assertFalse(collection.has(keyC));
+        assertSame(processorA, collection.get(keyA).orElse(null));
+        assertSame(processorB, collection.get(keyB).orElse(null));
+        assertFalse(collection.get(keyC).isPresent());
+    }
+
+    @Test
+    public void testNonLanternKey() {
+        final ValueCollection collection = ValueCollection.create();
+        @SuppressWarnings("unchecked") final Key<Value<Integer>> key = mock(Key.class);
+        assertFalse(collection.has(key));
+        collection.registerProcessor(key);
+        assertTrue(collection.has(key));
+        // Only element registrations are accessible directly
+        assertNull(collection.getDirectElement(key));
+    }
+
+    @Test
+    public void testDirectElement() {
+        final ValueCollection collection = ValueCollection.create();
+        final LanternKey<Value<Integer>> key = createKey(7);
+        // Processors aren't elements
+        collection.registerProcessor(key);
+        assertNull(collection.getDirectElement(key));
+        // The key was never registered
+        assertNull(collection.getDirectElement(createKey(8)));
+    }
+
+    @Test
+    public void testCopy() {
+        final ValueCollection collection = ValueCollection.create();
+        final LanternKey<Value<Integer>> keyA = createKey(1);
+        final LanternKey<Value<Integer>> keyB = createKey(2000);
+        collection.registerProcessor(keyA);
+        final ValueCollection copy = collection.copy();
+        assertTrue(copy.has(keyA));
+        assertFalse(copy.has(keyB));
+        assertNotNull(copy.get(keyA).orElse(null));
+        // The copy doesn't share the registrations
+        copy.registerProcessor(keyB);
+        assertTrue(copy.has(keyB));
+        assertFalse(collection.has(keyB));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class ChunkSaveQueueTest {
+
+    private final static String MESSAGE = "Submitting %s chunk saves took: %s ms, flushing took: %s ms";
+    private final static int CHUNKS = 4096;
+
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("world");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.walk(this.directory).sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testSaves() throws IOException {
+        final RegionFileCache cache = new RegionFileCache(this.directory);
+        final ChunkSaveQueue queue = new ChunkSaveQueue(cache, LoggerFactory.getLogger(ChunkSaveQueueTest.class), "test");
+        final Random random = new Random(0L);
+        final Map<Long, byte[]> data = new HashMap<>();
+
+        assertNull(queue.getPending(0, 0));
+        assertFalse(queue.hasPending(0, 0));
+
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < CHUNKS; i++) {
+            // Some chunks will be saved multiple times
+            final int x = random.nextInt(96) - 48;
+            final int z = random.nextInt(96) - 48;
+            final byte[] bytes = new byte[random.nextInt(16000) + 100];
+            random.nextBytes(bytes);
+            data.put((long) z << 32 | x & 0xffffffffL, bytes);
+            queue.submit(x, z, dos -> dos.write(bytes));
+
+            // A pending chunk should always return the latest data
+            if (i % 64 == 0) {
+                assertTrue(queue.hasPending(x, z));
+                assertArrayEquals(bytes, read(queue.getPending(x, z), bytes.length));
+            }
+        }
+        final long submitTime = System.currentTimeMillis() - time;
+
+        time = System.currentTimeMillis();
+        queue.shutdown();
+        System.out.println(String.format(MESSAGE, CHUNKS, submitTime, System.currentTimeMillis() - time));
+        assertEquals(0, queue.getPendingCount());
+
+        for (Map.Entry<Long, byte[]> entry : data.entrySet()) {
+            final int x = (int) (long) entry.getKey();
+            final int z = (int) (entry.getKey() >> 32);
+            final RegionFile regionFile = cache.getRegionFileByChunk(x, z);
+            final byte[] bytes = entry.getValue();
+            assertArrayEquals(bytes, read(regionFile.getChunkDataInputStream(x & 0x1f, z & 0x1f), bytes.length));
+        }
+        cache.clear();
+    }
+
+    private static byte[] read(DataInputStream is, int length) throws IOException {
+        assertNotNull(is);
+        try {
+            final byte[] data = new byte[length];
+            is.readFully(data);
+            assertTrue(is.read() == -1);
+            return data;
+        } finally {
+            is.close();
+        }
+    }
+}
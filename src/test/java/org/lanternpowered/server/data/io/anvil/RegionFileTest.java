@@ -0,0 +1,183 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class RegionFileTest {
+
+    private final static String MESSAGE = "%s of %s chunks took: %s ms";
+    private final static int CHUNKS = 32 * 32;
+
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("region");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.walk(this.directory).sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        testReadWrite(false);
+    }
+
+    @Test
+    public void testReadWriteMappedHeader() throws IOException {
+        testReadWrite(true);
+    }
+
+    private void testReadWrite(boolean mapHeader) throws IOException {
+        final Path path = this.directory.resolve("r.0.0.mca");
+        final byte[][] data = createData();
+
+        RegionFile regionFile = new RegionFile(path, 0, 0, mapHeader);
+        assertFalse(regionFile.hasChunk(0, 0));
+        assertNull(regionFile.getChunkDataInputStream(0, 0));
+        for (int i = 0; i < CHUNKS; i++) {
+            write(regionFile, i, data[i]);
+        }
+        // Overwrite a few chunks with a different size
+        for (int i = 0; i < CHUNKS; i += 7) {
+            data[i] = new byte[data[i].length * 2 + 5000];
+            new Random(i).nextBytes(data[i]);
+            write(regionFile, i, data[i]);
+        }
+        regionFile.close();
+
+        // Reopen the file to check whether everything was persisted
+        regionFile = new RegionFile(path, 0, 0, mapHeader);
+        for (int i = 0; i < CHUNKS; i++) {
+            assertTrue(regionFile.hasChunk(i & 0x1f, i >> 5));
+            assertArrayEquals(data[i], read(regionFile, i, data[i].length));
+        }
+        regionFile.close();
+    }
+
+    @Test
+    public void testCloseMappedHeader() throws IOException {
+        final Path path = this.directory.resolve("r.0.0.mca");
+        final RegionFile regionFile = new RegionFile(path, 0, 0, true);
+        write(regionFile, 0, new byte[100]);
+        regionFile.close();
+        // The header is unmapped, writing must fail instead of accessing the mapping
+        try {
+            write(regionFile, 1, new byte[100]);
+            fail("The region file is closed");
+        } catch (IOException ignored) {
+        }
+        // Nothing may hold on to the file once it's closed
+        Files.delete(path);
+    }
+
+    @Test
+    public void testParallelPerformance() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            testParallelPerformance0(i);
+        }
+    }
+
+    private void testParallelPerformance0(int run) throws IOException {
+        final RegionFile regionFile = new RegionFile(this.directory.resolve("r." + run + ".0.mca"), run, 0, false);
+        final byte[][] data = createData();
+
+        long time = System.currentTimeMillis();
+        IntStream.range(0, CHUNKS).parallel().forEach(i -> {
+            try {
+                write(regionFile, i, data[i]);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        System.out.println(String.format(MESSAGE, "Parallel write", CHUNKS, System.currentTimeMillis() - time));
+
+        time = System.currentTimeMillis();
+        IntStream.range(0, CHUNKS).parallel().forEach(i -> {
+            try {
+                assertArrayEquals(data[i], read(regionFile, i, data[i].length));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        System.out.println(String.format(MESSAGE, "Parallel read", CHUNKS, System.currentTimeMillis() - time));
+
+        regionFile.close();
+    }
+
+    private static byte[][] createData() {
+        final Random random = new Random(0L);
+        final byte[][] data = new byte[CHUNKS][];
+        for (int i = 0; i < data.length; i++) {
+            // Half random bytes, so that the data is compressible but still spans multiple sectors
+            data[i] = new byte[random.nextInt(16000) + 100];
+            for (int j = 0; j < data[i].length; j += 2) {
+                data[i][j] = (byte) random.nextInt();
+            }
+        }
+        return data;
+    }
+
+    private static void write(RegionFile regionFile, int index, byte[] data) throws IOException {
+        try (DataOutputStream os = regionFile.getChunkDataOutputStream(index & 0x1f, index >> 5)) {
+            os.write(data);
+        }
+    }
+
+    private static byte[] read(RegionFile regionFile, int index, int length) throws IOException {
+        final DataInputStream is = regionFile.getChunkDataInputStream(index & 0x1f, index >> 5);
+        assertNotNull(is);
+        try {
+            final byte[] data = new byte[length];
+            is.readFully(data);
+            assertTrue(is.read() == -1);
+            return data;
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.persistence.nbt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.lanternpowered.server.data.MemoryDataContainer;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nullable;
+
+public class NbtVisitorTest {
+
+    private final static String MESSAGE = "%s of %s chunks took: %s ms, allocated %s bytes per chunk";
+
+    private static final int SECTIONS = 16;
+    private static final int ENTITIES = 8;
+
+    private static final DataQuery LEVEL = DataQuery.of("Level");
+    private static final DataQuery X = DataQuery.of("xPos");
+    private static final DataQuery SECTIONS_LIST = DataQuery.of("Sections");
+    private static final DataQuery Y = DataQuery.of("Y");
+    private static final DataQuery BLOCKS = DataQuery.of("Blocks");
+    private static final DataQuery ENTITIES_LIST = DataQuery.of("Entities");
+
+    @Test
+    public void testVisitor() throws IOException {
+        final byte[] content = createChunkContent(new Random(0L));
+
+        final DataContainer container = new NbtDataContainerInputStream(new ByteArrayInputStream(content)).read();
+        final DataView level = container.getView(LEVEL).get();
+        final List<DataView> sections = level.getViewList(SECTIONS_LIST).get();
+        final List<DataView> entities = level.getViewList(ENTITIES_LIST).get();
+
+        final ChunkVisitor visitor = new ChunkVisitor();
+        new NbtDataContainerInputStream(new ByteArrayInputStream(content)).accept(new RootVisitor(visitor));
+
+        assertEquals(level.getInt(X).get().intValue(), visitor.x);
+        assertEquals(sections.size(), visitor.blocks.size());
+        for (int i = 0; i < sections.size(); i++) {
+            assertEquals(i, visitor.sectionY.get(i).intValue());
+            assertEquals(sections.get(i).getByte(Y).get().intValue(), visitor.sectionY.get(i).intValue());
+            assertArrayEquals((byte[]) sections.get(i).get(BLOCKS).get(), visitor.blocks.get(i));
+        }
+        // The entities are read as data views
+        assertEquals(entities, visitor.entities);
+    }
+
+    @Test
+    public void testPerformance() throws IOException {
+        final Random random = new Random(0L);
+        final byte[][] contents = new byte[16][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = createChunkContent(random);
+        }
+        final int chunks = 2000;
+
+        // Warm up both paths
+        for (int i = 0; i < chunks; i++) {
+            new NbtDataContainerInputStream(new ByteArrayInputStream(contents[i % contents.length])).read();
+            new NbtDataContainerInputStream(new ByteArrayInputStream(contents[i % contents.length])).accept(new RootVisitor(new ChunkVisitor()));
+        }
+
+        long allocated = getAllocatedBytes();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < chunks; i++) {
+            final DataContainer container = new NbtDataContainerInputStream(new ByteArrayInputStream(contents[i % contents.length])).read();
+            final DataView level = container.getView(LEVEL).get();
+            for (DataView section : level.getViewList(SECTIONS_LIST).get()) {
+                section.get(BLOCKS).get();
+            }
+        }
+        System.out.println(String.format(MESSAGE, "Data view tree", chunks,
+                System.currentTimeMillis() - time, (getAllocatedBytes() - allocated) / chunks));
+
+        allocated = getAllocatedBytes();
+        time = System.currentTimeMillis();
+        for (int i = 0; i < chunks; i++) {
+            new NbtDataContainerInputStream(new ByteArrayInputStream(contents[i % contents.length])).accept(new RootVisitor(new ChunkVisitor()));
+        }
+        System.out.println(String.format(MESSAGE, "Nbt visitor", chunks,
+                System.currentTimeMillis() - time, (getAllocatedBytes() - allocated) / chunks));
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Creates content that is structured like a anvil chunk, written
+     * with the streaming methods of the output stream.
+     */
+    private static byte[] createChunkContent(Random random) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(baos);
+        nbt.writeStartCompound("");
+        nbt.writeStartCompound(LEVEL.asString('.'));
+        nbt.writeInt(X.asString('.'), random.nextInt());
+        nbt.writeStartCompoundList(SECTIONS_LIST.asString('.'), SECTIONS);
+        for (int i = 0; i < SECTIONS; i++) {
+            nbt.writeByte(Y.asString('.'), (byte) i);
+            nbt.writeByteArray(BLOCKS.asString('.'), randomBytes(random, 4096));
+            nbt.writeByteArray("Data", randomBytes(random, 2048));
+            nbt.writeByteArray("BlockLight", randomBytes(random, 2048));
+            nbt.writeByteArray("SkyLight", randomBytes(random, 2048));
+            nbt.writeEndCompound();
+        }
+        final List<DataView> entities = new ArrayList<>();
+        for (int i = 0; i < ENTITIES; i++) {
+            final DataContainer entity = new MemoryDataContainer(DataView.SafetyMode.NO_DATA_CLONED);
+            entity.set(DataQuery.of("id"), "minecraft:zombie");
+            entity.set(DataQuery.of("Pos"), Lists.newArrayList(random.nextDouble(), random.nextDouble(), random.nextDouble()));
+            entity.set(DataQuery.of("OnGround"), true);
+            entities.add(entity);
+        }
+        nbt.writeValue(ENTITIES_LIST.asString('.'), entities);
+        nbt.writeEndCompound();
+        nbt.writeEndCompound();
+        nbt.flush();
+        return baos.toByteArray();
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static final class RootVisitor implements NbtVisitor {
+
+        private final ChunkVisitor chunkVisitor;
+
+        private RootVisitor(ChunkVisitor chunkVisitor) {
+            this.chunkVisitor = chunkVisitor;
+        }
+
+        @Nullable
+        @Override
+        public NbtVisitor visitCompound(String name) {
+            return name.equals(LEVEL.asString('.')) ? this.chunkVisitor : null;
+        }
+    }
+
+    private static final class ChunkVisitor implements NbtVisitor {
+
+        private int x;
+        private final List<Integer> sectionY = new ArrayList<>();
+        private final List<byte[]> blocks = new ArrayList<>();
+        private final List<DataView> entities = new ArrayList<>();
+
+        @Override
+        public void visitInt(String name, int value) {
+            if (name.equals("xPos")) {
+                this.x = value;
+            }
+        }
+
+        @Nullable
+        @Override
+        public NbtVisitor visitList(String name, int elementType, int size) {
+            if (name.equals("Sections")) {
+                return new NbtVisitor() {
+                    @Override
+                    public NbtVisitor visitCompound(String name) {
+                        return new NbtVisitor() {
+                            @Override
+                            public void visitByte(String name, byte value) {
+                                if (name.equals("Y")) {
+                                    ChunkVisitor.this.sectionY.add((int) value);
+                                }
+                            }
+
+                            @Override
+                            public void visitByteArray(String name, byte[] value) {
+                                if (name.equals("Blocks")) {
+                                    ChunkVisitor.this.blocks.add(value);
+                                }
+                            }
+                        };
+                    }
+                };
+            } else if (name.equals("Entities")) {
+                return new NbtVisitor() {
+                    @Override
+                    public void visitValue(String name, Object value) {
+                        ChunkVisitor.this.entities.add((DataView) value);
+                    }
+                };
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.entity.living.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ChunkSendQueueTest {
+
+    private static long key(int x, int z) {
+        return (long) x << 32 | z & 0xffffffffL;
+    }
+
+    @Test
+    public void testBudget() {
+        final ChunkSendQueue queue = new ChunkSendQueue();
+        queue.updateView(0, 0, 2, (x, z) -> {});
+        assertEquals(25, queue.getQueueDepth());
+        final List<Long> sent = new ArrayList<>();
+        queue.pulse(4, 0.5, 0.5, 0.0, 1.0, (x, z) -> sent.add(key(x, z)));
+        assertEquals(4, sent.size());
+        assertEquals(21, queue.getQueueDepth());
+        // The chunk the player is standing in is always send first
+        assertEquals(key(0, 0), (long) sent.get(0));
+        // The network can't keep up, nothing will be send
+        queue.pulse(0, 0.5, 0.5, 0.0, 1.0, (x, z) -> sent.add(key(x, z)));
+        assertEquals(4, sent.size());
+        for (int i = 0; i < 10; i++) {
+            queue.pulse(4, 0.5, 0.5, 0.0, 1.0, (x, z) -> sent.add(key(x, z)));
+        }
+        assertEquals(25, sent.size());
+        assertEquals(25, new HashSet<>(sent).size());
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(25, queue.getAwaitingChunks());
+    }
+
+    @Test
+    public void testLookDirection() {
+        final ChunkSendQueue queue = new ChunkSendQueue();
+        queue.updateView(0, 0, 3, (x, z) -> {});
+        final List<Long> sent = new ArrayList<>();
+        // Skip the center chunk
+        queue.pulse(1, 0.5, 0.5, 1.0, 0.0, (x, z) -> {});
+        queue.pulse(3, 0.5, 0.5, 1.0, 0.0, (x, z) -> sent.add(key(x, z)));
+        // The chunk in front of the player is preferred
+        assertEquals(key(1, 0), (long) sent.get(0));
+        for (long key : sent) {
+            assertTrue((int) (key >> 32) >= 0);
+        }
+    }
+
+    @Test
+    public void testMovementDirection() {
+        final ChunkSendQueue queue = new ChunkSendQueue();
+        queue.updateView(0, 0, 3, (x, z) -> {});
+        // The player is moving fast along the negative z axis
+        queue.pulse(1, 0.5, 4.5, 0.0, 0.0, (x, z) -> {});
+        final List<Long> sent = new ArrayList<>();
+        queue.pulse(3, 0.5, 0.5, 0.0, 0.0, (x, z) -> sent.add(key(x, z)));
+        assertEquals(key(0, 0), (long) sent.get(0));
+        assertEquals(key(0, -1), (long) sent.get(1));
+        for (long key : sent) {
+            assertTrue((int) key <= 0);
+        }
+    }
+
+    @Test
+    public void testSelectionOrder() {
+        final ChunkSendQueue queue = new ChunkSendQueue();
+        queue.updateView(0, 0, 8, (x, z) -> {});
+        final List<Long> sent = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queue.pulse(17, 0.5, 0.5, 0.6, 0.8, (x, z) -> sent.add(key(x, z)));
+        }
+        assertEquals(17 * 17, sent.size());
+        assertEquals(17 * 17, new HashSet<>(sent).size());
+        // The player didn't move, so the chunks should be send in the order of their priority
+        double last = -1.0;
+        for (long key : sent) {
+            final double priority = ChunkSendQueue.getPriority(
+                    (int) (key >> 32), (int) key, 0.6, 0.8, 0.0, 0.0);
+            assertTrue(priority >= last);
+            last = priority;
+        }
+    }
+
+    @Test
+    public void testPriorityRange() {
+        assertEquals(0.0, ChunkSendQueue.getPriority(0.0, 0.0, 1.0, 0.0, 1.0, 0.0), 0.0);
+        // In front of the player, while moving towards the chunk
+        assertEquals(0.5, ChunkSendQueue.getPriority(2.0, 0.0, 1.0, 0.0, 2.0, 0.0), 1e-9);
+        // Behind the player, while moving away from the chunk
+        assertEquals(3.5, ChunkSendQueue.getPriority(-2.0, 0.0, 1.0, 0.0, 2.0, 0.0), 1e-9);
+    }
+
+    @Test
+    public void testUpdateView() {
+        final ChunkSendQueue queue = new ChunkSendQueue();
+        queue.updateView(0, 0, 1, (x, z) -> {});
+        final Set<Long> sent = new HashSet<>();
+        queue.pulse(100, 0.5, 0.5, 0.0, 1.0, (x, z) -> sent.add(key(x, z)));
+        assertEquals(9, sent.size());
+        for (long key : sent) {
+            queue.onChunkSent((int) (key >> 32), (int) key, 1000);
+        }
+        assertEquals(0, queue.getAwaitingChunks());
+        assertTrue(queue.getTimeToFullView() >= 0);
+        assertEquals(9000, queue.getBytesPerSecond());
+
+        // Move one chunk along the x axis, the column at x = -1 is removed
+        final Set<Long> removed = new HashSet<>();
+        queue.updateView(1, 0, 1, (x, z) -> removed.add(key(x, z)));
+        assertEquals(3, removed.size());
+        for (long key : removed) {
+            assertEquals(-1, (int) (key >> 32));
+        }
+        // Only the new column is queued
+        assertEquals(3, queue.getQueueDepth());
+
+        // Chunks that leave the view before they are send are dropped
+        queue.updateView(10, 0, 1, (x, z) -> removed.add(key(x, z)));
+        assertEquals(9, removed.size());
+        assertEquals(9, queue.getQueueDepth());
+
+        removed.clear();
+        queue.pulse(2, 10.5, 0.5, 0.0, 1.0, (x, z) -> {});
+        queue.clear((x, z) -> removed.add(key(x, z)));
+        assertEquals(2, removed.size());
+        assertEquals(0, queue.getQueueDepth());
+    }
+}
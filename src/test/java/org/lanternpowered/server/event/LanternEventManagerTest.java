@@ -0,0 +1,127 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.lanternpowered.server.util.SyncLanternThread;
+import org.slf4j.LoggerFactory;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.event.cause.EventContext;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+public class LanternEventManagerTest {
+
+    private final static String MESSAGE = "Posting %s events from %s world threads to %s listeners (%s) took: %s ms";
+
+    private static final int WORLDS = 4;
+    private static final int LISTENERS = 5;
+
+    private static final PluginContainer PLUGIN = () -> "test";
+
+    private static final class TestEvent implements Event {
+
+        private final Cause cause = Cause.of(EventContext.empty(), PLUGIN);
+
+        @Override
+        public Cause getCause() {
+            return this.cause;
+        }
+    }
+
+    @Test
+    public void testConcurrentPost() throws InterruptedException {
+        final LongAdder counter = new LongAdder();
+        final LanternEventManager eventManager = createEventManager(event -> counter.increment(), null);
+        post(eventManager, 10000);
+        assertEquals(WORLDS * 10000L * LISTENERS, counter.sum());
+    }
+
+    @Test
+    public void testSynchronizedListener() throws InterruptedException {
+        // Not thread safe, the plugin lock should guard it
+        final long[] counter = new long[1];
+        final LanternEventManager eventManager = createEventManager(event -> counter[0]++, new Object());
+        post(eventManager, 10000);
+        assertEquals(WORLDS * 10000L * LISTENERS, counter[0]);
+    }
+
+    @Test
+    public void testThroughput() throws InterruptedException {
+        final LongAdder counter = new LongAdder();
+        for (int i = 0; i < 3; i++) {
+            testThroughput0(createEventManager(event -> counter.increment(), new Object()), "synchronized");
+            testThroughput0(createEventManager(event -> counter.increment(), null), "concurrent");
+        }
+    }
+
+    private static void testThroughput0(LanternEventManager eventManager, String mode) throws InterruptedException {
+        final int events = 200000;
+        final long time = System.currentTimeMillis();
+        post(eventManager, events);
+        System.out.println(String.format(MESSAGE, events, WORLDS, LISTENERS, mode, System.currentTimeMillis() - time));
+    }
+
+    private static LanternEventManager createEventManager(EventListener<TestEvent> handler,
+            @Nullable Object lock) {
+        final LanternEventManager eventManager = new LanternEventManager(LoggerFactory.getLogger(LanternEventManagerTest.class));
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        for (int i = 0; i < LISTENERS; i++) {
+            listeners.add(new RegisteredListener<>(PLUGIN, new EventType<>(TestEvent.class, null), Order.DEFAULT, handler, lock));
+        }
+        eventManager.register(listeners);
+        return eventManager;
+    }
+
+    /**
+     * Posts the events from multiple world threads at the same time.
+     */
+    private static void post(LanternEventManager eventManager, int events) throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < WORLDS; i++) {
+            threads.add(new SyncLanternThread(() -> {
+                final TestEvent event = new TestEvent();
+                for (int j = 0; j < events; j++) {
+                    eventManager.post(event);
+                }
+            }, "world-" + i));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.lanternpowered.server.inventory.query.LanternQueryOperationType;
+import org.lanternpowered.server.inventory.query.QueryCacheType;
+import org.lanternpowered.server.inventory.type.LanternChildrenInventory;
+import org.lanternpowered.server.inventory.type.slot.LanternSlot;
+import org.spongepowered.api.CatalogKey;
+import org.spongepowered.api.item.inventory.query.QueryOperation;
+
+import java.util.List;
+
+public class InventoryQueryCacheTest {
+
+    private LanternSlot slot1;
+    private LanternSlot slot2;
+    private LanternChildrenInventory inventory;
+    private int tests;
+
+    @Before
+    public void setup() {
+        this.slot1 = new LanternSlot();
+        this.slot2 = new LanternSlot();
+        this.inventory = new LanternChildrenInventory();
+        this.inventory.initWithChildren(ImmutableList.of(this.slot1, this.slot2), false);
+    }
+
+    private QueryOperation<AbstractSlot> createOperation(QueryCacheType cacheType, AbstractSlot slot) {
+        final CatalogKey key = mock(CatalogKey.class);
+        when(key.getNamespace()).thenReturn("test");
+        when(key.getValue()).thenReturn("query");
+        when(key.getName()).thenReturn("query");
+        final LanternQueryOperationType<AbstractSlot> type = new LanternQueryOperationType<>(key, (arg, inventory) -> {
+            this.tests++;
+            return inventory == arg;
+        }, cacheType);
+        return type.of(slot);
+    }
+
+    private List<AbstractSlot> query(QueryOperation<?> operation) {
+        return ((AbstractInventory) this.inventory.query(operation)).getSlots();
+    }
+
+    @Test
+    public void testFreshViews() {
+        final QueryOperation<AbstractSlot> operation = createOperation(QueryCacheType.STRUCTURE, this.slot1);
+        final IQueryInventory result1 = this.inventory.query(operation);
+        final IQueryInventory result2 = this.inventory.query(operation);
+        // Every caller gets its own view, but the tree is only walked once
+        assertNotSame(result1, result2);
+        assertEquals(ImmutableList.of(this.slot1), ((AbstractInventory) result1).getSlots());
+        assertEquals(ImmutableList.of(this.slot1), ((AbstractInventory) result2).getSlots());
+        assertEquals(2, this.tests);
+    }
+
+    @Test
+    public void testContentInvalidation() {
+        final QueryOperation<AbstractSlot> operation = createOperation(QueryCacheType.CONTENT, this.slot2);
+        assertEquals(ImmutableList.of(this.slot2), query(operation));
+        assertEquals(ImmutableList.of(this.slot2), query(operation));
+        assertEquals(2, this.tests);
+        // The contents of a slot changed, the query must be executed again
+        this.slot1.queueUpdate();
+        assertEquals(ImmutableList.of(this.slot2), query(operation));
+        assertEquals(4, this.tests);
+        assertEquals(ImmutableList.of(this.slot2), query(operation));
+        assertEquals(4, this.tests);
+    }
+
+    @Test
+    public void testStructureNotInvalidated() {
+        final QueryOperation<AbstractSlot> operation = createOperation(QueryCacheType.STRUCTURE, this.slot1);
+        query(operation);
+        this.slot1.queueUpdate();
+        this.slot2.queueUpdate();
+        query(operation);
+        assertEquals(2, this.tests);
+    }
+
+    @Test
+    public void testNotCached() {
+        final QueryOperation<AbstractSlot> operation = createOperation(QueryCacheType.NONE, this.slot1);
+        query(operation);
+        query(operation);
+        assertEquals(4, this.tests);
+    }
+}
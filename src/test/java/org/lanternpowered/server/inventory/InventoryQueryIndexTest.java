@@ -0,0 +1,247 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.inventory.query.LanternQueryOperationType;
+import org.lanternpowered.server.inventory.query.QueryCacheType;
+import org.lanternpowered.server.inventory.query.QueryIndexType;
+import org.lanternpowered.server.inventory.type.LanternChildrenInventory;
+import org.lanternpowered.server.inventory.type.slot.LanternSlot;
+import org.lanternpowered.server.test.PerformanceTest;
+import org.spongepowered.api.CatalogKey;
+import org.spongepowered.api.item.ItemType;
+import org.spongepowered.api.item.inventory.Inventory;
+import org.spongepowered.api.item.inventory.query.QueryOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+public class InventoryQueryIndexTest {
+
+    private final static String MESSAGE = "%s %s %s queries took: %s ms, %s ns per query";
+
+    private int tests;
+
+    private <T> LanternQueryOperationType<T> createType(QueryCacheType cacheType, QueryIndexType indexType,
+            BiPredicate<T, Inventory> predicate) {
+        final CatalogKey key = mock(CatalogKey.class);
+        when(key.getNamespace()).thenReturn("test");
+        when(key.getValue()).thenReturn("query");
+        when(key.getName()).thenReturn("query");
+        return new LanternQueryOperationType<>(key, (arg, inventory) -> {
+            this.tests++;
+            return predicate.test(arg, inventory);
+        }, cacheType, indexType);
+    }
+
+    private static LanternChildrenInventory createInventory(List<? extends AbstractMutableInventory> children) {
+        final LanternChildrenInventory inventory = new LanternChildrenInventory();
+        inventory.initWithChildren(ImmutableList.<AbstractMutableInventory>copyOf(children), false);
+        return inventory;
+    }
+
+    private static ImmutableSet<AbstractSlot> querySlots(AbstractInventory inventory, QueryOperation<?> operation) {
+        return ImmutableSet.copyOf(((AbstractInventory) inventory.query(operation)).getSlots());
+    }
+
+    @Test
+    public void testTypeIndex() {
+        final LanternSlot slot1 = new LanternSlot();
+        final LanternSlot slot2 = new LanternSlot();
+        final LanternSlot slot3 = new LanternSlot();
+        final LanternChildrenInventory children = createInventory(ImmutableList.of(slot1, slot2));
+        final LanternChildrenInventory inventory = createInventory(ImmutableList.of(children, slot3));
+        final QueryOperation<Class<?>> operation = this.<Class<?>>createType(QueryCacheType.NONE, QueryIndexType.INVENTORY_TYPE,
+                Class::isInstance).of(LanternSlot.class);
+        assertEquals(ImmutableSet.of(slot1, slot2, slot3), querySlots(inventory, operation));
+        // Only the slots are tested, the children inventory isn't a candidate
+        assertEquals(3, this.tests);
+        assertEquals(ImmutableSet.of(slot1, slot2, slot3), querySlots(inventory, operation));
+        assertEquals(6, this.tests);
+    }
+
+    @Test
+    public void testQueryClass() {
+        final LanternSlot slot = new LanternSlot();
+        final LanternChildrenInventory children = createInventory(ImmutableList.of(slot));
+        final LanternChildrenInventory inventory = createInventory(ImmutableList.of(children));
+        assertSame(children, inventory.query(LanternChildrenInventory.class).get());
+        assertSame(slot, inventory.query(LanternSlot.class).get());
+        assertSame(slot, inventory.query(LanternSlot.class).get());
+    }
+
+    @Test
+    public void testItemTypeIndex() {
+        final ItemType type1 = mock(ItemType.class);
+        final ItemType type2 = mock(ItemType.class);
+        final LanternSlot slot1 = createSlot(type1);
+        final LanternSlot slot2 = createSlot(type2);
+        final LanternSlot slot3 = new LanternSlot();
+        final LanternChildrenInventory inventory = createInventory(ImmutableList.of(slot1, slot2, slot3));
+        final QueryOperation<ItemType> operation = this.<ItemType>createType(QueryCacheType.NONE, QueryIndexType.ITEM_TYPE,
+                InventoryQueryIndexTest::hasItemType).of(type1);
+        assertEquals(ImmutableSet.of(slot1), querySlots(inventory, operation));
+        assertEquals(1, this.tests);
+        // The contents of a slot changed, the index must be rebuilt
+        final LanternItemStack itemStack = createItemStack(type1);
+        doReturn(itemStack).when(slot2).getRawItemStack();
+        slot2.queueUpdate();
+        assertEquals(ImmutableSet.of(slot1, slot2), querySlots(inventory, operation));
+        assertEquals(3, this.tests);
+    }
+
+    @Test
+    public void testUnionOfOperations() {
+        final ItemType type = mock(ItemType.class);
+        final LanternSlot slot1 = createSlot(type);
+        final LanternSlot slot2 = new LanternSlot();
+        final LanternChildrenInventory children = createInventory(ImmutableList.of(slot2));
+        final LanternChildrenInventory inventory = createInventory(ImmutableList.of(slot1, children));
+        final QueryOperation<ItemType> itemOperation = this.<ItemType>createType(QueryCacheType.CONTENT, QueryIndexType.ITEM_TYPE,
+                InventoryQueryIndexTest::hasItemType).of(type);
+        final QueryOperation<Class<?>> typeOperation = this.<Class<?>>createType(QueryCacheType.STRUCTURE, QueryIndexType.INVENTORY_TYPE,
+                Class::isInstance).of(LanternChildrenInventory.class);
+        final AbstractInventory result = (AbstractInventory) inventory.query(itemOperation, typeOperation);
+        assertEquals(ImmutableList.of(slot1, slot2), result.getSlots());
+        assertEquals(2, this.tests);
+        // The result is cached until the contents change
+        inventory.query(itemOperation, typeOperation);
+        assertEquals(2, this.tests);
+    }
+
+    private static boolean hasItemType(ItemType itemType, Inventory inventory) {
+        if (!(inventory instanceof AbstractSlot)) {
+            return false;
+        }
+        final LanternItemStack itemStack = ((AbstractSlot) inventory).getRawItemStack();
+        return itemStack != null && itemStack.getType() == itemType;
+    }
+
+    private static LanternSlot createSlot(ItemType itemType) {
+        final LanternSlot slot = spy(new LanternSlot());
+        final LanternItemStack itemStack = createItemStack(itemType);
+        doReturn(itemStack).when(slot).getRawItemStack();
+        return slot;
+    }
+
+    private static LanternItemStack createItemStack(ItemType itemType) {
+        final LanternItemStack itemStack = mock(LanternItemStack.class);
+        when(itemStack.getType()).thenReturn(itemType);
+        return itemStack;
+    }
+
+    /**
+     * The vanilla archetypes need the game registry, so the benchmark builds
+     * a inventory with the same layout as the player inventory: three rows and
+     * the hotbar of the main inventory, the armor and the off hand slot.
+     */
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        final ItemType[] types = new ItemType[8];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = mock(ItemType.class);
+        }
+        final List<AbstractMutableInventory> children = new ArrayList<>();
+        int slotIndex = 0;
+        for (int row = 0; row < 4; row++) {
+            final List<LanternSlot> slots = new ArrayList<>();
+            for (int column = 0; column < 9; column++) {
+                slots.add(createSlot(types[slotIndex++ % types.length]));
+            }
+            children.add(createInventory(slots));
+        }
+        final List<LanternSlot> armor = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            armor.add(createSlot(types[slotIndex++ % types.length]));
+        }
+        children.add(createInventory(armor));
+        children.add(createSlot(types[0]));
+        final LanternChildrenInventory inventory = createInventory(children);
+        // Query inventories are never indexed, so they always walk the inventory tree
+        final AbstractInventory.ChildrenInventoryQuery walked = new AbstractInventory.ChildrenInventoryQuery();
+        walked.initWithChildren(children, true);
+
+        final List<QueryOperation<?>> operations = new ArrayList<>();
+        final LanternQueryOperationType<ItemType> itemType = createType(QueryCacheType.CONTENT, QueryIndexType.ITEM_TYPE,
+                InventoryQueryIndexTest::hasItemType);
+        for (ItemType type : types) {
+            operations.add(itemType.of(type));
+        }
+        final LanternQueryOperationType<Class<?>> inventoryType = createType(QueryCacheType.STRUCTURE, QueryIndexType.INVENTORY_TYPE,
+                Class::isInstance);
+        operations.add(inventoryType.of(LanternSlot.class));
+        operations.add(inventoryType.of(LanternChildrenInventory.class));
+
+        final LanternSlot changedSlot = (LanternSlot) inventory.getSlots().get(0);
+        final int queries = 200000;
+        for (int run = 0; run < 2; run++) {
+            for (boolean changes : new boolean[] { false, true }) {
+                final String name = changes ? "changing" : "unchanged";
+                long time = System.nanoTime();
+                int walkedCount = 0;
+                for (int i = 0; i < queries; i++) {
+                    if (changes) {
+                        changedSlot.queueUpdate();
+                    }
+                    walkedCount += ((AbstractInventory) walked.query(operations.get(i % operations.size()))).getSlots().size();
+                }
+                long duration = System.nanoTime() - time;
+                if (run == 1) {
+                    System.out.println(String.format(MESSAGE, "Walked", queries, name, duration / 1000000L, duration / queries));
+                }
+
+                time = System.nanoTime();
+                int indexedCount = 0;
+                for (int i = 0; i < queries; i++) {
+                    if (changes) {
+                        changedSlot.queueUpdate();
+                    }
+                    indexedCount += ((AbstractInventory) inventory.query(operations.get(i % operations.size()))).getSlots().size();
+                }
+                duration = System.nanoTime() - time;
+                if (run == 1) {
+                    System.out.println(String.format(MESSAGE, "Indexed", queries, name, duration / 1000000L, duration / queries));
+                }
+                assertEquals(walkedCount, indexedCount);
+            }
+        }
+        assertTrue(this.tests > 0);
+    }
+}
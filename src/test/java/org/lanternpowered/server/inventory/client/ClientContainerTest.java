@@ -0,0 +1,81 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.inventory.client;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.spongepowered.api.item.inventory.ItemStack;
+
+public class ClientContainerTest {
+
+    private static ItemStack createItem(boolean empty) {
+        final ItemStack itemStack = mock(ItemStack.class);
+        when(itemStack.isEmpty()).thenReturn(empty);
+        return itemStack;
+    }
+
+    @Test
+    public void testUnknownSentItem() {
+        // Nothing was send yet or the client modified the contents
+        assertFalse(ClientContainer.isSentItem(null, createItem(true)));
+        assertFalse(ClientContainer.isSentItem(null, createItem(false)));
+    }
+
+    @Test
+    public void testEmptySentItem() {
+        final ItemStack empty = createItem(true);
+        assertTrue(ClientContainer.isSentItem(empty, createItem(true)));
+        assertFalse(ClientContainer.isSentItem(empty, createItem(false)));
+        assertFalse(ClientContainer.isSentItem(createItem(false), empty));
+    }
+
+    @Test
+    public void testSentItem() {
+        final ItemStack sentItem = createItem(false);
+        final ItemStack equalItem = createItem(false);
+        when(equalItem.equalTo(sentItem)).thenReturn(true);
+        final ItemStack otherItem = createItem(false);
+        when(otherItem.equalTo(sentItem)).thenReturn(false);
+        assertTrue(ClientContainer.isSentItem(sentItem, equalItem));
+        assertFalse(ClientContainer.isSentItem(sentItem, otherItem));
+    }
+
+    @Test
+    public void testWindowItemsDecision() {
+        // A single modified slot in a full inventory, send it separately
+        assertFalse(ClientContainer.shouldSendWindowItems(1, 45 * 16));
+        // A few modified slots in a empty inventory, the empty items are cheap
+        assertFalse(ClientContainer.shouldSendWindowItems(2, 43 * 2));
+        // Most of the slots are modified, e.g. by a shift click or crafting
+        assertTrue(ClientContainer.shouldSendWindowItems(30, 16 * 2));
+        assertFalse(ClientContainer.shouldSendWindowItems(30, 16 * 16));
+        assertTrue(ClientContainer.shouldSendWindowItems(46, 0));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+import org.lanternpowered.server.data.world.MoonPhase;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.message.EncodedMessage;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.codec.EncodingStatistics;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutWorldTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageBroadcasterTest {
+
+    private final List<List<Message>> sent = new ArrayList<>();
+
+    private List<LanternPlayer> createPlayers(ProtocolState... states) {
+        final List<LanternPlayer> players = new ArrayList<>();
+        for (ProtocolState state : states) {
+            final List<Message> messages = new ArrayList<>();
+            this.sent.add(messages);
+            final NetworkSession session = mock(NetworkSession.class);
+            when(session.getProtocolState()).thenReturn(state);
+            doAnswer(invocation -> messages.add(invocation.getArgument(0))).when(session).send(any(Message.class));
+            final LanternPlayer player = mock(LanternPlayer.class);
+            when(player.getConnection()).thenReturn(session);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static Message createMessage() {
+        return new MessagePlayOutWorldTime(MoonPhase.FULL_MOON, 100L, 1000, true);
+    }
+
+    @Test
+    public void testFallbackForOtherStates() {
+        final List<LanternPlayer> players = createPlayers(ProtocolState.PLAY, ProtocolState.LOGIN, ProtocolState.PLAY);
+        final Message message = createMessage();
+        MessageBroadcaster.broadcast(players, message);
+        // The session that isn't in the play state cannot use the shared content
+        assertSame(message, this.sent.get(1).get(0));
+        for (int i : new int[] { 0, 2 }) {
+            final Message sentMessage = this.sent.get(i).get(0);
+            assertTrue(sentMessage instanceof EncodedMessage);
+            ((EncodedMessage) sentMessage).release();
+        }
+    }
+
+    @Test
+    public void testEncodeCounts() {
+        final List<LanternPlayer> players = createPlayers(ProtocolState.PLAY, ProtocolState.PLAY, ProtocolState.PLAY);
+
+        // Only one player matches the filter, so it isn't worth to share the message
+        long encodings = EncodingStatistics.getSharedEncodings();
+        final Message message = createMessage();
+        MessageBroadcaster.broadcast(players, player -> player == players.get(0), message);
+        assertEquals(encodings, EncodingStatistics.getSharedEncodings());
+        assertSame(message, this.sent.get(0).get(0));
+
+        // Two players, encoded once
+        encodings = EncodingStatistics.getSharedEncodings();
+        MessageBroadcaster.broadcast(players, player -> player != players.get(0), createMessage());
+        assertEquals(encodings + 1, EncodingStatistics.getSharedEncodings());
+        for (int i = 1; i < 3; i++) {
+            final Message sentMessage = this.sent.get(i).get(0);
+            assertTrue(sentMessage instanceof EncodedMessage);
+            ((EncodedMessage) sentMessage).release();
+        }
+
+        // No targets, the message shouldn't even be created
+        encodings = EncodingStatistics.getSharedEncodings();
+        MessageBroadcaster.broadcast(players, player -> false, () -> {
+            fail("The message shouldn't be created without targets.");
+            return null;
+        });
+        assertEquals(encodings, EncodingStatistics.getSharedEncodings());
+        assertEquals(1, this.sent.get(0).size());
+    }
+
+    @Test
+    public void testSharedBufferReleased() {
+        final List<LanternPlayer> players = createPlayers(ProtocolState.PLAY, ProtocolState.PLAY);
+        final ByteBuf content = Unpooled.buffer().writeLong(1L);
+        MessageBroadcaster.broadcast(players, new EncodedMessage(ProtocolState.PLAY, content));
+        // The broadcaster released its own reference, only the sessions hold one
+        assertEquals(2, content.refCnt());
+        for (List<Message> messages : this.sent) {
+            ((EncodedMessage) messages.get(0)).release();
+        }
+        assertEquals(0, content.refCnt());
+
+        // Without targets should the message be released immediately
+        final ByteBuf content1 = Unpooled.buffer().writeLong(1L);
+        MessageBroadcaster.broadcast(players, player -> false, new EncodedMessage(ProtocolState.PLAY, content1));
+        assertEquals(0, content1.refCnt());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3d;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TrackerGridTest {
+
+    private final static String MESSAGE = "%s for %s entities and %s players took: %s ms";
+    private final static double RANGE = 64;
+
+    @Test
+    public void testRange() {
+        final Random random = new Random(0L);
+        final List<Vector3d> players = createPositions(random, 200, 500);
+        final TrackerGrid<Vector3d> grid = createGrid(players);
+        assertEquals(players.size(), grid.size());
+        for (Vector3d position : createPositions(random, 500, 500)) {
+            final Set<Vector3d> expected = new HashSet<>();
+            for (Vector3d player : players) {
+                if (player.distanceSquared(position) < RANGE * RANGE) {
+                    expected.add(player);
+                }
+            }
+            final Set<Vector3d> actual = new HashSet<>();
+            grid.forEachInRange(position, RANGE, actual::add);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testNegativeCoordinates() {
+        final TrackerGrid<Vector3d> grid = new TrackerGrid<>();
+        final Vector3d player = new Vector3d(-0.5, -10, -16.5);
+        grid.add(player, player);
+        assertTrue(grid.contains(player));
+        final Set<Vector3d> actual = new HashSet<>();
+        grid.forEachInRange(new Vector3d(0.5, 0, 0.5), 32, actual::add);
+        assertTrue(actual.contains(player));
+    }
+
+    @Test
+    public void testMatchesScan() {
+        final Random random = new Random(0L);
+        for (int playerCount : new int[] { 0, 1, 10, 150 }) {
+            final List<Vector3d> players = createPositions(random, playerCount, 1000);
+            final TrackerGrid<Vector3d> grid = createGrid(players);
+            for (Vector3d entity : createPositions(random, 1000, 1000)) {
+                int expected = 0;
+                for (Vector3d player : players) {
+                    if (player.distanceSquared(entity) < RANGE * RANGE) {
+                        expected++;
+                    }
+                }
+                final List<Vector3d> actual = new ArrayList<>();
+                grid.forEachInRange(entity, RANGE, actual::add);
+                // Every player in range is visited exactly once
+                assertEquals(expected, actual.size());
+                assertEquals(expected, new HashSet<>(actual).size());
+            }
+        }
+    }
+
+    @Test
+    public void testRangeBorder() {
+        final TrackerGrid<Vector3d> grid = new TrackerGrid<>();
+        final Vector3d inside = new Vector3d(RANGE - 0.01, 64, 0);
+        final Vector3d outside = new Vector3d(0, 64, RANGE + 0.01);
+        grid.add(inside, inside);
+        grid.add(outside, outside);
+        final Set<Vector3d> actual = new HashSet<>();
+        grid.forEachInRange(new Vector3d(0, 64, 0), RANGE, actual::add);
+        assertTrue(actual.contains(inside));
+        assertFalse(actual.contains(outside));
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        for (int players : new int[] { 10, 50, 150 }) {
+            for (int entities : new int[] { 1000, 4000 }) {
+                testPerformance0(entities, players);
+            }
+        }
+    }
+
+    private static void testPerformance0(int entityCount, int playerCount) {
+        final Random random = new Random(0L);
+        final List<Vector3d> players = createPositions(random, playerCount, 1000);
+        final List<Vector3d> entities = createPositions(random, entityCount, 1000);
+        final int[] counter = new int[1];
+
+        long time = System.currentTimeMillis();
+        for (Vector3d entity : entities) {
+            for (Vector3d player : players) {
+                if (player.distanceSquared(entity) < RANGE * RANGE) {
+                    counter[0]++;
+                }
+            }
+        }
+        System.out.println(String.format(MESSAGE, "Scan", entityCount, playerCount,
+                System.currentTimeMillis() - time));
+
+        time = System.currentTimeMillis();
+        final TrackerGrid<Vector3d> grid = createGrid(players);
+        for (Vector3d entity : entities) {
+            grid.forEachInRange(entity, RANGE, player -> counter[0]--);
+        }
+        System.out.println(String.format(MESSAGE, "TrackerGrid", entityCount, playerCount,
+                System.currentTimeMillis() - time));
+        assertEquals(0, counter[0]);
+    }
+
+    private static TrackerGrid<Vector3d> createGrid(List<Vector3d> positions) {
+        final TrackerGrid<Vector3d> grid = new TrackerGrid<>();
+        for (Vector3d position : positions) {
+            grid.add(position, position);
+        }
+        return grid;
+    }
+
+    private static List<Vector3d> createPositions(Random random, int count, int size) {
+        final List<Vector3d> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(new Vector3d(
+                    (random.nextDouble() - 0.5) * size,
+                    random.nextDouble() * 256,
+                    (random.nextDouble() - 0.5) * size));
+        }
+        return positions;
+    }
+}
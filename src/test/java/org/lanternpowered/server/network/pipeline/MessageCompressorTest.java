@@ -0,0 +1,160 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class MessageCompressorTest {
+
+    private final static String MESSAGE = "%s of %s messages of %s bytes on average took: %s ms, allocated %s bytes per message";
+
+    private static final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    @Test
+    public void testRoundTrip() throws DataFormatException {
+        final MessageCompressor compressor = new MessageCompressor(Deflater.DEFAULT_COMPRESSION);
+        final byte[] data = createContent(new Random(0L), 5000);
+        // Test all the different kinds of buffers
+        final ByteBuf[] sources = {
+                Unpooled.wrappedBuffer(data),
+                Unpooled.directBuffer().writeBytes(data),
+                Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(data, 0, 100), Unpooled.wrappedBuffer(data, 100, data.length - 100)),
+        };
+        for (ByteBuf source : sources) {
+            final ByteBuf compressed = compressor.compress(alloc, source);
+            assertNotNull(compressed);
+            assertEquals(data.length, source.readableBytes());
+            final ByteBuf direct = Unpooled.directBuffer().writeBytes(compressed);
+            final ByteBuf decompressed = compressor.decompress(alloc, direct, data.length);
+            assertEquals(Unpooled.wrappedBuffer(data), decompressed);
+            compressed.release();
+            decompressed.release();
+            direct.release();
+            source.release();
+        }
+        compressor.release();
+    }
+
+    @Test
+    public void testIncompressible() {
+        final MessageCompressor compressor = new MessageCompressor(Deflater.BEST_COMPRESSION);
+        final byte[] data = new byte[1000];
+        new Random(0L).nextBytes(data);
+        assertNull(compressor.compress(alloc, Unpooled.wrappedBuffer(data)));
+        compressor.release();
+    }
+
+    @Test
+    public void testAllocation() throws DataFormatException {
+        final Random random = new Random(0L);
+        final int messages = 5000;
+        final ByteBuf[] sources = new ByteBuf[16];
+        int size = 0;
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = Unpooled.directBuffer().writeBytes(createContent(random, 2000 + random.nextInt(4000)));
+            size += sources[i].readableBytes() / sources.length;
+        }
+
+        // The old implementation, with a new byte array for every step
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        final Inflater inflater = new Inflater();
+        long allocated = getAllocatedBytes();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < messages; i++) {
+            final ByteBuf source = sources[i % sources.length];
+            final int length = source.readableBytes();
+            final byte[] sourceData = new byte[length];
+            source.getBytes(source.readerIndex(), sourceData);
+            deflater.setInput(sourceData);
+            deflater.finish();
+            final byte[] compressedData = new byte[length];
+            final int compressedLength = deflater.deflate(compressedData);
+            deflater.reset();
+            final ByteBuf compressed = Unpooled.wrappedBuffer(compressedData, 0, compressedLength);
+
+            final byte[] sourceData1 = new byte[compressed.readableBytes()];
+            compressed.readBytes(sourceData1);
+            inflater.setInput(sourceData1);
+            final byte[] destData = new byte[length];
+            inflater.inflate(destData);
+            inflater.reset();
+            Unpooled.wrappedBuffer(destData).release();
+        }
+        System.out.println(String.format(MESSAGE, "Byte arrays", messages, size,
+                System.currentTimeMillis() - time, (getAllocatedBytes() - allocated) / messages));
+        deflater.end();
+        inflater.end();
+
+        final MessageCompressor compressor = new MessageCompressor(Deflater.DEFAULT_COMPRESSION);
+        allocated = getAllocatedBytes();
+        time = System.currentTimeMillis();
+        for (int i = 0; i < messages; i++) {
+            final ByteBuf source = sources[i % sources.length];
+            final ByteBuf compressed = compressor.compress(alloc, source);
+            assertNotNull(compressed);
+            compressor.decompress(alloc, compressed, source.readableBytes()).release();
+            compressed.release();
+        }
+        System.out.println(String.format(MESSAGE, "Message compressor", messages, size,
+                System.currentTimeMillis() - time, (getAllocatedBytes() - allocated) / messages));
+        compressor.release();
+
+        for (ByteBuf source : sources) {
+            source.release();
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Creates content that looks a bit like chunk data, a lot
+     * of repetition with some random values in between.
+     */
+    private static byte[] createContent(Random random, int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(8) == 0 ? random.nextInt(256) : i % 16);
+        }
+        return data;
+    }
+}
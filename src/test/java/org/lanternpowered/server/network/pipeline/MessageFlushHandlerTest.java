@@ -0,0 +1,77 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+public class MessageFlushHandlerTest {
+
+    @Test
+    public void testCoalescedWrites() {
+        final MessageFlushHandler handler = new MessageFlushHandler(1000);
+        final EmbeddedChannel channel = new EmbeddedChannel(handler);
+        for (int i = 0; i < 10; i++) {
+            channel.write(Unpooled.buffer().writeZero(50));
+        }
+        // Nothing is flushed yet
+        assertNull(channel.readOutbound());
+        assertEquals(10, handler.getWrites());
+        assertEquals(500, handler.getBytes());
+        assertEquals(0, handler.getFlushes());
+
+        channel.flush();
+        assertEquals(1, handler.getFlushes());
+        for (int i = 0; i < 10; i++) {
+            ((ByteBuf) channel.readOutbound()).release();
+        }
+        // Flushes without writes aren't counted
+        channel.flush();
+        assertEquals(1, handler.getFlushes());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testByteBudget() {
+        final MessageFlushHandler handler = new MessageFlushHandler(1000);
+        final EmbeddedChannel channel = new EmbeddedChannel(handler);
+        for (int i = 0; i < 25; i++) {
+            channel.write(Unpooled.buffer().writeZero(100));
+        }
+        // The budget is exceeded twice
+        assertEquals(2, handler.getFlushes());
+        for (int i = 0; i < 20; i++) {
+            ((ByteBuf) channel.readOutbound()).release();
+        }
+        assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+}
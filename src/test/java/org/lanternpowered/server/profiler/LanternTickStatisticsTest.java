@@ -0,0 +1,78 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.profiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LanternTickStatisticsTest {
+
+    private static final long MILLIS = 1000000L;
+
+    @Test
+    public void testTicksPerSecond() {
+        final LanternTickStatistics statistics = new LanternTickStatistics();
+        assertEquals(20.0, statistics.getTicksPerSecond(), 0.0);
+        // A tick every 100ms, so 10 ticks per second
+        for (int i = 0; i < 50; i++) {
+            final long start = 1000L + i * 100L * MILLIS;
+            statistics.record(start, start + 60L * MILLIS);
+        }
+        assertEquals(10.0, statistics.getTicksPerSecond(), 0.001);
+        assertEquals(60.0, statistics.getAverageTickTime(), 0.001);
+        assertEquals(60.0, statistics.getMaxTickTime(), 0.001);
+    }
+
+    @Test
+    public void testWindow() {
+        final LanternTickStatistics statistics = new LanternTickStatistics();
+        final int count = statistics.getWindowSize() * 2 + 5;
+        for (int i = 0; i < count; i++) {
+            final long start = i * 50L * MILLIS;
+            // Only the ticks within the window should be slow
+            final long time = i < count - statistics.getWindowSize() ? 100L : 10L;
+            statistics.record(start, start + time * MILLIS);
+        }
+        assertEquals(statistics.getWindowSize(), statistics.getSampleCount());
+        assertEquals(20.0, statistics.getTicksPerSecond(), 0.001);
+        assertEquals(10.0, statistics.getMaxTickTime(), 0.001);
+    }
+
+    @Test
+    public void testHistogram() {
+        final LanternTickStatistics statistics = new LanternTickStatistics();
+        final long[] times = { 1, 4, 7, 25, 49, 50, 600 };
+        for (int i = 0; i < times.length; i++) {
+            final long start = i * 50L * MILLIS;
+            statistics.record(start, start + times[i] * MILLIS);
+        }
+        final long[] histogram = statistics.getTickTimeHistogram();
+        assertEquals(statistics.getTickTimeHistogramBounds().length + 1, histogram.length);
+        assertArrayEquals(new long[] { 2, 1, 0, 1, 0, 1, 1, 0, 0, 0, 1 }, histogram);
+    }
+}
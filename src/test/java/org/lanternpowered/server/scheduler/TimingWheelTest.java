@@ -0,0 +1,189 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TimingWheelTest {
+
+    private final static String MESSAGE = "%s of %s ticks with %s tasks took: %s ms (%s executions)";
+
+    @Test
+    public void testExpiresAtDeadline() {
+        final Random random = new Random(0L);
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0, 0L);
+        final List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // Mix short and very long delays, to test the higher levels
+            final long deadline = random.nextBoolean() ? 1 + random.nextInt(200) : 1 + random.nextInt(400000);
+            final Entry entry = new Entry(deadline, 0);
+            entries.add(entry);
+            wheel.schedule(entry.node, deadline);
+        }
+        assertEquals(entries.size(), wheel.size());
+        final long[] now = new long[1];
+        for (now[0] = 1; now[0] <= 400000; now[0]++) {
+            wheel.advance(now[0], entry -> {
+                assertEquals(entry.deadline, now[0]);
+                entry.executions++;
+            });
+        }
+        assertEquals(0, wheel.size());
+        for (Entry entry : entries) {
+            assertEquals(1, entry.executions);
+        }
+    }
+
+    @Test
+    public void testSkipAhead() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0, 0L);
+        final Entry entry1 = new Entry(100000, 0);
+        final Entry entry2 = new Entry(5000000, 0);
+        wheel.schedule(entry1.node, entry1.deadline);
+        wheel.schedule(entry2.node, entry2.deadline);
+        wheel.advance(99999, entry -> entry.executions++);
+        assertEquals(0, entry1.executions);
+        // Advance far past both deadlines at once
+        wheel.advance(10000000, entry -> entry.executions++);
+        assertEquals(1, entry1.executions);
+        assertEquals(1, entry2.executions);
+        assertEquals(Long.MAX_VALUE, wheel.nextExpiration());
+    }
+
+    @Test
+    public void testRemove() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0, 0L);
+        final Entry entry1 = new Entry(10, 0);
+        final Entry entry2 = new Entry(10, 0);
+        final Entry entry3 = new Entry(10, 0);
+        wheel.schedule(entry1.node, entry1.deadline);
+        wheel.schedule(entry2.node, entry2.deadline);
+        wheel.schedule(entry3.node, entry3.deadline);
+        assertTrue(entry2.node.remove());
+        assertFalse(entry2.node.remove());
+        assertFalse(entry2.node.isScheduled());
+        assertEquals(2, wheel.size());
+        wheel.advance(10, entry -> entry.executions++);
+        assertEquals(1, entry1.executions);
+        assertEquals(0, entry2.executions);
+        assertEquals(1, entry3.executions);
+    }
+
+    @Test
+    public void testResolution() {
+        final long origin = 123456789L;
+        final TimingWheel<Entry> wheel = new TimingWheel<>(20, origin);
+        final Entry entry = new Entry(origin + 1500000, 0);
+        wheel.schedule(entry.node, entry.deadline);
+        // The deadline is rounded up to the next unit
+        assertEquals(origin + (2 << 20), wheel.nextExpiration());
+        wheel.advance(origin + 1500000, e -> e.executions++);
+        assertEquals(0, entry.executions);
+        wheel.advance(origin + (2 << 20), e -> e.executions++);
+        assertEquals(1, entry.executions);
+        // A deadline in the past expires on the next advance
+        wheel.schedule(entry.node, origin);
+        wheel.advance(origin + (3 << 20), e -> e.executions++);
+        assertEquals(2, entry.executions);
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        for (int tasks : new int[] { 10000, 100000 }) {
+            testPerformance0(tasks, 1200);
+        }
+    }
+
+    private static void testPerformance0(int tasks, int ticks) {
+        final Random random = new Random(0L);
+        final List<Entry> entries = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            // Most plugin tasks repeat every few seconds or minutes
+            entries.add(new Entry(0, 20 + random.nextInt(1200)));
+        }
+
+        // The old approach, every task is checked every tick
+        long executions = 0;
+        long time = System.currentTimeMillis();
+        for (Entry entry : entries) {
+            entry.deadline = 0;
+        }
+        for (long tick = 1; tick <= ticks; tick++) {
+            for (Entry entry : entries) {
+                // The old scheduler requested the time for every task
+                final long now = System.nanoTime() == 0 ? 0 : tick;
+                if (entry.period <= now - entry.deadline) {
+                    entry.deadline = now;
+                    executions++;
+                }
+            }
+        }
+        System.out.println(String.format(MESSAGE, "Scanning", ticks, tasks,
+                System.currentTimeMillis() - time, executions));
+
+        // The timing wheel, only the tasks that are due are touched
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0, 0L);
+        final long[] wheelExecutions = new long[1];
+        final long[] tick = new long[1];
+        time = System.currentTimeMillis();
+        for (Entry entry : entries) {
+            wheel.schedule(entry.node, entry.period);
+        }
+        for (tick[0] = 1; tick[0] <= ticks; tick[0]++) {
+            wheel.advance(tick[0], entry -> {
+                wheel.schedule(entry.node, tick[0] + entry.period);
+                wheelExecutions[0]++;
+            });
+        }
+        System.out.println(String.format(MESSAGE, "Timing wheel", ticks, tasks,
+                System.currentTimeMillis() - time, wheelExecutions[0]));
+        assertEquals(executions, wheelExecutions[0]);
+    }
+
+    private static final class Entry {
+
+        private final TimingWheel.Node<Entry> node = new TimingWheel.Node<>(this);
+        private final long period;
+        private long deadline;
+        private int executions;
+
+        private Entry(long deadline, long period) {
+            this.deadline = deadline;
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentOrderedLoadTest {
+
+    private static DirectedGraph<Integer> createGraph() {
+        //
+        //          1 - 2 - 3 - 4
+        //            \   /
+        //              5 - 6
+        //          7 - 8
+        //
+        final DirectedGraph<Integer> graph = new DirectedGraph<>();
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 4);
+        graph.addEdge(1, 5);
+        graph.addEdge(3, 5);
+        graph.addEdge(5, 6);
+        graph.addEdge(7, 8);
+        return graph;
+    }
+
+    @Test
+    public void testOrder() {
+        final DirectedGraph<Integer> graph = createGraph();
+        final ConcurrentOrderedLoad<Integer> load = new ConcurrentOrderedLoad<>(graph);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Execute multiple times to catch ordering issues
+            for (int i = 0; i < 100; i++) {
+                final AtomicInteger counter = new AtomicInteger();
+                final Map<Integer, Integer> order = new ConcurrentHashMap<>();
+                final Map<Integer, Thread> threads = new ConcurrentHashMap<>();
+                load.execute(executor, node -> node % 2 == 0, node -> {
+                    order.put(node, counter.getAndIncrement());
+                    threads.put(node, Thread.currentThread());
+                });
+                assertEquals(graph.getNodeCount(), order.size());
+                for (DirectedGraph.DataNode<Integer> node : graph.getNodes()) {
+                    for (DirectedGraph.DataNode<Integer> dependency : node.getAdjacent()) {
+                        assertTrue(order.get(dependency.getData()) < order.get(node.getData()));
+                    }
+                    if (node.getData() % 2 == 0) {
+                        assertSame(Thread.currentThread(), threads.get(node.getData()));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        final ConcurrentOrderedLoad<Integer> load = new ConcurrentOrderedLoad<>(createGraph());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Map<Integer, Integer> executed = new ConcurrentHashMap<>();
+        try {
+            load.execute(executor, node -> false, node -> {
+                if (node == 3) {
+                    throw new IllegalStateException("Failed");
+                }
+                executed.put(node, node);
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Failed", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+        // Nothing that depends on the failed node may be executed
+        assertTrue(!executed.containsKey(2));
+        assertTrue(!executed.containsKey(1));
+    }
+
+    @Test(expected = CyclicGraphException.class)
+    public void testCyclicGraph() {
+        final DirectedGraph<Integer> graph = createGraph();
+        graph.addEdge(4, 1);
+        new ConcurrentOrderedLoad<>(graph);
+    }
+}
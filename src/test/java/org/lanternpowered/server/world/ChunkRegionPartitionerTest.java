@@ -0,0 +1,172 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+public class ChunkRegionPartitionerTest {
+
+    private final static String MESSAGE = "%s tick of %s chunks in %s regions took: %s ms";
+
+    @Test
+    public void testKey() {
+        final long key = ChunkRegionPartitioner.key(-5, 1 << 20);
+        assertEquals(-5, ChunkRegionPartitioner.keyX(key));
+        assertEquals(1 << 20, ChunkRegionPartitioner.keyZ(key));
+    }
+
+    @Test
+    public void testSeparatedRegions() {
+        final LongList chunks = new LongArrayList();
+        addSquare(chunks, 0, 0, 5);
+        addSquare(chunks, -20, -20, 3);
+        // Exactly two chunks between this and the first square
+        addSquare(chunks, 7, 0, 2);
+
+        List<LongList> regions = ChunkRegionPartitioner.partition(chunks, 3);
+        assertEquals(2, regions.size());
+        assertEquals(25 + 4, regions.get(0).size());
+        assertEquals(9, regions.get(1).size());
+
+        regions = ChunkRegionPartitioner.partition(chunks, 2);
+        assertEquals(3, regions.size());
+    }
+
+    @Test
+    public void testRegionsAreIndependent() {
+        final Random random = new Random(0L);
+        final LongList chunks = new LongArrayList();
+        for (int i = 0; i < 40; i++) {
+            addSquare(chunks, random.nextInt(400) - 200, random.nextInt(400) - 200, 1 + random.nextInt(8));
+        }
+        final int borderDistance = 3;
+        final List<LongList> regions = ChunkRegionPartitioner.partition(chunks, borderDistance);
+        int total = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            total += regions.get(i).size();
+            for (int j = i + 1; j < regions.size(); j++) {
+                for (long a : regions.get(i)) {
+                    for (long b : regions.get(j)) {
+                        final int distance = Math.max(
+                                Math.abs(ChunkRegionPartitioner.keyX(a) - ChunkRegionPartitioner.keyX(b)),
+                                Math.abs(ChunkRegionPartitioner.keyZ(a) - ChunkRegionPartitioner.keyZ(b)));
+                        assertTrue(distance > borderDistance);
+                    }
+                }
+            }
+        }
+        assertEquals(new LongOpenHashSet(chunks).size(), total);
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testTickPerformance() throws InterruptedException {
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            for (int players : new int[] { 1, 4, 16 }) {
+                testTickPerformance0(pool, players);
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void testTickPerformance0(ForkJoinPool pool, int players) {
+        // Every player keeps a square of 21x21 chunks loaded
+        final Random random = new Random(0L);
+        LongList chunks = new LongArrayList();
+        for (int i = 0; i < players; i++) {
+            addSquare(chunks, random.nextInt(2000) - 1000, random.nextInt(2000) - 1000, 21);
+        }
+        // Remove the chunks that overlap
+        chunks = new LongArrayList(new LongOpenHashSet(chunks));
+        final long[] sink = new long[1];
+
+        long time = System.currentTimeMillis();
+        for (long chunk : chunks) {
+            sink[0] += simulateChunkTick(chunk);
+        }
+        System.out.println(String.format(MESSAGE, "Sequential", chunks.size(), 1,
+                System.currentTimeMillis() - time));
+
+        time = System.currentTimeMillis();
+        final List<LongList> regions = ChunkRegionPartitioner.partition(chunks, 2);
+        final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[regions.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            final LongList region = regions.get(i);
+            tasks[i] = pool.submit(() -> {
+                long value = 0;
+                for (long chunk : region) {
+                    value += simulateChunkTick(chunk);
+                }
+                return value;
+            });
+        }
+        long value = 0;
+        for (ForkJoinTask<?> task : tasks) {
+            value += (Long) task.join();
+        }
+        System.out.println(String.format(MESSAGE, "Parallel", chunks.size(), regions.size(),
+                System.currentTimeMillis() - time));
+        assertEquals(sink[0], value);
+    }
+
+    /**
+     * Simulates the work of pulsing a chunk with some entities and tile entities.
+     */
+    private static long simulateChunkTick(long chunk) {
+        long value = chunk;
+        for (int i = 0; i < 20000; i++) {
+            value ^= value << 13;
+            value ^= value >>> 7;
+            value ^= value << 17;
+        }
+        return value;
+    }
+
+    private static void addSquare(LongList chunks, int x, int z, int size) {
+        for (int dx = 0; dx < size; dx++) {
+            for (int dz = 0; dz < size; dz++) {
+                chunks.add(ChunkRegionPartitioner.key(x + dx, z + dz));
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lanternpowered.server.cause.LanternCauseStackManager;
+import org.lanternpowered.server.entity.LanternEntity;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.world.Chunk;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParallelWorldTickerTest {
+
+    // The chunk x coordinates of the two regions
+    private static final int FIRST_REGION = 0;
+    private static final int SECOND_REGION = 100;
+
+    @BeforeClass
+    public static void setupCauseStackManager() throws Exception {
+        // The region threads need a cause stack manager
+        final Field field = Sponge.class.getDeclaredField("causeStackManager");
+        field.setAccessible(true);
+        field.set(null, LanternCauseStackManager.INSTANCE);
+    }
+
+    private LanternWorld world;
+    private ParallelWorldTicker ticker;
+
+    @Before
+    public void setup() {
+        this.world = mock(LanternWorld.class);
+        when(this.world.getName()).thenReturn("test");
+        final List<Chunk> chunks = Arrays.asList(
+                mockChunk(FIRST_REGION, 0), mockChunk(FIRST_REGION + 1, 0), mockChunk(SECOND_REGION, 0));
+        when(this.world.getLoadedChunks()).thenReturn(chunks);
+        this.ticker = new ParallelWorldTicker(this.world, 2, 2);
+    }
+
+    @After
+    public void shutdown() {
+        this.ticker.shutdown();
+    }
+
+    private static Chunk mockChunk(int x, int z) {
+        final LanternChunk chunk = mock(LanternChunk.class);
+        when(chunk.getX()).thenReturn(x);
+        when(chunk.getZ()).thenReturn(z);
+        return chunk;
+    }
+
+    private static LanternEntity mockEntity(int chunkX, int chunkZ) {
+        final LanternEntity entity = mock(LanternEntity.class);
+        when(entity.getLastChunkSectionCoords()).thenReturn(new Vector3i(chunkX, 4, chunkZ));
+        return entity;
+    }
+
+    @Test
+    public void testNotDeferredOutsideOfRegions() {
+        assertFalse(this.ticker.defer(() -> fail("The action should run directly")));
+        assertFalse(this.ticker.deferOutsideRegion(SECOND_REGION, 0, () -> fail("The action should run directly")));
+    }
+
+    @Test
+    public void testCrossRegionChanges() {
+        final Thread worldThread = Thread.currentThread();
+        // The lists aren't thread safe, all the deferred actions should run on the world thread
+        final List<Vector3i> spawned = new ArrayList<>();
+        final List<Vector3i> changedBlocks = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        when(this.world.pulseEntity(any())).thenAnswer(invocation -> {
+            final LanternEntity entity = invocation.getArgument(0);
+            final Vector3i chunk = entity.getLastChunkSectionCoords();
+            final int otherRegion = chunk.getX() == FIRST_REGION ? SECOND_REGION : FIRST_REGION;
+            assertNotSame(worldThread, Thread.currentThread());
+
+            // Spawn an entity next to the entity that is being pulsed
+            assertTrue(this.ticker.defer(() -> {
+                threads.add(Thread.currentThread());
+                spawned.add(chunk);
+            }));
+            // Change a block in the other region and in an unloaded chunk at the border of this region
+            for (int x : new int[] { otherRegion, chunk.getX() - 1 }) {
+                assertTrue(this.ticker.deferOutsideRegion(x, 0, () -> {
+                    threads.add(Thread.currentThread());
+                    changedBlocks.add(new Vector3i(x, 0, 0));
+                }));
+            }
+            // Changing a block within the region is done directly
+            assertFalse(this.ticker.deferOutsideRegion(chunk.getX(), 0, () -> fail("The action should run directly")));
+            return null;
+        });
+
+        this.ticker.pulse(Arrays.asList(mockEntity(FIRST_REGION, 0), mockEntity(SECOND_REGION, 0)));
+
+        assertEquals(2, spawned.size());
+        assertTrue(spawned.contains(new Vector3i(FIRST_REGION, 4, 0)));
+        assertTrue(spawned.contains(new Vector3i(SECOND_REGION, 4, 0)));
+        assertEquals(4, changedBlocks.size());
+        assertTrue(changedBlocks.contains(new Vector3i(SECOND_REGION, 0, 0)));
+        assertTrue(changedBlocks.contains(new Vector3i(FIRST_REGION - 1, 0, 0)));
+        assertTrue(changedBlocks.contains(new Vector3i(FIRST_REGION, 0, 0)));
+        assertTrue(changedBlocks.contains(new Vector3i(SECOND_REGION - 1, 0, 0)));
+        assertEquals(6, threads.size());
+        for (Thread thread : threads) {
+            assertSame(worldThread, thread);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.key;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkPopulationSchedulerTest {
+
+    private final static String MESSAGE = "Populating %s chunks with %s threads took: %s ms";
+
+    private static final int SIZE = 64;
+
+    @Test
+    public void testDependentPopulations() {
+        final long[] keys = ChunkPopulationScheduler.getDependentPopulations(5, -3);
+        assertEquals(ChunkPopulationScheduler.PHASES, keys.length);
+        assertEquals(new LongOpenHashSet(new long[] { key(5, -3), key(4, -3), key(5, -4), key(4, -4) }), new LongOpenHashSet(keys));
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, ChunkPopulationScheduler.getPhase((int) (keys[i] >> 32), (int) keys[i]));
+        }
+    }
+
+    @Test
+    public void testCanPopulate() {
+        assertTrue(ChunkPopulationScheduler.canPopulate(0, 0, (x, z) -> x >= 0 && x <= 1 && z >= 0 && z <= 1));
+        assertFalse(ChunkPopulationScheduler.canPopulate(0, 0, (x, z) -> x != 1 || z != 1));
+    }
+
+    @Test
+    public void testRunAfterPopulations() {
+        final ChunkPopulationScheduler scheduler = new ChunkPopulationScheduler(Runnable::run, 1);
+        final LongList order = new LongArrayList();
+        scheduler.populate(key(0, 0), key -> {
+            assertTrue(scheduler.isPopulating());
+            // A populator generating a chunk outside of its region
+            scheduler.runAfterPopulations(() -> {
+                assertFalse(scheduler.isPopulating());
+                scheduler.populate(key(1, 1), order::add);
+            });
+            order.add(key);
+        });
+        assertArrayEquals(new long[] { key(0, 0), key(1, 1) }, order.toLongArray());
+        // Not populating, so the action runs directly
+        scheduler.runAfterPopulations(() -> order.add(key(2, 2)));
+        assertEquals(3, order.size());
+    }
+
+    @Test
+    public void testDeterministic() {
+        final long[] expected = populate(1);
+        for (int threads : new int[] { 2, 4, 8 }) {
+            assertArrayEquals(expected, populate(threads));
+        }
+    }
+
+    // The populations are synthetic, this only measures the scheduling
+    // overhead and the scaling, not the costs of real populators
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            final long time = System.currentTimeMillis();
+            populate(threads);
+            System.out.println(String.format(MESSAGE, SIZE * SIZE, threads, System.currentTimeMillis() - time));
+        }
+    }
+
+    private static long[] populate(int threads) {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final ChunkPopulationScheduler scheduler = new ChunkPopulationScheduler(executor, threads);
+            final long[] cells = new long[(SIZE + 1) * (SIZE + 1)];
+            final AtomicInteger[] busy = new AtomicInteger[cells.length];
+            for (int i = 0; i < busy.length; i++) {
+                busy[i] = new AtomicInteger();
+            }
+            final AtomicBoolean overlap = new AtomicBoolean();
+            final LongList keys = new LongArrayList();
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    keys.add(key(x, z));
+                }
+            }
+            scheduler.populate(keys, key -> {
+                final int x = (int) (key >> 32);
+                final int z = (int) key;
+                final Random random = new Random(key);
+                for (int dx = 0; dx <= 1; dx++) {
+                    for (int dz = 0; dz <= 1; dz++) {
+                        final int index = (x + dx) * (SIZE + 1) + z + dz;
+                        if (busy[index].incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                    }
+                }
+                // The result depends on the order of the populations
+                // that write to the same chunk
+                for (int i = 0; i < 2000; i++) {
+                    final int index = (x + random.nextInt(2)) * (SIZE + 1) + z + random.nextInt(2);
+                    cells[index] = cells[index] * 31 + random.nextInt();
+                }
+                for (int dx = 0; dx <= 1; dx++) {
+                    for (int dz = 0; dz <= 1; dz++) {
+                        busy[(x + dx) * (SIZE + 1) + z + dz].decrementAndGet();
+                    }
+                }
+            });
+            assertFalse(overlap.get());
+            return cells;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.entity.living.player.ObservedChunkManager;
+import org.lanternpowered.server.test.PerformanceTest;
+import org.lanternpowered.server.world.LanternWorld;
+import org.spongepowered.api.world.Dimension;
+
+import java.util.UUID;
+
+public class LightingEngineTest {
+
+    private final static String MESSAGE = "Relighting after %s %s block changes took: %s ms";
+
+    // The test block types: stone, a torch and air
+    private static final short STONE = 1;
+    private static final short TORCH = 2;
+    private static final short AIR = 0;
+
+    // The chunks range from -RADIUS to RADIUS on both axes
+    private static final int RADIUS = 1;
+
+    private final Long2ObjectMap<LanternChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private LightingEngine engine;
+
+    @Before
+    public void setup() {
+        final Dimension dimension = mock(Dimension.class);
+        when(dimension.hasSky()).thenReturn(true);
+        final LanternChunkManager chunkManager = mock(LanternChunkManager.class);
+        when(chunkManager.getChunkIfLoaded(anyInt(), anyInt())).thenAnswer(invocation ->
+                this.chunks.get(LanternChunk.key(invocation.<Integer>getArgument(0), invocation.<Integer>getArgument(1))));
+        final LanternWorld world = mock(LanternWorld.class);
+        when(world.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(world.getDimension()).thenReturn(dimension);
+        when(world.getChunkManager()).thenReturn(chunkManager);
+        when(world.getObservedChunkManager()).thenReturn(mock(ObservedChunkManager.class));
+        for (int x = -RADIUS; x <= RADIUS; x++) {
+            for (int z = -RADIUS; z <= RADIUS; z++) {
+                final LanternChunk chunk = new LanternChunk(world, x, z);
+                chunk.initializeEmpty();
+                this.chunks.put(chunk.getKey(), chunk);
+            }
+        }
+        this.engine = new LightingEngine(world, type -> {
+            switch (type) {
+                case STONE:
+                    return 15; // Opaque
+                case TORCH:
+                    return 14 << 4; // Emits light, but is transparent
+                default:
+                    return 0;
+            }
+        });
+    }
+
+    private LanternChunk getChunk(int x, int z) {
+        return this.chunks.get(LanternChunk.key(x >> 4, z >> 4));
+    }
+
+    private void setType(int x, int y, int z, short type) {
+        final LanternChunk.ChunkSection section = getChunk(x, z).getOrCreateSection(y >> 4);
+        section.types.set(LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf), type);
+        this.engine.queueUpdate(x, y, z);
+    }
+
+    private int getSkyLight(int x, int y, int z) {
+        return getChunk(x, z).getSkyLight(x, y, z);
+    }
+
+    private int getBlockLight(int x, int y, int z) {
+        return getChunk(x, z).getBlockLight(x, y, z);
+    }
+
+    /**
+     * Builds a roof that covers all the loaded chunks.
+     */
+    private int setRoof(int y, short type) {
+        final int min = -RADIUS * 16;
+        final int max = (RADIUS + 1) * 16;
+        for (int x = min; x < max; x++) {
+            for (int z = min; z < max; z++) {
+                setType(x, y, z, type);
+            }
+        }
+        return (max - min) * (max - min);
+    }
+
+    @Test
+    public void testEmptySectionsBelowRoof() {
+        setRoof(100, STONE);
+        this.engine.pulse();
+        assertEquals(15, getSkyLight(5, 120, 5));
+        assertEquals(0, getSkyLight(5, 99, 5));
+        // The sections below the roof don't exist, but they are dark
+        assertEquals(0, getSkyLight(5, 50, 5));
+        assertEquals(0, getSkyLight(-10, 3, 20));
+    }
+
+    @Test
+    public void testHoleInRoof() {
+        setRoof(100, STONE);
+        this.engine.pulse();
+        setType(8, 100, 8, AIR);
+        this.engine.pulse();
+        assertEquals(15, getSkyLight(8, 100, 8));
+        assertEquals(14, getSkyLight(9, 99, 8));
+        // The sky light falls down through the empty sections
+        assertEquals(15, getSkyLight(8, 50, 8));
+        assertEquals(0, getSkyLight(5, 50, 5));
+        // Closing the hole darkens the column again
+        setType(8, 100, 8, STONE);
+        this.engine.pulse();
+        assertEquals(0, getSkyLight(8, 99, 8));
+        assertEquals(0, getSkyLight(8, 50, 8));
+    }
+
+    @Test
+    public void testBlockLight() {
+        setType(8, 64, 8, TORCH);
+        this.engine.pulse();
+        assertEquals(14, getBlockLight(8, 64, 8));
+        assertEquals(11, getBlockLight(8, 64, 11));
+        // Crosses the chunk border
+        assertEquals(5, getBlockLight(8, 64, -1));
+        assertEquals(12, getBlockLight(8, 66, 8));
+        setType(8, 64, 8, AIR);
+        this.engine.pulse();
+        assertEquals(0, getBlockLight(8, 64, 8));
+        assertEquals(0, getBlockLight(8, 64, 11));
+        assertEquals(0, getBlockLight(8, 66, 8));
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        for (int i = 0; i < 5; i++) {
+            long time = System.currentTimeMillis();
+            int changes = setRoof(100, STONE);
+            this.engine.pulse();
+            System.out.println(String.format(MESSAGE, changes, "roof", System.currentTimeMillis() - time));
+            time = System.currentTimeMillis();
+            changes = setRoof(100, AIR);
+            this.engine.pulse();
+            System.out.println(String.format(MESSAGE, changes, "air", System.currentTimeMillis() - time));
+        }
+    }
+}
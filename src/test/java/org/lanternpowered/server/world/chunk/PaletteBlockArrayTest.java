@@ -0,0 +1,163 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PaletteBlockArrayTest {
+
+    private final static String MESSAGE = "%s of %s values with %s types took: %s ms";
+    private final static int CAPACITY = 4096;
+
+    @Test
+    public void testSingleValue() {
+        final PaletteBlockArray array = new PaletteBlockArray(CAPACITY);
+        assertEquals(0, array.getBitsPerValue());
+        assertEquals(0, array.getNonAirCount());
+        assertEquals(0, array.set(10, (short) 16));
+        assertEquals(PaletteBlockArray.MIN_BITS, array.getBitsPerValue());
+        assertEquals(1, array.getNonAirCount());
+        // Filling the array with a single type should result in a single value again
+        for (int i = 0; i < CAPACITY; i++) {
+            array.set(i, (short) 32);
+        }
+        assertEquals(0, array.getBitsPerValue());
+        assertEquals(CAPACITY, array.getNonAirCount());
+        assertEquals(0, new PaletteBlockArray(new short[CAPACITY]).getBitsPerValue());
+    }
+
+    @Test
+    public void testResize() {
+        testRandom(1);
+        testRandom(16);
+        testRandom(17);
+        testRandom(256);
+        testRandom(257);
+        testRandom(2000);
+    }
+
+    private static void testRandom(int types) {
+        final Random random = new Random(types);
+        final short[] expected = new short[CAPACITY];
+        final PaletteBlockArray array = new PaletteBlockArray(CAPACITY);
+        for (int i = 0; i < CAPACITY * 4; i++) {
+            final int index = random.nextInt(CAPACITY);
+            final short type = (short) (random.nextInt(types) << 4);
+            assertEquals(expected[index], array.set(index, type));
+            expected[index] = type;
+        }
+        assertArrayEquals(expected, array.toArray());
+        assertArrayEquals(expected, array.copy().toArray());
+        assertArrayEquals(expected, new PaletteBlockArray(expected).toArray());
+        int nonAirCount = 0;
+        for (short type : expected) {
+            if (type != 0) {
+                nonAirCount++;
+            }
+        }
+        assertEquals(nonAirCount, array.getNonAirCount());
+        assertEquals(nonAirCount, new PaletteBlockArray(expected).getNonAirCount());
+    }
+
+    @Test
+    public void testConcurrentGet() throws Exception {
+        final PaletteBlockArray array = new PaletteBlockArray(CAPACITY);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Readers don't hold a lock, they may never see a palette index as a type
+        final Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    for (int i = 0; i < 64; i++) {
+                        final short type = array.get(i);
+                        if ((type & 0xf) != 0) {
+                            throw new IllegalStateException("Invalid type: " + type);
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        try {
+            for (int j = 0; j < 200000 && failure.get() == null; j++) {
+                // Switch between the single value and the palette
+                array.set(1, (short) (2 << 4));
+                array.set(1, (short) 0);
+                if (j % 1000 == 0) {
+                    // Switch between the palette and the global representation
+                    for (int i = 0; i < 300; i++) {
+                        array.set(i, (short) ((i + 1) << 4));
+                    }
+                    for (int i = 0; i < 300; i++) {
+                        array.set(i, (short) 0);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testPerformance() {
+        for (int types : new int[] { 4, 64, 1000 }) {
+            final Random random = new Random(0L);
+            final short[] values = new short[CAPACITY];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (short) (random.nextInt(types) << 4);
+            }
+            final PaletteBlockArray array = new PaletteBlockArray(values);
+            long count = 0;
+            long time = System.currentTimeMillis();
+            for (int j = 0; j < 1000; j++) {
+                for (int i = 0; i < CAPACITY; i++) {
+                    count += values[i];
+                }
+            }
+            System.out.println(String.format(MESSAGE, "Short array get", CAPACITY * 1000, types, System.currentTimeMillis() - time));
+            time = System.currentTimeMillis();
+            for (int j = 0; j < 1000; j++) {
+                for (int i = 0; i < CAPACITY; i++) {
+                    count -= array.get(i);
+                }
+            }
+            System.out.println(String.format(MESSAGE, "Palette array get", CAPACITY * 1000, types, System.currentTimeMillis() - time));
+            assertEquals(0L, count);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.gen.overworld;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OverworldTerrainGeneratorTest {
+
+    private final static String MESSAGE = "Generating %s chunks with %s threads took: %s ms, %s chunks/s";
+
+    private static final short STONE = 1;
+    private static final short WATER = 2;
+    private static final short BEDROCK = 3;
+    private static final short GRASS = 4;
+    private static final short DIRT = 5;
+    private static final short SAND = 6;
+
+    private static final int SEA_LEVEL = 62;
+    private static final int HEIGHT = 256;
+    private static final int SIZE = 16;
+
+    private static OverworldTerrainGenerator createGenerator(long seed) {
+        return new OverworldTerrainGenerator(seed, SEA_LEVEL, HEIGHT, STONE, WATER, BEDROCK, new OverworldTerrainGenerator.Biome[] {
+                new OverworldTerrainGenerator.Biome(0.0, 0.0, -0.6, -1.0, 0.05, SAND, SAND),
+                new OverworldTerrainGenerator.Biome(0.0, 0.0, 0.3, 0.15, 0.05, GRASS, DIRT),
+                new OverworldTerrainGenerator.Biome(0.0, 0.0, 0.6, 1.0, 0.5, GRASS, DIRT),
+        });
+    }
+
+    private static short[][] generate(OverworldTerrainGenerator generator, int chunkX, int chunkZ, int[] nonAirCount) {
+        final short[][] sections = new short[HEIGHT >> 4][4096];
+        generator.generate(chunkX, chunkZ, sections, nonAirCount);
+        return sections;
+    }
+
+    @Test
+    public void testTerrain() {
+        final OverworldTerrainGenerator generator = createGenerator(0L);
+        final int[] nonAirCount = new int[HEIGHT >> 4];
+        final short[][] sections = generate(generator, 3, -7, nonAirCount);
+        for (int i = 0; i < sections.length; i++) {
+            int count = 0;
+            for (short type : sections[i]) {
+                if (type != 0) {
+                    count++;
+                }
+            }
+            assertEquals(count, nonAirCount[i]);
+        }
+        for (int column = 0; column < 256; column++) {
+            // The bottom is always bedrock and the top is always air
+            assertEquals(BEDROCK, sections[0][column]);
+            assertEquals(0, sections[sections.length - 1][0xf00 | column]);
+            // Everything below the sea level is filled
+            for (int y = 0; y < SEA_LEVEL; y++) {
+                assertTrue(sections[y >> 4][(y & 0xf) << 8 | column] != 0);
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministic() throws Exception {
+        final OverworldTerrainGenerator generator = createGenerator(1234L);
+        final List<short[][]> expected = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            expected.add(generate(createGenerator(1234L), i, -i, new int[HEIGHT >> 4]));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<short[][]>> futures = new ArrayList<>();
+            for (int i = 0; i < SIZE; i++) {
+                final int chunk = i;
+                futures.add(executor.submit(() -> generate(generator, chunk, -chunk, new int[HEIGHT >> 4])));
+            }
+            for (int i = 0; i < SIZE; i++) {
+                final short[][] sections = futures.get(i).get();
+                for (int j = 0; j < sections.length; j++) {
+                    assertArrayEquals(expected.get(i)[j], sections[j]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() throws Exception {
+        final OverworldTerrainGenerator generator = createGenerator(0L);
+        final int threads = Runtime.getRuntime().availableProcessors();
+        // Warm up
+        generateChunks(generator, 1, 0);
+        for (int count : threads == 1 ? new int[] { 1 } : new int[] { 1, threads }) {
+            final long time = System.currentTimeMillis();
+            final int chunks = generateChunks(generator, count, SIZE * 4);
+            final long duration = Math.max(System.currentTimeMillis() - time, 1);
+            System.out.println(String.format(MESSAGE, chunks, count, duration, chunks * 1000L / duration));
+        }
+    }
+
+    private static int generateChunks(OverworldTerrainGenerator generator, int threads, int offset) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    final int chunkX = x + offset;
+                    final int chunkZ = z;
+                    futures.add(executor.submit(() -> generate(generator, chunkX, chunkZ, new int[HEIGHT >> 4])));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return futures.size();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
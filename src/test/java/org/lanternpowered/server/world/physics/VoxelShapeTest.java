@@ -0,0 +1,135 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.physics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.lanternpowered.server.test.PerformanceTest;
+
+public class VoxelShapeTest {
+
+    private final static String MESSAGE = "Colliding %s boxes %s times took: %s ms, %s ns per box";
+
+    private static final int AXIS_X = 0;
+    private static final int AXIS_Y = 1;
+    private static final int AXIS_Z = 2;
+
+    private static final double EPSILON = 1e-9;
+
+    // A bottom slab
+    private static final VoxelShape SLAB = new VoxelShape(new double[] { 0.0, 0.0, 0.0, 1.0, 0.5, 1.0 });
+
+    @Test
+    public void testClipFalling() {
+        // A item box that is falling onto a block at the origin
+        final double motion = VoxelShape.FULL_CUBE.clip(AXIS_Y, 0, 0, 0,
+                0.375, 1.5, 0.375, 0.625, 1.75, 0.625, -1.0);
+        assertEquals(-0.5, motion, EPSILON);
+        // The same box above a slab
+        assertEquals(-1.0, SLAB.clip(AXIS_Y, 0, 0, 0,
+                0.375, 1.5, 0.375, 0.625, 1.75, 0.625, -1.0), EPSILON);
+        assertEquals(-0.75, SLAB.clip(AXIS_Y, 0, 0, 0,
+                0.375, 1.25, 0.375, 0.625, 1.5, 0.625, -1.0), EPSILON);
+    }
+
+    @Test
+    public void testClipIgnoresBoxesOutsideOfPath() {
+        // The block is next to the box, so falling isn't blocked
+        assertEquals(-1.0, VoxelShape.FULL_CUBE.clip(AXIS_Y, 1, 0, 0,
+                0.375, 1.5, 0.375, 0.625, 1.75, 0.625, -1.0), EPSILON);
+        // Moving away from the block isn't blocked
+        assertEquals(1.0, VoxelShape.FULL_CUBE.clip(AXIS_Y, 0, 0, 0,
+                0.375, 1.5, 0.375, 0.625, 1.75, 0.625, 1.0), EPSILON);
+        assertEquals(-1.0, VoxelShape.EMPTY.clip(AXIS_Y, 0, 0, 0,
+                0.375, 1.5, 0.375, 0.625, 1.75, 0.625, -1.0), EPSILON);
+    }
+
+    @Test
+    public void testClipHorizontal() {
+        assertEquals(0.25, VoxelShape.FULL_CUBE.clip(AXIS_X, 1, 0, 0,
+                0.5, 0.25, 0.25, 0.75, 0.5, 0.5, 1.0), EPSILON);
+        assertEquals(-0.25, VoxelShape.FULL_CUBE.clip(AXIS_Z, 0, 0, -1,
+                0.25, 0.25, 0.25, 0.5, 0.5, 0.5, -1.0), EPSILON);
+        // The box is above the slab, so it can pass
+        assertEquals(1.0, SLAB.clip(AXIS_X, 1, 0, 0,
+                0.5, 0.5, 0.25, 0.75, 0.75, 0.5, 1.0), EPSILON);
+    }
+
+    @Test
+    public void testIntersects() {
+        assertTrue(VoxelShape.FULL_CUBE.intersects(0, 0, 0, 0.25, 0.9, 0.25, 0.5, 1.1, 0.5));
+        // Touching boxes don't intersect
+        assertFalse(VoxelShape.FULL_CUBE.intersects(0, 0, 0, 0.25, 1.0, 0.25, 0.5, 1.25, 0.5));
+        assertFalse(SLAB.intersects(0, 0, 0, 0.25, 0.6, 0.25, 0.5, 0.8, 0.5));
+        assertFalse(VoxelShape.EMPTY.intersects(0, 0, 0, 0.0, 0.0, 0.0, 1.0, 1.0, 1.0));
+    }
+
+    @Test
+    @Category(PerformanceTest.class)
+    public void testPerformance() {
+        // Resolve the falling motion of item boxes against the 3x3x3 blocks around them
+        final int boxes = 10000;
+        final int iterations = 20;
+        double result = 0;
+        // Warm up
+        for (int i = 0; i < 5; i++) {
+            result += collideAll(boxes);
+        }
+        final long time = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            result += collideAll(boxes);
+        }
+        final long duration = System.nanoTime() - time;
+        System.out.println(String.format(MESSAGE, boxes, iterations, duration / 1000000L,
+                duration / ((long) boxes * iterations)));
+        assertTrue(result != 0);
+    }
+
+    private static double collideAll(int boxes) {
+        double total = 0;
+        for (int i = 0; i < boxes; i++) {
+            final double x = (i % 100) + 0.375;
+            final double z = (i / 100) + 0.375;
+            final double y = 1.0 + (i % 7) * 0.1;
+            double motion = -0.5;
+            for (int bx = -1; bx <= 1; bx++) {
+                for (int by = -1; by <= 1; by++) {
+                    for (int bz = -1; bz <= 1; bz++) {
+                        final VoxelShape shape = by < 0 ? ((i & 1) == 0 ? VoxelShape.FULL_CUBE : SLAB) : VoxelShape.EMPTY;
+                        motion = shape.clip(AXIS_Y, (int) x + bx, by, (int) z + bz,
+                                x, y, z, x + 0.25, y + 0.25, z + 0.25, motion);
+                    }
+                }
+            }
+            total += motion;
+        }
+        return total;
+    }
+}
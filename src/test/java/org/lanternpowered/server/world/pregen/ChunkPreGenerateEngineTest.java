@@ -0,0 +1,89 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.pregen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.key;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyX;
+import static org.lanternpowered.server.world.ChunkRegionPartitioner.keyZ;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ChunkPreGenerateEngineTest {
+
+    private static long getDistanceSquared(long region, int centerX, int centerZ) {
+        final long dx = keyX(region) * 32 + 16 - centerX;
+        final long dz = keyZ(region) * 32 + 16 - centerZ;
+        return dx * dx + dz * dz;
+    }
+
+    @Test
+    public void testRegions() {
+        final long[] regions = ChunkPreGenerateEngine.getRegions(-40, -40, 40, 40, 0, 0);
+        final LongSet expected = new LongOpenHashSet();
+        for (int x = -2; x <= 1; x++) {
+            for (int z = -2; z <= 1; z++) {
+                expected.add(key(x, z));
+            }
+        }
+        assertEquals(expected.size(), regions.length);
+        for (long region : regions) {
+            assertTrue(expected.remove(region));
+        }
+    }
+
+    @Test
+    public void testOrder() {
+        final int centerX = 70;
+        final int centerZ = -90;
+        final long[] regions = ChunkPreGenerateEngine.getRegions(centerX - 100, centerZ - 100,
+                centerX + 100, centerZ + 100, centerX, centerZ);
+        // The region that contains the center comes first
+        assertEquals(key(centerX >> 5, centerZ >> 5), regions[0]);
+        for (int i = 1; i < regions.length; i++) {
+            final long previous = getDistanceSquared(regions[i - 1], centerX, centerZ);
+            final long current = getDistanceSquared(regions[i], centerX, centerZ);
+            assertTrue(previous < current || (previous == current && regions[i - 1] < regions[i]));
+        }
+    }
+
+    @Test
+    public void testStableOrder() {
+        // The regions around the center all have the same distance, the order
+        // must still be the same every time to resume the progress, ties are
+        // sorted by the region key
+        final long[] regions = ChunkPreGenerateEngine.getRegions(-40, -40, 40, 40, 0, 0);
+        assertArrayEquals(new long[] { key(-1, 0), key(-1, -1), key(0, 0), key(0, -1) },
+                Arrays.copyOf(regions, 4));
+        assertArrayEquals(regions, ChunkPreGenerateEngine.getRegions(-40, -40, 40, 40, 0, 0));
+    }
+}
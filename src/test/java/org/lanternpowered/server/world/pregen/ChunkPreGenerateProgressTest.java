@@ -0,0 +1,94 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.pregen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ChunkPreGenerateProgressTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path saveProgress() throws Exception {
+        final Path worldFolder = this.folder.getRoot().toPath();
+        final ChunkPreGenerateProgress progress = ChunkPreGenerateProgress.create(worldFolder, 10, -20, 100);
+        progress.regionIndex = 5;
+        progress.generated = 1200;
+        progress.skipped = 34;
+        progress.save();
+        return worldFolder;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Path worldFolder = saveProgress();
+        final ChunkPreGenerateProgress progress = ChunkPreGenerateProgress.load(worldFolder, 10, -20, 100);
+        assertEquals(5, progress.regionIndex);
+        assertEquals(1200, progress.generated);
+        assertEquals(34, progress.skipped);
+    }
+
+    @Test
+    public void testMissing() throws Exception {
+        final ChunkPreGenerateProgress progress = ChunkPreGenerateProgress.load(this.folder.getRoot().toPath(), 10, -20, 100);
+        assertEquals(0, progress.regionIndex);
+        assertEquals(0, progress.generated);
+        assertEquals(0, progress.skipped);
+    }
+
+    @Test
+    public void testDifferentArea() throws Exception {
+        final Path worldFolder = saveProgress();
+        // A different center or radius is a different pre-generation, start from the beginning
+        for (ChunkPreGenerateProgress progress : new ChunkPreGenerateProgress[] {
+                ChunkPreGenerateProgress.load(worldFolder, 11, -20, 100),
+                ChunkPreGenerateProgress.load(worldFolder, 10, -21, 100),
+                ChunkPreGenerateProgress.load(worldFolder, 10, -20, 99) }) {
+            assertEquals(0, progress.regionIndex);
+            assertEquals(0, progress.generated);
+            assertEquals(0, progress.skipped);
+        }
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        final Path worldFolder = saveProgress();
+        // The temporary file should be moved to the progress file
+        assertTrue(Files.exists(worldFolder.resolve("pregen.dat")));
+        assertFalse(Files.exists(worldFolder.resolve("pregen.dat.tmp")));
+        ChunkPreGenerateProgress.load(worldFolder, 10, -20, 100).delete();
+        assertFalse(Files.exists(worldFolder.resolve("pregen.dat")));
+    }
+}
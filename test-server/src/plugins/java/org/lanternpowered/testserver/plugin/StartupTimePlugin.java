@@ -0,0 +1,76 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.testserver.plugin;
+
+import com.google.inject.Inject;
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.game.state.GameInitializationEvent;
+import org.spongepowered.api.event.game.state.GamePostInitializationEvent;
+import org.spongepowered.api.event.game.state.GamePreInitializationEvent;
+import org.spongepowered.api.event.game.state.GameStartedServerEvent;
+import org.spongepowered.api.plugin.Plugin;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs the wall-clock time since the launch of the server at the different
+ * states. Compare the times with and without the {@code -Dlantern.registry.serial=true}
+ * flag to measure the concurrent registration of the registry modules.
+ */
+@Plugin(id = "startup_time_test", name = "StartupTimeTest", description = "A plugin to measure the startup time.")
+public class StartupTimePlugin {
+
+    private final static String MESSAGE = "Reached the %s state after %s ms (serial registration: %s)";
+
+    @Inject
+    private Logger logger;
+
+    private void log(String state) {
+        final long time = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        this.logger.info(String.format(MESSAGE, state, time, Boolean.getBoolean("lantern.registry.serial")));
+    }
+
+    @Listener
+    public void onGamePreInitialization(GamePreInitializationEvent event) {
+        log("pre initialization");
+    }
+
+    @Listener
+    public void onGameInitialization(GameInitializationEvent event) {
+        log("initialization");
+    }
+
+    @Listener
+    public void onGamePostInitialization(GamePostInitializationEvent event) {
+        log("post initialization");
+    }
+
+    @Listener
+    public void onGameStartedServer(GameStartedServerEvent event) {
+        log("started server");
+    }
+}